@@ -0,0 +1,56 @@
+package com.agrimatch.common.api;
+
+import java.util.List;
+
+/**
+ * 增量同步结果：upserts 为新增/修改后仍在架的记录，deletedIds 为已删除/下架/到期的记录；
+ * 下次请求带上 version，hasMore 为 true 时应立即继续拉取
+ */
+public class ChangeFeed<T> {
+    private List<T> upserts;
+    private List<Long> deletedIds;
+    private String version;
+    private boolean hasMore;
+
+    public ChangeFeed() {
+    }
+
+    public ChangeFeed(List<T> upserts, List<Long> deletedIds, String version, boolean hasMore) {
+        this.upserts = upserts;
+        this.deletedIds = deletedIds;
+        this.version = version;
+        this.hasMore = hasMore;
+    }
+
+    public List<T> getUpserts() {
+        return upserts;
+    }
+
+    public void setUpserts(List<T> upserts) {
+        this.upserts = upserts;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+
+    public void setDeletedIds(List<Long> deletedIds) {
+        this.deletedIds = deletedIds;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,55 @@
+package com.agrimatch.common.api;
+
+import java.util.List;
+
+/**
+ * 游标分页结果：nextCursor 为空表示没有下一页
+ */
+public class CursorResult<T> {
+    private List<T> list;
+    private String nextCursor;
+    private boolean hasMore;
+    private int size;
+
+    public CursorResult() {
+    }
+
+    public CursorResult(List<T> list, String nextCursor, int size) {
+        this.list = list;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+        this.size = size;
+    }
+
+    public List<T> getList() {
+        return list;
+    }
+
+    public void setList(List<T> list) {
+        this.list = list;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
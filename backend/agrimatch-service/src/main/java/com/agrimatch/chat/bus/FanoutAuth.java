@@ -0,0 +1,76 @@
+package com.agrimatch.chat.bus;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * broker 与节点之间的握手：共享密钥的挑战-应答，密钥本身不上线路
+ * - broker 发 16 字节随机数，节点回 HMAC-SHA256(密钥, 随机数)，broker 校验通过回 OK 后才开始转发
+ * - 握手限时，超时或校验失败直接断开
+ */
+final class FanoutAuth {
+
+    static final int HANDSHAKE_TIMEOUT_MS = 5000;
+    private static final int NONCE_BYTES = 16;
+    private static final int MAC_BYTES = 32;
+    private static final int OK = 0x4F4B;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private FanoutAuth() {
+    }
+
+    static void requireSecret(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("推送总线未配置共享密钥（agrimatch.ws.bus.secret / AGRIMATCH_WS_BUS_SECRET）");
+        }
+    }
+
+    /**
+     * broker 端：校验通过返回 true，否则由调用方断开
+     */
+    static boolean challenge(Socket s, DataInputStream in, DataOutputStream out, String secret) throws IOException {
+        byte[] nonce = new byte[NONCE_BYTES];
+        RANDOM.nextBytes(nonce);
+        s.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+        out.write(nonce);
+        out.flush();
+        byte[] answer = new byte[MAC_BYTES];
+        in.readFully(answer);
+        if (!MessageDigest.isEqual(answer, mac(secret, nonce))) return false;
+        out.writeInt(OK);
+        out.flush();
+        s.setSoTimeout(0);
+        return true;
+    }
+
+    /**
+     * 节点端：broker 拒绝或超时抛 IOException
+     */
+    static void respond(Socket s, DataInputStream in, DataOutputStream out, String secret) throws IOException {
+        s.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+        byte[] nonce = new byte[NONCE_BYTES];
+        in.readFully(nonce);
+        out.write(mac(secret, nonce));
+        out.flush();
+        if (in.readInt() != OK) throw new IOException("broker 握手失败");
+        s.setSoTimeout(0);
+    }
+
+    private static byte[] mac(String secret, byte[] nonce) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(nonce);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
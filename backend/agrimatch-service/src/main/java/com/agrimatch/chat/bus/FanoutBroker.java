@@ -0,0 +1,199 @@
+package com.agrimatch.chat.bus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TcpFanoutBus 的转发服务：把任一节点发来的帧原样转给其他所有节点（不回发给来源节点、不解析内容）
+ * 每个节点一个有界发送队列 + 写线程，慢节点只丢自己的帧，不拖住其他节点
+ * 节点接入先过共享密钥握手（见 FanoutAuth），通过后才收发；默认只监听 127.0.0.1，跨机部署时指定内网地址
+ * 独立运行：AGRIMATCH_WS_BUS_SECRET=... java -cp agrimatch-service/target/classes com.agrimatch.chat.bus.FanoutBroker [port] [bindAddress]
+ * 也可在测试里 new 出来 start() 作为本地替身
+ */
+public class FanoutBroker implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(FanoutBroker.class);
+
+    public static final int DEFAULT_PORT = 7711;
+    public static final String DEFAULT_BIND_ADDRESS = "127.0.0.1";
+    private static final int PEER_QUEUE_CAPACITY = 10_000;
+
+    private final String bindAddress;
+    private final int port;
+    private final String secret;
+    private final Set<Peer> peers = ConcurrentHashMap.newKeySet();
+    private volatile ServerSocket server;
+    private volatile boolean running;
+
+    public FanoutBroker(String bindAddress, int port, String secret) {
+        FanoutAuth.requireSecret(secret);
+        this.bindAddress = bindAddress != null && !bindAddress.isBlank() ? bindAddress : DEFAULT_BIND_ADDRESS;
+        this.port = port;
+        this.secret = secret;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String bind = args.length > 1 ? args[1] : DEFAULT_BIND_ADDRESS;
+        FanoutBroker broker = new FanoutBroker(bind, port, System.getenv("AGRIMATCH_WS_BUS_SECRET"));
+        broker.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(broker::close));
+        Thread.currentThread().join();
+    }
+
+    public void start() throws IOException {
+        ServerSocket ss = new ServerSocket();
+        ss.setReuseAddress(true);
+        ss.bind(new InetSocketAddress(bindAddress, port));
+        server = ss;
+        running = true;
+        Thread acceptor = new Thread(this::accept, "fanout-broker-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("[FanoutBroker] 监听 {}:{}", bindAddress, getPort());
+    }
+
+    /**
+     * 实际监听的端口（构造时传 0 则由系统分配）
+     */
+    public int getPort() {
+        ServerSocket ss = server;
+        return ss != null ? ss.getLocalPort() : port;
+    }
+
+    public int peerCount() {
+        return peers.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            ServerSocket ss = server;
+            if (ss != null) ss.close();
+        } catch (IOException ignore) {
+        }
+        for (Peer p : peers) {
+            p.close();
+        }
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket s = server.accept();
+                s.setTcpNoDelay(true);
+                new Peer(s).start();
+            } catch (IOException e) {
+                if (running) log.warn("[FanoutBroker] accept 失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void relay(Peer from, byte[] frame) {
+        for (Peer p : peers) {
+            if (p != from) p.offer(frame);
+        }
+    }
+
+    private final class Peer {
+        final Socket socket;
+        final BlockingQueue<byte[]> outbox = new ArrayBlockingQueue<>(PEER_QUEUE_CAPACITY);
+        long dropped;
+
+        Peer(Socket socket) {
+            this.socket = socket;
+        }
+
+        /**
+         * 握手在读线程里做，不占 accept 线程；通过后才加入转发名单并启动写线程
+         */
+        void start() {
+            Thread reader = new Thread(this::read, "fanout-broker-read");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        void offer(byte[] frame) {
+            if (!outbox.offer(frame)) {
+                synchronized (this) {
+                    dropped++;
+                    if (dropped == 1 || dropped % 1000 == 0) {
+                        log.warn("[FanoutBroker] 节点 {} 消费过慢，累计丢弃 {} 帧", socket.getRemoteSocketAddress(), dropped);
+                    }
+                }
+            }
+        }
+
+        void read() {
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                if (!FanoutAuth.challenge(socket, in, out, secret)) {
+                    log.warn("[FanoutBroker] 节点 {} 握手失败，已断开", socket.getRemoteSocketAddress());
+                    return;
+                }
+                peers.add(this);
+                log.info("[FanoutBroker] 节点接入 {}，当前 {} 个节点", socket.getRemoteSocketAddress(), peers.size());
+                Thread writer = new Thread(this::write, "fanout-broker-write");
+                writer.setDaemon(true);
+                writer.start();
+                while (running) {
+                    int len = in.readInt();
+                    if (len < 0 || len > FanoutCodec.MAX_FRAME_BYTES) throw new IOException("bad frame length " + len);
+                    byte[] frame = new byte[len];
+                    in.readFully(frame);
+                    relay(this, frame);
+                }
+            } catch (IOException e) {
+                // 节点断开
+            } finally {
+                close();
+            }
+        }
+
+        void write() {
+            try {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                while (running && !socket.isClosed()) {
+                    byte[] frame = outbox.poll(1, TimeUnit.SECONDS);
+                    if (frame == null) continue;
+                    do {
+                        out.writeInt(frame.length);
+                        out.write(frame);
+                    } while ((frame = outbox.poll()) != null);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // 节点断开
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            if (peers.remove(this)) {
+                log.info("[FanoutBroker] 节点断开 {}，当前 {} 个节点", socket.getRemoteSocketAddress(), peers.size());
+            }
+            try {
+                socket.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.agrimatch.chat.bus;
+
+import java.util.function.Consumer;
+
+/**
+ * WebSocket 推送总线：任一节点 publish 的推送由持有目标连接的节点下发
+ * - local：单节点，直接交给本机的处理器
+ * - tcp：各节点连到同一个 FanoutBroker，推送先在本机下发，再经 broker 转给其他节点
+ * 通过 agrimatch.ws.bus.type 选择，见 FanoutBusConfig
+ */
+public interface FanoutBus {
+
+    void publish(FanoutEnvelope envelope);
+
+    /**
+     * 注册本机的下发处理器（ChatWebSocketHandler），只支持一个
+     */
+    void subscribe(Consumer<FanoutEnvelope> handler);
+}
@@ -0,0 +1,32 @@
+package com.agrimatch.chat.bus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 推送总线配置：agrimatch.ws.bus.type 为 tcp 时连到 broker（多节点部署），否则只在本机下发
+ */
+@Configuration
+public class FanoutBusConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(FanoutBusConfig.class);
+
+    @Bean
+    public FanoutBus fanoutBus(@Value("${agrimatch.ws.bus.type:local}") String type,
+                               @Value("${agrimatch.ws.bus.host:127.0.0.1}") String host,
+                               @Value("${agrimatch.ws.bus.port:7711}") int port,
+                               @Value("${agrimatch.ws.bus.secret:}") String secret,
+                               @Value("${agrimatch.ws.bus.queue-capacity:50000}") int queueCapacity) {
+        if ("tcp".equalsIgnoreCase(type)) {
+            log.info("[FanoutBus] 使用 broker 转发推送: {}:{}", host, port);
+            TcpFanoutBus bus = new TcpFanoutBus(host, port, secret, queueCapacity);
+            bus.start();
+            return bus;
+        }
+        log.info("[FanoutBus] 单节点模式，推送只在本机下发");
+        return new LocalFanoutBus();
+    }
+}
@@ -0,0 +1,64 @@
+package com.agrimatch.chat.bus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 推送在节点间传输的二进制格式（不含外层长度前缀，broker 只按长度前缀转发、不解析）：
+ * userCount:int, userIds:long*, hasSupply:bool, supplyId:long, hasExclude:bool, excludeSessionId:utf, critical:bool,
+ * payloadLen:int, payload:utf8
+ */
+final class FanoutCodec {
+
+    /** 单帧上限，防止对端发来异常长度时按长度分配内存 */
+    static final int MAX_FRAME_BYTES = 8 * 1024 * 1024;
+
+    private FanoutCodec() {
+    }
+
+    static byte[] encode(FanoutEnvelope e) {
+        byte[] payload = e.payload().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length + 16 + e.userIds().length * 8);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(e.userIds().length);
+            for (long id : e.userIds()) {
+                out.writeLong(id);
+            }
+            out.writeBoolean(e.supplyId() != null);
+            out.writeLong(e.supplyId() != null ? e.supplyId() : 0L);
+            out.writeBoolean(e.excludeSessionId() != null);
+            out.writeUTF(e.excludeSessionId() != null ? e.excludeSessionId() : "");
+            out.writeBoolean(e.critical());
+            out.writeInt(payload.length);
+            out.write(payload);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static FanoutEnvelope decode(byte[] frame) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        int n = in.readInt();
+        if (n < 0 || n > frame.length / 8) throw new IOException("bad user count " + n);
+        long[] userIds = new long[n];
+        for (int i = 0; i < n; i++) {
+            userIds[i] = in.readLong();
+        }
+        boolean hasSupply = in.readBoolean();
+        long supplyId = in.readLong();
+        boolean hasExclude = in.readBoolean();
+        String exclude = in.readUTF();
+        boolean critical = in.readBoolean();
+        int len = in.readInt();
+        if (len < 0 || len > frame.length) throw new IOException("bad payload length " + len);
+        byte[] payload = new byte[len];
+        in.readFully(payload);
+        return new FanoutEnvelope(userIds, hasSupply ? supplyId : null, hasExclude ? exclude : null, critical,
+                new String(payload, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,36 @@
+package com.agrimatch.chat.bus;
+
+import java.util.Arrays;
+
+/**
+ * 一次推送："把 payload 发给这些用户的全部连接"或"发给正在查看某供应的连接"
+ * payload 是已序列化好的 WebSocket 文本帧，每个事件只序列化一次，各节点原样下发
+ *
+ * @param userIds          目标用户，按供应推送时为空数组
+ * @param supplyId         目标供应（发给订阅了它的连接），按用户推送时为 null
+ * @param excludeSessionId 不发给这个连接（发送方自己的连接），可为 null
+ * @param critical         连接发送队列满时是否必须送达（聊天消息、报价/合同状态）；行情、通知类可丢
+ */
+public record FanoutEnvelope(long[] userIds, Long supplyId, String excludeSessionId, boolean critical, String payload) {
+
+    public static FanoutEnvelope toUsers(String payload, Long... userIds) {
+        long[] ids = new long[userIds.length];
+        int n = 0;
+        for (Long id : userIds) {
+            if (id != null) ids[n++] = id;
+        }
+        return new FanoutEnvelope(n == ids.length ? ids : Arrays.copyOf(ids, n), null, null, true, payload);
+    }
+
+    public static FanoutEnvelope toSupplyWatchers(String payload, Long supplyId) {
+        return new FanoutEnvelope(new long[0], supplyId, null, false, payload);
+    }
+
+    public FanoutEnvelope excluding(String sessionId) {
+        return new FanoutEnvelope(userIds, supplyId, sessionId, critical, payload);
+    }
+
+    public FanoutEnvelope nonCritical() {
+        return new FanoutEnvelope(userIds, supplyId, excludeSessionId, false, payload);
+    }
+}
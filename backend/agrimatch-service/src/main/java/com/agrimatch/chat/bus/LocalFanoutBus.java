@@ -0,0 +1,22 @@
+package com.agrimatch.chat.bus;
+
+import java.util.function.Consumer;
+
+/**
+ * 单节点：publish 直接在调用线程交给本机处理器
+ */
+public class LocalFanoutBus implements FanoutBus {
+
+    private volatile Consumer<FanoutEnvelope> handler;
+
+    @Override
+    public void publish(FanoutEnvelope envelope) {
+        Consumer<FanoutEnvelope> h = handler;
+        if (h != null) h.accept(envelope);
+    }
+
+    @Override
+    public void subscribe(Consumer<FanoutEnvelope> handler) {
+        this.handler = handler;
+    }
+}
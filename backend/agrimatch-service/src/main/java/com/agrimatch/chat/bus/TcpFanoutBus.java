@@ -0,0 +1,183 @@
+package com.agrimatch.chat.bus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 多节点：各节点连到同一个 FanoutBroker
+ * - publish 先在调用线程交给本机处理器（本机的连接不绕网络），再编码一次放入发送队列，由后台线程写给 broker
+ * - broker 把帧转发给其他节点，本节点的读线程解码后交给本机处理器；没有目标连接的节点直接丢弃
+ * - 连上 broker 先过共享密钥握手（见 FanoutAuth）
+ * - 与 broker 断开时自动重连（1s 起指数退避，最长 30s）；断开期间的推送在队列里等待，队列满时丢弃并计数
+ * - 已取出但因连接中断没写成功的帧也计入丢弃（不重发，避免对端重复下发）
+ */
+public class TcpFanoutBus implements FanoutBus, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(TcpFanoutBus.class);
+
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final String host;
+    private final int port;
+    private final String secret;
+    private final BlockingQueue<byte[]> outbox;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread io;
+    private volatile Consumer<FanoutEnvelope> handler;
+    private volatile Socket socket;
+    private volatile boolean running = true;
+
+    public TcpFanoutBus(String host, int port, String secret, int queueCapacity) {
+        FanoutAuth.requireSecret(secret);
+        this.host = host;
+        this.port = port;
+        this.secret = secret;
+        this.outbox = new ArrayBlockingQueue<>(queueCapacity);
+        this.io = new Thread(this::run, "fanout-bus-writer");
+        this.io.setDaemon(true);
+    }
+
+    public void start() {
+        io.start();
+    }
+
+    @Override
+    public void publish(FanoutEnvelope envelope) {
+        Consumer<FanoutEnvelope> h = handler;
+        if (h != null) h.accept(envelope);
+        if (!outbox.offer(FanoutCodec.encode(envelope))) {
+            long n = dropped.incrementAndGet();
+            if (n == 1 || n % 1000 == 0) log.warn("[FanoutBus] 发往 broker 的队列已满，累计丢弃 {} 条推送", n);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<FanoutEnvelope> handler) {
+        this.handler = handler;
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public boolean isConnected() {
+        Socket s = socket;
+        return s != null && s.isConnected() && !s.isClosed();
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        closeSocket();
+        io.interrupt();
+    }
+
+    private void run() {
+        long backoff = 1000;
+        while (running) {
+            Socket s = new Socket();
+            try {
+                s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+                s.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+                FanoutAuth.respond(s, in, out, secret);
+                socket = s;
+                log.info("[FanoutBus] 已连接 broker {}:{}", host, port);
+                backoff = 1000;
+                Thread reader = new Thread(() -> read(s, in), "fanout-bus-reader");
+                reader.setDaemon(true);
+                reader.start();
+                write(s, out);
+            } catch (IOException e) {
+                if (running) log.warn("[FanoutBus] 与 broker {}:{} 的连接中断: {}，{} ms 后重连", host, port, e.getMessage(), backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                closeSocket();
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+        }
+    }
+
+    private void write(Socket s, DataOutputStream out) throws IOException, InterruptedException {
+        while (running && !s.isClosed()) {
+            byte[] frame = outbox.poll(1, TimeUnit.SECONDS);
+            if (frame == null) continue;
+            int batch = 0;
+            try {
+                // 队列里还有就攒着一起 flush
+                do {
+                    batch++;
+                    out.writeInt(frame.length);
+                    out.write(frame);
+                } while ((frame = outbox.poll()) != null);
+                out.flush();
+            } catch (IOException e) {
+                long n = dropped.addAndGet(batch);
+                log.warn("[FanoutBus] 写 broker 失败，本批 {} 条推送丢弃，累计丢弃 {} 条", batch, n);
+                throw e;
+            }
+        }
+    }
+
+    private void read(Socket s, DataInputStream in) {
+        try {
+            while (running) {
+                int len = in.readInt();
+                if (len < 0 || len > FanoutCodec.MAX_FRAME_BYTES) throw new IOException("bad frame length " + len);
+                byte[] frame = new byte[len];
+                in.readFully(frame);
+                Consumer<FanoutEnvelope> h = handler;
+                if (h == null) continue;
+                try {
+                    h.accept(FanoutCodec.decode(frame));
+                } catch (Exception e) {
+                    log.warn("[FanoutBus] 处理 broker 转发的推送失败: {}", e.getMessage());
+                }
+            }
+        } catch (EOFException e) {
+            // broker 关闭连接
+        } catch (IOException e) {
+            if (running) log.debug("[FanoutBus] 读 broker 失败: {}", e.getMessage());
+        } finally {
+            // 让写线程感知断开并重连
+            try {
+                s.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private void closeSocket() {
+        Socket s = socket;
+        socket = null;
+        if (s == null) return;
+        try {
+            s.close();
+        } catch (IOException ignore) {
+        }
+    }
+}
@@ -5,7 +5,9 @@ import com.agrimatch.chat.dto.ChatConversationResponse;
 import com.agrimatch.chat.dto.ChatMessageResponse;
 import com.agrimatch.chat.dto.ChatPeerResponse;
 import com.agrimatch.chat.dto.ChatSendRequest;
+import com.agrimatch.chat.service.ChatSearchService;
 import com.agrimatch.chat.service.ChatService;
+import com.agrimatch.common.api.CursorResult;
 import com.agrimatch.common.api.Result;
 import com.agrimatch.util.SecurityUtil;
 import jakarta.validation.Valid;
@@ -27,9 +29,11 @@ import java.util.List;
 @Validated
 public class ChatController {
     private final ChatService chatService;
+    private final ChatSearchService chatSearchService;
 
-    public ChatController(ChatService chatService) {
+    public ChatController(ChatService chatService, ChatSearchService chatSearchService) {
         this.chatService = chatService;
+        this.chatSearchService = chatSearchService;
     }
 
     @GetMapping("/peers")
@@ -80,6 +84,20 @@ public class ChatController {
         return Result.success(chatService.conversationMessages(userId, conversationId, limit));
     }
 
+    /**
+     * 搜索聊天记录（边输边搜），按时间倒序游标分页：首页不传 cursor，之后传上一页返回的 nextCursor；
+     * 不传 conversationId 时搜全部会话
+     */
+    @GetMapping("/messages/search")
+    public Result<CursorResult<ChatMessageResponse>> searchMessages(Authentication authentication,
+                                                                    @RequestParam("keyword") @NotNull String keyword,
+                                                                    @RequestParam(value = "conversationId", required = false) Long conversationId,
+                                                                    @RequestParam(value = "cursor", required = false) String cursor,
+                                                                    @RequestParam(value = "size", required = false) Integer size) {
+        Long userId = SecurityUtil.requireUserId(authentication);
+        return Result.success(chatSearchService.search(userId, conversationId, keyword, cursor, size));
+    }
+
     @PostMapping("/conversations/{id}/read")
     public Result<Void> readConversation(Authentication authentication, @PathVariable("id") Long conversationId) {
         Long userId = SecurityUtil.requireUserId(authentication);
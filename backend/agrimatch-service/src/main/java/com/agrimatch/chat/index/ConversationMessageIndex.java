@@ -0,0 +1,157 @@
+package com.agrimatch.chat.index;
+
+import com.agrimatch.search.index.Tokenizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * 一个会话的消息倒排索引（分词同统一搜索的 Tokenizer）
+ * - 词 -> 消息 id 升序数组；新消息 id 递增，通常直接追加
+ * - 多词取交集，最后一个字母数字词按前缀匹配（边输边搜：输入 "m25" 即可命中 M2509）
+ * - 正排记录每条消息的词，修改（合同卡片更新 payload）时先摘掉旧词
+ * 非线程安全，由 ChatSearchService 按会话加锁
+ */
+public class ConversationMessageIndex {
+
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Long, String[]> forward = new HashMap<>();
+
+    public int size() {
+        return forward.size();
+    }
+
+    public boolean contains(long messageId) {
+        return forward.containsKey(messageId);
+    }
+
+    /**
+     * 新增或整体替换
+     */
+    public void put(long messageId, String text) {
+        remove(messageId);
+        Set<String> terms = new HashSet<>(Tokenizer.indexTerms(text));
+        if (terms.isEmpty()) return;
+        for (String t : terms) {
+            postings.computeIfAbsent(t, k -> new Postings()).add(messageId);
+        }
+        forward.put(messageId, terms.toArray(new String[0]));
+    }
+
+    public void remove(long messageId) {
+        String[] old = forward.remove(messageId);
+        if (old == null) return;
+        for (String t : old) {
+            Postings p = postings.get(t);
+            if (p == null) continue;
+            p.remove(messageId);
+            if (p.size == 0) postings.remove(t);
+        }
+    }
+
+    /**
+     * 命中全部检索词的消息，id 降序（新消息在前）
+     *
+     * @param prefix   最后一个词是否按前缀匹配
+     * @param beforeId 只取 id 小于它的（翻页游标），不限传 Long.MAX_VALUE
+     */
+    public long[] search(List<String> terms, boolean prefix, long beforeId, int limit) {
+        if (terms.isEmpty() || limit <= 0) return new long[0];
+        List<Postings> lists = new ArrayList<>(terms.size());
+        for (int i = 0; i < terms.size(); i++) {
+            Postings p = i == terms.size() - 1 && prefix ? prefixUnion(terms.get(i)) : postings.get(terms.get(i));
+            if (p == null || p.size == 0) return new long[0];
+            lists.add(p);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        Postings first = lists.get(0);
+        long[] out = new long[Math.min(limit, first.size)];
+        int n = 0;
+        // 从最短表的尾部（最新）往前走，其余表二分查找
+        int start = first.lowerIndex(beforeId);
+        outer:
+        for (int i = start; i >= 0 && n < out.length; i--) {
+            long id = first.ids[i];
+            for (int j = 1; j < lists.size(); j++) {
+                if (!lists.get(j).contains(id)) continue outer;
+            }
+            out[n++] = id;
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * 以 prefix 开头的全部词的倒排表求并；词本身精确存在且无更长的词时直接返回原表
+     */
+    private Postings prefixUnion(String prefix) {
+        SortedMap<String, Postings> sub = postings.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (sub.isEmpty()) return null;
+        if (sub.size() == 1) return sub.values().iterator().next();
+        int total = 0;
+        for (Postings p : sub.values()) {
+            total += p.size;
+        }
+        long[] all = new long[total];
+        int k = 0;
+        for (Postings p : sub.values()) {
+            System.arraycopy(p.ids, 0, all, k, p.size);
+            k += p.size;
+        }
+        Arrays.sort(all);
+        Postings out = new Postings();
+        out.ids = all;
+        for (int i = 0; i < total; i++) {
+            if (out.size == 0 || out.ids[out.size - 1] != all[i]) out.ids[out.size++] = all[i];
+        }
+        return out;
+    }
+
+    /**
+     * 倒排表：消息 id 升序，定长数组按需扩容
+     */
+    private static final class Postings {
+        long[] ids = new long[2];
+        int size;
+
+        void add(long id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            if (size == 0 || ids[size - 1] < id) {
+                ids[size++] = id;
+                return;
+            }
+            // 乱序到达（加载与增量交错）时插入到位
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i >= 0) return;
+            i = -i - 1;
+            System.arraycopy(ids, i, ids, i + 1, size - i);
+            ids[i] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i < 0) return;
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            size--;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        /**
+         * 最后一个 < id 的位置，没有返回 -1
+         */
+        int lowerIndex(long id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            return (i >= 0 ? i : -i - 1) - 1;
+        }
+    }
+}
@@ -8,6 +8,9 @@ import java.util.List;
 
 public interface ChatMapper {
     int insertMessage(BusChatMessage m);
+
+    /** 多行插入，按顺序回填各条的 id */
+    int insertMessages(List<BusChatMessage> list);
     
     BusChatMessage selectMessageById(@Param("id") Long id);
 
@@ -51,6 +54,17 @@ public interface ChatMapper {
     /** 根据合同ID查找CONTRACT类型消息 */
     BusChatMessage selectContractMessageByContractId(@Param("contractId") Long contractId);
 
+    /** 用户参与的有消息的会话及其最新消息ID，按最新消息ID倒序 */
+    List<ConversationLastId> selectConversationLastIdsByUser(@Param("userId") Long userId);
+
+    /** 搜索索引装载：会话内消息按主键游标分批读取（只含建索引用的字段） */
+    List<BusChatMessage> selectSearchRowsAfter(@Param("conversationId") Long conversationId,
+                                               @Param("afterId") Long afterId,
+                                               @Param("limit") int limit);
+
+    /** 按ID批量读取未删除的消息（顺序不定） */
+    List<BusChatMessage> selectMessagesByIds(@Param("ids") java.util.Collection<Long> ids);
+
     class PeerRow {
         private Long peerUserId;
         private String peerUserName;
@@ -228,6 +242,27 @@ public interface ChatMapper {
         }
     }
 
+    class ConversationLastId {
+        private Long conversationId;
+        private Long lastMsgId;
+
+        public Long getConversationId() {
+            return conversationId;
+        }
+
+        public void setConversationId(Long conversationId) {
+            this.conversationId = conversationId;
+        }
+
+        public Long getLastMsgId() {
+            return lastMsgId;
+        }
+
+        public void setLastMsgId(Long lastMsgId) {
+            this.lastMsgId = lastMsgId;
+        }
+    }
+
     class ConversationUserPair {
         private Long aUserId;
         private Long bUserId;
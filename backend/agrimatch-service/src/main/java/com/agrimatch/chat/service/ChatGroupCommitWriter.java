@@ -0,0 +1,146 @@
+package com.agrimatch.chat.service;
+
+import com.agrimatch.chat.domain.BusChatMessage;
+import com.agrimatch.chat.dto.ChatMessageResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 聊天消息组提交：几毫秒内到达的消息合成一个事务（一条多行 insert + 每个会话一次最后消息更新 + 一次 commit），
+ * 行情活跃时段报价消息密集，逐条提交会把 MySQL 的提交吞吐打满
+ * - 单写线程按到达顺序落库，同一会话的消息顺序和主键顺序一致
+ * - 返回的 future 在事务提交后才完成，调用方据此回执
+ * - 整批失败时逐条重试，一条坏消息不拖累同批其他消息
+ * - agrimatch.chat.group-commit.enabled=false 时退回逐条同步落库
+ */
+@Component
+public class ChatGroupCommitWriter implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ChatGroupCommitWriter.class);
+
+    private record Pending(BusChatMessage message, CompletableFuture<ChatMessageResponse> future) {
+    }
+
+    private final ChatService chatService;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final BlockingQueue<Pending> queue;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+
+    public ChatGroupCommitWriter(ChatService chatService,
+                                 @Value("${agrimatch.chat.group-commit.enabled:true}") boolean enabled,
+                                 @Value("${agrimatch.chat.group-commit.window-ms:2}") long windowMs,
+                                 @Value("${agrimatch.chat.group-commit.max-batch:200}") int maxBatch,
+                                 @Value("${agrimatch.chat.group-commit.queue-capacity:10000}") int capacity) {
+        this.chatService = chatService;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMs));
+        this.maxBatch = Math.max(1, maxBatch);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.thread = new Thread(this::run, "chat-group-commit");
+        thread.setDaemon(true);
+        if (enabled) thread.start();
+    }
+
+    /**
+     * 提交一条已校验的消息（见 ChatService.prepareMessage），落库提交后 future 完成；
+     * 队列已满时 future 以 RejectedExecutionException 失败（消息未落库，可重发）
+     */
+    public CompletableFuture<ChatMessageResponse> submit(BusChatMessage message) {
+        if (!enabled) {
+            try {
+                return CompletableFuture.completedFuture(chatService.persistMessages(List.of(message)).get(0));
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<ChatMessageResponse> future = new CompletableFuture<>();
+        if (!running || !queue.offer(new Pending(message, future))) {
+            future.completeExceptionally(new RejectedExecutionException("group commit queue full"));
+        }
+        return future;
+    }
+
+    public long batchCount() {
+        return batches.get();
+    }
+
+    public long messageCount() {
+        return messages.get();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                // 从第一条开始计时，窗口内继续收，满批立即提交
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    long wait = deadline - System.nanoTime();
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (batch.isEmpty()) return;
+                Thread.currentThread().interrupt();
+            }
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        List<BusChatMessage> list = new ArrayList<>(batch.size());
+        for (Pending p : batch) list.add(p.message());
+        List<ChatMessageResponse> saved;
+        try {
+            saved = chatService.persistMessages(list);
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                batch.get(0).future().completeExceptionally(e);
+                return;
+            }
+            log.warn("[Chat] 批量落库失败（{} 条），改为逐条重试: {}", batch.size(), e.getMessage());
+            for (Pending p : batch) {
+                // 失败回滚后 id 可能已被回填，清掉再插
+                p.message().setId(null);
+                commit(List.of(p));
+            }
+            return;
+        }
+        batches.incrementAndGet();
+        messages.addAndGet(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future().complete(saved.get(i));
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // 已收下的消息客户端在等回执，先写完再停
+        running = false;
+        if (!thread.isAlive()) return;
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        if (thread.isAlive()) thread.interrupt();
+    }
+}
@@ -0,0 +1,34 @@
+package com.agrimatch.chat.service;
+
+import com.agrimatch.chat.domain.BusChatMessage;
+import com.agrimatch.chat.dto.ChatMessageResponse;
+import com.agrimatch.common.api.CursorResult;
+
+/**
+ * 聊天记录搜索（消息正文 + 报价/合同卡片 payload_json 中的文本和数值）：
+ * - 内存倒排索引按会话分区，某会话第一次被搜索时按主键游标从库里装载，之后随发消息/改消息增量更新
+ * - 跨会话搜索按会话最新消息倒序逐个搜，凑够一页即停；每次请求只装载少量会话，其余随翻页装载
+ * - 装载的消息总数超过 agrimatch.chat-search.max-messages 时，淘汰最久没被搜索的会话分区
+ * - 只覆盖按会话收发的消息（旧版无会话的点对点消息不参与）
+ */
+public interface ChatSearchService {
+
+    /**
+     * 新消息入库后调用；事务内调用推迟到提交之后，会话分区未装载时忽略
+     * 消息修改由 MessageUpdateEvent 触发重建索引，不必调用
+     */
+    void index(BusChatMessage m);
+
+    /**
+     * 消息删除/撤回后移出索引；事务内调用推迟到提交之后
+     */
+    void remove(Long conversationId, Long messageId);
+
+    /**
+     * 搜索当前用户的聊天记录，按消息时间倒序
+     *
+     * @param conversationId 只搜这个会话；为空时搜用户参与的全部会话
+     * @param cursor         上一页返回的 nextCursor，首页不传；跨会话搜索时可能返回空页但带 nextCursor（本次装载数已满），继续翻页即可
+     */
+    CursorResult<ChatMessageResponse> search(Long userId, Long conversationId, String keyword, String cursor, Integer size);
+}
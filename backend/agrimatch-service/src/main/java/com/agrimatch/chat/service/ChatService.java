@@ -1,5 +1,6 @@
 package com.agrimatch.chat.service;
 
+import com.agrimatch.chat.domain.BusChatMessage;
 import com.agrimatch.chat.dto.ChatMessageResponse;
 import com.agrimatch.chat.dto.ChatConversationResponse;
 import com.agrimatch.chat.dto.ChatPeerResponse;
@@ -25,6 +26,16 @@ public interface ChatService {
 
     ChatMessageResponse sendToConversation(Long fromUserId, Long conversationId, String msgType, String content, String payloadJson, java.math.BigDecimal basisPrice, String contractCode);
 
+    /**
+     * 校验会话成员和消息内容，返回待落库的消息（不写库）
+     */
+    BusChatMessage prepareMessage(Long fromUserId, Long conversationId, String msgType, String content, String payloadJson, java.math.BigDecimal basisPrice, String contractCode);
+
+    /**
+     * 一个事务内批量落库：一条多行 insert，每个会话只更新一次最后消息；返回值与入参一一对应
+     */
+    List<ChatMessageResponse> persistMessages(List<BusChatMessage> messages);
+
     ChatMessageResponse confirmOffer(Long userId, Long messageId);
 
     ChatMessageResponse rejectOffer(Long userId, Long messageId);
@@ -0,0 +1,307 @@
+package com.agrimatch.chat.service.impl;
+
+import com.agrimatch.chat.domain.BusChatMessage;
+import com.agrimatch.chat.dto.ChatMessageResponse;
+import com.agrimatch.chat.event.MessageUpdateEvent;
+import com.agrimatch.chat.index.ConversationMessageIndex;
+import com.agrimatch.chat.mapper.ChatMapper;
+import com.agrimatch.chat.service.ChatSearchService;
+import com.agrimatch.common.api.CursorResult;
+import com.agrimatch.common.api.ResultCode;
+import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.common.tx.AfterCommit;
+import com.agrimatch.search.index.Tokenizer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ChatSearchServiceImpl implements ChatSearchService {
+    private static final Logger log = LoggerFactory.getLogger(ChatSearchServiceImpl.class);
+
+    private static final int LOAD_BATCH_SIZE = 2000;
+    private static final int DEFAULT_SIZE = 20;
+    private static final int MAX_SIZE = 50;
+    private static final int MAX_KEYWORD_LENGTH = 100;
+    /** 跨会话搜索时每次请求最多从库里装载的会话数，其余留到下一页 */
+    private static final int MAX_LOADS_PER_SEARCH = 5;
+
+    private final ChatMapper chatMapper;
+    private final ObjectMapper objectMapper;
+
+    @Value("${agrimatch.chat-search.max-messages:2000000}")
+    private long maxMessages;
+
+    /** conversationId -> 分区 */
+    private final Map<Long, Partition> partitions = new ConcurrentHashMap<>();
+
+    /** 一个会话的索引；装载和读写都在分区自身的锁内 */
+    private static final class Partition {
+        final ConversationMessageIndex index = new ConversationMessageIndex();
+        volatile boolean loaded;
+        volatile long lastAccess = System.currentTimeMillis();
+    }
+
+    public ChatSearchServiceImpl(ChatMapper chatMapper, ObjectMapper objectMapper) {
+        this.chatMapper = chatMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void index(BusChatMessage m) {
+        if (m == null || m.getId() == null || m.getConversationId() == null) return;
+        // 先取出 id 和文本：组提交整批回滚后会清空 id 逐条重试，回滚的这次不会走到提交后回调
+        Long id = m.getId();
+        Long conversationId = m.getConversationId();
+        String text = searchText(m);
+        AfterCommit.run(() -> {
+            Partition p = partitions.get(conversationId);
+            if (p == null) return;
+            synchronized (p) {
+                // 装载中的分区在锁释放后才会走到这里，装载结果里已有的以这次为准
+                p.index.put(id, text);
+            }
+        });
+    }
+
+    @Override
+    public void remove(Long conversationId, Long messageId) {
+        if (conversationId == null || messageId == null) return;
+        AfterCommit.run(() -> {
+            Partition p = partitions.get(conversationId);
+            if (p == null) return;
+            synchronized (p) {
+                p.index.remove(messageId);
+            }
+        });
+    }
+
+    /**
+     * 消息 payload 修改（合同卡片状态等）后按库里最新内容重建这条消息的索引，已删除的移出
+     */
+    @EventListener
+    public void onMessageUpdate(MessageUpdateEvent event) {
+        Long id = event.getMessageId();
+        Long conversationId = event.getConversationId();
+        if (id == null || conversationId == null) return;
+        AfterCommit.run(() -> {
+            Partition p = partitions.get(conversationId);
+            if (p == null) return;
+            List<BusChatMessage> rows = chatMapper.selectMessagesByIds(List.of(id));
+            String text = rows.isEmpty() ? null : searchText(rows.get(0));
+            synchronized (p) {
+                if (text == null) {
+                    p.index.remove(id);
+                } else {
+                    p.index.put(id, text);
+                }
+            }
+        });
+    }
+
+    @Override
+    public CursorResult<ChatMessageResponse> search(Long userId, Long conversationId, String keyword, String cursor, Integer size) {
+        if (userId == null) throw new ApiException(401, "未登录");
+        String kw = keyword != null ? keyword.trim() : "";
+        if (kw.isEmpty()) throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "请输入搜索关键词");
+        if (kw.length() > MAX_KEYWORD_LENGTH) throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "搜索关键词过长");
+        int n = size == null || size <= 0 ? DEFAULT_SIZE : Math.min(size, MAX_SIZE);
+        long beforeId = Long.MAX_VALUE;
+        if (StringUtils.hasText(cursor)) {
+            try {
+                beforeId = Long.parseLong(cursor.trim());
+            } catch (NumberFormatException e) {
+                throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "cursor 无效");
+            }
+        }
+
+        List<ChatMapper.ConversationLastId> conversations;
+        if (conversationId != null) {
+            ChatMapper.ConversationUserPair pair = chatMapper.selectConversationUserPair(conversationId);
+            if (pair == null) throw new ApiException(ResultCode.NOT_FOUND);
+            if (!userId.equals(pair.getAUserId()) && !userId.equals(pair.getBUserId())) {
+                throw new ApiException(403, "无权访问该会话");
+            }
+            ChatMapper.ConversationLastId only = new ChatMapper.ConversationLastId();
+            only.setConversationId(conversationId);
+            only.setLastMsgId(Long.MAX_VALUE);
+            conversations = List.of(only);
+        } else {
+            conversations = chatMapper.selectConversationLastIdsByUser(userId);
+        }
+
+        List<String> terms = Tokenizer.queryTerms(kw);
+        if (terms.isEmpty() || conversations.isEmpty()) return new CursorResult<>(List.of(), null, n);
+        // 末尾还在输入的字母数字词按前缀匹配
+        boolean prefix = Character.isLetterOrDigit(kw.charAt(kw.length() - 1))
+                && Character.UnicodeScript.of(kw.charAt(kw.length() - 1)) != Character.UnicodeScript.HAN;
+
+        // 会话按最新消息 id 倒序逐个搜，每个取 n + 1 条，合并后按 id 倒序保留前 n + 1 条（多出的一条用于判断是否还有下一页）
+        // - 会话最新消息 id 已小于第 n + 1 条时，它和之后的会话都挤不进这一页，不再装载
+        // - 每次最多装载 MAX_LOADS_PER_SEARCH 个未装载的会话；装不完时这一页只返回比剩余会话最新消息更新的命中，游标停在那里
+        long[] merged = new long[0];
+        long bound = 0;
+        int loads = 0;
+        for (ChatMapper.ConversationLastId c : conversations) {
+            long maxId = Math.min(c.getLastMsgId(), beforeId - 1);
+            if (maxId <= 0 || (merged.length > n && maxId < merged[n])) break;
+            Partition p = partitions.get(c.getConversationId());
+            if (p == null || !p.loaded) {
+                if (loads >= MAX_LOADS_PER_SEARCH) {
+                    bound = maxId;
+                    break;
+                }
+                loads++;
+            }
+            p = partition(c.getConversationId());
+            long[] hits;
+            synchronized (p) {
+                hits = p.index.search(terms, prefix, beforeId, n + 1);
+            }
+            if (hits.length == 0) continue;
+            long[] all = Arrays.copyOf(merged, merged.length + hits.length);
+            System.arraycopy(hits, 0, all, merged.length, hits.length);
+            Arrays.sort(all);
+            int keep = Math.min(all.length, n + 1);
+            merged = new long[keep];
+            for (int i = 0; i < keep; i++) {
+                merged[i] = all[all.length - 1 - i];
+            }
+        }
+        evictIfNeeded();
+
+        int exact = 0;
+        while (exact < merged.length && merged[exact] > bound) {
+            exact++;
+        }
+        boolean hasMore = exact > n;
+        int pageLen = Math.min(exact, n);
+        List<Long> ids = new ArrayList<>(pageLen);
+        for (int i = 0; i < pageLen; i++) {
+            ids.add(merged[i]);
+        }
+        String next = hasMore ? String.valueOf(ids.get(ids.size() - 1))
+                : bound > 0 ? String.valueOf(bound + 1) : null;
+        if (ids.isEmpty()) return new CursorResult<>(List.of(), next, n);
+
+        Map<Long, BusChatMessage> byId = new HashMap<>();
+        for (BusChatMessage m : chatMapper.selectMessagesByIds(ids)) {
+            byId.put(m.getId(), m);
+        }
+        List<ChatMessageResponse> out = new ArrayList<>(pageLen);
+        for (Long id : ids) {
+            BusChatMessage m = byId.get(id);
+            if (m != null) out.add(toResponse(m));
+        }
+        return new CursorResult<>(out, next, n);
+    }
+
+    /**
+     * 取会话分区，未装载的先从库里装载
+     */
+    private Partition partition(Long conversationId) {
+        Partition p = partitions.computeIfAbsent(conversationId, k -> new Partition());
+        p.lastAccess = System.currentTimeMillis();
+        synchronized (p) {
+            if (p.loaded) return p;
+            try {
+                Long afterId = null;
+                while (true) {
+                    List<BusChatMessage> batch = chatMapper.selectSearchRowsAfter(conversationId, afterId, LOAD_BATCH_SIZE);
+                    for (BusChatMessage m : batch) {
+                        p.index.put(m.getId(), searchText(m));
+                    }
+                    if (batch.size() < LOAD_BATCH_SIZE) break;
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+                p.loaded = true;
+            } catch (RuntimeException e) {
+                partitions.remove(conversationId, p);
+                throw e;
+            }
+            return p;
+        }
+    }
+
+    private void evictIfNeeded() {
+        long total = 0;
+        for (Partition p : partitions.values()) {
+            total += p.index.size();
+        }
+        if (total <= maxMessages) return;
+        List<Map.Entry<Long, Partition>> entries = new ArrayList<>(partitions.entrySet());
+        entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+        int evicted = 0;
+        for (Map.Entry<Long, Partition> e : entries) {
+            if (total <= maxMessages * 3 / 4) break;
+            if (partitions.remove(e.getKey(), e.getValue())) {
+                total -= e.getValue().index.size();
+                evicted++;
+            }
+        }
+        log.info("[ChatSearch] 淘汰 {} 个会话分区，剩余 {} 条消息", evicted, total);
+    }
+
+    /**
+     * 正文 + payload_json 里的文本/数值 + 合约代码
+     */
+    private String searchText(BusChatMessage m) {
+        StringBuilder sb = new StringBuilder();
+        if (m.getContent() != null) sb.append(m.getContent());
+        if (m.getContractCode() != null) sb.append(' ').append(m.getContractCode());
+        if (StringUtils.hasText(m.getPayloadJson())) {
+            try {
+                appendValues(objectMapper.readTree(m.getPayloadJson()), sb);
+            } catch (Exception e) {
+                log.debug("[ChatSearch] 消息#{} payload_json 解析失败，只索引正文: {}", m.getId(), e.getMessage());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendValues(JsonNode node, StringBuilder sb) {
+        if (node.isObject() || node.isArray()) {
+            node.elements().forEachRemaining(child -> appendValues(child, sb));
+        } else if (node.isNumber()) {
+            sb.append(' ').append(node.asText());
+        } else if (node.isTextual()) {
+            String s = node.asText();
+            // 图片/附件地址不进索引
+            if (!s.startsWith("http://") && !s.startsWith("https://") && !s.startsWith("/")) sb.append(' ').append(s);
+        }
+    }
+
+    private static ChatMessageResponse toResponse(BusChatMessage m) {
+        ChatMessageResponse r = new ChatMessageResponse();
+        r.setId(m.getId());
+        r.setConversationId(m.getConversationId());
+        r.setFromUserId(m.getFromUserId());
+        r.setToUserId(m.getToUserId());
+        r.setFromUserName(m.getFromUserName());
+        r.setFromNickName(m.getFromNickName());
+        r.setToUserName(m.getToUserName());
+        r.setToNickName(m.getToNickName());
+        r.setMsgType(m.getMsgType());
+        r.setContent(m.getContent());
+        r.setPayloadJson(m.getPayloadJson());
+        r.setQuoteStatus(m.getQuoteStatus());
+        r.setBasisPrice(m.getBasisPrice());
+        r.setContractCode(m.getContractCode());
+        r.setRead(m.getIsRead() != null && m.getIsRead() == 1);
+        r.setCreateTime(m.getCreateTime());
+        return r;
+    }
+}
@@ -7,6 +7,7 @@ import com.agrimatch.chat.dto.ChatMessageResponse;
 import com.agrimatch.chat.dto.ChatPeerResponse;
 import com.agrimatch.chat.event.OfferUpdatedEvent;
 import com.agrimatch.chat.mapper.ChatMapper;
+import com.agrimatch.chat.service.ChatSearchService;
 import com.agrimatch.chat.service.ChatService;
 import com.agrimatch.common.api.ResultCode;
 import com.agrimatch.common.exception.ApiException;
@@ -18,16 +19,22 @@ import org.springframework.util.StringUtils;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class ChatServiceImpl implements ChatService {
     private final ChatMapper chatMapper;
     private final ApplicationEventPublisher eventPublisher;
+    private final ChatSearchService chatSearchService;
 
-    public ChatServiceImpl(ChatMapper chatMapper, ApplicationEventPublisher eventPublisher) {
+    public ChatServiceImpl(ChatMapper chatMapper, ApplicationEventPublisher eventPublisher, ChatSearchService chatSearchService) {
         this.chatMapper = chatMapper;
         this.eventPublisher = eventPublisher;
+        this.chatSearchService = chatSearchService;
     }
 
     @Override
@@ -197,6 +204,23 @@ public class ChatServiceImpl implements ChatService {
     @Override
     @Transactional
     public ChatMessageResponse sendToConversation(Long fromUserId, Long conversationId, String msgType, String content, String payloadJson, java.math.BigDecimal basisPrice, String contractCode) {
+        BusChatMessage m = prepareMessage(fromUserId, conversationId, msgType, content, payloadJson, basisPrice, contractCode);
+
+        if ("QUOTE".equals(m.getMsgType())) {
+            // 新报价发出，将会话中旧的待确认报价置为失效
+            chatMapper.expireOldQuotes(conversationId, null);
+        }
+
+        int rows = chatMapper.insertMessage(m);
+        if (rows != 1 || m.getId() == null) throw new ApiException(ResultCode.SERVER_ERROR);
+        chatSearchService.index(m);
+
+        chatMapper.updateConversationLast(conversationId, m.getId(), lastContentOf(m));
+        return toSentResponse(m);
+    }
+
+    @Override
+    public BusChatMessage prepareMessage(Long fromUserId, Long conversationId, String msgType, String content, String payloadJson, java.math.BigDecimal basisPrice, String contractCode) {
         ChatMapper.ConversationUserPair pair = requireConversationMember(fromUserId, conversationId);
         long toUserId = fromUserId.equals(pair.getAUserId()) ? pair.getBUserId() : pair.getAUserId();
 
@@ -210,11 +234,6 @@ public class ChatServiceImpl implements ChatService {
         String safeContent = StringUtils.hasText(content) ? content.trim() : "";
         if (safeContent.length() > 2000) throw new ApiException(400, "消息过长");
 
-        if ("QUOTE".equals(mt)) {
-            // 新报价发出，将会话中旧的待确认报价置为失效
-            chatMapper.expireOldQuotes(conversationId, null);
-        }
-
         BusChatMessage m = new BusChatMessage();
         m.setConversationId(conversationId);
         m.setFromUserId(fromUserId);
@@ -227,26 +246,63 @@ public class ChatServiceImpl implements ChatService {
         if ("QUOTE".equals(mt)) {
             m.setQuoteStatus("OFFERED");
         }
+        return m;
+    }
 
-        int rows = chatMapper.insertMessage(m);
-        if (rows != 1 || m.getId() == null) throw new ApiException(ResultCode.SERVER_ERROR);
+    @Override
+    @Transactional
+    public List<ChatMessageResponse> persistMessages(List<BusChatMessage> messages) {
+        if (messages == null || messages.isEmpty()) return List.of();
+        // 与逐条发送一致：有新报价的会话先把旧的待确认报价置为失效
+        Set<Long> quoted = new LinkedHashSet<>();
+        for (BusChatMessage m : messages) {
+            if ("QUOTE".equals(m.getMsgType())) quoted.add(m.getConversationId());
+        }
+        for (Long conversationId : quoted) {
+            chatMapper.expireOldQuotes(conversationId, null);
+        }
 
-        String lastContent = safeContent;
+        int rows = chatMapper.insertMessages(messages);
+        if (rows != messages.size()) throw new ApiException(ResultCode.SERVER_ERROR);
+
+        // 每个会话只更新一次：取批内最后一条
+        Map<Long, BusChatMessage> last = new LinkedHashMap<>();
+        List<ChatMessageResponse> out = new ArrayList<>(messages.size());
+        for (BusChatMessage m : messages) {
+            if (m.getId() == null) throw new ApiException(ResultCode.SERVER_ERROR);
+            chatSearchService.index(m);
+            last.put(m.getConversationId(), m);
+            out.add(toSentResponse(m));
+        }
+        for (BusChatMessage m : last.values()) {
+            chatMapper.updateConversationLast(m.getConversationId(), m.getId(), lastContentOf(m));
+        }
+        return out;
+    }
+
+    /**
+     * 会话列表展示的最后一条消息摘要
+     */
+    private static String lastContentOf(BusChatMessage m) {
+        String mt = m.getMsgType();
+        String lastContent = m.getContent();
         if (!"TEXT".equals(mt) && !StringUtils.hasText(lastContent)) {
             if ("QUOTE".equals(mt)) lastContent = "[报价]";
             else if ("IMAGE".equals(mt)) lastContent = "[图片]";
             else if ("ATTACHMENT".equals(mt)) lastContent = "[附件]";
             else lastContent = "[系统]";
         }
-        chatMapper.updateConversationLast(conversationId, m.getId(), lastContent);
+        return lastContent;
+    }
 
+    private static ChatMessageResponse toSentResponse(BusChatMessage m) {
         ChatMessageResponse r = new ChatMessageResponse();
         r.setId(m.getId());
-        r.setConversationId(conversationId);
-        r.setFromUserId(fromUserId);
-        r.setToUserId(toUserId);
-        r.setMsgType(mt);
-        r.setContent(safeContent);
+        r.setConversationId(m.getConversationId());
+        r.setFromUserId(m.getFromUserId());
+        r.setToUserId(m.getToUserId());
+        r.setMsgType(m.getMsgType());
+        r.setContent(m.getContent());
         r.setPayloadJson(m.getPayloadJson());
         r.setBasisPrice(m.getBasisPrice());
         r.setContractCode(m.getContractCode());
@@ -0,0 +1,101 @@
+package com.agrimatch.chat.ws;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket 发消息的处理流水线：校验、落库（交给 ChatGroupCommitWriter 组提交）、推送不在容器 I/O 线程上做
+ * - 按会话ID分区，每个分区一个线程，同一会话的消息严格按到达顺序进入写队列，落库和回执顺序与之一致
+ * - 每个分区的队列有界（agrimatch.ws.chat-queue-capacity），满时 submit 返回 false，由调用方回可重试的错误
+ */
+@Component
+public class ChatSendPipeline implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ChatSendPipeline.class);
+
+    private final Partition[] partitions;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ChatSendPipeline(@Value("${agrimatch.ws.chat-writers:8}") int writers,
+                            @Value("${agrimatch.ws.chat-queue-capacity:1000}") int capacity) {
+        this.partitions = new Partition[Math.max(1, writers)];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(i, Math.max(1, capacity));
+        }
+    }
+
+    /**
+     * 交给会话所在分区执行；分区队列已满返回 false（不阻塞 I/O 线程）
+     */
+    public boolean submit(long conversationId, Runnable task) {
+        Partition p = partitions[Math.floorMod(Long.hashCode(conversationId) * 0x9E3779B9, partitions.length)];
+        if (p.queue.offer(task)) return true;
+        if (rejected.incrementAndGet() % 1000 == 1) {
+            log.warn("[WS] 消息处理队列已满（分区 {}），已拒绝 {} 条", p.index, rejected.get());
+        }
+        return false;
+    }
+
+    /**
+     * 排队中的消息总数
+     */
+    public int pendingCount() {
+        int n = 0;
+        for (Partition p : partitions) n += p.queue.size();
+        return n;
+    }
+
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        // 先把已收下的消息处理完（已排队的消息客户端在等回执），再停线程
+        for (Partition p : partitions) p.running = false;
+        for (Partition p : partitions) {
+            p.thread.join(TimeUnit.SECONDS.toMillis(10));
+            if (p.thread.isAlive()) p.thread.interrupt();
+        }
+    }
+
+    private static final class Partition implements Runnable {
+        final int index;
+        final BlockingQueue<Runnable> queue;
+        final Thread thread;
+        volatile boolean running = true;
+
+        Partition(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "ws-chat-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                Runnable task;
+                try {
+                    task = queue.poll(500, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (task == null) continue;
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.warn("[WS] 消息处理失败: {}", e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package com.agrimatch.chat.ws;
 
+import com.agrimatch.chat.bus.FanoutBus;
+import com.agrimatch.chat.bus.FanoutEnvelope;
 import com.agrimatch.chat.dto.ChatMessageResponse;
 import com.agrimatch.chat.event.ContractMessageEvent;
 import com.agrimatch.chat.event.MessageUpdateEvent;
 import com.agrimatch.chat.event.OfferUpdatedEvent;
+import com.agrimatch.chat.domain.BusChatMessage;
+import com.agrimatch.chat.service.ChatGroupCommitWriter;
 import com.agrimatch.chat.service.ChatService;
+import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.saved_search.event.SavedSearchMatchedEvent;
 import com.agrimatch.security.JwtTokenUtil;
+import com.agrimatch.supply.dto.BasisQuoteResponse;
+import com.agrimatch.supply.event.BasisPriceUpdatedEvent;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.lang.NonNull;
@@ -19,23 +30,47 @@ import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.net.URI;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 @Component
 public class ChatWebSocketHandler extends TextWebSocketHandler {
+    private static final Logger log = LoggerFactory.getLogger(ChatWebSocketHandler.class);
+
     private final JwtTokenUtil jwtTokenUtil;
     private final ChatService chatService;
     private final ObjectMapper objectMapper;
+    private final SessionRegistry registry;
+    private final FanoutBus bus;
+    private final OutboundSender sender;
+    private final ChatSendPipeline pipeline;
+    private final ChatGroupCommitWriter writer;
+
+    /** 单个连接最多订阅的供应数（供应大厅一页 + 详情页） */
+    private static final int MAX_SUPPLY_SUBSCRIPTIONS = 200;
 
-    private final Map<Long, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    /** 供应ID -> 正在查看该供应的连接ID（接收基差报价重算推送；同一用户多端各自订阅） */
+    private final Map<Long, Set<String>> supplyWatchers = new ConcurrentHashMap<>();
 
-    public ChatWebSocketHandler(JwtTokenUtil jwtTokenUtil, ChatService chatService, ObjectMapper objectMapper) {
+    public ChatWebSocketHandler(JwtTokenUtil jwtTokenUtil, ChatService chatService, ObjectMapper objectMapper,
+                                SessionRegistry registry, FanoutBus bus, OutboundSender sender,
+                                ChatSendPipeline pipeline, ChatGroupCommitWriter writer) {
         this.jwtTokenUtil = jwtTokenUtil;
         this.chatService = chatService;
         this.objectMapper = objectMapper;
+        this.registry = registry;
+        this.bus = bus;
+        this.sender = sender;
+        this.pipeline = pipeline;
+        this.writer = writer;
+        bus.subscribe(this::deliver);
     }
 
     @Override
@@ -46,8 +81,8 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
             return;
         }
         session.getAttributes().put("userId", userId);
-        sessions.put(userId, session);
-        session.sendMessage(new TextMessage("{\"type\":\"CONNECTED\",\"serverTime\":\"" + LocalDateTime.now() + "\"}"));
+        registry.register(session, userId, resolveDevice(session));
+        send(session, new TextMessage("{\"type\":\"CONNECTED\",\"serverTime\":\"" + LocalDateTime.now() + "\"}"));
     }
 
     @Override
@@ -59,18 +94,30 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
             return;
         }
         Long fromUserId = (Long) uidObj;
+        registry.touch(session);
         JsonNode root = objectMapper.readTree(message.getPayload());
         String type = root.path("type").asText("");
         if (!StringUtils.hasText(type)) {
-            session.sendMessage(new TextMessage("{\"type\":\"ERROR\",\"message\":\"missing type\"}"));
+            send(session, new TextMessage("{\"type\":\"ERROR\",\"message\":\"missing type\"}"));
             return;
         }
         if ("PING".equalsIgnoreCase(type)) {
-            session.sendMessage(new TextMessage("{\"type\":\"PONG\",\"serverTime\":\"" + LocalDateTime.now() + "\"}"));
+            send(session, new TextMessage("{\"type\":\"PONG\",\"serverTime\":\"" + LocalDateTime.now() + "\"}"));
+            return;
+        }
+        if ("SUBSCRIBE_SUPPLY".equalsIgnoreCase(type)) {
+            // 整体替换本连接订阅的供应（页面切换时前端重发当前可见的供应ID）
+            Set<Long> ids = new HashSet<>();
+            for (JsonNode n : root.path("supplyIds")) {
+                if (ids.size() >= MAX_SUPPLY_SUBSCRIPTIONS) break;
+                if (n.canConvertToLong()) ids.add(n.asLong());
+            }
+            subscribeSupplies(session, ids);
+            send(session, new TextMessage("{\"type\":\"SUBSCRIBED\",\"count\":" + ids.size() + "}"));
             return;
         }
         if (!"SEND".equalsIgnoreCase(type)) {
-            session.sendMessage(new TextMessage("{\"type\":\"ERROR\",\"message\":\"unsupported type\"}"));
+            send(session, new TextMessage("{\"type\":\"ERROR\",\"message\":\"unsupported type\"}"));
             return;
         }
 
@@ -88,38 +135,95 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
         System.out.println("[WS DEBUG] Received - msgType: " + msgType + ", payload field exists: " + root.hasNonNull("payload") + ", payloadJson: " + payloadJson);
 
         if (conversationId == null) {
-            session.sendMessage(new TextMessage("{\"type\":\"ERROR\",\"message\":\"missing conversationId\"}"));
+            send(session, new TextMessage("{\"type\":\"ERROR\",\"message\":\"missing conversationId\"}"));
             return;
         }
 
-        var saved = chatService.sendToConversation(fromUserId, conversationId, msgType, content, payloadJson, basisPrice, contractCode);
+        // 落库和推送交给按会话分区的写线程，I/O 线程立即返回；队列满时让客户端稍后重发
+        boolean accepted = pipeline.submit(conversationId, () ->
+                persistAndPush(session, fromUserId, conversationId, msgType, content, payloadJson, basisPrice, contractCode, tempId));
+        if (!accepted) {
+            sendError(session, conversationId, tempId, "BUSY", true, "服务繁忙，请稍后重试");
+        }
+    }
 
-        // 推送给接收方（在线的话）
-        WebSocketSession toSession = sessions.get(saved.getToUserId());
-        if (toSession != null && toSession.isOpen()) {
-            String payload = objectMapper.writeValueAsString(objectMapper.createObjectNode()
+    /**
+     * 在会话分区的写线程上执行：校验后交给组提交写线程，落库提交后推送给对方和自己的其他设备，最后回 SENT；
+     * 业务校验失败回 ERROR（带 tempId，前端据此把该条标为发送失败）
+     */
+    private void persistAndPush(WebSocketSession session, Long fromUserId, Long conversationId, String msgType,
+                                String content, String payloadJson, BigDecimal basisPrice, String contractCode,
+                                String tempId) {
+        BusChatMessage m;
+        try {
+            m = chatService.prepareMessage(fromUserId, conversationId, msgType, content, payloadJson, basisPrice, contractCode);
+        } catch (ApiException e) {
+            sendError(session, conversationId, tempId, String.valueOf(e.getCode()), false, e.getMessage());
+            return;
+        }
+        // 分区线程不等提交，同一会话的下一条可以进入同一批；写线程按提交顺序回调，回执顺序不变
+        writer.submit(m).whenComplete((saved, error) -> {
+            if (error == null) {
+                pushAndAck(session, fromUserId, saved, tempId);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof RejectedExecutionException) {
+                sendError(session, conversationId, tempId, "BUSY", true, "服务繁忙，请稍后重试");
+            } else if (cause instanceof ApiException e) {
+                sendError(session, conversationId, tempId, String.valueOf(e.getCode()), false, e.getMessage());
+            } else {
+                log.warn("[WS] 消息发送失败 conversationId={}: {}", conversationId, cause.getMessage(), cause);
+                sendError(session, conversationId, tempId, "SEND_FAILED", false, "发送失败");
+            }
+        });
+    }
+
+    private void pushAndAck(WebSocketSession session, Long fromUserId, ChatMessageResponse saved, String tempId) {
+        try {
+            // 推送给接收方的全部在线连接，以及发送方的其他设备（多端同步），可能在其他节点
+            String pushed = objectMapper.writeValueAsString(objectMapper.createObjectNode()
                     .put("type", "MESSAGE")
                     .put("conversationId", saved.getConversationId())
                     .set("message", objectMapper.valueToTree(saved))
             );
-            toSession.sendMessage(new TextMessage(payload));
+            bus.publish(FanoutEnvelope.toUsers(pushed, saved.getToUserId(), fromUserId).excluding(session.getId()));
+
+            // 回执给发送方（包含 tempId -> id）
+            var ack = objectMapper.createObjectNode()
+                    .put("type", "SENT")
+                    .put("conversationId", saved.getConversationId())
+                    .put("id", saved.getId());
+            if (StringUtils.hasText(tempId)) ack.put("tempId", tempId);
+            send(session, new TextMessage(objectMapper.writeValueAsString(ack)));
+        } catch (Exception e) {
+            log.warn("[WS] 推送/回执失败 messageId={}: {}", saved.getId(), e.getMessage());
         }
+    }
 
-        // 回执给发送方（包含 tempId -> id）
-        var ack = objectMapper.createObjectNode()
-                .put("type", "SENT")
-                .put("conversationId", saved.getConversationId())
-                .put("id", saved.getId());
-        if (StringUtils.hasText(tempId)) ack.put("tempId", tempId);
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(ack)));
+    /**
+     * 某条消息发送失败的回执；retryable=true 表示消息未落库，客户端可原样重发
+     */
+    private void sendError(WebSocketSession session, Long conversationId, String tempId,
+                           String code, boolean retryable, String message) {
+        var error = objectMapper.createObjectNode()
+                .put("type", "ERROR")
+                .put("code", code)
+                .put("retryable", retryable)
+                .put("conversationId", conversationId)
+                .put("message", message);
+        if (StringUtils.hasText(tempId)) error.put("tempId", tempId);
+        try {
+            send(session, new TextMessage(objectMapper.writeValueAsString(error)));
+        } catch (Exception ignore) {
+            // 序列化失败，忽略
+        }
     }
 
     @Override
     public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus status) {
-        Object uidObj = session.getAttributes().get("userId");
-        if (uidObj instanceof Long) {
-            sessions.remove((Long) uidObj);
-        }
+        registry.unregister(session);
+        subscribeSupplies(session, Set.of());
     }
 
     @EventListener
@@ -138,6 +242,51 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
                               event.getMessageId(), event.getPayloadJson());
     }
 
+    /**
+     * 基差报价随期货价格重算后推送给正在查看这些供应的用户
+     */
+    @EventListener
+    public void onBasisPriceUpdated(BasisPriceUpdatedEvent event) {
+        for (Map.Entry<Long, List<BasisQuoteResponse>> e : event.getQuotes().entrySet()) {
+            String payload;
+            try {
+                BigDecimal exFactoryPrice = event.getExFactoryPrices().get(e.getKey());
+                ObjectNode node = objectMapper.createObjectNode()
+                        .put("type", "BASIS_PRICE")
+                        .put("supplyId", e.getKey())
+                        .put("exFactoryPrice", exFactoryPrice);
+                node.set("quotes", objectMapper.valueToTree(e.getValue()));
+                payload = objectMapper.writeValueAsString(node);
+            } catch (Exception ex) {
+                continue;
+            }
+            // 订阅者可能连在其他节点，由各节点按本机的订阅下发
+            bus.publish(FanoutEnvelope.toSupplyWatchers(payload, e.getKey()));
+        }
+    }
+
+    /**
+     * 订阅搜索命中新挂牌，推送给订阅人（站内通知已写入，离线用户下次登录可见）
+     */
+    @EventListener
+    public void onSavedSearchMatched(SavedSearchMatchedEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(objectMapper.createObjectNode()
+                    .put("type", "SAVED_SEARCH_MATCH")
+                    .put("searchId", event.getSearchId())
+                    .put("searchName", event.getSearchName())
+                    .put("entityType", event.getEntityType())
+                    .put("entityId", event.getEntityId())
+                    .put("title", event.getTitle())
+            );
+        } catch (Exception e) {
+            return;
+        }
+        // 站内通知已落库，发送队列满时可丢
+        bus.publish(FanoutEnvelope.toUsers(payload, event.getUserId()).nonCritical());
+    }
+
     /**
      * 广播合同消息给双方用户
      */
@@ -153,9 +302,7 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
             return;
         }
 
-        TextMessage textMessage = new TextMessage(payload);
-        sendToUser(aUserId, textMessage);
-        sendToUser(bUserId, textMessage);
+        bus.publish(FanoutEnvelope.toUsers(payload, aUserId, bUserId));
     }
 
     public void broadcastOfferUpdate(Long conversationId, Long aUserId, Long bUserId, ChatMessageResponse updatedMessage) {
@@ -170,9 +317,7 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
             return;
         }
 
-        TextMessage textMessage = new TextMessage(payload);
-        sendToUser(aUserId, textMessage);
-        sendToUser(bUserId, textMessage);
+        bus.publish(FanoutEnvelope.toUsers(payload, aUserId, bUserId));
     }
 
     /**
@@ -192,23 +337,89 @@ public class ChatWebSocketHandler extends TextWebSocketHandler {
             return;
         }
 
-        TextMessage textMessage = new TextMessage(payload);
-        sendToUser(aUserId, textMessage);
-        sendToUser(bUserId, textMessage);
+        bus.publish(FanoutEnvelope.toUsers(payload, aUserId, bUserId));
     }
 
-    private void sendToUser(Long userId, TextMessage message) {
-        WebSocketSession session = sessions.get(userId);
-        if (session != null && session.isOpen()) {
-            try {
+    @SuppressWarnings("unchecked")
+    private void subscribeSupplies(WebSocketSession session, Set<Long> supplyIds) {
+        String sessionId = session.getId();
+        Object old = session.getAttributes().get("supplyIds");
+        if (old instanceof Set) {
+            for (Long id : (Set<Long>) old) {
+                if (supplyIds.contains(id)) continue;
+                supplyWatchers.computeIfPresent(id, (k, watchers) -> {
+                    watchers.remove(sessionId);
+                    return watchers.isEmpty() ? null : watchers;
+                });
+            }
+        }
+        for (Long id : supplyIds) {
+            supplyWatchers.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        }
+        session.getAttributes().put("supplyIds", supplyIds);
+    }
+
+    /**
+     * 总线处理器：下发到本机持有的目标连接（用户的全部在线连接 / 订阅了该供应的连接）；
+     * 本机没有目标连接时什么也不做
+     */
+    private void deliver(FanoutEnvelope envelope) {
+        TextMessage message = null;
+        for (long userId : envelope.userIds()) {
+            for (SessionRegistry.WsSession s : registry.sessionsOf(userId)) {
+                if (s.getId().equals(envelope.excludeSessionId())) continue;
+                if (message == null) message = new TextMessage(envelope.payload());
+                sender.send(s, message, envelope.critical());
+            }
+        }
+        if (envelope.supplyId() != null) {
+            Set<String> watchers = supplyWatchers.get(envelope.supplyId());
+            if (watchers == null) return;
+            for (String sessionId : watchers) {
+                SessionRegistry.WsSession s = registry.get(sessionId);
+                if (s == null) continue;
+                if (message == null) message = new TextMessage(envelope.payload());
+                sender.send(s, message, envelope.critical());
+            }
+        }
+    }
+
+    /**
+     * 回复当前连接（ACK、ERROR、PONG 等），走连接的发送队列且不可丢；
+     * 尚未登记的连接（握手阶段）直接写，WebSocketSession 不支持并发写，同一连接串行化；失败只记日志
+     */
+    private void send(WebSocketSession session, TextMessage message) {
+        if (!session.isOpen()) return;
+        SessionRegistry.WsSession s = registry.get(session.getId());
+        if (s != null) {
+            sender.send(s, message, true);
+            return;
+        }
+        try {
+            synchronized (session) {
                 session.sendMessage(message);
-                System.out.println("[WS] Sent message to user " + userId + " successfully");
-            } catch (Exception e) {
-                System.out.println("[WS] Failed to send message to user " + userId + ": " + e.getMessage());
             }
-        } else {
-            System.out.println("[WS] User " + userId + " is not online (session=" + (session == null ? "null" : "closed") + "), active sessions: " + sessions.keySet());
+        } catch (Exception e) {
+            log.debug("[WS] 推送失败 session={}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 设备类型：优先取 ?device=xxx，否则按 User-Agent 粗分 mobile / web
+     */
+    private static String resolveDevice(WebSocketSession session) {
+        URI uri = session.getUri();
+        if (uri != null && StringUtils.hasText(uri.getQuery())) {
+            for (String part : uri.getQuery().split("&")) {
+                if (part.startsWith("device=") && part.length() > 7) {
+                    String d = part.substring(7);
+                    return d.length() > 32 ? d.substring(0, 32) : d;
+                }
+            }
         }
+        String ua = session.getHandshakeHeaders().getFirst("User-Agent");
+        if (ua != null && (ua.contains("Mobile") || ua.contains("Android") || ua.contains("iPhone"))) return "mobile";
+        return "web";
     }
 
     private Long authenticate(WebSocketSession session) {
@@ -0,0 +1,233 @@
+package com.agrimatch.chat.ws;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket 异步发送：调用方（事件监听、事务里的业务代码）只把帧放进连接自己的有界队列就返回，
+ * 由专用线程池按连接串行写出，一个慢客户端不会拖住发布事件的线程
+ * - 每个连接同一时刻只有一个发送任务，保证帧的顺序，也满足 WebSocketSession 不能并发写的要求
+ * - 队列满（agrimatch.ws.send-queue-capacity）时按 agrimatch.ws.overflow-policy 处理：
+ *   drop-oldest 丢最早的可丢帧（行情、通知），没有可丢的帧而新帧必须送达时关闭连接；close 直接关闭连接
+ * - 单帧写超过 agrimatch.ws.send-time-limit-ms 的连接视为卡死并关闭（关闭会让阻塞的写返回）
+ * - 队列深度、排队+发送耗时、丢弃/关闭次数每分钟打印一次
+ */
+@Component
+public class OutboundSender implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(OutboundSender.class);
+
+    static final CloseStatus SLOW_CONSUMER = CloseStatus.SESSION_NOT_RELIABLE.withReason("slow consumer");
+
+    private static final String DROP_OLDEST = "drop-oldest";
+    /** 一个发送任务最多连续写的帧数，之后让出线程给其他连接 */
+    private static final int MAX_FRAMES_PER_RUN = 64;
+
+    /** 排队中的一帧 */
+    record Pending(TextMessage message, boolean critical, long enqueuedNanos) {
+    }
+
+    private final SessionRegistry registry;
+    private final ExecutorService executor;
+    private final int capacity;
+    private final boolean dropOldest;
+    private final long sendTimeLimitNanos;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong slowClosed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    /** 本统计周期内：排队+发送总耗时、最大耗时（纳秒）、帧数 */
+    private final AtomicLong latencySum = new AtomicLong();
+    private final AtomicLong latencyMax = new AtomicLong();
+    private final AtomicLong latencyCount = new AtomicLong();
+
+    public OutboundSender(SessionRegistry registry,
+                          @Value("${agrimatch.ws.send-threads:4}") int threads,
+                          @Value("${agrimatch.ws.send-queue-capacity:256}") int capacity,
+                          @Value("${agrimatch.ws.overflow-policy:drop-oldest}") String overflowPolicy,
+                          @Value("${agrimatch.ws.send-time-limit-ms:10000}") long sendTimeLimitMs) {
+        this.registry = registry;
+        this.capacity = Math.max(1, capacity);
+        this.dropOldest = DROP_OLDEST.equalsIgnoreCase(overflowPolicy);
+        this.sendTimeLimitNanos = sendTimeLimitMs * 1_000_000L;
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "ws-send-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 放入连接的发送队列，立即返回
+     *
+     * @param critical 队列满时是否必须送达
+     */
+    public void send(SessionRegistry.WsSession s, TextMessage message, boolean critical) {
+        if (!s.isOpen()) return;
+        boolean overflow = false;
+        synchronized (s.queue) {
+            if (s.queue.size() >= capacity && !makeRoom(s, critical)) {
+                overflow = true;
+            } else {
+                s.queue.addLast(new Pending(message, critical, System.nanoTime()));
+            }
+        }
+        if (overflow) {
+            if (critical || !dropOldest) {
+                slowClosed.incrementAndGet();
+                log.info("[WS] 连接 {}（用户 {}，{}）发送队列已满，按慢消费者关闭", s.getId(), s.getUserId(), s.getDevice());
+                closeSlow(s);
+            } else {
+                dropped.incrementAndGet();
+            }
+            return;
+        }
+        schedule(s);
+    }
+
+    /**
+     * drop-oldest：丢掉最早的一条可丢帧腾位置；新帧本身可丢而队列里都是必达帧时不腾（新帧被丢）
+     */
+    private boolean makeRoom(SessionRegistry.WsSession s, boolean critical) {
+        if (!dropOldest) return false;
+        for (Iterator<Pending> it = s.queue.iterator(); it.hasNext(); ) {
+            if (!it.next().critical()) {
+                it.remove();
+                dropped.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void schedule(SessionRegistry.WsSession s) {
+        if (!s.scheduled.compareAndSet(false, true)) return;
+        try {
+            executor.execute(() -> drain(s));
+        } catch (RejectedExecutionException e) {
+            // 应用关闭中
+            s.scheduled.set(false);
+        }
+    }
+
+    private void drain(SessionRegistry.WsSession s) {
+        int n = 0;
+        while (true) {
+            Pending p;
+            synchronized (s.queue) {
+                p = s.queue.pollFirst();
+            }
+            if (p == null) {
+                s.scheduled.set(false);
+                // 置位前可能刚有帧入队且因 scheduled 为 true 没有调度，再看一眼
+                boolean more;
+                synchronized (s.queue) {
+                    more = !s.queue.isEmpty();
+                }
+                if (more && s.scheduled.compareAndSet(false, true)) continue;
+                return;
+            }
+            if (!s.isOpen()) {
+                synchronized (s.queue) {
+                    s.queue.clear();
+                }
+                continue;
+            }
+            long start = System.nanoTime();
+            s.sendingSince = start;
+            try {
+                s.getSession().sendMessage(p.message());
+                sent.incrementAndGet();
+                record(System.nanoTime() - p.enqueuedNanos());
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.debug("[WS] 推送失败 session={}: {}", s.getId(), e.getMessage());
+            } finally {
+                s.sendingSince = 0;
+            }
+            if (++n >= MAX_FRAMES_PER_RUN) {
+                // 让出线程：重新排到线程池队尾，scheduled 保持为 true
+                try {
+                    executor.execute(() -> drain(s));
+                } catch (RejectedExecutionException e) {
+                    s.scheduled.set(false);
+                }
+                return;
+            }
+        }
+    }
+
+    private void record(long nanos) {
+        latencySum.addAndGet(nanos);
+        latencyCount.incrementAndGet();
+        latencyMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void closeSlow(SessionRegistry.WsSession s) {
+        synchronized (s.queue) {
+            s.queue.clear();
+        }
+        registry.close(s, SLOW_CONSUMER);
+    }
+
+    /**
+     * 关闭卡在一次写上太久的连接，并打印本周期的发送统计
+     */
+    @Scheduled(fixedDelayString = "${agrimatch.ws.metrics-interval-ms:60000}")
+    public void watchdog() {
+        long now = System.nanoTime();
+        int depthTotal = 0;
+        int depthMax = 0;
+        for (SessionRegistry.WsSession s : registry.all()) {
+            long since = s.sendingSince;
+            if (since != 0 && now - since > sendTimeLimitNanos) {
+                slowClosed.incrementAndGet();
+                log.info("[WS] 连接 {}（用户 {}，{}）单帧写超过 {} ms，按慢消费者关闭",
+                        s.getId(), s.getUserId(), s.getDevice(), sendTimeLimitNanos / 1_000_000);
+                closeSlow(s);
+                continue;
+            }
+            int d = s.queueDepth();
+            depthTotal += d;
+            depthMax = Math.max(depthMax, d);
+        }
+        long count = latencyCount.getAndSet(0);
+        long sum = latencySum.getAndSet(0);
+        long max = latencyMax.getAndSet(0);
+        if (count == 0 && depthTotal == 0) return;
+        log.info("[WS] 发送统计：{} 帧，平均 {} ms，最大 {} ms；队列深度合计 {}、单连接最大 {}；累计丢弃 {}，慢连接关闭 {}，失败 {}",
+                count, count > 0 ? String.format("%.2f", sum / (double) count / 1_000_000) : "-",
+                String.format("%.2f", max / 1_000_000d), depthTotal, depthMax, dropped.get(), slowClosed.get(), failed.get());
+    }
+
+    public long sentCount() {
+        return sent.get();
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public long slowClosedCount() {
+        return slowClosed.get();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
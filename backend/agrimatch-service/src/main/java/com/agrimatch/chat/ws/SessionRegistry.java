@@ -0,0 +1,202 @@
+package com.agrimatch.chat.ws;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * WebSocket 连接登记：一个用户可同时有多个连接（网页多开、手机 App），推送发给全部在线连接
+ * - userId -> (sessionId -> 连接)，两层都是 ConcurrentHashMap，登记/注销不加锁；
+ *   用户的最后一个连接注销时摘掉外层条目，与并发登记的竞争由登记方重试解决
+ * - 每个用户最多 agrimatch.ws.max-sessions-per-user 个连接，超出时关掉最久没有活动的
+ * - 超过 agrimatch.ws.idle-timeout-ms 没有收到任何消息（含 PING）的连接定期关闭
+ */
+@Component
+public class SessionRegistry {
+    private static final Logger log = LoggerFactory.getLogger(SessionRegistry.class);
+
+    static final CloseStatus TOO_MANY_SESSIONS = CloseStatus.POLICY_VIOLATION.withReason("too many sessions");
+    static final CloseStatus IDLE = CloseStatus.SESSION_NOT_RELIABLE.withReason("idle timeout");
+
+    private final Map<Long, Map<String, WsSession>> byUser = new ConcurrentHashMap<>();
+    private final Map<String, WsSession> byId = new ConcurrentHashMap<>();
+
+    @Value("${agrimatch.ws.max-sessions-per-user:5}")
+    private int maxSessionsPerUser;
+
+    @Value("${agrimatch.ws.idle-timeout-ms:300000}")
+    private long idleTimeoutMs;
+
+    /**
+     * 一个连接及其元数据
+     */
+    public static final class WsSession {
+        private final WebSocketSession session;
+        private final Long userId;
+        private final String device;
+        private final long connectTime;
+        private volatile long lastActivity;
+        /** 待发送帧，由 OutboundSender 的发送线程按序写出；读写都在自身的锁内 */
+        final ArrayDeque<OutboundSender.Pending> queue = new ArrayDeque<>();
+        /** 是否已有发送任务在排队/执行（同一连接同时只有一个，保证顺序） */
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        /** 正在写的那一帧开始写的时间（纳秒），空闲为 0 */
+        volatile long sendingSince;
+
+        WsSession(WebSocketSession session, Long userId, String device) {
+            this.session = session;
+            this.userId = userId;
+            this.device = device;
+            this.connectTime = System.currentTimeMillis();
+            this.lastActivity = connectTime;
+        }
+
+        public WebSocketSession getSession() {
+            return session;
+        }
+
+        public String getId() {
+            return session.getId();
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        /** web / mobile / 客户端自报的设备名 */
+        public String getDevice() {
+            return device;
+        }
+
+        public long getConnectTime() {
+            return connectTime;
+        }
+
+        public long getLastActivity() {
+            return lastActivity;
+        }
+
+        public boolean isOpen() {
+            return session.isOpen();
+        }
+
+        public int queueDepth() {
+            synchronized (queue) {
+                return queue.size();
+            }
+        }
+    }
+
+    public WsSession register(WebSocketSession session, Long userId, String device) {
+        WsSession s = new WsSession(session, userId, device);
+        byId.put(s.getId(), s);
+        while (true) {
+            Map<String, WsSession> m = byUser.computeIfAbsent(userId, k -> new ConcurrentHashMap<>());
+            m.put(s.getId(), s);
+            // 外层条目可能刚被注销最后一个连接的线程摘掉，挂到了孤立的 Map 上，重来
+            if (byUser.get(userId) == m) break;
+            m.remove(s.getId());
+        }
+        enforceLimit(userId, s);
+        return s;
+    }
+
+    public void unregister(WebSocketSession session) {
+        WsSession s = byId.remove(session.getId());
+        if (s == null) return;
+        Map<String, WsSession> m = byUser.get(s.getUserId());
+        if (m == null) return;
+        // 按连接摘除：同一用户新建的连接不受旧连接关闭的影响
+        m.remove(s.getId());
+        if (m.isEmpty()) byUser.remove(s.getUserId(), m);
+    }
+
+    /**
+     * 收到客户端消息时刷新活动时间
+     */
+    public void touch(WebSocketSession session) {
+        WsSession s = byId.get(session.getId());
+        if (s != null) s.lastActivity = System.currentTimeMillis();
+    }
+
+    public WsSession get(String sessionId) {
+        return sessionId != null ? byId.get(sessionId) : null;
+    }
+
+    /**
+     * 用户当前的全部连接（快照，可能含刚断开的）
+     */
+    public Collection<WsSession> sessionsOf(Long userId) {
+        Map<String, WsSession> m = userId != null ? byUser.get(userId) : null;
+        return m != null ? List.copyOf(m.values()) : List.of();
+    }
+
+    public boolean isOnline(Long userId) {
+        Map<String, WsSession> m = userId != null ? byUser.get(userId) : null;
+        return m != null && !m.isEmpty();
+    }
+
+    public int userCount() {
+        return byUser.size();
+    }
+
+    public int sessionCount() {
+        return byId.size();
+    }
+
+    /**
+     * 全部连接（快照）
+     */
+    public Collection<WsSession> all() {
+        return List.copyOf(byId.values());
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.ws.idle-check-interval-ms:60000}")
+    public void evictIdle() {
+        long deadline = System.currentTimeMillis() - idleTimeoutMs;
+        int closed = 0;
+        for (WsSession s : byId.values()) {
+            if (s.lastActivity >= deadline && s.isOpen()) continue;
+            close(s, IDLE);
+            closed++;
+        }
+        if (closed > 0) {
+            log.info("[WS] 关闭 {} 个空闲/已断开的连接，当前在线 {} 个用户 {} 个连接", closed, userCount(), sessionCount());
+        }
+    }
+
+    private void enforceLimit(Long userId, WsSession keep) {
+        Map<String, WsSession> m = byUser.get(userId);
+        if (m == null || m.size() <= maxSessionsPerUser) return;
+        List<WsSession> list = new ArrayList<>(m.values());
+        list.remove(keep);
+        list.sort(Comparator.comparingLong(WsSession::getLastActivity));
+        for (int i = 0; i < list.size() && m.size() > maxSessionsPerUser; i++) {
+            log.info("[WS] 用户 {} 连接数超过 {}，关闭最久未活动的连接（{}）", userId, maxSessionsPerUser, list.get(i).getDevice());
+            close(list.get(i), TOO_MANY_SESSIONS);
+        }
+    }
+
+    void close(WsSession s, CloseStatus status) {
+        // 先注销，afterConnectionClosed 里再注销一次无副作用
+        unregister(s.getSession());
+        try {
+            s.getSession().close(status);
+        } catch (Exception e) {
+            log.debug("[WS] 关闭连接失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.agrimatch.common.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 内存索引全量重建期间的增量重放：
+ * - 装载新索引期间被增量更新过的实体（类型 + id）记为待重放，换入新索引后按库里最新数据重放
+ * - 换入与结束记录在同一把锁内完成，换入前一刻的增量更新不会漏掉
+ * - 增量更新在读库之前调用 touch，且不能持有索引锁（换入回调在本对象锁内取索引锁）
+ */
+public class RebuildTracker {
+
+    private final Object rebuildLock = new Object();
+    /** 类型 -> 待重放 id；不在重建时为 null */
+    private Map<String, Set<Long>> pending;
+
+    public void touch(String type, Long id) {
+        if (id == null) return;
+        synchronized (this) {
+            if (pending != null) pending.computeIfAbsent(type, k -> new LinkedHashSet<>()).add(id);
+        }
+    }
+
+    public void touch(String type, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return;
+        synchronized (this) {
+            if (pending == null) return;
+            Set<Long> set = pending.computeIfAbsent(type, k -> new LinkedHashSet<>());
+            for (Long id : ids) {
+                if (id != null) set.add(id);
+            }
+        }
+    }
+
+    /**
+     * 全量重建；同一时间只跑一次，后到的等前一次结束
+     * @param load      装载新索引（不持有任何锁）
+     * @param swap      换入新索引
+     * @param batchSize 重放时每批 id 数
+     * @param replay    按类型分批重放：以库里最新数据更新当前索引
+     */
+    public <T> Result<T> rebuild(Supplier<T> load, Consumer<T> swap, int batchSize,
+                                 BiConsumer<String, List<Long>> replay) {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pending = new LinkedHashMap<>();
+            }
+            T fresh;
+            Map<String, Set<Long>> touched;
+            try {
+                fresh = load.get();
+            } catch (RuntimeException | Error e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                swap.accept(fresh);
+                touched = pending;
+                pending = null;
+            }
+
+            int replayed = 0;
+            for (Map.Entry<String, Set<Long>> e : touched.entrySet()) {
+                List<Long> ids = new ArrayList<>(e.getValue());
+                for (int i = 0; i < ids.size(); i += batchSize) {
+                    replay.accept(e.getKey(), ids.subList(i, Math.min(i + batchSize, ids.size())));
+                }
+                replayed += ids.size();
+            }
+            return new Result<>(fresh, replayed);
+        }
+    }
+
+    /**
+     * @param index    换入的新索引
+     * @param replayed 重放的实体数
+     */
+    public record Result<T>(T index, int replayed) {
+    }
+}
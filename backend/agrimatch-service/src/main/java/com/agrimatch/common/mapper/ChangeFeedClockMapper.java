@@ -0,0 +1,18 @@
+package com.agrimatch.common.mapper;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+
+public interface ChangeFeedClockMapper {
+
+    /**
+     * 库时钟 now - lag
+     */
+    LocalDateTime selectNowMinus(@Param("lagMs") long lagMs);
+
+    /**
+     * 库时钟 now - lag 与最早的活跃事务开始时间（不含本连接）之间取较早者；需要 PROCESS 权限
+     */
+    LocalDateTime selectSafeUntil(@Param("lagMs") long lagMs);
+}
@@ -4,6 +4,7 @@ import com.agrimatch.chat.mapper.ChatMapper;
 import com.agrimatch.contract.mapper.ContractMapper;
 import com.agrimatch.supply.mapper.SupplyMapper;
 import com.agrimatch.requirement.mapper.RequirementMapper;
+import com.agrimatch.util.ParamsJsonUtil;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -130,58 +131,7 @@ public class ParamsMigrationRunner implements ApplicationRunner {
     private String standardize(String rawJson, Map<String, String> idToName) throws Exception {
         if (rawJson == null || rawJson.trim().isEmpty() || rawJson.equals("{}")) return rawJson;
 
-        JsonNode root = objectMapper.readTree(rawJson);
-        ObjectNode result = objectMapper.createObjectNode();
-
-        // 情况 1: {"params": {"1": {"name": "...", "value": "..."}, ...}, "custom": {...}}
-        if (root.has("params") && root.get("params").isObject()) {
-            JsonNode params = root.get("params");
-            params.fields().forEachRemaining(entry -> {
-                String key = entry.getKey();
-                JsonNode val = entry.getValue();
-                if (val.isObject() && val.has("name") && val.has("value")) {
-                    result.put(val.get("name").asText(), val.get("value").asText());
-                } else if (val.isTextual()) {
-                    String name = idToName.getOrDefault(key, key);
-                    result.put(name, val.asText());
-                }
-            });
-            // 处理 custom
-            if (root.has("custom") && root.get("custom").isObject()) {
-                root.get("custom").fields().forEachRemaining(entry -> {
-                    result.put(entry.getKey(), entry.getValue().asText());
-                });
-            }
-        } 
-        // 情况 2: 直接是 {"1": "值", "2": "值"}
-        else if (root.isObject()) {
-            // 检查是否包含嵌套的 params 或 custom，如果不包含，则认为是扁平的 ID-Value 或 Name-Value
-            boolean hasNested = root.has("params") || root.has("custom");
-            if (!hasNested) {
-                root.fields().forEachRemaining(entry -> {
-                    String key = entry.getKey();
-                    String name = idToName.getOrDefault(key, key);
-                    result.put(name, entry.getValue().asText());
-                });
-            } else {
-                // 如果有嵌套但没走上面的逻辑，说明结构可能更复杂，或者是我们已经处理过的结构的一部分
-                // 这里我们递归处理或者提取有用的部分
-                if (root.has("params") && root.get("params").isObject()) {
-                    return standardize(objectMapper.writeValueAsString(root), idToName);
-                }
-            }
-        }
-        // 情况 3: 数组格式 [{"label": "...", "value": "..."}, ...]
-        else if (root.isArray()) {
-            for (JsonNode item : root) {
-                if (item.has("label") && item.has("value")) {
-                    result.put(item.get("label").asText(), item.get("value").asText());
-                } else if (item.has("name") && item.has("value")) {
-                    result.put(item.get("name").asText(), item.get("value").asText());
-                }
-            }
-        }
-
+        Map<String, String> result = ParamsJsonUtil.flatten(objectMapper.readTree(rawJson), idToName);
         if (result.isEmpty()) return rawJson;
         return objectMapper.writeValueAsString(result);
     }
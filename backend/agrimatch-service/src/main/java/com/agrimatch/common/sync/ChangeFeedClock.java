@@ -0,0 +1,43 @@
+package com.agrimatch.common.sync;
+
+import com.agrimatch.common.mapper.ChangeFeedClockMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 大厅增量同步的读取上界（按 update_time 拉变更时只读到这里）：
+ * - update_time 由库在语句执行时写入、事务提交时才可见，上界取库时钟而不是 JVM 时钟
+ * - 上界不晚于最早的未提交事务开始时间，长事务（批量导入、批量改报价）提交前不会越过它，提交后照常读到
+ * - 没有 PROCESS 权限读不到 INNODB_TRX 时退回 库时钟 now - lag
+ */
+@Component
+public class ChangeFeedClock {
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeedClock.class);
+
+    private final ChangeFeedClockMapper clockMapper;
+
+    @Value("${agrimatch.hall-sync.safety-lag-ms:3000}")
+    private long lagMs;
+
+    private volatile boolean trxVisible = true;
+
+    public ChangeFeedClock(ChangeFeedClockMapper clockMapper) {
+        this.clockMapper = clockMapper;
+    }
+
+    public LocalDateTime safeUntil() {
+        if (trxVisible) {
+            try {
+                return clockMapper.selectSafeUntil(lagMs);
+            } catch (RuntimeException e) {
+                trxVisible = false;
+                log.warn("[HallSync] 读取 INNODB_TRX 失败（需要 PROCESS 权限），退回按库时钟 now - {} ms: {}", lagMs, e.getMessage());
+            }
+        }
+        return clockMapper.selectNowMinus(lagMs);
+    }
+}
@@ -0,0 +1,52 @@
+package com.agrimatch.common.tx;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 内存索引等副作用推迟到当前事务提交之后执行：
+ * - 事务回滚时不执行，避免索引里出现库里不存在的数据
+ * - 没有进行中的事务（定时任务、对账）时立即执行
+ * - 提交后回调里再调用时立即执行（此时同步器仍处于激活状态，但新登记的回调不会再被触发）
+ * 提交后执行失败只记日志，由各自的周期对账兜底
+ */
+public final class AfterCommit {
+    private static final Logger log = LoggerFactory.getLogger(AfterCommit.class);
+
+    /** 当前线程正在执行的提交后回调 */
+    private static final ThreadLocal<TransactionSynchronization> CURRENT = new ThreadLocal<>();
+
+    private AfterCommit() {
+    }
+
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || inCallbackOfCurrentTransaction()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                TransactionSynchronization outer = CURRENT.get();
+                CURRENT.set(this);
+                try {
+                    action.run();
+                } catch (Exception e) {
+                    log.warn("[Tx] 提交后回调执行失败: {}", e.getMessage(), e);
+                } finally {
+                    CURRENT.set(outer);
+                }
+            }
+        });
+    }
+
+    /**
+     * 回调里新开的事务（REQUIRES_NEW）有自己的同步器列表，不含当前回调，照常推迟到它提交之后
+     */
+    private static boolean inCallbackOfCurrentTransaction() {
+        TransactionSynchronization current = CURRENT.get();
+        return current != null && TransactionSynchronizationManager.getSynchronizations().contains(current);
+    }
+}
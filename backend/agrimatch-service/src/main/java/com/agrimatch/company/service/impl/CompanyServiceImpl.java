@@ -12,10 +12,12 @@ import com.agrimatch.company.service.CompanyService;
 import com.agrimatch.tag.service.TagService;
 import com.agrimatch.geo.dto.GeoPoint;
 import com.agrimatch.geo.service.AmapGeocodeService;
+import com.agrimatch.geo.service.GeoIndexService;
 import com.agrimatch.requirement.dto.RequirementQuery;
 import com.agrimatch.requirement.service.RequirementService;
 import com.agrimatch.supply.dto.SupplyQuery;
 import com.agrimatch.supply.service.SupplyService;
+import com.agrimatch.typeahead.service.TypeaheadService;
 import com.agrimatch.user.mapper.UserMapper;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
@@ -32,16 +34,20 @@ public class CompanyServiceImpl implements CompanyService {
     private final SupplyService supplyService;
     private final RequirementService requirementService;
     private final TagService tagService;
+    private final GeoIndexService geoIndexService;
+    private final TypeaheadService typeaheadService;
 
     public CompanyServiceImpl(CompanyMapper companyMapper, AmapGeocodeService amapGeocodeService, UserMapper userMapper,
                               @Lazy SupplyService supplyService, @Lazy RequirementService requirementService,
-                              TagService tagService) {
+                              TagService tagService, GeoIndexService geoIndexService, TypeaheadService typeaheadService) {
         this.companyMapper = companyMapper;
         this.amapGeocodeService = amapGeocodeService;
         this.userMapper = userMapper;
         this.supplyService = supplyService;
         this.requirementService = requirementService;
         this.tagService = tagService;
+        this.geoIndexService = geoIndexService;
+        this.typeaheadService = typeaheadService;
     }
 
     @Override
@@ -88,6 +94,8 @@ public class CompanyServiceImpl implements CompanyService {
 
         int rows = companyMapper.insert(c);
         if (rows != 1 || c.getId() == null) throw new ApiException(ResultCode.SERVER_ERROR);
+        geoIndexService.putCompany(c.getId(), c.getLat(), c.getLng());
+        typeaheadService.refresh(TypeaheadService.COMPANY, List.of(c.getId()));
 
         // 同步标签
         tagService.syncEntityTags("company", c.getId(), "general", c.getTagsJson());
@@ -173,6 +181,13 @@ public class CompanyServiceImpl implements CompanyService {
 
         int rows = companyMapper.update(c);
         if (rows != 1) throw new ApiException(ResultCode.NOT_FOUND);
+        // 未重新解析时库里仍是旧坐标；putCompany 遇空坐标会移出索引
+        geoIndexService.putCompany(id,
+                c.getLat() != null ? c.getLat() : old.getLat(),
+                c.getLng() != null ? c.getLng() : old.getLng());
+        if (req.getCompanyName() != null) {
+            typeaheadService.refresh(TypeaheadService.COMPANY, List.of(id));
+        }
 
         // 同步标签
         if (req.getTagsJson() != null) {
@@ -200,6 +215,7 @@ public class CompanyServiceImpl implements CompanyService {
         u.setLng(p.getLng());
         int rows = companyMapper.update(u);
         if (rows != 1) throw new ApiException(ResultCode.SERVER_ERROR);
+        geoIndexService.putCompany(id, u.getLat(), u.getLng());
         BusCompany out = companyMapper.selectById(id);
         return toResp(out);
     }
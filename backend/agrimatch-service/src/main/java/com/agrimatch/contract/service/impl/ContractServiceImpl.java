@@ -6,6 +6,7 @@ import com.agrimatch.chat.dto.ChatMessageResponse;
 import com.agrimatch.chat.event.ContractMessageEvent;
 import com.agrimatch.chat.event.MessageUpdateEvent;
 import com.agrimatch.chat.mapper.ChatMapper;
+import com.agrimatch.chat.service.ChatSearchService;
 import com.agrimatch.common.api.ResultCode;
 import com.agrimatch.common.exception.ApiException;
 import com.agrimatch.company.domain.BusCompany;
@@ -20,6 +21,7 @@ import com.agrimatch.contract.mapper.ContractChangeLogMapper;
 import com.agrimatch.contract.mapper.ContractMapper;
 import com.agrimatch.contract.mapper.ContractSignatureMapper;
 import com.agrimatch.contract.service.ContractService;
+import com.agrimatch.product_param.service.ParamIndexService;
 import com.agrimatch.user.domain.SysUser;
 import com.agrimatch.user.mapper.UserMapper;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -57,6 +59,8 @@ public class ContractServiceImpl implements ContractService {
     private final ChatMapper chatMapper;
     private final ObjectMapper objectMapper;
     private final ApplicationEventPublisher eventPublisher;
+    private final ParamIndexService paramIndexService;
+    private final ChatSearchService chatSearchService;
 
     public ContractServiceImpl(ContractMapper contractMapper,
                                ContractSignatureMapper signatureMapper,
@@ -66,7 +70,9 @@ public class ContractServiceImpl implements ContractService {
                                CompanyMapper companyMapper,
                                ChatMapper chatMapper,
                                ObjectMapper objectMapper,
-                               ApplicationEventPublisher eventPublisher) {
+                               ApplicationEventPublisher eventPublisher,
+                               ParamIndexService paramIndexService,
+                               ChatSearchService chatSearchService) {
         this.contractMapper = contractMapper;
         this.signatureMapper = signatureMapper;
         this.changeLogMapper = changeLogMapper;
@@ -76,6 +82,8 @@ public class ContractServiceImpl implements ContractService {
         this.chatMapper = chatMapper;
         this.objectMapper = objectMapper;
         this.eventPublisher = eventPublisher;
+        this.paramIndexService = paramIndexService;
+        this.chatSearchService = chatSearchService;
     }
 
     @Override
@@ -276,6 +284,7 @@ public class ContractServiceImpl implements ContractService {
 
         int rows = contractMapper.insert(contract);
         if (rows != 1 || contract.getId() == null) throw new ApiException(ResultCode.SERVER_ERROR);
+        paramIndexService.sync(ParamIndexService.CONTRACT, contract.getId(), contract.getParamsJson());
 
         // 记录创建日志
         logChange(contract.getId(), "CREATE", "从报价单创建合同", null, null, userId);
@@ -353,6 +362,7 @@ public class ContractServiceImpl implements ContractService {
             
             // 更新会话最后消息
             chatMapper.updateConversationLast(conversation.getId(), msg.getId(), content);
+            chatSearchService.index(msg);
             
             log.info("sendContractMessage: inserted CONTRACT message id={} for contract {}", msg.getId(), contract.getContractNo());
             
@@ -657,6 +667,7 @@ public class ContractServiceImpl implements ContractService {
             
             // 更新会话最后消息
             chatMapper.updateConversationLast(conversation.getId(), msg.getId(), content);
+            chatSearchService.index(msg);
             
             log.info("sendSignCompleteMessage: sent system message for contract {}", contractId);
             
@@ -745,6 +756,7 @@ public class ContractServiceImpl implements ContractService {
             
             // 更新消息
             chatMapper.updateMessagePayload(msg.getId(), payloadJson);
+            msg.setPayloadJson(payloadJson);
             log.info("updateContractMessageStatus: Updated message {} payload for contract {}", msg.getId(), contractId);
             
             // 获取会话双方用户
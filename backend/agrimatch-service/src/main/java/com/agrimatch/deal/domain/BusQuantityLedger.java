@@ -0,0 +1,64 @@
+package com.agrimatch.deal.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 成交量台账：每个供应/需求一行，记录已确认成交数量合计
+ */
+public class BusQuantityLedger {
+    private String entityType;
+    private Long entityId;
+    private BigDecimal dealQty;
+    private Integer dealCount;
+    private LocalDateTime createTime;
+    private LocalDateTime updateTime;
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public BigDecimal getDealQty() {
+        return dealQty;
+    }
+
+    public void setDealQty(BigDecimal dealQty) {
+        this.dealQty = dealQty;
+    }
+
+    public Integer getDealCount() {
+        return dealCount;
+    }
+
+    public void setDealCount(Integer dealCount) {
+        this.dealCount = dealCount;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(LocalDateTime createTime) {
+        this.createTime = createTime;
+    }
+
+    public LocalDateTime getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(LocalDateTime updateTime) {
+        this.updateTime = updateTime;
+    }
+}
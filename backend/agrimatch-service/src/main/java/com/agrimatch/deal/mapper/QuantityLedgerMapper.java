@@ -0,0 +1,54 @@
+package com.agrimatch.deal.mapper;
+
+import com.agrimatch.deal.domain.BusQuantityLedger;
+import org.apache.ibatis.annotations.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface QuantityLedgerMapper {
+
+    /**
+     * 台账行不存在时按 bus_deal 汇总补建（存在则不动）
+     */
+    int ensure(@Param("entityType") String entityType, @Param("entityId") Long entityId);
+
+    /**
+     * 累加成交量；limitQty 非空时仅在累加后不超过 limitQty 才生效（防超卖，行锁串行化并发成交）
+     */
+    int addDeal(@Param("entityType") String entityType,
+                @Param("entityId") Long entityId,
+                @Param("qty") BigDecimal qty,
+                @Param("limitQty") BigDecimal limitQty);
+
+    BigDecimal selectDealQty(@Param("entityType") String entityType, @Param("entityId") Long entityId);
+
+    List<BusQuantityLedger> selectByEntityIds(@Param("entityType") String entityType,
+                                              @Param("entityIds") Collection<Long> entityIds);
+
+    /**
+     * 按 bus_deal 全量重建（覆盖已有台账行）
+     */
+    int rebuild(@Param("entityType") String entityType);
+
+    /**
+     * 查询与 bus_deal 实际汇总不一致的台账（dealQty/dealCount 为实际值）
+     */
+    List<BusQuantityLedger> selectDrift(@Param("entityType") String entityType);
+
+    /**
+     * 锁定单个台账行（SELECT ... FOR UPDATE），与成交累加互斥
+     */
+    BusQuantityLedger lockLedger(@Param("entityType") String entityType, @Param("entityId") Long entityId);
+
+    /**
+     * 按 bus_deal 汇总单个实体的实际成交（加共享锁读最新已提交数据）
+     */
+    BusQuantityLedger selectActual(@Param("entityType") String entityType, @Param("entityId") Long entityId);
+
+    /**
+     * 用实际值修正单个台账行
+     */
+    int repair(BusQuantityLedger ledger);
+}
@@ -0,0 +1,46 @@
+package com.agrimatch.deal.scheduler;
+
+import com.agrimatch.deal.service.QuantityLedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 成交量台账维护任务
+ * - 启动时按 bus_deal 重建一次（兼容台账上线前的历史成交）
+ * - 每日凌晨校验一次，发现偏差自动修正
+ */
+@Component
+public class QuantityLedgerScheduler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(QuantityLedgerScheduler.class);
+
+    private final QuantityLedgerService quantityLedgerService;
+
+    public QuantityLedgerScheduler(QuantityLedgerService quantityLedgerService) {
+        this.quantityLedgerService = quantityLedgerService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            int rows = quantityLedgerService.rebuild();
+            log.info("[Ledger] 成交量台账重建完成，影响 {} 行", rows);
+        } catch (Exception e) {
+            log.error("[Ledger] 成交量台账重建失败", e);
+        }
+    }
+
+    @Scheduled(cron = "${agrimatch.ledger.verify-cron:0 30 3 * * ?}")
+    public void verify() {
+        try {
+            int repaired = quantityLedgerService.verifyAndRepair();
+            log.info("[Ledger] 成交量台账校验完成，修正 {} 行", repaired);
+        } catch (Exception e) {
+            log.error("[Ledger] 成交量台账校验失败", e);
+        }
+    }
+}
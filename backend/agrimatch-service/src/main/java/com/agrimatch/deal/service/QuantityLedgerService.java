@@ -0,0 +1,39 @@
+package com.agrimatch.deal.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 成交量台账：替代逐行 SUM(bus_deal) 计算供应/需求剩余量
+ */
+public interface QuantityLedgerService {
+    String SUPPLY = "supply";
+    String REQUIREMENT = "requirement";
+
+    /**
+     * 已确认成交量（台账行不存在时按 bus_deal 补建）
+     */
+    BigDecimal getDealQty(String entityType, Long entityId);
+
+    /**
+     * 批量读取已确认成交量；无成交记录的实体返回 0
+     */
+    Map<Long, BigDecimal> getDealQtyMap(String entityType, Collection<Long> entityIds);
+
+    /**
+     * 在当前事务中累加成交量；totalQty 非空时累加后超过 totalQty 则返回 false 且不修改
+     */
+    boolean addDeal(String entityType, Long entityId, BigDecimal qty, BigDecimal totalQty);
+
+    /**
+     * 按 bus_deal 全量重建台账
+     */
+    int rebuild();
+
+    /**
+     * 校验台账与 bus_deal 是否一致，不一致的行按实际值修正
+     * @return 修正行数
+     */
+    int verifyAndRepair();
+}
@@ -9,6 +9,8 @@ import com.agrimatch.deal.dto.DealCreateRequest;
 import com.agrimatch.deal.dto.DealResponse;
 import com.agrimatch.deal.mapper.DealMapper;
 import com.agrimatch.deal.service.DealService;
+import com.agrimatch.deal.service.QuantityLedgerService;
+import com.agrimatch.match.service.MatchService;
 import com.agrimatch.requirement.domain.BusRequirement;
 import com.agrimatch.requirement.mapper.RequirementMapper;
 import com.agrimatch.supply.domain.BusSupply;
@@ -18,6 +20,7 @@ import com.agrimatch.user.mapper.UserMapper;
 import com.agrimatch.util.GeoUtil;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
@@ -32,6 +35,8 @@ public class DealServiceImpl implements DealService {
     private final SupplyMapper supplyMapper;
     private final UserMapper userMapper;
     private final CompanyMapper companyMapper;
+    private final QuantityLedgerService quantityLedgerService;
+    private final MatchService matchService;
 
     @Value("${agrimatch.freight.rate-per-ton-km:0.8}")
     private BigDecimal freightRatePerTonKm;
@@ -40,15 +45,20 @@ public class DealServiceImpl implements DealService {
                            RequirementMapper requirementMapper,
                            SupplyMapper supplyMapper,
                            UserMapper userMapper,
-                           CompanyMapper companyMapper) {
+                           CompanyMapper companyMapper,
+                           QuantityLedgerService quantityLedgerService,
+                           MatchService matchService) {
         this.dealMapper = dealMapper;
         this.requirementMapper = requirementMapper;
         this.supplyMapper = supplyMapper;
         this.userMapper = userMapper;
         this.companyMapper = companyMapper;
+        this.quantityLedgerService = quantityLedgerService;
+        this.matchService = matchService;
     }
 
     @Override
+    @Transactional
     public Long create(Long buyerUserId, DealCreateRequest req) {
         if (buyerUserId == null) throw new ApiException(401, "未登录");
         if (req == null || req.getRequirementId() == null || req.getSupplyId() == null || req.getQuantity() == null) {
@@ -91,15 +101,13 @@ public class DealServiceImpl implements DealService {
         }
 
         // supply remaining quantity check (avoid oversell)
-        BigDecimal sumS0 = dealMapper.sumConfirmedQuantityBySupplyId(s.getId());
-        if (sumS0 == null) sumS0 = BigDecimal.ZERO;
+        BigDecimal sumS0 = quantityLedgerService.getDealQty(QuantityLedgerService.SUPPLY, s.getId());
         BigDecimal remainingS = s.getQuantity().subtract(sumS0);
         if (remainingS.compareTo(req.getQuantity()) < 0) {
             throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "成交数量超过供应剩余量，剩余：" + remainingS);
         }
 
-        BigDecimal sum = dealMapper.sumConfirmedQuantityByRequirementId(r.getId());
-        if (sum == null) sum = BigDecimal.ZERO;
+        BigDecimal sum = quantityLedgerService.getDealQty(QuantityLedgerService.REQUIREMENT, r.getId());
         BigDecimal remaining = r.getQuantity().subtract(sum);
         if (remaining.compareTo(req.getQuantity()) < 0) {
             throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "成交数量超过剩余需求量，剩余：" + remaining);
@@ -146,9 +154,16 @@ public class DealServiceImpl implements DealService {
         int rows = dealMapper.insert(d);
         if (rows != 1 || d.getId() == null) throw new ApiException(ResultCode.SERVER_ERROR);
 
+        // 台账累加（条件更新持有行锁，并发成交时二次防超卖；失败则整笔回滚）
+        if (!quantityLedgerService.addDeal(QuantityLedgerService.SUPPLY, s.getId(), req.getQuantity(), s.getQuantity())) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "成交数量超过供应剩余量，请刷新后重试");
+        }
+        if (!quantityLedgerService.addDeal(QuantityLedgerService.REQUIREMENT, r.getId(), req.getQuantity(), r.getQuantity())) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "成交数量超过剩余需求量，请刷新后重试");
+        }
+
         // update requirement status: 0发布, 1部分成交, 2下架, 3全部成交
-        BigDecimal sum2 = dealMapper.sumConfirmedQuantityByRequirementId(r.getId());
-        if (sum2 == null) sum2 = BigDecimal.ZERO;
+        BigDecimal sum2 = quantityLedgerService.getDealQty(QuantityLedgerService.REQUIREMENT, r.getId());
         int newStatus = sum2.compareTo(r.getQuantity()) >= 0 ? 3 : 1;
         BusRequirement up = new BusRequirement();
         up.setId(r.getId());
@@ -157,8 +172,7 @@ public class DealServiceImpl implements DealService {
         requirementMapper.update(up);
 
         // update supply status: 0发布中, 1部分成交, 2下架, 3全部成交
-        BigDecimal sumS = dealMapper.sumConfirmedQuantityBySupplyId(s.getId());
-        if (sumS == null) sumS = BigDecimal.ZERO;
+        BigDecimal sumS = quantityLedgerService.getDealQty(QuantityLedgerService.SUPPLY, s.getId());
         // supply.quantity 已在上方保证非空
         int newSupplyStatus = sumS.compareTo(s.getQuantity()) >= 0 ? 3 : 1;
         BusSupply supUp = new BusSupply();
@@ -167,6 +181,14 @@ public class DealServiceImpl implements DealService {
         supUp.setStatus(newSupplyStatus);
         supplyMapper.update(supUp);
 
+        // 全部成交的挂牌不再参与撮合
+        if (newStatus == 3) {
+            matchService.removeRequirements(List.of(r.getId()));
+        }
+        if (newSupplyStatus == 3) {
+            matchService.removeSupplies(List.of(s.getId()));
+        }
+
         return d.getId();
     }
 
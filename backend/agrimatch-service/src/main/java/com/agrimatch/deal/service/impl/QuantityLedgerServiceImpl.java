@@ -0,0 +1,105 @@
+package com.agrimatch.deal.service.impl;
+
+import com.agrimatch.deal.domain.BusQuantityLedger;
+import com.agrimatch.deal.mapper.QuantityLedgerMapper;
+import com.agrimatch.deal.service.QuantityLedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+@Service
+public class QuantityLedgerServiceImpl implements QuantityLedgerService {
+    private static final Logger log = LoggerFactory.getLogger(QuantityLedgerServiceImpl.class);
+
+    private final QuantityLedgerMapper ledgerMapper;
+    private final TransactionTemplate requiresNew;
+
+    public QuantityLedgerServiceImpl(QuantityLedgerMapper ledgerMapper, PlatformTransactionManager transactionManager) {
+        this.ledgerMapper = ledgerMapper;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public BigDecimal getDealQty(String entityType, Long entityId) {
+        if (entityId == null) return BigDecimal.ZERO;
+        ledgerMapper.ensure(entityType, entityId);
+        BigDecimal qty = ledgerMapper.selectDealQty(entityType, entityId);
+        return qty != null ? qty : BigDecimal.ZERO;
+    }
+
+    @Override
+    public Map<Long, BigDecimal> getDealQtyMap(String entityType, Collection<Long> entityIds) {
+        Map<Long, BigDecimal> out = new HashMap<>();
+        if (entityIds == null || entityIds.isEmpty()) return out;
+        Set<Long> ids = new LinkedHashSet<>(entityIds);
+        ids.removeIf(Objects::isNull);
+        if (ids.isEmpty()) return out;
+        for (BusQuantityLedger l : ledgerMapper.selectByEntityIds(entityType, ids)) {
+            out.put(l.getEntityId(), l.getDealQty() != null ? l.getDealQty() : BigDecimal.ZERO);
+        }
+        // 台账由启动重建 + 成交同事务维护，缺行即无成交
+        for (Long id : ids) {
+            out.putIfAbsent(id, BigDecimal.ZERO);
+        }
+        return out;
+    }
+
+    @Override
+    public boolean addDeal(String entityType, Long entityId, BigDecimal qty, BigDecimal totalQty) {
+        ledgerMapper.ensure(entityType, entityId);
+        return ledgerMapper.addDeal(entityType, entityId, qty, totalQty) == 1;
+    }
+
+    @Override
+    public int rebuild() {
+        int rows = ledgerMapper.rebuild(SUPPLY) + ledgerMapper.rebuild(REQUIREMENT);
+        // rebuild 只覆盖有成交的实体，残留的非零行交给 verify 归零
+        verifyAndRepair();
+        return rows;
+    }
+
+    @Override
+    public int verifyAndRepair() {
+        int repaired = 0;
+        for (String type : List.of(SUPPLY, REQUIREMENT)) {
+            // selectDrift 不加锁，只作候选；逐行在锁内复核后再写
+            List<BusQuantityLedger> drift = ledgerMapper.selectDrift(type);
+            for (BusQuantityLedger candidate : drift) {
+                Boolean fixed = requiresNew.execute(status -> repairLocked(type, candidate.getEntityId()));
+                if (Boolean.TRUE.equals(fixed)) repaired++;
+            }
+        }
+        return repaired;
+    }
+
+    /**
+     * 锁住台账行后重算实际值：期间的成交要么已提交（汇总可见），要么等本事务提交后再累加，不会被覆盖
+     */
+    private boolean repairLocked(String type, Long entityId) {
+        ledgerMapper.ensure(type, entityId);
+        BusQuantityLedger locked = ledgerMapper.lockLedger(type, entityId);
+        BusQuantityLedger actual = ledgerMapper.selectActual(type, entityId);
+        if (locked != null
+                && locked.getDealQty() != null && locked.getDealQty().compareTo(actual.getDealQty()) == 0
+                && Objects.equals(locked.getDealCount(), actual.getDealCount())) {
+            return false;
+        }
+        log.warn("[Ledger] 台账不一致已修正: {}#{} -> dealQty={}, dealCount={}",
+                type, entityId, actual.getDealQty(), actual.getDealCount());
+        ledgerMapper.repair(actual);
+        return true;
+    }
+}
@@ -0,0 +1,21 @@
+package com.agrimatch.dedup.domain;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 计算近似重复签名用的挂牌字段（供应取出厂价/产地，需求取期望价）
+ */
+@Data
+public class DedupSource {
+    private Long id;
+    private Long companyId;
+    /** 供应编号 / 需求编号，提示用户用 */
+    private String listingNo;
+    private String categoryName;
+    private String origin;
+    private BigDecimal price;
+    private String paramsJson;
+    private String remark;
+}
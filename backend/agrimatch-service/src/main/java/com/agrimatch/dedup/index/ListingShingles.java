@@ -0,0 +1,98 @@
+package com.agrimatch.dedup.index;
+
+import com.agrimatch.dedup.domain.DedupSource;
+import com.agrimatch.product_param.index.ParamExtractor;
+import com.agrimatch.util.ParamsJsonUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 挂牌 -> MinHash 特征集合：
+ * - 结构化特征：品类、产地、规范化后的参数（参数名 = 参数值）、价格档位
+ * - 备注：去掉空白和标点后的 3 字片段
+ * 备注长时片段数远多于结构化特征，结构化特征按备注片段数复制多份（#1、#2...），
+ * 免得两条参数不同、只是套用同一段备注模板的挂牌被当成重复
+ */
+public final class ListingShingles {
+
+    private static final int GRAM = 3;
+    private static final int MAX_REMARK_GRAMS = 200;
+    private static final int MAX_COPIES = 8;
+    /** 价格按 2% 一档取对数分档，另加错开半档的一组，相近价格至少共享一档 */
+    private static final double PRICE_STEP = Math.log(1.02);
+
+    private ListingShingles() {
+    }
+
+    public static List<String> of(DedupSource s, ObjectMapper objectMapper) {
+        List<String> structured = new ArrayList<>();
+        if (s.getCategoryName() != null) structured.add("c:" + normalize(s.getCategoryName()));
+        if (s.getOrigin() != null && !s.getOrigin().isBlank()) structured.add("o:" + normalize(s.getOrigin()));
+        if (s.getPrice() != null && s.getPrice().compareTo(BigDecimal.ZERO) > 0) {
+            double bucket = Math.log(s.getPrice().doubleValue()) / PRICE_STEP;
+            structured.add("$:" + (long) Math.floor(bucket));
+            structured.add("$h:" + (long) Math.floor(bucket + 0.5));
+        }
+        for (Map.Entry<String, String> e : params(s.getParamsJson(), objectMapper).entrySet()) {
+            String key = ParamExtractor.normalizeKey(e.getKey());
+            String value = e.getValue() != null ? normalize(e.getValue()) : "";
+            if (!key.isEmpty() && !value.isEmpty()) structured.add("p:" + key + "=" + value);
+        }
+
+        Set<String> remark = remarkGrams(s.getRemark());
+        int copies = structured.isEmpty() ? 1
+                : Math.max(1, Math.min(MAX_COPIES, (remark.size() + structured.size() - 1) / structured.size()));
+        List<String> out = new ArrayList<>(structured.size() * copies + remark.size());
+        for (String f : structured) {
+            out.add(f);
+            for (int i = 1; i < copies; i++) {
+                out.add(f + "#" + i);
+            }
+        }
+        out.addAll(remark);
+        return out;
+    }
+
+    private static Map<String, String> params(String paramsJson, ObjectMapper objectMapper) {
+        if (paramsJson == null || paramsJson.isBlank()) return Map.of();
+        try {
+            return ParamsJsonUtil.flatten(objectMapper.readTree(paramsJson), Map.of());
+        } catch (Exception e) {
+            return Map.of();
+        }
+    }
+
+    private static Set<String> remarkGrams(String remark) {
+        Set<String> out = new LinkedHashSet<>();
+        if (remark == null) return out;
+        String text = normalize(remark);
+        if (text.isEmpty()) return out;
+        if (text.length() <= GRAM) {
+            out.add("r:" + text);
+            return out;
+        }
+        for (int i = 0; i + GRAM <= text.length() && out.size() < MAX_REMARK_GRAMS; i++) {
+            out.add("r:" + text.substring(i, i + GRAM));
+        }
+        return out;
+    }
+
+    /**
+     * 只保留字母、数字（含小数点）和汉字，字母小写
+     */
+    static String normalize(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '.') sb.append(c);
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,73 @@
+package com.agrimatch.dedup.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * MinHash 签名：NUM_HASHES 个独立哈希函数在特征集合上的最小值，
+ * 两个签名相同位置取值相等的比例是两集合 Jaccard 相似度的无偏估计
+ */
+public final class MinHash {
+
+    public static final int NUM_HASHES = 64;
+
+    private static final long[] SEEDS = new long[NUM_HASHES];
+
+    static {
+        // 固定种子：签名只在内存里，但重建前后必须可比
+        Random r = new Random(0x5D3E7A1C9B2F4E6DL);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            SEEDS[i] = r.nextLong();
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /**
+     * @return 特征为空时返回 null
+     */
+    public static int[] signature(Collection<String> shingles) {
+        if (shingles == null || shingles.isEmpty()) return null;
+        int[] sig = new int[NUM_HASHES];
+        Arrays.fill(sig, Integer.MAX_VALUE);
+        for (String s : shingles) {
+            long h = fnv1a(s);
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int v = (int) (mix(h ^ SEEDS[i]) >>> 33);
+                if (v < sig[i]) sig[i] = v;
+            }
+        }
+        return sig;
+    }
+
+    /**
+     * 估计的 Jaccard 相似度
+     */
+    public static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) same++;
+        }
+        return same / (double) NUM_HASHES;
+    }
+
+    static long fnv1a(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * SplitMix64 的末尾混合
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
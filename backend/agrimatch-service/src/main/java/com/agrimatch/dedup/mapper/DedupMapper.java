@@ -0,0 +1,37 @@
+package com.agrimatch.dedup.mapper;
+
+import com.agrimatch.dedup.domain.DedupSource;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * entityType 只能是 supply / requirement
+ */
+@Mapper
+public interface DedupMapper {
+
+    /**
+     * 建索引：在架挂牌（未删除、未下架、未过期）按主键游标分批读取
+     */
+    List<DedupSource> selectActiveAfter(@Param("entityType") String entityType, @Param("afterId") Long afterId,
+                                        @Param("limit") int limit);
+
+    /**
+     * 这批挂牌中仍在架的
+     */
+    List<DedupSource> selectActive(@Param("entityType") String entityType, @Param("ids") Collection<Long> ids);
+
+    /**
+     * 把同公司的旧挂牌折叠到 dupOfId 下（大厅列表不再单独展示）
+     */
+    int markDuplicates(@Param("entityType") String entityType, @Param("companyId") Long companyId,
+                       @Param("ids") Collection<Long> ids, @Param("dupOfId") Long dupOfId);
+
+    /**
+     * 折叠目标在折叠之后有过变动的挂牌，刷新 update_time 以便大厅增量同步重新下发
+     */
+    int touchCollapsed(@Param("entityType") String entityType);
+}
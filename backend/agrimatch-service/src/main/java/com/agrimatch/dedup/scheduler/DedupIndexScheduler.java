@@ -0,0 +1,55 @@
+package com.agrimatch.dedup.scheduler;
+
+import com.agrimatch.dedup.service.DedupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 近似重复索引维护任务
+ * - 启动时全量装载在架挂牌的签名
+ * - 定期重建（移出已下架/过期的挂牌，兜底其他节点的发布）
+ * - 折叠目标变动后重新下发折叠在它下面的挂牌
+ */
+@Component
+public class DedupIndexScheduler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DedupIndexScheduler.class);
+
+    private final DedupService dedupService;
+
+    public DedupIndexScheduler(DedupService dedupService) {
+        this.dedupService = dedupService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            dedupService.rebuild();
+        } catch (Exception e) {
+            log.error("[Dedup] 近似重复索引装载失败，装载完成前不做重复检查", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.dedup.rebuild-interval-ms:1800000}", initialDelay = 1800 * 1000)
+    public void rebuild() {
+        try {
+            dedupService.rebuild();
+        } catch (Exception e) {
+            log.error("[Dedup] 近似重复索引重建失败", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.dedup.collapse-sync-interval-ms:10000}")
+    public void touchCollapsed() {
+        try {
+            int n = dedupService.touchCollapsed();
+            if (n > 0) log.info("[Dedup] 折叠目标已变动，重新下发 {} 条折叠挂牌", n);
+        } catch (Exception e) {
+            log.error("[Dedup] 折叠挂牌重新下发失败", e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.agrimatch.dedup.service;
+
+import com.agrimatch.dedup.domain.DedupSource;
+
+import java.util.Collection;
+
+/**
+ * 同公司近似重复挂牌识别（反复重发同一批货刷到大厅顶部）：
+ * - 在架挂牌的 MinHash 签名按 LSH 分桶常驻内存，发布/修改时只和同公司同桶的挂牌比较
+ * - agrimatch.dedup.mode：block 拒绝发布；collapse 照常发布，旧挂牌折叠到新挂牌下（大厅列表只展示最新一条）；off 关闭
+ * - 启动时全量装载，定期重建兜底；事务内的 refresh/remove 推迟到提交之后
+ */
+public interface DedupService {
+
+    String SUPPLY = "supply";
+    String REQUIREMENT = "requirement";
+
+    /**
+     * 全量重建
+     * @return 索引中的挂牌数
+     */
+    int rebuild();
+
+    boolean isReady();
+
+    /**
+     * 发布前检查：block 模式下与同公司在架挂牌高度相似时抛 ApiException，其他模式不做处理
+     */
+    void checkBeforeCreate(String entityType, DedupSource source);
+
+    /**
+     * 发布/修改后按库里最新数据更新签名；collapse 模式下把同公司更早发布的近似重复挂牌折叠到这条下面
+     */
+    void refresh(String entityType, Collection<Long> ids);
+
+    void remove(String entityType, Long id);
+
+    /**
+     * 折叠目标下架/过期/删除后，折叠在它下面的挂牌重新出现在大厅：刷新这些挂牌的 update_time 让增量同步下发
+     * @return 刷新的挂牌数
+     */
+    int touchCollapsed();
+}
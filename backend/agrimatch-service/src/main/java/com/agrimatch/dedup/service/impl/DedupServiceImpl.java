@@ -0,0 +1,242 @@
+package com.agrimatch.dedup.service.impl;
+
+import com.agrimatch.common.api.ResultCode;
+import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.common.index.RebuildTracker;
+import com.agrimatch.common.tx.AfterCommit;
+import com.agrimatch.dedup.domain.DedupSource;
+import com.agrimatch.dedup.index.ListingShingles;
+import com.agrimatch.dedup.index.LshIndex;
+import com.agrimatch.dedup.index.MinHash;
+import com.agrimatch.dedup.mapper.DedupMapper;
+import com.agrimatch.dedup.service.DedupService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+public class DedupServiceImpl implements DedupService {
+    private static final Logger log = LoggerFactory.getLogger(DedupServiceImpl.class);
+
+    private static final String BLOCK = "block";
+    private static final String COLLAPSE = "collapse";
+    private static final List<String> ENTITY_TYPES = List.of(SUPPLY, REQUIREMENT);
+    private static final int LOAD_BATCH_SIZE = 5000;
+    private static final int BATCH_SIZE = 500;
+
+    private final DedupMapper dedupMapper;
+    private final ObjectMapper objectMapper;
+    /** 折叠在提交后回调里执行，写库另开事务 */
+    private final TransactionTemplate requiresNew;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildTracker tracker = new RebuildTracker();
+
+    @Value("${agrimatch.dedup.mode:collapse}")
+    private String mode;
+
+    @Value("${agrimatch.dedup.threshold:0.8}")
+    private double threshold;
+
+    /** entityType -> 索引 */
+    private Map<String, LshIndex> indexes = new HashMap<>();
+    private volatile boolean ready;
+
+    public DedupServiceImpl(DedupMapper dedupMapper, ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager) {
+        this.dedupMapper = dedupMapper;
+        this.objectMapper = objectMapper;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    private boolean enabled() {
+        return BLOCK.equals(mode) || COLLAPSE.equals(mode);
+    }
+
+    @Override
+    public int rebuild() {
+        if (!enabled()) return 0;
+        long start = System.currentTimeMillis();
+        RebuildTracker.Result<Map<String, LshIndex>> r = tracker.rebuild(() -> {
+            Map<String, LshIndex> fresh = new HashMap<>();
+            for (String type : ENTITY_TYPES) {
+                LshIndex idx = new LshIndex();
+                fresh.put(type, idx);
+                Long afterId = null;
+                while (true) {
+                    List<DedupSource> batch = dedupMapper.selectActiveAfter(type, afterId, LOAD_BATCH_SIZE);
+                    for (DedupSource s : batch) {
+                        int[] sig = signature(s);
+                        if (sig != null) idx.put(s.getId(), s.getCompanyId(), s.getCategoryName(), sig);
+                    }
+                    if (batch.size() < LOAD_BATCH_SIZE) break;
+                    afterId = batch.get(batch.size() - 1).getId();
+                }
+            }
+            return fresh;
+        }, fresh -> {
+            lock.writeLock().lock();
+            try {
+                indexes = fresh;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }, BATCH_SIZE, this::reindex);
+        int size = 0;
+        for (LshIndex idx : r.index().values()) {
+            size += idx.size();
+        }
+        log.info("[Dedup] 近似重复索引重建完成：{} 条挂牌，重放 {} 条增量，耗时 {} ms",
+                size, r.replayed(), System.currentTimeMillis() - start);
+        return size;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void checkBeforeCreate(String entityType, DedupSource source) {
+        if (!BLOCK.equals(mode) || !ready || source == null || source.getCompanyId() == null) return;
+        int[] sig = signature(source);
+        if (sig == null) return;
+        List<Long> similar = similar(entityType, source.getCompanyId(), source.getCategoryName(), sig, -1L);
+        if (similar.isEmpty()) return;
+        // 索引里可能还有刚下架/过期的挂牌，以库里为准
+        List<DedupSource> active = dedupMapper.selectActive(entityType, similar);
+        if (active.isEmpty()) return;
+        Map<Long, DedupSource> byId = new HashMap<>();
+        for (DedupSource s : active) {
+            byId.put(s.getId(), s);
+        }
+        for (Long id : similar) {
+            DedupSource dup = byId.get(id);
+            if (dup == null) continue;
+            String label = SUPPLY.equals(entityType) ? "供应" : "采购需求";
+            String no = dup.getListingNo() != null ? dup.getListingNo() : String.valueOf(dup.getId());
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(),
+                    "与已发布的" + label + "（" + no + "）高度相似，请直接修改原挂牌，勿重复发布");
+        }
+    }
+
+    @Override
+    public void refresh(String entityType, Collection<Long> ids) {
+        if (!enabled() || !ENTITY_TYPES.contains(entityType) || ids == null || ids.isEmpty()) return;
+        List<Long> list = new ArrayList<>(ids);
+        AfterCommit.run(() -> doRefresh(entityType, list));
+    }
+
+    @Override
+    public void remove(String entityType, Long id) {
+        if (id == null) return;
+        AfterCommit.run(() -> doRemove(entityType, id));
+    }
+
+    @Override
+    public int touchCollapsed() {
+        int n = 0;
+        for (String entityType : ENTITY_TYPES) {
+            n += dedupMapper.touchCollapsed(entityType);
+        }
+        return n;
+    }
+
+    private void doRefresh(String entityType, List<Long> ids) {
+        List<DedupSource> active = reindex(entityType, ids);
+        if (!COLLAPSE.equals(mode) || !ready) return;
+
+        // 按发布先后处理：同一批里的多条重复最终都折叠到最新那条下
+        active.sort(Comparator.comparing(DedupSource::getId));
+        requiresNew.executeWithoutResult(status -> {
+            for (DedupSource s : active) {
+                int[] sig = signature(s);
+                if (sig == null) continue;
+                List<Long> older = new ArrayList<>();
+                for (Long id : similar(entityType, s.getCompanyId(), s.getCategoryName(), sig, s.getId())) {
+                    if (id < s.getId()) older.add(id);
+                }
+                if (older.isEmpty()) continue;
+                int n = dedupMapper.markDuplicates(entityType, s.getCompanyId(), older, s.getId());
+                if (n > 0) log.info("[Dedup] {}#{} 与同公司 {} 条旧挂牌近似重复，已折叠", entityType, s.getId(), n);
+            }
+        });
+    }
+
+    private void doRemove(String entityType, Long id) {
+        tracker.touch(entityType, id);
+        lock.writeLock().lock();
+        try {
+            LshIndex idx = indexes.get(entityType);
+            if (idx != null) idx.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按库里数据替换这批挂牌的签名，已不在架的移出索引
+     * @return 仍在架的挂牌
+     */
+    private List<DedupSource> reindex(String entityType, Collection<Long> ids) {
+        tracker.touch(entityType, ids);
+        List<DedupSource> active = new ArrayList<>(dedupMapper.selectActive(entityType, ids));
+        Map<Long, DedupSource> byId = new HashMap<>();
+        Map<Long, int[]> sigs = new HashMap<>();
+        for (DedupSource s : active) {
+            byId.put(s.getId(), s);
+            sigs.put(s.getId(), signature(s));
+        }
+        lock.writeLock().lock();
+        try {
+            LshIndex idx = indexes.computeIfAbsent(entityType, k -> new LshIndex());
+            for (Long id : ids) {
+                DedupSource s = byId.get(id);
+                int[] sig = sigs.get(id);
+                if (s == null || sig == null) {
+                    idx.remove(id);
+                } else {
+                    idx.put(id, s.getCompanyId(), s.getCategoryName(), sig);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return active;
+    }
+
+    private List<Long> similar(String entityType, Long companyId, String category, int[] sig, long excludeId) {
+        List<LshIndex.Candidate> candidates;
+        lock.readLock().lock();
+        try {
+            LshIndex idx = indexes.get(entityType);
+            if (idx == null) return List.of();
+            candidates = idx.query(companyId, category, sig, threshold, excludeId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> out = new ArrayList<>(candidates.size());
+        for (LshIndex.Candidate c : candidates) {
+            out.add(c.id());
+        }
+        return out;
+    }
+
+    private int[] signature(DedupSource s) {
+        return MinHash.signature(ListingShingles.of(s, objectMapper));
+    }
+}
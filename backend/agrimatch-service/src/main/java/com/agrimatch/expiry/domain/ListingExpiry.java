@@ -0,0 +1,36 @@
+package com.agrimatch.expiry.domain;
+
+import java.time.LocalDateTime;
+
+/**
+ * 待到期的供应/需求（时间轮装载用）
+ */
+public class ListingExpiry {
+    private String entityType;
+    private Long entityId;
+    private LocalDateTime expireTime;
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public LocalDateTime getExpireTime() {
+        return expireTime;
+    }
+
+    public void setExpireTime(LocalDateTime expireTime) {
+        this.expireTime = expireTime;
+    }
+}
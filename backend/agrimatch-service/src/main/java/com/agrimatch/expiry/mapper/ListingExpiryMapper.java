@@ -0,0 +1,37 @@
+package com.agrimatch.expiry.mapper;
+
+import com.agrimatch.expiry.domain.ListingExpiry;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ListingExpiryMapper {
+
+    /**
+     * 在架（status IN (0,1)）且 expire_time <= until 的供应与需求（走 expire_time 索引）
+     */
+    List<ListingExpiry> selectUpcoming(@Param("until") LocalDateTime until);
+
+    /**
+     * 锁定这些 id 中已到期且仍在架的供应（需在事务内调用），返回随后 expireSupplies 会下架的 id
+     */
+    List<Long> lockDueSupplies(@Param("ids") Collection<Long> ids);
+
+    List<Long> lockDueRequirements(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按 id 下架已到期的供应；到期时间被延长或状态已变化的行不受影响
+     */
+    int expireSupplies(@Param("ids") Collection<Long> ids);
+
+    int expireRequirements(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 兜底扫描：下架所有已到期但仍在架的供应/需求
+     */
+    int sweepSupplies();
+
+    int sweepRequirements();
+}
@@ -0,0 +1,55 @@
+package com.agrimatch.expiry.scheduler;
+
+import com.agrimatch.expiry.service.ListingExpiryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 供应/需求到期下架任务
+ * - 每秒推进时间轮，下架到期条目
+ * - 每分钟从库里装载近期到期条目（重启恢复/其他节点新发布的条目）
+ * - 每 5 分钟兜底扫描一次
+ */
+@Component
+public class ListingExpiryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingExpiryScheduler.class);
+
+    private final ListingExpiryService listingExpiryService;
+
+    public ListingExpiryScheduler(ListingExpiryService listingExpiryService) {
+        this.listingExpiryService = listingExpiryService;
+    }
+
+    @Scheduled(fixedDelay = 1000, initialDelay = 10 * 1000)
+    public void tick() {
+        try {
+            listingExpiryService.expireDue();
+        } catch (Exception e) {
+            log.error("[Expiry] 到期下架失败", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.expiry.reload-interval-ms:60000}", initialDelay = 60 * 1000)
+    public void reload() {
+        try {
+            listingExpiryService.reload();
+        } catch (Exception e) {
+            log.error("[Expiry] 装载待到期记录失败", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.expiry.sweep-interval-ms:300000}", initialDelay = 30 * 1000)
+    public void sweep() {
+        try {
+            int rows = listingExpiryService.sweep();
+            if (rows > 0) {
+                log.info("[Expiry] 兜底扫描下架 {} 行", rows);
+            }
+        } catch (Exception e) {
+            log.error("[Expiry] 兜底扫描失败", e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.agrimatch.expiry.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 供应/需求到期下架：
+ * - 时间轮只装载近期（horizon 内）到期的条目，到点按 id 批量下架
+ * - 周期性从库里重新装载，重启/新增条目均可恢复
+ * - 兜底全表扫描，防止时间轮漏掉
+ * 多实例部署时仅持有任务租约的节点执行，读接口不再有写副作用
+ */
+public interface ListingExpiryService {
+    String SUPPLY = "supply";
+    String REQUIREMENT = "requirement";
+
+    /**
+     * 发布/修改有效期后登记到时间轮；expireTime 为空表示取消。非租约持有节点直接忽略
+     */
+    void schedule(String entityType, Long entityId, LocalDateTime expireTime);
+
+    /**
+     * 下架时间轮中已到期的条目
+     * @return 下架行数
+     */
+    int expireDue();
+
+    /**
+     * 从库里装载 horizon 内到期的条目
+     * @return 装载条数
+     */
+    int reload();
+
+    /**
+     * 兜底扫描
+     * @return 下架行数
+     */
+    int sweep();
+}
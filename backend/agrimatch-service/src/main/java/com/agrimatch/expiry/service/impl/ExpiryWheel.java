@@ -0,0 +1,88 @@
+package com.agrimatch.expiry.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单层哈希时间轮：按到期时间落槽，O(1) 登记/取消。
+ * 超出一圈的条目靠到期时间判断跳过（装载窗口远小于一圈，实际很少发生）。
+ * 同一 key 重复登记以最后一次为准。
+ */
+class ExpiryWheel {
+    private final long tickMillis;
+    private final List<Map<String, Long>> slots;
+    /**
+     * key -> 所在槽位
+     */
+    private final Map<String, Integer> slotOfKey = new HashMap<>();
+    /**
+     * 下一个待处理的 tick（绝对值 = 毫秒 / tickMillis）
+     */
+    private long nextTick;
+
+    ExpiryWheel(long tickMillis, int slotCount, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new HashMap<>());
+        }
+        this.nextTick = nowMillis / tickMillis;
+    }
+
+    synchronized void schedule(String key, long deadlineMillis) {
+        cancel(key);
+        // 已过期的条目落在下一个待处理槽，下一次 advance 即触发
+        long tick = Math.max(deadlineMillis / tickMillis, nextTick);
+        int slot = (int) (tick % slots.size());
+        slots.get(slot).put(key, deadlineMillis);
+        slotOfKey.put(key, slot);
+    }
+
+    synchronized void cancel(String key) {
+        Integer slot = slotOfKey.remove(key);
+        if (slot != null) {
+            slots.get(slot).remove(key);
+        }
+    }
+
+    /**
+     * 推进到 nowMillis，返回已到期的 key（并从时间轮移除）
+     */
+    synchronized List<String> advance(long nowMillis) {
+        List<String> due = new ArrayList<>();
+        // 只处理已完整走过的 tick，槽内本圈条目必然已到期
+        long target = nowMillis / tickMillis - 1;
+        // 停顿超过一圈时每个槽只需扫一遍
+        long from = Math.max(nextTick, target - slots.size() + 1);
+        for (long t = from; t <= target; t++) {
+            Iterator<Map.Entry<String, Long>> it = slots.get((int) (t % slots.size())).entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Long> e = it.next();
+                if (e.getValue() <= nowMillis) {
+                    due.add(e.getKey());
+                    slotOfKey.remove(e.getKey());
+                    it.remove();
+                }
+            }
+        }
+        nextTick = Math.max(nextTick, target + 1);
+        return due;
+    }
+
+    /**
+     * 清空全部条目（失去/重新拿到租约时丢弃本节点的陈旧状态）
+     */
+    synchronized void clear() {
+        for (Map<String, Long> slot : slots) {
+            slot.clear();
+        }
+        slotOfKey.clear();
+    }
+
+    synchronized int size() {
+        return slotOfKey.size();
+    }
+}
@@ -0,0 +1,151 @@
+package com.agrimatch.expiry.service.impl;
+
+import com.agrimatch.expiry.domain.ListingExpiry;
+import com.agrimatch.expiry.mapper.ListingExpiryMapper;
+import com.agrimatch.expiry.service.ListingExpiryService;
+import com.agrimatch.job.service.JobLockService;
+import com.agrimatch.match.service.MatchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@Service
+public class ListingExpiryServiceImpl implements ListingExpiryService {
+    private static final Logger log = LoggerFactory.getLogger(ListingExpiryServiceImpl.class);
+
+    private static final String JOB_NAME = "listing-expiry";
+    private static final int BATCH_SIZE = 500;
+
+    private final ListingExpiryMapper listingExpiryMapper;
+    private final JobLockService jobLockService;
+    private final MatchService matchService;
+    private final TransactionTemplate transactionTemplate;
+    /**
+     * 1 秒一格，一圈 1 小时
+     */
+    private final ExpiryWheel wheel = new ExpiryWheel(1000L, 3600, System.currentTimeMillis());
+
+    @Value("${agrimatch.expiry.horizon-seconds:600}")
+    private long horizonSeconds;
+
+    private volatile boolean leader;
+
+    public ListingExpiryServiceImpl(ListingExpiryMapper listingExpiryMapper, JobLockService jobLockService,
+                                    MatchService matchService, TransactionTemplate transactionTemplate) {
+        this.listingExpiryMapper = listingExpiryMapper;
+        this.jobLockService = jobLockService;
+        this.matchService = matchService;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void schedule(String entityType, Long entityId, LocalDateTime expireTime) {
+        // 非租约持有者不维护时间轮，接管时从库里整体装载
+        if (entityId == null || !leader) return;
+        String key = entityType + ":" + entityId;
+        // 超出装载窗口的交给周期装载，时间轮只保留近期条目
+        if (expireTime == null || expireTime.isAfter(LocalDateTime.now().plusSeconds(horizonSeconds))) {
+            wheel.cancel(key);
+            return;
+        }
+        wheel.schedule(key, toMillis(expireTime));
+    }
+
+    @Override
+    public int expireDue() {
+        if (!checkLeader()) return 0;
+        List<String> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) return 0;
+
+        List<Long> supplyIds = new ArrayList<>();
+        List<Long> requirementIds = new ArrayList<>();
+        for (String key : due) {
+            int i = key.indexOf(':');
+            Long id = Long.valueOf(key.substring(i + 1));
+            if (SUPPLY.equals(key.substring(0, i))) {
+                supplyIds.add(id);
+            } else {
+                requirementIds.add(id);
+            }
+        }
+        List<Long> expiredSupplies = expire(supplyIds, listingExpiryMapper::lockDueSupplies, listingExpiryMapper::expireSupplies);
+        List<Long> expiredRequirements = expire(requirementIds, listingExpiryMapper::lockDueRequirements, listingExpiryMapper::expireRequirements);
+        int rows = expiredSupplies.size() + expiredRequirements.size();
+        // 撮合引擎只移出真正下架的（到期时间被延长/已被他人下架的不动；其他节点查询时按到期时间过滤，并由对账兜底）
+        matchService.removeSupplies(expiredSupplies);
+        matchService.removeRequirements(expiredRequirements);
+        if (rows > 0) {
+            log.info("[Expiry] 到期下架: supply={}, requirement={}, 实际下架 {} 行", supplyIds.size(), requirementIds.size(), rows);
+        }
+        return rows;
+    }
+
+    /**
+     * 分批下架：每批一个事务，先锁住会被下架的行再更新，返回实际下架的 id
+     */
+    private List<Long> expire(List<Long> ids, Function<List<Long>, List<Long>> lockDue,
+                              Function<List<Long>, Integer> update) {
+        List<Long> expired = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+            List<Long> batch = ids.subList(i, Math.min(i + BATCH_SIZE, ids.size()));
+            List<Long> changed = transactionTemplate.execute(status -> {
+                List<Long> due = lockDue.apply(batch);
+                if (!due.isEmpty()) update.apply(due);
+                return due;
+            });
+            if (changed != null) expired.addAll(changed);
+        }
+        return expired;
+    }
+
+    @Override
+    public int reload() {
+        if (!checkLeader()) return 0;
+        return doReload();
+    }
+
+    @Override
+    public int sweep() {
+        if (!checkLeader()) return 0;
+        return listingExpiryMapper.sweepSupplies() + listingExpiryMapper.sweepRequirements();
+    }
+
+    /**
+     * 刚拿到租约（启动/接管）时清空时间轮并立即从库里装载，不等下一个装载周期；
+     * 失去租约时清空，避免非 leader 节点堆积条目
+     */
+    private boolean checkLeader() {
+        boolean now = jobLockService.isLeader(JOB_NAME);
+        if (now && !leader) {
+            leader = true;
+            wheel.clear();
+            doReload();
+        } else if (!now && leader) {
+            leader = false;
+            wheel.clear();
+            log.info("[Expiry] 失去租约，清空时间轮");
+        }
+        return now;
+    }
+
+    private int doReload() {
+        List<ListingExpiry> rows = listingExpiryMapper.selectUpcoming(LocalDateTime.now().plusSeconds(horizonSeconds));
+        for (ListingExpiry e : rows) {
+            wheel.schedule(e.getEntityType() + ":" + e.getEntityId(), toMillis(e.getExpireTime()));
+        }
+        log.debug("[Expiry] 装载 {} 条待到期记录，时间轮当前 {} 条", rows.size(), wheel.size());
+        return rows.size();
+    }
+
+    private static long toMillis(LocalDateTime t) {
+        return t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
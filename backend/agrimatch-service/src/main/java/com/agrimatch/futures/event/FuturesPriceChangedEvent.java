@@ -0,0 +1,20 @@
+package com.agrimatch.futures.event;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * 一轮同步中价格有变化的合约：合约代码 -> 有效价格（最新价，无则昨收）
+ */
+public class FuturesPriceChangedEvent extends ApplicationEvent {
+    private final Map<String, BigDecimal> prices;
+
+    public FuturesPriceChangedEvent(Object source, Map<String, BigDecimal> prices) {
+        super(source);
+        this.prices = prices;
+    }
+
+    public Map<String, BigDecimal> getPrices() { return prices; }
+}
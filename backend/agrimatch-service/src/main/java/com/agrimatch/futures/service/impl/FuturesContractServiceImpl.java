@@ -2,11 +2,13 @@ package com.agrimatch.futures.service.impl;
 
 import com.agrimatch.futures.domain.FuturesContract;
 import com.agrimatch.futures.dto.FuturesContractResponse;
+import com.agrimatch.futures.event.FuturesPriceChangedEvent;
 import com.agrimatch.futures.mapper.FuturesContractMapper;
 import com.agrimatch.futures.service.FuturesContractService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -30,6 +32,9 @@ public class FuturesContractServiceImpl implements FuturesContractService {
     @Autowired
     private FuturesContractMapper futuresContractMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     // 交易所名称映射
     private static final Map<String, String> EXCHANGE_NAMES = Map.of(
             "DCE", "大商所",
@@ -90,16 +95,25 @@ public class FuturesContractServiceImpl implements FuturesContractService {
 
             // 2. 获取所有活跃合约并同步价格
             List<FuturesContract> contracts = futuresContractMapper.selectActiveContracts(null);
+            Map<String, BigDecimal> changed = new LinkedHashMap<>();
             
             for (FuturesContract contract : contracts) {
                 try {
-                    syncSingleContractPrice(contract.getContractCode());
+                    BigDecimal price = syncSingleContractPrice(contract.getContractCode());
+                    BigDecimal before = effectivePrice(contract.getLastPrice(), contract.getPrevClose());
+                    if (price != null && (before == null || price.compareTo(before) != 0)) {
+                        changed.put(contract.getContractCode(), price);
+                    }
                 } catch (Exception e) {
                     log.warn("同步合约 {} 价格失败: {}", contract.getContractCode(), e.getMessage());
                 }
             }
             
-            log.info("期货价格同步完成，共 {} 个合约", contracts.size());
+            log.info("期货价格同步完成，共 {} 个合约，价格变动 {} 个", contracts.size(), changed.size());
+            // 通知基差报价重算
+            if (!changed.isEmpty()) {
+                eventPublisher.publishEvent(new FuturesPriceChangedEvent(this, changed));
+            }
         } catch (Exception e) {
             log.error("同步期货价格失败", e);
         }
@@ -202,8 +216,9 @@ public class FuturesContractServiceImpl implements FuturesContractService {
 
     /**
      * 同步单个合约价格（使用新浪期货API）
+     * @return 同步后的有效价格（最新价，无则昨收）；未取到数据返回 null
      */
-    private void syncSingleContractPrice(String contractCode) {
+    private BigDecimal syncSingleContractPrice(String contractCode) {
         try {
             // 同样尝试两种代码格式
             String[] codesToTry = {contractCode, "nf_" + contractCode};
@@ -219,18 +234,18 @@ public class FuturesContractServiceImpl implements FuturesContractService {
             
             if (response == null || response.isEmpty() || !response.contains("=")) {
                 log.debug("合约 {} 无数据返回", contractCode);
-                return;
+                return null;
             }
             
             // 解析响应
             String data = response.substring(response.indexOf("\"") + 1, response.lastIndexOf("\""));
             if (data.isEmpty()) {
-                return;
+                return null;
             }
             
             String[] fields = data.split(",");
             if (fields.length < 15) {
-                return;
+                return null;
             }
             
             // 解析价格数据 (国内期货格式)
@@ -251,11 +266,19 @@ public class FuturesContractServiceImpl implements FuturesContractService {
                         highPrice, lowPrice, volume, LocalDateTime.now()
                 );
                 log.debug("合约 {} 价格已同步: last={}, prev={}", contractCode, lastPrice, prevClose);
+                return effectivePrice(lastPrice, prevClose);
             }
             
         } catch (Exception e) {
             log.warn("同步合约 {} 价格失败: {}", contractCode, e.getMessage());
         }
+        return null;
+    }
+
+    private static BigDecimal effectivePrice(BigDecimal lastPrice, BigDecimal prevClose) {
+        if (lastPrice != null && lastPrice.compareTo(BigDecimal.ZERO) > 0) return lastPrice;
+        if (prevClose != null && prevClose.compareTo(BigDecimal.ZERO) > 0) return prevClose;
+        return null;
     }
 
     private BigDecimal parseBigDecimal(String s) {
@@ -0,0 +1,230 @@
+package com.agrimatch.geo.index;
+
+import com.agrimatch.util.GeoUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 经纬度网格索引：按固定角度切格，每格用原始数组存点（id/lat/lng），
+ * 半径查询只扫外接矩形覆盖的格子，k 近邻按格子环逐圈向外扩展。
+ * 读多写少，整体用读写锁保护。
+ * 不处理跨 180° 经线（业务范围在国内）。
+ */
+public class GeoGrid {
+
+    public static class Hit {
+        private final long id;
+        private final double distanceKm;
+
+        public Hit(long id, double distanceKm) {
+            this.id = id;
+            this.distanceKm = distanceKm;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    private static class Cell {
+        long[] ids = new long[4];
+        double[] lats = new double[4];
+        double[] lngs = new double[4];
+        int size;
+
+        void add(long id, double lat, double lng) {
+            if (size == ids.length) {
+                int n = size * 2;
+                ids = Arrays.copyOf(ids, n);
+                lats = Arrays.copyOf(lats, n);
+                lngs = Arrays.copyOf(lngs, n);
+            }
+            ids[size] = id;
+            lats[size] = lat;
+            lngs[size] = lng;
+            size++;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    // 与末尾交换，O(1) 删除
+                    size--;
+                    ids[i] = ids[size];
+                    lats[i] = lats[size];
+                    lngs[i] = lngs[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final double cellDeg;
+    private final Map<Long, Cell> cells = new HashMap<>();
+    /**
+     * id -> {lat, lng}
+     */
+    private final Map<Long, double[]> points = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public GeoGrid(double cellDeg) {
+        this.cellDeg = cellDeg;
+    }
+
+    public void put(long id, double lat, double lng) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            cells.computeIfAbsent(cellKey(cellIndex(lat), cellIndex(lng)), k -> new Cell()).add(id, lat, lng);
+            points.put(id, new double[]{lat, lng});
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return {lat, lng}，不存在返回 null
+     */
+    public double[] get(long id) {
+        lock.readLock().lock();
+        try {
+            double[] p = points.get(id);
+            return p != null ? p.clone() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return points.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 半径 radiusKm 内的点，按距离升序
+     */
+    public List<Hit> within(double lat, double lng, double radiusKm) {
+        List<Hit> out = new ArrayList<>();
+        double dLat = radiusKm / GeoUtil.KM_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(Math.min(89d, Math.abs(lat) + dLat)));
+        double dLng = Math.min(180d, radiusKm / (GeoUtil.KM_PER_DEGREE * cosLat));
+        int latFrom = cellIndex(lat - dLat), latTo = cellIndex(lat + dLat);
+        int lngFrom = cellIndex(lng - dLng), lngTo = cellIndex(lng + dLng);
+
+        lock.readLock().lock();
+        try {
+            for (int i = latFrom; i <= latTo; i++) {
+                for (int j = lngFrom; j <= lngTo; j++) {
+                    Cell c = cells.get(cellKey(i, j));
+                    if (c == null) continue;
+                    for (int n = 0; n < c.size; n++) {
+                        double km = GeoUtil.haversineKm(lat, lng, c.lats[n], c.lngs[n]);
+                        if (km <= radiusKm) {
+                            out.add(new Hit(c.ids[n], km));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        out.sort(Comparator.comparingDouble(Hit::getDistanceKm));
+        return out;
+    }
+
+    /**
+     * 最近的 k 个点（距离不超过 maxKm），按距离升序
+     */
+    public List<Hit> nearest(double lat, double lng, int k, double maxKm) {
+        if (k <= 0) return new ArrayList<>();
+        // 大顶堆保留当前最近的 k 个
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Comparator.comparingDouble(Hit::getDistanceKm).reversed());
+        int ci = cellIndex(lat), cj = cellIndex(lng);
+        int maxRing = (int) Math.ceil(360d / cellDeg);
+
+        lock.readLock().lock();
+        try {
+            int visited = 0;
+            for (int ring = 0; ring <= maxRing && visited < points.size(); ring++) {
+                // 第 ring 圈上任一点与查询点至少相隔 (ring - 1) 个格子
+                double minKm = ringLowerBoundKm(lat, ring);
+                if (minKm > maxKm) break;
+                if (heap.size() == k && minKm > heap.peek().getDistanceKm()) break;
+                for (int i = ci - ring; i <= ci + ring; i++) {
+                    for (int j = cj - ring; j <= cj + ring; j++) {
+                        if (Math.abs(i - ci) != ring && Math.abs(j - cj) != ring) continue;
+                        Cell c = cells.get(cellKey(i, j));
+                        if (c == null) continue;
+                        visited += c.size;
+                        for (int n = 0; n < c.size; n++) {
+                            double km = GeoUtil.haversineKm(lat, lng, c.lats[n], c.lngs[n]);
+                            if (km > maxKm) continue;
+                            if (heap.size() < k) {
+                                heap.add(new Hit(c.ids[n], km));
+                            } else if (km < heap.peek().getDistanceKm()) {
+                                heap.poll();
+                                heap.add(new Hit(c.ids[n], km));
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Hit> out = new ArrayList<>(heap);
+        out.sort(Comparator.comparingDouble(Hit::getDistanceKm));
+        return out;
+    }
+
+    private double ringLowerBoundKm(double lat, int ring) {
+        if (ring <= 1) return 0d;
+        double deg = (ring - 1) * cellDeg;
+        // 经度方向每度公里数随纬度变小，取该圈可能到达的最高纬度保守估计
+        double cosLat = Math.cos(Math.toRadians(Math.min(89d, Math.abs(lat) + ring * cellDeg)));
+        return deg * GeoUtil.KM_PER_DEGREE * Math.max(cosLat, 0d);
+    }
+
+    private void removeInternal(long id) {
+        double[] old = points.remove(id);
+        if (old == null) return;
+        long key = cellKey(cellIndex(old[0]), cellIndex(old[1]));
+        Cell c = cells.get(key);
+        if (c != null) {
+            c.remove(id);
+            if (c.size == 0) cells.remove(key);
+        }
+    }
+
+    private int cellIndex(double deg) {
+        return (int) Math.floor(deg / cellDeg);
+    }
+
+    private static long cellKey(int latIdx, int lngIdx) {
+        return ((long) latIdx << 32) | (lngIdx & 0xffffffffL);
+    }
+}
@@ -0,0 +1,47 @@
+package com.agrimatch.geo.mapper;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+public interface GeoIndexMapper {
+    /** 有坐标的公司 */
+    List<PointRow> selectCompanyPoints();
+
+    /** 填写了采购地点坐标的需求 */
+    List<PointRow> selectRequirementPoints();
+
+    PointRow selectRequirementPoint(@Param("id") Long id);
+
+    PointRow selectCompanyPoint(@Param("id") Long id);
+
+    class PointRow {
+        private Long id;
+        private Double lat;
+        private Double lng;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public Double getLat() {
+            return lat;
+        }
+
+        public void setLat(Double lat) {
+            this.lat = lat;
+        }
+
+        public Double getLng() {
+            return lng;
+        }
+
+        public void setLng(Double lng) {
+            this.lng = lng;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.agrimatch.geo.scheduler;
+
+import com.agrimatch.geo.service.GeoIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 空间索引维护任务
+ * - 启动时全量装载
+ * - 定期全量重建（兜底其他节点的改动与启动时的坐标补全）
+ */
+@Component
+public class GeoIndexScheduler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoIndexScheduler.class);
+
+    private final GeoIndexService geoIndexService;
+
+    public GeoIndexScheduler(GeoIndexService geoIndexService) {
+        this.geoIndexService = geoIndexService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            geoIndexService.rebuild();
+        } catch (Exception e) {
+            log.error("[GeoIndex] 空间索引装载失败", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.geo.rebuild-interval-ms:600000}", initialDelay = 10 * 60 * 1000)
+    public void rebuild() {
+        try {
+            geoIndexService.rebuild();
+        } catch (Exception e) {
+            log.error("[GeoIndex] 空间索引重建失败", e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.agrimatch.geo.service;
+
+import com.agrimatch.common.index.RebuildTracker;
+import com.agrimatch.common.tx.AfterCommit;
+import com.agrimatch.geo.index.GeoGrid;
+import com.agrimatch.geo.mapper.GeoIndexMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存空间索引：公司坐标 + 需求采购地点坐标
+ * - 启动时全量装载，之后定期重建（兜底其他节点/批量补全的改动）
+ * - 公司/需求坐标变更时增量更新（事务内调用推迟到提交之后）
+ */
+@Service
+public class GeoIndexService {
+    private static final Logger log = LoggerFactory.getLogger(GeoIndexService.class);
+
+    /**
+     * 0.5° 一格（约 55 公里），"300 公里内"约扫 12x14 个格子
+     */
+    private static final double CELL_DEG = 0.5d;
+    private static final String COMPANY = "company";
+    private static final String REQUIREMENT = "requirement";
+    private static final int REPLAY_BATCH_SIZE = 500;
+
+    private final GeoIndexMapper geoIndexMapper;
+
+    private volatile GeoGrid companies = new GeoGrid(CELL_DEG);
+    private volatile GeoGrid requirements = new GeoGrid(CELL_DEG);
+    private final RebuildTracker tracker = new RebuildTracker();
+
+    /** 全量装载的两份索引，一起换入 */
+    private record Grids(GeoGrid companies, GeoGrid requirements) {
+    }
+
+    public GeoIndexService(GeoIndexMapper geoIndexMapper) {
+        this.geoIndexMapper = geoIndexMapper;
+    }
+
+    /**
+     * 全量重建：新索引建好后整体替换，查询不受影响
+     */
+    public void rebuild() {
+        RebuildTracker.Result<Grids> res = tracker.rebuild(() -> {
+            GeoGrid c = new GeoGrid(CELL_DEG);
+            GeoGrid r = new GeoGrid(CELL_DEG);
+            for (GeoIndexMapper.PointRow p : geoIndexMapper.selectCompanyPoints()) {
+                c.put(p.getId(), p.getLat(), p.getLng());
+            }
+            for (GeoIndexMapper.PointRow p : geoIndexMapper.selectRequirementPoints()) {
+                r.put(p.getId(), p.getLat(), p.getLng());
+            }
+            return new Grids(c, r);
+        }, grids -> {
+            synchronized (this) {
+                companies = grids.companies();
+                requirements = grids.requirements();
+            }
+        }, REPLAY_BATCH_SIZE, (type, ids) -> {
+            for (Long id : ids) {
+                refresh(type, id);
+            }
+        });
+        log.info("[GeoIndex] 重建完成：公司 {} 个点，需求采购地点 {} 个点，重放 {} 条增量",
+                res.index().companies().size(), res.index().requirements().size(), res.replayed());
+    }
+
+    /**
+     * 公司坐标变更；坐标为空则移出索引
+     */
+    public void putCompany(Long companyId, BigDecimal lat, BigDecimal lng) {
+        if (companyId == null) return;
+        GeoIndexMapper.PointRow p = null;
+        if (lat != null && lng != null) {
+            p = new GeoIndexMapper.PointRow();
+            p.setId(companyId);
+            p.setLat(lat.doubleValue());
+            p.setLng(lng.doubleValue());
+        }
+        GeoIndexMapper.PointRow point = p;
+        AfterCommit.run(() -> {
+            tracker.touch(COMPANY, companyId);
+            doPut(COMPANY, companyId, point);
+        });
+    }
+
+    /**
+     * 需求采购地点变更后按库里最新值刷新
+     */
+    public void refreshRequirement(Long requirementId) {
+        if (requirementId == null) return;
+        AfterCommit.run(() -> refresh(REQUIREMENT, requirementId));
+    }
+
+    /**
+     * 半径内的公司 id（按距离升序），最多 limit 个（超出时只保留最近的）
+     */
+    public List<Long> companyIdsWithin(BigDecimal lat, BigDecimal lng, double radiusKm, int limit) {
+        return ids(companies.within(lat.doubleValue(), lng.doubleValue(), radiusKm), limit);
+    }
+
+    /**
+     * 半径内、填写了采购地点的需求 id（按距离升序），最多 limit 个（超出时只保留最近的）
+     */
+    public List<Long> requirementIdsWithin(BigDecimal lat, BigDecimal lng, double radiusKm, int limit) {
+        return ids(requirements.within(lat.doubleValue(), lng.doubleValue(), radiusKm), limit);
+    }
+
+    /**
+     * 最近的 k 家公司（距离不超过 maxKm）
+     */
+    public List<GeoGrid.Hit> nearestCompanies(BigDecimal lat, BigDecimal lng, int k, double maxKm) {
+        return companies.nearest(lat.doubleValue(), lng.doubleValue(), k, maxKm);
+    }
+
+    /**
+     * 按库里最新值刷新一个点
+     */
+    private void refresh(String type, Long id) {
+        tracker.touch(type, id);
+        GeoIndexMapper.PointRow p = COMPANY.equals(type)
+                ? geoIndexMapper.selectCompanyPoint(id) : geoIndexMapper.selectRequirementPoint(id);
+        doPut(type, id, p);
+    }
+
+    /**
+     * 写入当前索引；p 为空表示无坐标，移出索引
+     */
+    private synchronized void doPut(String type, Long id, GeoIndexMapper.PointRow p) {
+        GeoGrid grid = COMPANY.equals(type) ? companies : requirements;
+        if (p == null) {
+            grid.remove(id);
+        } else {
+            grid.put(id, p.getLat(), p.getLng());
+        }
+    }
+
+    private static List<Long> ids(List<GeoGrid.Hit> hits, int limit) {
+        int n = Math.min(hits.size(), limit);
+        List<Long> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(hits.get(i).getId());
+        }
+        return out;
+    }
+}
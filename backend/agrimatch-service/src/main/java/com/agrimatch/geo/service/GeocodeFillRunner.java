@@ -20,13 +20,16 @@ public class GeocodeFillRunner implements CommandLineRunner {
 
     private final CompanyMapper companyMapper;
     private final AmapGeocodeService amapGeocodeService;
+    private final GeoIndexService geoIndexService;
     
     @Value("${amap.web-key:}")
     private String amapWebKey;
 
-    public GeocodeFillRunner(CompanyMapper companyMapper, AmapGeocodeService amapGeocodeService) {
+    public GeocodeFillRunner(CompanyMapper companyMapper, AmapGeocodeService amapGeocodeService,
+                             GeoIndexService geoIndexService) {
         this.companyMapper = companyMapper;
         this.amapGeocodeService = amapGeocodeService;
+        this.geoIndexService = geoIndexService;
     }
 
     @Override
@@ -54,6 +57,7 @@ public class GeocodeFillRunner implements CommandLineRunner {
                 GeoPoint p = amapGeocodeService.geocode(c.getAddress(), c.getCity(), c.getCompanyName());
                 if (p != null) {
                     companyMapper.updateCoords(c.getId(), p.getLat(), p.getLng());
+                    geoIndexService.putCompany(c.getId(), p.getLat(), p.getLng());
                     success++;
                     log.debug("[Geocode] {} -> ({}, {})", c.getCompanyName(), p.getLat(), p.getLng());
                 } else {
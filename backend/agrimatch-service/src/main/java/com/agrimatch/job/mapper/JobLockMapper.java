@@ -0,0 +1,17 @@
+package com.agrimatch.job.mapper;
+
+import org.apache.ibatis.annotations.Param;
+
+public interface JobLockMapper {
+
+    /**
+     * 抢占/续约：租约已过期或本节点持有时写入 owner 并顺延 lease_until，否则不变
+     */
+    int tryAcquire(@Param("jobName") String jobName,
+                   @Param("owner") String owner,
+                   @Param("leaseSeconds") int leaseSeconds);
+
+    String selectOwner(@Param("jobName") String jobName);
+
+    int release(@Param("jobName") String jobName, @Param("owner") String owner);
+}
@@ -0,0 +1,17 @@
+package com.agrimatch.job.service;
+
+/**
+ * 定时任务租约：多实例部署时保证同一任务同一时刻只有一个节点执行
+ */
+public interface JobLockService {
+
+    /**
+     * 当前节点是否持有任务租约；内部按租约周期续约/抢占，可在高频 tick 中直接调用
+     */
+    boolean isLeader(String jobName);
+
+    /**
+     * 释放本节点持有的全部租约（停机时调用，便于其他节点立即接管）
+     */
+    void releaseAll();
+}
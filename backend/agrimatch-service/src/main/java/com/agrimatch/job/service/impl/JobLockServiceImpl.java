@@ -0,0 +1,84 @@
+package com.agrimatch.job.service.impl;
+
+import com.agrimatch.job.mapper.JobLockMapper;
+import com.agrimatch.job.service.JobLockService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class JobLockServiceImpl implements JobLockService, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(JobLockServiceImpl.class);
+
+    private final JobLockMapper jobLockMapper;
+    /**
+     * 节点标识：pid@host + 随机后缀（同机多实例也能区分）
+     */
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "#"
+            + UUID.randomUUID().toString().substring(0, 8);
+
+    /**
+     * 本地视角的租约到期时间（取发起续约前的时间计算，不晚于库中的 lease_until）
+     */
+    private final Map<String, Long> leaseUntil = new ConcurrentHashMap<>();
+    private final Map<String, Long> nextAttempt = new ConcurrentHashMap<>();
+
+    @Value("${agrimatch.job.lease-seconds:30}")
+    private int leaseSeconds;
+
+    public JobLockServiceImpl(JobLockMapper jobLockMapper) {
+        this.jobLockMapper = jobLockMapper;
+    }
+
+    @Override
+    public boolean isLeader(String jobName) {
+        long now = System.currentTimeMillis();
+        Long next = nextAttempt.get(jobName);
+        if (next != null && now < next) {
+            return leaseUntil.getOrDefault(jobName, 0L) > now;
+        }
+
+        boolean held;
+        try {
+            jobLockMapper.tryAcquire(jobName, owner, leaseSeconds);
+            held = owner.equals(jobLockMapper.selectOwner(jobName));
+        } catch (Exception e) {
+            log.warn("[JobLock] 续约失败: job={}, err={}", jobName, e.getMessage());
+            held = false;
+        }
+
+        Long prev = held ? leaseUntil.put(jobName, now + leaseSeconds * 1000L) : leaseUntil.remove(jobName);
+        if (held && prev == null) {
+            log.info("[JobLock] 获得任务租约: job={}, owner={}", jobName, owner);
+        } else if (!held && prev != null) {
+            log.info("[JobLock] 失去任务租约: job={}, owner={}", jobName, owner);
+        }
+        // 每个租约周期续约 3 次，单次续约失败不至于丢租约
+        nextAttempt.put(jobName, now + leaseSeconds * 1000L / 3);
+        return held;
+    }
+
+    @Override
+    public void releaseAll() {
+        for (String jobName : leaseUntil.keySet()) {
+            try {
+                jobLockMapper.release(jobName, owner);
+            } catch (Exception e) {
+                log.warn("[JobLock] 释放租约失败: job={}, err={}", jobName, e.getMessage());
+            }
+        }
+        leaseUntil.clear();
+    }
+
+    @Override
+    public void destroy() {
+        releaseAll();
+    }
+}
@@ -1,25 +1,46 @@
 package com.agrimatch.map.controller;
 
 import com.agrimatch.common.api.Result;
+import com.agrimatch.common.api.ResultCode;
+import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.company.domain.BusCompany;
+import com.agrimatch.company.mapper.CompanyMapper;
+import com.agrimatch.geo.index.GeoGrid;
+import com.agrimatch.geo.service.GeoIndexService;
 import com.agrimatch.map.dto.MapCompanyMarkerResponse;
 import com.agrimatch.map.mapper.MapCompanyMapper;
+import com.agrimatch.user.domain.SysUser;
+import com.agrimatch.user.mapper.UserMapper;
+import com.agrimatch.util.SecurityUtil;
+import org.springframework.security.core.Authentication;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/map")
 public class MapController {
     private final MapCompanyMapper mapCompanyMapper;
+    private final UserMapper userMapper;
+    private final CompanyMapper companyMapper;
+    private final GeoIndexService geoIndexService;
 
-    public MapController(MapCompanyMapper mapCompanyMapper) {
+    public MapController(MapCompanyMapper mapCompanyMapper, UserMapper userMapper,
+                         CompanyMapper companyMapper, GeoIndexService geoIndexService) {
         this.mapCompanyMapper = mapCompanyMapper;
+        this.userMapper = userMapper;
+        this.companyMapper = companyMapper;
+        this.geoIndexService = geoIndexService;
     }
 
     @GetMapping("/companies")
@@ -27,24 +48,72 @@ public class MapController {
             @RequestParam(value = "keyword", required = false) String keyword
     ) {
         String kw = StringUtils.hasText(keyword) ? keyword.trim() : null;
-        List<MapCompanyMapper.Row> rows = mapCompanyMapper.selectCompanyMarkers(kw);
+        List<MapCompanyMapper.Row> rows = mapCompanyMapper.selectCompanyMarkers(kw, null);
         List<MapCompanyMarkerResponse> out = new ArrayList<>();
         for (MapCompanyMapper.Row r : rows) {
-            MapCompanyMarkerResponse o = new MapCompanyMarkerResponse();
-            o.setCompanyId(r.getCompanyId());
-            o.setCompanyName(r.getCompanyName());
-            o.setAddress(r.getAddress());
-            o.setLat(r.getLat());
-            o.setLng(r.getLng());
-            o.setSupplyCount(r.getSupplyCount() == null ? 0 : r.getSupplyCount());
-            o.setRequirementCount(r.getRequirementCount() == null ? 0 : r.getRequirementCount());
-            o.setSupplyCategories(splitCats(r.getSupplyCats()));
-            o.setRequirementCategories(splitCats(r.getRequirementCats()));
+            out.add(toResponse(r));
+        }
+        return Result.success(out);
+    }
+
+    /**
+     * 离当前用户公司最近的公司（空间索引 k 近邻），按距离升序
+     */
+    @GetMapping("/nearby")
+    public Result<List<MapCompanyMarkerResponse>> nearby(
+            Authentication authentication,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "radiusKm", required = false) Double radiusKm
+    ) {
+        Long userId = SecurityUtil.requireUserId(authentication);
+        SysUser u = userMapper.selectById(userId);
+        BusCompany me = (u != null && u.getCompanyId() != null) ? companyMapper.selectById(u.getCompanyId()) : null;
+        if (me == null || me.getLat() == null || me.getLng() == null) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "请先完善公司地址（用于计算距离）");
+        }
+        int k = limit == null ? 20 : Math.max(1, Math.min(limit, 100));
+        double maxKm = (radiusKm == null || radiusKm <= 0) ? Double.MAX_VALUE : radiusKm;
+
+        // 多取一个，排除自己
+        List<GeoGrid.Hit> hits = geoIndexService.nearestCompanies(me.getLat(), me.getLng(), k + 1, maxKm);
+        List<Long> ids = new ArrayList<>();
+        Map<Long, Double> distance = new HashMap<>();
+        for (GeoGrid.Hit h : hits) {
+            if (h.getId() == me.getId() || ids.size() >= k) continue;
+            ids.add(h.getId());
+            distance.put(h.getId(), h.getDistanceKm());
+        }
+        if (ids.isEmpty()) return Result.success(new ArrayList<>());
+
+        Map<Long, MapCompanyMapper.Row> rowMap = new HashMap<>();
+        for (MapCompanyMapper.Row r : mapCompanyMapper.selectCompanyMarkers(null, ids)) {
+            rowMap.put(r.getCompanyId(), r);
+        }
+        List<MapCompanyMarkerResponse> out = new ArrayList<>();
+        for (Long id : ids) {
+            MapCompanyMapper.Row r = rowMap.get(id);
+            if (r == null) continue;
+            MapCompanyMarkerResponse o = toResponse(r);
+            o.setDistanceKm(BigDecimal.valueOf(distance.get(id)).setScale(3, RoundingMode.HALF_UP));
             out.add(o);
         }
         return Result.success(out);
     }
 
+    private static MapCompanyMarkerResponse toResponse(MapCompanyMapper.Row r) {
+        MapCompanyMarkerResponse o = new MapCompanyMarkerResponse();
+        o.setCompanyId(r.getCompanyId());
+        o.setCompanyName(r.getCompanyName());
+        o.setAddress(r.getAddress());
+        o.setLat(r.getLat());
+        o.setLng(r.getLng());
+        o.setSupplyCount(r.getSupplyCount() == null ? 0 : r.getSupplyCount());
+        o.setRequirementCount(r.getRequirementCount() == null ? 0 : r.getRequirementCount());
+        o.setSupplyCategories(splitCats(r.getSupplyCats()));
+        o.setRequirementCategories(splitCats(r.getRequirementCats()));
+        return o;
+    }
+
     private static List<String> splitCats(String cats) {
         if (!StringUtils.hasText(cats)) return new ArrayList<>();
         return Arrays.stream(cats.split(","))
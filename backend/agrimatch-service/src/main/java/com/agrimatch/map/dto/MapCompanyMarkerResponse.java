@@ -14,6 +14,11 @@ public class MapCompanyMarkerResponse {
     private Integer supplyCount;
     private Integer requirementCount;
 
+    /**
+     * 距当前用户公司的距离（仅附近查询返回）
+     */
+    private BigDecimal distanceKm;
+
     private List<String> supplyCategories = new ArrayList<>();
     private List<String> requirementCategories = new ArrayList<>();
 
@@ -88,9 +93,12 @@ public class MapCompanyMarkerResponse {
     public void setRequirementCategories(List<String> requirementCategories) {
         this.requirementCategories = requirementCategories;
     }
-}
-
-
-
 
+    public BigDecimal getDistanceKm() {
+        return distanceKm;
+    }
 
+    public void setDistanceKm(BigDecimal distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+}
@@ -7,7 +7,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 public interface MapCompanyMapper {
-    List<Row> selectCompanyMarkers(@Param("keyword") String keyword);
+    /**
+     * ids 非空时只查这些公司（附近查询）
+     */
+    List<Row> selectCompanyMarkers(@Param("keyword") String keyword, @Param("ids") List<Long> ids);
 
     class Row {
         private Long companyId;
@@ -0,0 +1,53 @@
+package com.agrimatch.match.controller;
+
+import com.agrimatch.common.api.Result;
+import com.agrimatch.match.dto.MatchCandidateResponse;
+import com.agrimatch.match.service.MatchService;
+import com.agrimatch.util.SecurityUtil;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/matches")
+@Validated
+public class MatchController {
+    private final MatchService matchService;
+
+    public MatchController(MatchService matchService) {
+        this.matchService = matchService;
+    }
+
+    /**
+     * 需求的推荐供应（按匹配分降序）
+     */
+    @GetMapping("/requirements/{id}")
+    public Result<List<MatchCandidateResponse>> forRequirement(
+            Authentication authentication,
+            @PathVariable("id") @NotNull Long id,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        SecurityUtil.requireUserId(authentication);
+        return Result.success(matchService.matchesForRequirement(id, limit));
+    }
+
+    /**
+     * 供应的推荐需求（按匹配分降序）
+     */
+    @GetMapping("/supplies/{id}")
+    public Result<List<MatchCandidateResponse>> forSupply(
+            Authentication authentication,
+            @PathVariable("id") @NotNull Long id,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        SecurityUtil.requireUserId(authentication);
+        return Result.success(matchService.matchesForSupply(id, limit));
+    }
+}
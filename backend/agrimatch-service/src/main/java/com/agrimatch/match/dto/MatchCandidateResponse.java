@@ -0,0 +1,97 @@
+package com.agrimatch.match.dto;
+
+import java.math.BigDecimal;
+
+public class MatchCandidateResponse {
+    /**
+     * 对手方类型：supply / requirement
+     */
+    private String targetType;
+    private Long targetId;
+    private Long companyId;
+    private String categoryName;
+
+    /**
+     * 匹配分（0~100）
+     */
+    private BigDecimal score;
+
+    /**
+     * 供应公司到需求采购地点的距离（缺坐标时为空）
+     */
+    private BigDecimal distanceKm;
+
+    /**
+     * 供应到厂价 = 出厂价 + 距离 × 运费单价（基差报价或缺坐标时为空）
+     */
+    private BigDecimal deliveredPrice;
+
+    /**
+     * 对手方报价：供应为出厂价，需求为期望价
+     */
+    private BigDecimal price;
+
+    public String getTargetType() {
+        return targetType;
+    }
+
+    public void setTargetType(String targetType) {
+        this.targetType = targetType;
+    }
+
+    public Long getTargetId() {
+        return targetId;
+    }
+
+    public void setTargetId(Long targetId) {
+        this.targetId = targetId;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public BigDecimal getScore() {
+        return score;
+    }
+
+    public void setScore(BigDecimal score) {
+        this.score = score;
+    }
+
+    public BigDecimal getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(BigDecimal distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public BigDecimal getDeliveredPrice() {
+        return deliveredPrice;
+    }
+
+    public void setDeliveredPrice(BigDecimal deliveredPrice) {
+        this.deliveredPrice = deliveredPrice;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+}
@@ -0,0 +1,36 @@
+package com.agrimatch.match.engine;
+
+/**
+ * 撮合候选：对手方挂牌 + 匹配分（0~100）
+ */
+public final class MatchCandidate {
+    private final MatchListing listing;
+    private final double score;
+    /** 坐标缺失为 NaN */
+    private final double distanceKm;
+    /** 供应到厂价（出厂价 + 运费），无法估算为 NaN */
+    private final double deliveredPrice;
+
+    MatchCandidate(MatchListing listing, double score, double distanceKm, double deliveredPrice) {
+        this.listing = listing;
+        this.score = score;
+        this.distanceKm = distanceKm;
+        this.deliveredPrice = deliveredPrice;
+    }
+
+    public MatchListing getListing() {
+        return listing;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public double getDeliveredPrice() {
+        return deliveredPrice;
+    }
+}
@@ -0,0 +1,369 @@
+package com.agrimatch.match.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 供需撮合引擎：为每条供应/需求维护 top-K 候选
+ * - 按品类分桶，只和同品类的对手方打分
+ * - 新增/修改一条挂牌只和同品类对手方各打一次分，同时更新双方的候选列表
+ * - 桶内坐标/价格/入选门槛按列存放，先算距离+价格估上界，进不了任何一方列表的直接跳过
+ * - 每条挂牌记录"哪些对手方的候选列表里有我"，下架时只回补受影响的列表
+ * - 候选列表多留一倍余量；被淘汰过的最高分之上的条目仍不足 K 条时才重扫本品类
+ * 所有方法串行执行（synchronized），单次更新耗时见测试目录下的 MatchBenchmark
+ */
+public class MatchEngine {
+
+    private final int topK;
+    private final int capacity;
+    private final MatchScorer scorer;
+
+    /** side -> id -> 节点 */
+    private final Map<Long, Node>[] nodes;
+    /** side -> 品类 -> 桶 */
+    private final Map<String, Bucket>[] buckets;
+
+    @SuppressWarnings("unchecked")
+    public MatchEngine(int topK, double freightRate) {
+        this.topK = Math.max(1, topK);
+        this.capacity = this.topK * 2;
+        this.scorer = new MatchScorer(freightRate);
+        this.nodes = new Map[]{new HashMap<>(), new HashMap<>()};
+        this.buckets = new Map[]{new HashMap<>(), new HashMap<>()};
+    }
+
+    /**
+     * 新增或替换一条挂牌
+     */
+    public synchronized void upsert(MatchListing listing) {
+        List<Node> affected = new ArrayList<>();
+        Node old = nodes[listing.side].get(listing.id);
+        if (old != null) {
+            detach(old, affected);
+        }
+        Node n = new Node(listing, capacity);
+        nodes[listing.side].put(listing.id, n);
+        buckets[listing.side].computeIfAbsent(listing.category, k -> new Bucket()).add(n);
+
+        Bucket b = buckets[1 - listing.side].get(listing.category);
+        if (b != null) {
+            for (int i = 0; i < b.size; i++) {
+                if (b.company[i] == listing.companyId) continue;
+                double ub = partial(listing, b, i) + MatchScorer.MAX_REST;
+                boolean mine = ub > n.top.floor();
+                boolean theirs = ub > b.floor[i];
+                if (!mine) n.lost(ub);
+                if (!theirs) b.lost[i] = Math.max(b.lost[i], ub);
+                if (!mine && !theirs) continue;
+
+                Node o = b.nodes[i];
+                double score = ub - MatchScorer.MAX_REST + rest(listing, o.listing);
+                if (mine) offer(n, o, score);
+                if (theirs) offer(o, n, score);
+            }
+        }
+        refill(affected);
+    }
+
+    /**
+     * 下架/删除/成交完毕：移出引擎并回补受影响的候选列表
+     */
+    public synchronized void remove(int side, long id) {
+        Node n = nodes[side].get(id);
+        if (n == null) return;
+        List<Node> affected = new ArrayList<>();
+        detach(n, affected);
+        refill(affected);
+    }
+
+    /**
+     * 某条挂牌的候选（按分数降序），已到期的对手方跳过
+     */
+    public synchronized List<MatchCandidate> top(int side, long id, int limit, long nowMillis) {
+        Node n = nodes[side].get(id);
+        if (n == null) return Collections.emptyList();
+        int max = Math.min(Math.max(limit, 1), topK);
+        List<MatchCandidate> out = new ArrayList<>(max);
+        Slots s = n.top;
+        for (int i = 0; i < s.size && out.size() < max; i++) {
+            Node o = s.nodes[i];
+            if (o.listing.expireAt <= nowMillis) continue;
+            out.add(new MatchCandidate(o.listing, s.scores[i], s.distances[i], s.delivered[i]));
+        }
+        return out;
+    }
+
+    /**
+     * 引擎中的版本号，不存在返回 null（对账时判断是否需要重新打分）
+     */
+    public synchronized Long version(int side, long id) {
+        Node n = nodes[side].get(id);
+        return n != null ? n.listing.version : null;
+    }
+
+    /**
+     * 某一侧当前全部 id（对账时找出库里已不存在的挂牌）
+     */
+    public synchronized Set<Long> ids(int side) {
+        return new HashSet<>(nodes[side].keySet());
+    }
+
+    public synchronized int size(int side) {
+        return nodes[side].size();
+    }
+
+    private void detach(Node n, List<Node> affected) {
+        MatchListing l = n.listing;
+        nodes[l.side].remove(l.id);
+        Bucket own = buckets[l.side].get(l.category);
+        own.remove(n);
+        if (own.size == 0) buckets[l.side].remove(l.category);
+        // 自己的候选不再引用对方
+        for (int i = 0; i < n.top.size; i++) {
+            n.top.nodes[i].heldBy.remove(n);
+        }
+        // 从持有自己的候选列表中摘除
+        for (Node holder : n.heldBy) {
+            holder.top.remove(n);
+            holder.syncFloor();
+            if (holder.top.countAtLeast(holder.lostMax()) < topK) {
+                affected.add(holder);
+            }
+        }
+        n.heldBy.clear();
+        n.bucket = null;
+    }
+
+    /**
+     * 重扫本品类补齐候选；对手方的分数不受影响，只重建自己的列表
+     */
+    private void refill(List<Node> affected) {
+        for (Node n : affected) {
+            if (n.bucket == null || n.top.countAtLeast(n.lostMax()) >= topK) continue;
+            for (int i = 0; i < n.top.size; i++) {
+                n.top.nodes[i].heldBy.remove(n);
+            }
+            n.top.clear();
+            n.syncFloor();
+            n.bucket.lost[n.pos] = Double.NEGATIVE_INFINITY;
+
+            MatchListing l = n.listing;
+            Bucket b = buckets[1 - l.side].get(l.category);
+            if (b == null) continue;
+            for (int i = 0; i < b.size; i++) {
+                if (b.company[i] == l.companyId) continue;
+                double ub = partial(l, b, i) + MatchScorer.MAX_REST;
+                if (ub <= n.top.floor()) {
+                    n.lost(ub);
+                    continue;
+                }
+                Node o = b.nodes[i];
+                offer(n, o, ub - MatchScorer.MAX_REST + rest(l, o.listing));
+            }
+        }
+    }
+
+    private double partial(MatchListing l, Bucket b, int i) {
+        if (l.side == MatchListing.SUPPLY) {
+            return scorer.partial(l.x, l.y, l.z, l.price, b.x[i], b.y[i], b.z[i], b.price[i]);
+        }
+        return scorer.partial(b.x[i], b.y[i], b.z[i], b.price[i], l.x, l.y, l.z, l.price);
+    }
+
+    private double rest(MatchListing a, MatchListing b) {
+        return a.side == MatchListing.SUPPLY ? scorer.rest(a, b) : scorer.rest(b, a);
+    }
+
+    /**
+     * 把 candidate 放进 owner 的候选列表（距离/到厂价取最近一次 partial() 的结果）
+     */
+    private void offer(Node owner, Node candidate, double score) {
+        Node evicted = owner.top.offer(candidate, score, scorer.lastDistanceKm, scorer.lastDeliveredPrice);
+        if (evicted == candidate) {
+            owner.lost(score);
+            return;
+        }
+        candidate.heldBy.add(owner);
+        if (evicted != null) {
+            evicted.heldBy.remove(owner);
+            owner.lost(owner.top.evictedScore);
+        }
+        owner.syncFloor();
+    }
+
+    private static final class Node {
+        final MatchListing listing;
+        final Slots top;
+        /** 候选列表里包含本节点的对手方 */
+        final Set<Node> heldBy = new HashSet<>();
+        /** 所在桶及下标，移出引擎后 bucket 为 null */
+        Bucket bucket;
+        int pos;
+
+        Node(MatchListing listing, int capacity) {
+            this.listing = listing;
+            this.top = new Slots(capacity);
+        }
+
+        /**
+         * 上次重扫以来被淘汰（或剪枝跳过）候选的最高分：列表中不低于它的条目一定是真实排名的前几名，
+         * 低于它的条目之前可能漏掉了更高分的对手方
+         */
+        double lostMax() {
+            return bucket.lost[pos];
+        }
+
+        void lost(double score) {
+            if (score > bucket.lost[pos]) bucket.lost[pos] = score;
+        }
+
+        void syncFloor() {
+            bucket.floor[pos] = top.floor();
+        }
+    }
+
+    /**
+     * 同一侧同一品类的挂牌，打分要用的字段按列存放，遍历时顺序读内存
+     */
+    private static final class Bucket {
+        Node[] nodes = new Node[16];
+        double[] x = new double[16];
+        double[] y = new double[16];
+        double[] z = new double[16];
+        double[] price = new double[16];
+        long[] company = new long[16];
+        /** 入选门槛：候选列表满了为末位分数，否则为负无穷 */
+        double[] floor = new double[16];
+        double[] lost = new double[16];
+        int size;
+
+        void add(Node n) {
+            if (size == nodes.length) {
+                int cap = size * 2;
+                nodes = Arrays.copyOf(nodes, cap);
+                x = Arrays.copyOf(x, cap);
+                y = Arrays.copyOf(y, cap);
+                z = Arrays.copyOf(z, cap);
+                price = Arrays.copyOf(price, cap);
+                company = Arrays.copyOf(company, cap);
+                floor = Arrays.copyOf(floor, cap);
+                lost = Arrays.copyOf(lost, cap);
+            }
+            MatchListing l = n.listing;
+            nodes[size] = n;
+            x[size] = l.x;
+            y[size] = l.y;
+            z[size] = l.z;
+            price[size] = l.price;
+            company[size] = l.companyId;
+            floor[size] = Double.NEGATIVE_INFINITY;
+            lost[size] = Double.NEGATIVE_INFINITY;
+            n.bucket = this;
+            n.pos = size++;
+        }
+
+        /**
+         * 末尾元素挪到空位
+         */
+        void remove(Node n) {
+            int i = n.pos;
+            int last = --size;
+            if (i != last) {
+                Node m = nodes[last];
+                nodes[i] = m;
+                x[i] = x[last];
+                y[i] = y[last];
+                z[i] = z[last];
+                price[i] = price[last];
+                company[i] = company[last];
+                floor[i] = floor[last];
+                lost[i] = lost[last];
+                m.pos = i;
+            }
+            nodes[last] = null;
+        }
+    }
+
+    /**
+     * 定长有序数组（分数降序），容量很小，插入删除直接搬移
+     */
+    private static final class Slots {
+        final Node[] nodes;
+        final double[] scores;
+        final double[] distances;
+        final double[] delivered;
+        int size;
+        /** 最近一次 offer 挤出的分数 */
+        double evictedScore;
+
+        Slots(int capacity) {
+            nodes = new Node[capacity];
+            scores = new double[capacity];
+            distances = new double[capacity];
+            delivered = new double[capacity];
+        }
+
+        double floor() {
+            return size == nodes.length ? scores[size - 1] : Double.NEGATIVE_INFINITY;
+        }
+
+        /**
+         * @return 被挤出的节点；未入选返回 candidate 本身；有空位返回 null
+         */
+        Node offer(Node candidate, double score, double distance, double deliveredPrice) {
+            int cap = nodes.length;
+            if (size == cap && score <= scores[cap - 1]) {
+                return candidate;
+            }
+            Node evicted = null;
+            if (size == cap) {
+                evicted = nodes[cap - 1];
+                evictedScore = scores[cap - 1];
+            }
+            int i = size == cap ? cap - 1 : size;
+            while (i > 0 && scores[i - 1] < score) {
+                nodes[i] = nodes[i - 1];
+                scores[i] = scores[i - 1];
+                distances[i] = distances[i - 1];
+                delivered[i] = delivered[i - 1];
+                i--;
+            }
+            nodes[i] = candidate;
+            scores[i] = score;
+            distances[i] = distance;
+            delivered[i] = deliveredPrice;
+            if (size < cap) size++;
+            return evicted;
+        }
+
+        void remove(Node n) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] != n) continue;
+                int tail = size - i - 1;
+                System.arraycopy(nodes, i + 1, nodes, i, tail);
+                System.arraycopy(scores, i + 1, scores, i, tail);
+                System.arraycopy(distances, i + 1, distances, i, tail);
+                System.arraycopy(delivered, i + 1, delivered, i, tail);
+                nodes[--size] = null;
+                return;
+            }
+        }
+
+        int countAtLeast(double threshold) {
+            int n = 0;
+            while (n < size && scores[n] >= threshold) n++;
+            return n;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) nodes[i] = null;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.agrimatch.match.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 参与撮合的挂牌快照（供应或需求），构造时把参数/标签预处理成有序数组，打分时只做归并比较
+ */
+public final class MatchListing {
+    public static final int SUPPLY = 0;
+    public static final int REQUIREMENT = 1;
+
+    final int side;
+    final long id;
+    final long companyId;
+    final String category;
+    /** 坐标缺失为 NaN */
+    final double lat;
+    final double lng;
+    /** 供应=出厂价，需求=期望价；未知为 NaN */
+    final double price;
+    /** 到期时间（毫秒），无有效期为 Long.MAX_VALUE */
+    final long expireAt;
+    /** 版本（update_time 毫秒），对账时判断是否需要重新打分 */
+    final long version;
+
+    /** 单位球面坐标，打分时用点积求大圆距离，省掉逐对的三角函数 */
+    final double x;
+    final double y;
+    final double z;
+
+    /** 参数名按 hashCode 升序，打分时按 hash 归并 */
+    final int[] paramHashes;
+    final String[] paramKeys;
+    final ParamValue[] paramValues;
+    /** 标签 key=value 的 hashCode（升序去重） */
+    final int[] tags;
+
+    public MatchListing(int side, long id, long companyId, String category,
+                        double lat, double lng, double price, long expireAt, long version,
+                        Map<String, String> params, Set<String> tags) {
+        this.side = side;
+        this.id = id;
+        this.companyId = companyId;
+        this.category = category != null ? category.trim() : "";
+        this.lat = lat;
+        this.lng = lng;
+        this.price = price;
+        this.expireAt = expireAt;
+        this.version = version;
+        if (Double.isNaN(lat) || Double.isNaN(lng)) {
+            this.x = this.y = this.z = Double.NaN;
+        } else {
+            double phi = Math.toRadians(lat);
+            double lambda = Math.toRadians(lng);
+            this.x = Math.cos(phi) * Math.cos(lambda);
+            this.y = Math.cos(phi) * Math.sin(lambda);
+            this.z = Math.sin(phi);
+        }
+
+        Map<String, String> valid = new HashMap<>();
+        if (params != null) {
+            for (Map.Entry<String, String> e : params.entrySet()) {
+                if (e.getKey() == null || e.getValue() == null || e.getValue().isBlank()) continue;
+                valid.put(e.getKey().trim(), e.getValue());
+            }
+        }
+        List<String> keys = new ArrayList<>(valid.keySet());
+        keys.sort(Comparator.comparingInt(String::hashCode).thenComparing(Comparator.naturalOrder()));
+        this.paramKeys = keys.toArray(new String[0]);
+        this.paramHashes = new int[paramKeys.length];
+        this.paramValues = new ParamValue[paramKeys.length];
+        for (int i = 0; i < paramKeys.length; i++) {
+            paramHashes[i] = paramKeys[i].hashCode();
+            paramValues[i] = ParamValue.parse(valid.get(paramKeys[i]));
+        }
+        this.tags = tags != null ? tags.stream().mapToInt(String::hashCode).sorted().distinct().toArray() : new int[0];
+    }
+
+    public int getSide() {
+        return side;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getCompanyId() {
+        return companyId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public long getExpireAt() {
+        return expireAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 参数值：数值型支持 "≤14"、">=30%" 这类上下限写法，否则按文本精确比较
+     */
+    static final class ParamValue {
+        static final int EQ = 0;
+        static final int LE = 1;
+        static final int GE = 2;
+
+        final String text;
+        final double num;
+        final int op;
+
+        private ParamValue(String text, double num, int op) {
+            this.text = text;
+            this.num = num;
+            this.op = op;
+        }
+
+        static ParamValue parse(String raw) {
+            String s = raw.trim();
+            int op = EQ;
+            if (s.startsWith("≤") || s.startsWith("<=")) {
+                op = LE;
+            } else if (s.startsWith("≥") || s.startsWith(">=")) {
+                op = GE;
+            } else if (s.startsWith("<")) {
+                op = LE;
+            } else if (s.startsWith(">")) {
+                op = GE;
+            }
+            int start = 0;
+            while (start < s.length() && "≤≥<>= ".indexOf(s.charAt(start)) >= 0) start++;
+            int end = start;
+            while (end < s.length() && (Character.isDigit(s.charAt(end)) || s.charAt(end) == '.'
+                    || (end == start && s.charAt(end) == '-'))) end++;
+            double num = Double.NaN;
+            if (end > start) {
+                try {
+                    num = Double.parseDouble(s.substring(start, end));
+                } catch (NumberFormatException ignored) {
+                    // 按文本比较
+                }
+            }
+            return new ParamValue(s.toLowerCase(), num, Double.isNaN(num) ? EQ : op);
+        }
+    }
+}
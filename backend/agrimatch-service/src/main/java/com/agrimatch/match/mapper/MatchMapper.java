@@ -0,0 +1,136 @@
+package com.agrimatch.match.mapper;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface MatchMapper {
+    /** 在架供应的版本（挂牌或公司坐标任一更新都会变） */
+    List<VersionRow> selectSupplyVersions();
+
+    /** 在架需求的版本 */
+    List<VersionRow> selectRequirementVersions();
+
+    /** 按 id 取在架供应的撮合字段；已下架/删除的不返回 */
+    List<ListingRow> selectSupplies(@Param("ids") Collection<Long> ids);
+
+    /** 按 id 取在架需求的撮合字段；坐标优先取采购地点，否则取公司坐标 */
+    List<ListingRow> selectRequirements(@Param("ids") Collection<Long> ids);
+
+    class VersionRow {
+        private Long id;
+        private LocalDateTime versionTime;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public LocalDateTime getVersionTime() {
+            return versionTime;
+        }
+
+        public void setVersionTime(LocalDateTime versionTime) {
+            this.versionTime = versionTime;
+        }
+    }
+
+    class ListingRow {
+        private Long id;
+        private Long companyId;
+        private String categoryName;
+        private Double lat;
+        private Double lng;
+        /** 供应=出厂价（基差报价为最低参考现价），需求=期望价 */
+        private Double price;
+        private String paramsJson;
+        private String tagsJson;
+        private LocalDateTime expireTime;
+        private LocalDateTime versionTime;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public Long getCompanyId() {
+            return companyId;
+        }
+
+        public void setCompanyId(Long companyId) {
+            this.companyId = companyId;
+        }
+
+        public String getCategoryName() {
+            return categoryName;
+        }
+
+        public void setCategoryName(String categoryName) {
+            this.categoryName = categoryName;
+        }
+
+        public Double getLat() {
+            return lat;
+        }
+
+        public void setLat(Double lat) {
+            this.lat = lat;
+        }
+
+        public Double getLng() {
+            return lng;
+        }
+
+        public void setLng(Double lng) {
+            this.lng = lng;
+        }
+
+        public Double getPrice() {
+            return price;
+        }
+
+        public void setPrice(Double price) {
+            this.price = price;
+        }
+
+        public String getParamsJson() {
+            return paramsJson;
+        }
+
+        public void setParamsJson(String paramsJson) {
+            this.paramsJson = paramsJson;
+        }
+
+        public String getTagsJson() {
+            return tagsJson;
+        }
+
+        public void setTagsJson(String tagsJson) {
+            this.tagsJson = tagsJson;
+        }
+
+        public LocalDateTime getExpireTime() {
+            return expireTime;
+        }
+
+        public void setExpireTime(LocalDateTime expireTime) {
+            this.expireTime = expireTime;
+        }
+
+        public LocalDateTime getVersionTime() {
+            return versionTime;
+        }
+
+        public void setVersionTime(LocalDateTime versionTime) {
+            this.versionTime = versionTime;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.agrimatch.match.scheduler;
+
+import com.agrimatch.match.service.MatchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 撮合引擎对账任务
+ * - 启动时在专用线程里全量装载（10 万挂牌约 2 分钟，不阻塞启动，也不占调度线程）
+ * - 之后定期只对版本变化的挂牌重新打分，兜底其他节点的改动与到期兜底扫描下架的挂牌
+ */
+@Component
+public class MatchScheduler implements ApplicationRunner, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchScheduler.class);
+
+    private final MatchService matchService;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "match-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public MatchScheduler(MatchService matchService) {
+        this.matchService = matchService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        loader.execute(() -> doReconcile("撮合引擎装载失败"));
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.match.reconcile-interval-ms:300000}",
+            initialDelayString = "${agrimatch.match.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        doReconcile("撮合引擎对账失败");
+    }
+
+    /**
+     * 装载与对账串行执行（装载未完成时到点的对账等它结束再跑）
+     */
+    private synchronized void doReconcile(String failure) {
+        try {
+            matchService.reconcile();
+        } catch (Exception e) {
+            log.error("[Match] {}", failure, e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        loader.shutdownNow();
+    }
+}
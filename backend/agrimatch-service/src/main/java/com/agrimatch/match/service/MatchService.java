@@ -0,0 +1,55 @@
+package com.agrimatch.match.service;
+
+import com.agrimatch.match.dto.MatchCandidateResponse;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 供需自动撮合：内存中为每条在架供应/需求维护 top-K 候选
+ * - 发布/修改/下架/成交完毕时增量更新，只和同品类对手方重新打分
+ * - 定期按版本号与库对账，兜底其他节点的改动（启动后首次对账即全量装载）
+ * - 刷新/移出在事务内调用时推迟到提交之后执行，回滚的改动不进引擎
+ */
+public interface MatchService {
+    String SUPPLY = "supply";
+    String REQUIREMENT = "requirement";
+
+    /**
+     * 按库里最新状态刷新单条供应（已不在架则移出）
+     */
+    void refreshSupply(Long supplyId);
+
+    /**
+     * 批量刷新供应（批量导入用），按批查库
+     */
+    void refreshSupplies(Collection<Long> supplyIds);
+
+    /**
+     * 按库里最新状态刷新单条需求（已不在架则移出）
+     */
+    void refreshRequirement(Long requirementId);
+
+    /**
+     * 批量移出（到期下架）
+     */
+    void removeSupplies(Collection<Long> supplyIds);
+
+    void removeRequirements(Collection<Long> requirementIds);
+
+    /**
+     * 与库对账：版本变化的重新打分，已不在架的移出
+     * @return 变更条数
+     */
+    int reconcile();
+
+    /**
+     * 需求的候选供应（按匹配分降序）
+     */
+    List<MatchCandidateResponse> matchesForRequirement(Long requirementId, Integer limit);
+
+    /**
+     * 供应的候选需求（按匹配分降序）
+     */
+    List<MatchCandidateResponse> matchesForSupply(Long supplyId, Integer limit);
+}
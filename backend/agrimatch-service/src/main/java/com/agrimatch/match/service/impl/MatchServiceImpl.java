@@ -0,0 +1,275 @@
+package com.agrimatch.match.service.impl;
+
+import com.agrimatch.common.tx.AfterCommit;
+import com.agrimatch.match.dto.MatchCandidateResponse;
+import com.agrimatch.match.engine.MatchCandidate;
+import com.agrimatch.match.engine.MatchEngine;
+import com.agrimatch.match.engine.MatchListing;
+import com.agrimatch.match.mapper.MatchMapper;
+import com.agrimatch.match.service.MatchService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class MatchServiceImpl implements MatchService {
+    private static final Logger log = LoggerFactory.getLogger(MatchServiceImpl.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final MatchMapper matchMapper;
+    private final ObjectMapper objectMapper;
+    private final MatchEngine engine;
+
+    public MatchServiceImpl(MatchMapper matchMapper, ObjectMapper objectMapper,
+                            @Value("${agrimatch.match.top-k:20}") int topK,
+                            @Value("${agrimatch.freight.rate-per-ton-km:0.8}") double freightRate) {
+        this.matchMapper = matchMapper;
+        this.objectMapper = objectMapper;
+        this.engine = new MatchEngine(topK, freightRate);
+    }
+
+    @Override
+    public void refreshSupply(Long supplyId) {
+        if (supplyId == null) return;
+        AfterCommit.run(() -> doRefreshSupply(supplyId));
+    }
+
+    @Override
+    public void refreshSupplies(Collection<Long> supplyIds) {
+        if (supplyIds == null || supplyIds.isEmpty()) return;
+        List<Long> ids = new ArrayList<>(supplyIds);
+        AfterCommit.run(() -> doRefreshSupplies(ids));
+    }
+
+    @Override
+    public void refreshRequirement(Long requirementId) {
+        if (requirementId == null) return;
+        AfterCommit.run(() -> doRefreshRequirement(requirementId));
+    }
+
+    @Override
+    public void removeSupplies(Collection<Long> supplyIds) {
+        if (supplyIds == null || supplyIds.isEmpty()) return;
+        List<Long> ids = new ArrayList<>(supplyIds);
+        AfterCommit.run(() -> remove(MatchListing.SUPPLY, ids));
+    }
+
+    @Override
+    public void removeRequirements(Collection<Long> requirementIds) {
+        if (requirementIds == null || requirementIds.isEmpty()) return;
+        List<Long> ids = new ArrayList<>(requirementIds);
+        AfterCommit.run(() -> remove(MatchListing.REQUIREMENT, ids));
+    }
+
+    @Override
+    public int reconcile() {
+        long start = System.currentTimeMillis();
+        int supplies = reconcile(MatchListing.SUPPLY, matchMapper.selectSupplyVersions());
+        int requirements = reconcile(MatchListing.REQUIREMENT, matchMapper.selectRequirementVersions());
+        if (supplies + requirements > 0) {
+            log.info("[Match] 对账完成：供应变更 {} 条，需求变更 {} 条，当前在架 {}/{}，耗时 {} ms",
+                    supplies, requirements, engine.size(MatchListing.SUPPLY), engine.size(MatchListing.REQUIREMENT),
+                    System.currentTimeMillis() - start);
+        }
+        return supplies + requirements;
+    }
+
+    @Override
+    public List<MatchCandidateResponse> matchesForRequirement(Long requirementId, Integer limit) {
+        if (requirementId == null) return Collections.emptyList();
+        return toResponses(engine.top(MatchListing.REQUIREMENT, requirementId, normalizeLimit(limit), System.currentTimeMillis()), SUPPLY);
+    }
+
+    @Override
+    public List<MatchCandidateResponse> matchesForSupply(Long supplyId, Integer limit) {
+        if (supplyId == null) return Collections.emptyList();
+        return toResponses(engine.top(MatchListing.SUPPLY, supplyId, normalizeLimit(limit), System.currentTimeMillis()), REQUIREMENT);
+    }
+
+    private void doRefreshSupply(Long supplyId) {
+        List<MatchMapper.ListingRow> rows = matchMapper.selectSupplies(List.of(supplyId));
+        if (rows.isEmpty()) {
+            engine.remove(MatchListing.SUPPLY, supplyId);
+        } else {
+            apply(MatchListing.SUPPLY, rows.get(0));
+        }
+    }
+
+    private void doRefreshSupplies(List<Long> ids) {
+        for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+            List<Long> batch = ids.subList(i, Math.min(i + BATCH_SIZE, ids.size()));
+            Set<Long> missing = new HashSet<>(batch);
+            for (MatchMapper.ListingRow row : matchMapper.selectSupplies(batch)) {
+                missing.remove(row.getId());
+                apply(MatchListing.SUPPLY, row);
+            }
+            for (Long id : missing) {
+                engine.remove(MatchListing.SUPPLY, id);
+            }
+        }
+    }
+
+    private void doRefreshRequirement(Long requirementId) {
+        List<MatchMapper.ListingRow> rows = matchMapper.selectRequirements(List.of(requirementId));
+        if (rows.isEmpty()) {
+            engine.remove(MatchListing.REQUIREMENT, requirementId);
+        } else {
+            apply(MatchListing.REQUIREMENT, rows.get(0));
+        }
+    }
+
+    private void remove(int side, List<Long> ids) {
+        for (Long id : ids) {
+            if (id != null) engine.remove(side, id);
+        }
+    }
+
+    private int reconcile(int side, List<MatchMapper.VersionRow> versions) {
+        Map<Long, Long> dbVersions = new HashMap<>();
+        for (MatchMapper.VersionRow v : versions) {
+            dbVersions.put(v.getId(), toMillis(v.getVersionTime()));
+        }
+        Set<Long> stale = engine.ids(side);
+        stale.removeAll(dbVersions.keySet());
+        for (Long id : stale) {
+            engine.remove(side, id);
+        }
+
+        List<Long> changed = new ArrayList<>();
+        for (Map.Entry<Long, Long> e : dbVersions.entrySet()) {
+            Long current = engine.version(side, e.getKey());
+            if (current == null || !current.equals(e.getValue())) {
+                changed.add(e.getKey());
+            }
+        }
+        for (int i = 0; i < changed.size(); i += BATCH_SIZE) {
+            List<Long> batch = changed.subList(i, Math.min(i + BATCH_SIZE, changed.size()));
+            List<MatchMapper.ListingRow> rows = side == MatchListing.SUPPLY
+                    ? matchMapper.selectSupplies(batch)
+                    : matchMapper.selectRequirements(batch);
+            for (MatchMapper.ListingRow row : rows) {
+                apply(side, row);
+            }
+        }
+        return stale.size() + changed.size();
+    }
+
+    /**
+     * 写入引擎；引擎里已有更新版本时跳过（对账读到的旧行不覆盖刚刷新过的新行）
+     */
+    private void apply(int side, MatchMapper.ListingRow row) {
+        long version = toMillis(row.getVersionTime());
+        Long current = engine.version(side, row.getId());
+        if (current != null && current > version) return;
+        engine.upsert(new MatchListing(
+                side,
+                row.getId(),
+                row.getCompanyId() != null ? row.getCompanyId() : 0L,
+                row.getCategoryName(),
+                row.getLat() != null && row.getLng() != null ? row.getLat() : Double.NaN,
+                row.getLat() != null && row.getLng() != null ? row.getLng() : Double.NaN,
+                row.getPrice() != null && row.getPrice() > 0 ? row.getPrice() : Double.NaN,
+                row.getExpireTime() != null ? toMillis(row.getExpireTime()) : Long.MAX_VALUE,
+                version,
+                parseParams(row.getParamsJson()),
+                parseTags(row.getTagsJson())));
+    }
+
+    /**
+     * params_json 统一为 {"参数名": "参数值"} 的扁平结构（见 ParamsMigrationRunner）
+     */
+    private Map<String, String> parseParams(String json) {
+        Map<String, String> out = new HashMap<>();
+        if (!StringUtils.hasText(json)) return out;
+        try {
+            JsonNode root = objectMapper.readTree(json);
+            if (root == null || !root.isObject()) return out;
+            Iterator<Map.Entry<String, JsonNode>> it = root.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> e = it.next();
+                if (e.getValue().isValueNode() && !e.getValue().isNull()) {
+                    out.put(e.getKey(), e.getValue().asText());
+                }
+            }
+        } catch (Exception e) {
+            log.debug("[Match] params_json 解析失败: {}", e.getMessage());
+        }
+        return out;
+    }
+
+    /**
+     * tags_json 为 [{tagKey, value, ...}]，转成 tagKey=value；值为空的只记 tagKey
+     */
+    private Set<String> parseTags(String json) {
+        Set<String> out = new HashSet<>();
+        if (!StringUtils.hasText(json)) return out;
+        try {
+            JsonNode root = objectMapper.readTree(json);
+            if (root == null || !root.isArray()) return out;
+            for (JsonNode t : root) {
+                if (t.isTextual()) {
+                    out.add(t.asText());
+                    continue;
+                }
+                String key = t.hasNonNull("tagKey") ? t.get("tagKey").asText() : t.path("tagName").asText(null);
+                if (!StringUtils.hasText(key)) continue;
+                JsonNode v = t.get("value");
+                out.add(v != null && v.isValueNode() && !v.isNull() ? key + "=" + v.asText() : key);
+            }
+        } catch (Exception e) {
+            log.debug("[Match] tags_json 解析失败: {}", e.getMessage());
+        }
+        return out;
+    }
+
+    private static List<MatchCandidateResponse> toResponses(List<MatchCandidate> candidates, String targetType) {
+        List<MatchCandidateResponse> out = new ArrayList<>(candidates.size());
+        for (MatchCandidate c : candidates) {
+            MatchListing l = c.getListing();
+            MatchCandidateResponse o = new MatchCandidateResponse();
+            o.setTargetType(targetType);
+            o.setTargetId(l.getId());
+            o.setCompanyId(l.getCompanyId());
+            o.setCategoryName(l.getCategory());
+            o.setScore(scale(c.getScore(), 1));
+            o.setDistanceKm(scale(c.getDistanceKm(), 1));
+            o.setDeliveredPrice(scale(c.getDeliveredPrice(), 2));
+            o.setPrice(scale(l.getPrice(), 2));
+            out.add(o);
+        }
+        return out;
+    }
+
+    private static BigDecimal scale(double v, int digits) {
+        if (Double.isNaN(v)) return null;
+        return BigDecimal.valueOf(v).setScale(digits, RoundingMode.HALF_UP);
+    }
+
+    private static int normalizeLimit(Integer limit) {
+        return limit == null || limit <= 0 ? DEFAULT_LIMIT : limit;
+    }
+
+    private static long toMillis(LocalDateTime t) {
+        return t != null ? t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+}
@@ -9,6 +9,7 @@ import com.agrimatch.post.dto.PostQuery;
 import com.agrimatch.post.dto.PostResponse;
 import com.agrimatch.post.mapper.PostMapper;
 import com.agrimatch.post.service.PostService;
+import com.agrimatch.search.service.SearchIndexService;
 import com.agrimatch.tag.service.TagService;
 import com.agrimatch.post_social.domain.BusPostComment;
 import com.agrimatch.post_social.mapper.PostCommentMapper;
@@ -34,11 +35,13 @@ public class PostServiceImpl implements PostService {
     private final PostCollectMapper postCollectMapper;
     private final PointsService pointsService;
     private final TagService tagService;
+    private final SearchIndexService searchIndexService;
 
     public PostServiceImpl(PostMapper postMapper, UserMapper userMapper, 
                            PostLikeMapper postLikeMapper, PostCommentMapper postCommentMapper,
                            PostCollectMapper postCollectMapper,
-                           PointsService pointsService, TagService tagService) {
+                           PointsService pointsService, TagService tagService,
+                           SearchIndexService searchIndexService) {
         this.postMapper = postMapper;
         this.userMapper = userMapper;
         this.postLikeMapper = postLikeMapper;
@@ -46,6 +49,7 @@ public class PostServiceImpl implements PostService {
         this.postCollectMapper = postCollectMapper;
         this.pointsService = pointsService;
         this.tagService = tagService;
+        this.searchIndexService = searchIndexService;
     }
 
     @Override
@@ -86,6 +90,7 @@ public class PostServiceImpl implements PostService {
 
         // 同步标签
         tagService.syncEntityTags("post", p.getId(), p.getDomain(), p.getTagsJson());
+        searchIndexService.refresh(SearchIndexService.POST, List.of(p.getId()));
 
         return p.getId();
     }
@@ -147,6 +152,7 @@ public class PostServiceImpl implements PostService {
     public void delete(Long id) {
         int rows = postMapper.logicalDelete(id);
         if (rows != 1) throw new ApiException(ResultCode.NOT_FOUND);
+        searchIndexService.remove(SearchIndexService.POST, id);
     }
 
     private static PostResponse toResponse(BusPost p) {
@@ -34,6 +34,12 @@ public interface ProductMapper {
     @Select("SELECT id, user_id, parent_id, product_name, schema_code, has_params, allow_custom_name, status, del_flag " +
             "FROM nht_product WHERE id = #{id} AND del_flag = '0'")
     NhtProduct selectById(@Param("id") Long id);
+
+    /**
+     * 按品名查产品ID（供应/需求的 category_name 即产品名）
+     */
+    @Select("SELECT id FROM nht_product WHERE product_name = #{name} AND del_flag = '0' AND status = '0' ORDER BY id ASC LIMIT 1")
+    Long selectIdByName(@Param("name") String name);
 }
 
 
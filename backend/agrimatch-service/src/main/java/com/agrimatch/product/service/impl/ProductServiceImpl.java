@@ -7,6 +7,7 @@ import com.agrimatch.product.dto.ProductCreateRequest;
 import com.agrimatch.product.dto.ProductNode;
 import com.agrimatch.product.mapper.ProductMapper;
 import com.agrimatch.product.service.ProductService;
+import com.agrimatch.typeahead.service.TypeaheadService;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -18,9 +19,11 @@ import java.util.Map;
 @Service
 public class ProductServiceImpl implements ProductService {
     private final ProductMapper productMapper;
+    private final TypeaheadService typeaheadService;
 
-    public ProductServiceImpl(ProductMapper productMapper) {
+    public ProductServiceImpl(ProductMapper productMapper, TypeaheadService typeaheadService) {
         this.productMapper = productMapper;
+        this.typeaheadService = typeaheadService;
     }
 
     @Override
@@ -52,6 +55,7 @@ public class ProductServiceImpl implements ProductService {
         p.setProductName(req.getName().trim());
         int rows = productMapper.insertCustom(p);
         if (rows != 1 || p.getId() == null) throw new ApiException(ResultCode.SERVER_ERROR);
+        typeaheadService.refresh(TypeaheadService.PRODUCT, List.of(p.getId()));
         return p.getId();
     }
 
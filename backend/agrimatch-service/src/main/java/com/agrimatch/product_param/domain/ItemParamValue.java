@@ -0,0 +1,30 @@
+package com.agrimatch.product_param.domain;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 参数值索引行（bus_item_param_values），由 params_json 抽取
+ */
+@Data
+public class ItemParamValue {
+    public static final int OP_EQ = 0;
+    public static final int OP_LE = 1;
+    public static final int OP_GE = 2;
+
+    private Long id;
+    /** supply / requirement / contract */
+    private String entityType;
+    private Long entityId;
+    /** 规范化的参数名（去掉括号里的单位、空白，字母小写），筛选按它匹配 */
+    private String paramKey;
+    /** 原始参数名 */
+    private String paramName;
+    private String valueText;
+    /** 数值（"≤14.0" 取 14.0），不是数值为 null */
+    private BigDecimal valueNum;
+    /** 数值前的比较符：0 无，1 ≤/&lt;，2 ≥/&gt; */
+    private Integer valueOp;
+    private String unit;
+}
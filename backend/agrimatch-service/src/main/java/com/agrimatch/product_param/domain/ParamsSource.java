@@ -0,0 +1,12 @@
+package com.agrimatch.product_param.domain;
+
+import lombok.Data;
+
+/**
+ * 待建参数值索引的实体（id + params_json）
+ */
+@Data
+public class ParamsSource {
+    private Long id;
+    private String paramsJson;
+}
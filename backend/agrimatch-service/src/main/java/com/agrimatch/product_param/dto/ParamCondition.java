@@ -0,0 +1,21 @@
+package com.agrimatch.product_param.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 一个参数上的筛选条件（由列表接口的 paramFilters 解析而来），SQL 中下推到 bus_item_param_values 的索引
+ * - from/to：数值区间，为 null 表示不限
+ * - texts：文本取值任一相等
+ */
+@Data
+public class ParamCondition {
+    private String paramKey;
+    private BigDecimal from;
+    private boolean fromInclusive = true;
+    private BigDecimal to;
+    private boolean toInclusive = true;
+    private List<String> texts;
+}
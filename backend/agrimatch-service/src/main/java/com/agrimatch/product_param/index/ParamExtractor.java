@@ -0,0 +1,113 @@
+package com.agrimatch.product_param.index;
+
+import com.agrimatch.product_param.domain.ItemParamValue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 把展开后的 参数名 -> 参数值 转成索引行：
+ * - 参数名规范化："容重(g/L)"、"容重 " -> "容重"，括号里的内容作单位
+ * - 数值："≤14.0" -> 14.0（LE）、"≥43%" -> 43（GE）、"13.5" -> 13.5；取不出数值的只存文本
+ */
+public final class ParamExtractor {
+
+    private static final int MAX_KEY_LENGTH = 50;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final int MAX_UNIT_LENGTH = 20;
+    /** value_num 为 DECIMAL(18, 4) */
+    private static final BigDecimal MAX_NUM = new BigDecimal("100000000000000");
+
+    private ParamExtractor() {
+    }
+
+    /**
+     * @param units 规范化参数名 -> 目录里的单位，参数名本身没带单位时使用
+     */
+    public static List<ItemParamValue> extract(String entityType, Long entityId, Map<String, String> params,
+                                               Map<String, String> units) {
+        List<ItemParamValue> out = new ArrayList<>();
+        for (Map.Entry<String, String> e : params.entrySet()) {
+            String key = normalizeKey(e.getKey());
+            String text = e.getValue() != null ? e.getValue().trim() : "";
+            if (key.isEmpty() || key.length() > MAX_KEY_LENGTH || text.isEmpty()) continue;
+            ItemParamValue v = new ItemParamValue();
+            v.setEntityType(entityType);
+            v.setEntityId(entityId);
+            v.setParamKey(key);
+            v.setParamName(truncate(e.getKey().trim(), MAX_KEY_LENGTH));
+            v.setValueText(truncate(text, MAX_TEXT_LENGTH));
+            String unit = unitOf(e.getKey());
+            if (unit == null && units != null) unit = units.get(key);
+            v.setUnit(unit != null ? truncate(unit, MAX_UNIT_LENGTH) : null);
+            parseNumber(text, v);
+            out.add(v);
+        }
+        return out;
+    }
+
+    /**
+     * 去掉括号及其中内容、空白，字母转小写
+     */
+    public static String normalizeKey(String name) {
+        if (name == null) return "";
+        StringBuilder sb = new StringBuilder(name.length());
+        int depth = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '(' || c == '（') {
+                depth++;
+            } else if (c == ')' || c == '）') {
+                if (depth > 0) depth--;
+            } else if (depth == 0 && !Character.isWhitespace(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 参数名括号里的单位，如 "容重(g/L)" -> "g/L"
+     */
+    static String unitOf(String name) {
+        if (name == null) return null;
+        int open = Math.max(name.lastIndexOf('('), name.lastIndexOf('（'));
+        if (open < 0) return null;
+        int close = name.indexOf(')', open);
+        if (close < 0) close = name.indexOf('）', open);
+        if (close < 0) return null;
+        String unit = name.substring(open + 1, close).trim();
+        return unit.isEmpty() ? null : unit;
+    }
+
+    private static void parseNumber(String text, ItemParamValue v) {
+        String s = text.replace('＜', '<').replace('＞', '>').replace('＝', '=');
+        int op = ItemParamValue.OP_EQ;
+        if (s.startsWith("≤") || s.startsWith("<")) {
+            op = ItemParamValue.OP_LE;
+        } else if (s.startsWith("≥") || s.startsWith(">")) {
+            op = ItemParamValue.OP_GE;
+        }
+        int start = 0;
+        while (start < s.length() && "≤≥<>= ".indexOf(s.charAt(start)) >= 0) start++;
+        int end = start;
+        if (end < s.length() && s.charAt(end) == '-') end++;
+        while (end < s.length() && (Character.isDigit(s.charAt(end)) || s.charAt(end) == '.')) end++;
+        if (end == start || (end == start + 1 && s.charAt(start) == '-')) return;
+        try {
+            BigDecimal num = new BigDecimal(s.substring(start, end));
+            if (num.abs().compareTo(MAX_NUM) >= 0) return;
+            v.setValueNum(num);
+            v.setValueOp(op);
+        } catch (NumberFormatException ignored) {
+            // 只存文本
+        }
+    }
+
+    private static String truncate(String s, int max) {
+        return s.length() > max ? s.substring(0, max) : s;
+    }
+}
@@ -0,0 +1,26 @@
+package com.agrimatch.product_param.mapper;
+
+import com.agrimatch.product_param.domain.ItemParamValue;
+import com.agrimatch.product_param.domain.ParamsSource;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface ParamValueMapper {
+
+    int deleteByEntities(@Param("entityType") String entityType, @Param("entityIds") Collection<Long> entityIds);
+
+    int batchInsert(@Param("list") List<ItemParamValue> list);
+
+    List<ItemParamValue> selectByEntity(@Param("entityType") String entityType, @Param("entityId") Long entityId);
+
+    /**
+     * 补建索引：有 params_json 但还没有索引行的实体，按主键游标分批读取
+     * entityType 只能是 supply / requirement / contract
+     */
+    List<ParamsSource> selectUnindexed(@Param("entityType") String entityType, @Param("afterId") Long afterId,
+                                       @Param("limit") int limit);
+}
@@ -10,6 +10,11 @@ public interface ProductParamMapper {
 
     NhtProductParam selectById(@Param("id") Long id);
 
+    /**
+     * 参数目录（id、参数名、单位），含已删除的参数：历史 params_json 里可能还引用着
+     */
+    List<NhtProductParam> selectCatalog();
+
     int updateOptions(@Param("id") Long id, @Param("options") String options);
 }
 
@@ -0,0 +1,33 @@
+package com.agrimatch.product_param.scheduler;
+
+import com.agrimatch.product_param.service.ParamIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动时补建参数值索引：索引表上线前的历史数据，以及写索引失败的实体
+ */
+@Component
+public class ParamIndexBackfillRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ParamIndexBackfillRunner.class);
+
+    private final ParamIndexService paramIndexService;
+
+    public ParamIndexBackfillRunner(ParamIndexService paramIndexService) {
+        this.paramIndexService = paramIndexService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            int n = paramIndexService.backfill();
+            if (n > 0) log.info("[ParamIndex] 补建参数值索引 {} 条实体", n);
+        } catch (Exception e) {
+            log.error("[ParamIndex] 补建参数值索引失败", e);
+        }
+    }
+}
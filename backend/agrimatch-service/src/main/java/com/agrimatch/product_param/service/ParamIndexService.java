@@ -0,0 +1,43 @@
+package com.agrimatch.product_param.service;
+
+import com.agrimatch.product_param.dto.ParamCondition;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 参数值索引（bus_item_param_values）：
+ * - 供应/采购/合同保存时按参数目录展开 params_json 写入，整体替换
+ * - 启动时补建缺索引的历史数据
+ * - 大厅列表的 paramFilters 解析为 ParamCondition，由 SQL 按索引过滤
+ */
+public interface ParamIndexService {
+
+    String SUPPLY = "supply";
+    String REQUIREMENT = "requirement";
+    String CONTRACT = "contract";
+
+    /**
+     * 整体替换实体的参数值索引；params_json 解析失败只清空索引，不抛异常
+     */
+    void sync(String entityType, Long entityId, String paramsJson);
+
+    /**
+     * 批量替换（批量导入用），key 为实体 id
+     */
+    void sync(String entityType, Map<Long, String> paramsJsonById);
+
+    /**
+     * 解析列表接口的 paramFilters（JSON 对象），如 {"蛋白质":{"gte":43},"水分":{"lte":14},"等级":["一等","二等"]}
+     * - 数值：gt / gte / lt / lte，可组合；单个数值或 eq 表示等于
+     * - 文本：字符串或数组（任一相等），也可写 eq / in
+     * 条件为空返回 null，不合法抛 ApiException
+     */
+    List<ParamCondition> parseFilters(String filtersJson);
+
+    /**
+     * 补建有 params_json 但没有索引行的实体
+     * @return 补建的实体数
+     */
+    int backfill();
+}
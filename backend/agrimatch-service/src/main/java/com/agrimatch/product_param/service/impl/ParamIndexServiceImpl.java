@@ -0,0 +1,241 @@
+package com.agrimatch.product_param.service.impl;
+
+import com.agrimatch.common.api.ResultCode;
+import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.product_param.domain.ItemParamValue;
+import com.agrimatch.product_param.domain.NhtProductParam;
+import com.agrimatch.product_param.domain.ParamsSource;
+import com.agrimatch.product_param.dto.ParamCondition;
+import com.agrimatch.product_param.index.ParamExtractor;
+import com.agrimatch.product_param.mapper.ParamValueMapper;
+import com.agrimatch.product_param.mapper.ProductParamMapper;
+import com.agrimatch.product_param.service.ParamIndexService;
+import com.agrimatch.util.ParamsJsonUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ParamIndexServiceImpl implements ParamIndexService {
+    private static final Logger log = LoggerFactory.getLogger(ParamIndexServiceImpl.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_CONDITIONS = 10;
+    private static final int MAX_TEXTS = 50;
+    private static final List<String> ENTITY_TYPES = List.of(SUPPLY, REQUIREMENT, CONTRACT);
+
+    private final ParamValueMapper paramValueMapper;
+    private final ProductParamMapper productParamMapper;
+    private final ObjectMapper objectMapper;
+
+    /** 参数目录：id -> 参数名、规范化参数名 -> 单位；目录只在后台维护，首次使用时装载 */
+    private volatile Catalog catalog;
+
+    private record Catalog(Map<String, String> idToName, Map<String, String> units) {
+    }
+
+    public ParamIndexServiceImpl(ParamValueMapper paramValueMapper, ProductParamMapper productParamMapper,
+                                 ObjectMapper objectMapper) {
+        this.paramValueMapper = paramValueMapper;
+        this.productParamMapper = productParamMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void sync(String entityType, Long entityId, String paramsJson) {
+        if (entityId == null) return;
+        Map<Long, String> one = new HashMap<>();
+        one.put(entityId, paramsJson);
+        sync(entityType, one);
+    }
+
+    @Override
+    public void sync(String entityType, Map<Long, String> paramsJsonById) {
+        if (!ENTITY_TYPES.contains(entityType) || paramsJsonById == null || paramsJsonById.isEmpty()) return;
+        Catalog c = catalog();
+        List<ItemParamValue> values = new ArrayList<>();
+        paramsJsonById.forEach((id, json) -> values.addAll(extract(entityType, id, json, c)));
+        paramValueMapper.deleteByEntities(entityType, paramsJsonById.keySet());
+        for (int i = 0; i < values.size(); i += BATCH_SIZE) {
+            paramValueMapper.batchInsert(values.subList(i, Math.min(i + BATCH_SIZE, values.size())));
+        }
+    }
+
+    private List<ItemParamValue> extract(String entityType, Long entityId, String paramsJson, Catalog c) {
+        if (!StringUtils.hasText(paramsJson)) return List.of();
+        try {
+            Map<String, String> flat = ParamsJsonUtil.flatten(objectMapper.readTree(paramsJson), c.idToName());
+            return ParamExtractor.extract(entityType, entityId, flat, c.units());
+        } catch (Exception e) {
+            // 历史数据里的脏 JSON 不影响保存，只是不进索引
+            log.warn("[ParamIndex] {}#{} params_json 解析失败，已清空索引: {}", entityType, entityId, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Catalog catalog() {
+        Catalog c = catalog;
+        if (c != null) return c;
+        synchronized (this) {
+            if (catalog == null) {
+                Map<String, String> idToName = new HashMap<>();
+                Map<String, String> units = new HashMap<>();
+                for (NhtProductParam p : productParamMapper.selectCatalog()) {
+                    if (!StringUtils.hasText(p.getParamName())) continue;
+                    idToName.put(String.valueOf(p.getId()), p.getParamName());
+                    if (StringUtils.hasText(p.getUnit())) {
+                        units.putIfAbsent(ParamExtractor.normalizeKey(p.getParamName()), p.getUnit().trim());
+                    }
+                }
+                catalog = new Catalog(idToName, units);
+                log.info("[ParamIndex] 已加载参数目录 {} 条", idToName.size());
+            }
+            return catalog;
+        }
+    }
+
+    @Override
+    public List<ParamCondition> parseFilters(String filtersJson) {
+        if (!StringUtils.hasText(filtersJson)) return null;
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(filtersJson);
+        } catch (Exception e) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "参数筛选条件格式不正确");
+        }
+        if (root == null || root.isNull()) return null;
+        if (!root.isObject()) throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "参数筛选条件格式不正确");
+        if (root.size() > MAX_CONDITIONS) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "参数筛选条件最多 " + MAX_CONDITIONS + " 个");
+        }
+        // 同一参数写了多次（如 "水分" 和 "水分(%)"）时合并为一个条件
+        Map<String, ParamCondition> out = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> it = root.fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> e = it.next();
+            String key = ParamExtractor.normalizeKey(e.getKey());
+            if (key.isEmpty()) throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "参数名不能为空");
+            ParamCondition c = out.computeIfAbsent(key, k -> {
+                ParamCondition n = new ParamCondition();
+                n.setParamKey(k);
+                return n;
+            });
+            parseValue(e.getKey(), e.getValue(), c);
+        }
+        return out.isEmpty() ? null : new ArrayList<>(out.values());
+    }
+
+    private static void parseValue(String name, JsonNode v, ParamCondition c) {
+        if (v.isArray()) {
+            addTexts(name, v, c);
+        } else if (v.isObject()) {
+            if (v.isEmpty()) throw new ApiException(ResultCode.PARAM_ERROR.getCode(), name + " 的条件不能为空");
+            Iterator<Map.Entry<String, JsonNode>> ops = v.fields();
+            while (ops.hasNext()) {
+                Map.Entry<String, JsonNode> op = ops.next();
+                String opName = op.getKey();
+                JsonNode arg = op.getValue();
+                switch (opName) {
+                    case "eq" -> parseValue(name, arg, c);
+                    case "in" -> {
+                        if (!arg.isArray()) throw new ApiException(ResultCode.PARAM_ERROR.getCode(), name + ".in 需为数组");
+                        addTexts(name, arg, c);
+                    }
+                    case "gt", "gte" -> lower(c, number(name, opName, arg), "gte".equals(opName));
+                    case "lt", "lte" -> upper(c, number(name, opName, arg), "lte".equals(opName));
+                    default -> throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "不支持的参数条件: " + name + "." + opName);
+                }
+            }
+        } else if (v.isNumber()) {
+            BigDecimal d = v.decimalValue();
+            lower(c, d, true);
+            upper(c, d, true);
+        } else if (v.isTextual() && StringUtils.hasText(v.asText())) {
+            addText(c, v.asText().trim());
+        } else {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), name + " 的取值需为文本或数值");
+        }
+    }
+
+    private static void addTexts(String name, JsonNode list, ParamCondition c) {
+        if (list.isEmpty()) throw new ApiException(ResultCode.PARAM_ERROR.getCode(), name + " 的取值不能为空数组");
+        for (JsonNode item : list) {
+            if (!item.isValueNode() || item.isNull() || !StringUtils.hasText(item.asText())) {
+                throw new ApiException(ResultCode.PARAM_ERROR.getCode(), name + " 的取值需为文本或数值");
+            }
+            addText(c, item.asText().trim());
+        }
+        if (c.getTexts().size() > MAX_TEXTS) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), name + " 的取值最多 " + MAX_TEXTS + " 个");
+        }
+    }
+
+    private static void addText(ParamCondition c, String text) {
+        if (c.getTexts() == null) c.setTexts(new ArrayList<>());
+        if (!c.getTexts().contains(text)) c.getTexts().add(text);
+    }
+
+    private static BigDecimal number(String name, String op, JsonNode v) {
+        if (v.isNumber()) return v.decimalValue();
+        if (v.isTextual()) {
+            try {
+                return new BigDecimal(v.asText().trim());
+            } catch (NumberFormatException ignored) {
+                // 落到下面的异常
+            }
+        }
+        throw new ApiException(ResultCode.PARAM_ERROR.getCode(), name + "." + op + " 需为数值");
+    }
+
+    /**
+     * 同时给了 gt 和 gte 时取更严格的
+     */
+    private static void lower(ParamCondition c, BigDecimal d, boolean inclusive) {
+        int cmp = c.getFrom() == null ? 1 : d.compareTo(c.getFrom());
+        if (cmp > 0 || (cmp == 0 && !inclusive)) {
+            c.setFrom(d);
+            c.setFromInclusive(inclusive);
+        }
+    }
+
+    private static void upper(ParamCondition c, BigDecimal d, boolean inclusive) {
+        int cmp = c.getTo() == null ? -1 : d.compareTo(c.getTo());
+        if (cmp < 0 || (cmp == 0 && !inclusive)) {
+            c.setTo(d);
+            c.setToInclusive(inclusive);
+        }
+    }
+
+    @Override
+    public int backfill() {
+        catalog = null;
+        int total = 0;
+        for (String type : ENTITY_TYPES) {
+            Long afterId = null;
+            while (true) {
+                List<ParamsSource> batch = paramValueMapper.selectUnindexed(type, afterId, BATCH_SIZE);
+                if (batch.isEmpty()) break;
+                Map<Long, String> byId = new LinkedHashMap<>();
+                for (ParamsSource s : batch) {
+                    byId.put(s.getId(), s.getParamsJson());
+                }
+                sync(type, byId);
+                total += batch.size();
+                afterId = batch.get(batch.size() - 1).getId();
+                if (batch.size() < BATCH_SIZE) break;
+            }
+        }
+        return total;
+    }
+}
@@ -1,7 +1,11 @@
 package com.agrimatch.requirement.controller;
 
+import com.agrimatch.common.api.ChangeFeed;
+import com.agrimatch.common.api.CursorResult;
 import com.agrimatch.common.api.Result;
+import com.agrimatch.requirement.dto.RequirementCardResponse;
 import com.agrimatch.requirement.dto.RequirementCreateRequest;
+import com.agrimatch.requirement.dto.RequirementDetailResponse;
 import com.agrimatch.requirement.dto.RequirementQuery;
 import com.agrimatch.requirement.dto.RequirementResponse;
 import com.agrimatch.requirement.dto.RequirementUpdateRequest;
@@ -53,6 +57,9 @@ public class RequirementController {
         return Result.success(requirementService.getById(id));
     }
 
+    /**
+     * 不分页列表，最多返回 200 条（兼容旧客户端）；新代码用 /page
+     */
     @GetMapping
     public Result<List<RequirementResponse>> list(
             Authentication authentication,
@@ -62,7 +69,8 @@ public class RequirementController {
             @RequestParam(value = "status", required = false) Integer status,
             @RequestParam(value = "includeExpired", required = false) Boolean includeExpired,
             @RequestParam(value = "orderBy", required = false) String orderBy,
-            @RequestParam(value = "order", required = false) String order
+            @RequestParam(value = "order", required = false) String order,
+            @RequestParam(value = "radiusKm", required = false) Double radiusKm
     ) {
         // 允许匿名访问（大厅页面）
         Long viewerUserId = SecurityUtil.getUserIdOrNull(authentication);
@@ -74,9 +82,97 @@ public class RequirementController {
         q.setIncludeExpired(includeExpired);
         q.setOrderBy(orderBy);
         q.setOrder(order);
+        q.setRadiusKm(radiusKm);
         return Result.success(requirementService.list(viewerUserId, q));
     }
 
+    /**
+     * 大厅游标分页：首页不传 cursor，之后传上一页返回的 nextCursor
+     */
+    @GetMapping("/page")
+    public Result<CursorResult<RequirementResponse>> page(
+            Authentication authentication,
+            @RequestParam(value = "companyId", required = false) Long companyId,
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "categoryName", required = false) String categoryName,
+            @RequestParam(value = "status", required = false) Integer status,
+            @RequestParam(value = "includeExpired", required = false) Boolean includeExpired,
+            @RequestParam(value = "orderBy", required = false) String orderBy,
+            @RequestParam(value = "order", required = false) String order,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "radiusKm", required = false) Double radiusKm
+    ) {
+        // 允许匿名访问（大厅页面）
+        Long viewerUserId = SecurityUtil.getUserIdOrNull(authentication);
+        RequirementQuery q = new RequirementQuery();
+        q.setCompanyId(companyId);
+        q.setUserId(userId);
+        q.setCategoryName(categoryName);
+        q.setStatus(status);
+        q.setIncludeExpired(includeExpired);
+        q.setOrderBy(orderBy);
+        q.setOrder(order);
+        q.setRadiusKm(radiusKm);
+        q.setCursor(cursor);
+        q.setSize(size);
+        return Result.success(requirementService.page(viewerUserId, q));
+    }
+
+    /**
+     * 大厅卡片分页（参数同 /page），不含参数/标签/备注等大字段
+     */
+    @GetMapping("/cards")
+    public Result<CursorResult<RequirementCardResponse>> cards(
+            Authentication authentication,
+            @RequestParam(value = "companyId", required = false) Long companyId,
+            @RequestParam(value = "userId", required = false) Long userId,
+            @RequestParam(value = "categoryName", required = false) String categoryName,
+            @RequestParam(value = "status", required = false) Integer status,
+            @RequestParam(value = "includeExpired", required = false) Boolean includeExpired,
+            @RequestParam(value = "orderBy", required = false) String orderBy,
+            @RequestParam(value = "order", required = false) String order,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "radiusKm", required = false) Double radiusKm
+    ) {
+        // 允许匿名访问（大厅页面）
+        Long viewerUserId = SecurityUtil.getUserIdOrNull(authentication);
+        RequirementQuery q = new RequirementQuery();
+        q.setCompanyId(companyId);
+        q.setUserId(userId);
+        q.setCategoryName(categoryName);
+        q.setStatus(status);
+        q.setIncludeExpired(includeExpired);
+        q.setOrderBy(orderBy);
+        q.setOrder(order);
+        q.setRadiusKm(radiusKm);
+        q.setCursor(cursor);
+        q.setSize(size);
+        return Result.success(requirementService.cardPage(viewerUserId, q));
+    }
+
+    /**
+     * 大厅增量同步：先不带 version 取当前版本号，再拉全量卡片，之后只带 version 拉变更；
+     * hasMore 为 true 时继续用返回的 version 拉取
+     */
+    @GetMapping("/changes")
+    public Result<ChangeFeed<RequirementCardResponse>> changes(Authentication authentication,
+                                                               @RequestParam(value = "version", required = false) String version,
+                                                               @RequestParam(value = "domain", required = false) String domain) {
+        // 允许匿名访问（大厅页面）
+        Long viewerUserId = SecurityUtil.getUserIdOrNull(authentication);
+        return Result.success(requirementService.changes(viewerUserId, version, domain));
+    }
+
+    /**
+     * 卡片展开时批量加载详情字段：/api/requirements/details?ids=1,2,3
+     */
+    @GetMapping("/details")
+    public Result<List<RequirementDetailResponse>> details(@RequestParam("ids") List<Long> ids) {
+        return Result.success(requirementService.details(ids));
+    }
+
     @PutMapping("/{id}")
     public Result<Void> update(Authentication authentication,
                                @PathVariable("id") @NotNull Long id,
@@ -34,6 +34,15 @@ public class BusRequirement {
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
 
+    /**
+     * 查询时按当前用户公司坐标计算（非表字段）
+     */
+    private BigDecimal distanceKm;
+    /**
+     * 是否已折叠到同公司更新的近似重复挂牌下（增量同步用，非表字段）
+     */
+    private Boolean collapsed;
+
     public Long getId() {
         return id;
     }
@@ -249,6 +258,20 @@ public class BusRequirement {
     public void setNickName(String nickName) {
         this.nickName = nickName;
     }
-}
 
+    public BigDecimal getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(BigDecimal distanceKm) {
+        this.distanceKm = distanceKm;
+    }
 
+    public Boolean getCollapsed() {
+        return collapsed;
+    }
+
+    public void setCollapsed(Boolean collapsed) {
+        this.collapsed = collapsed;
+    }
+}
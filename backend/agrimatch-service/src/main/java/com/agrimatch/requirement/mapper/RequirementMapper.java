@@ -4,6 +4,7 @@ import com.agrimatch.requirement.domain.BusRequirement;
 import com.agrimatch.requirement.dto.RequirementQuery;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface RequirementMapper {
@@ -13,6 +14,22 @@ public interface RequirementMapper {
 
     List<BusRequirement> selectList(@Param("q") RequirementQuery query);
 
+    /**
+     * 与 selectList 条件相同，只取大厅卡片展示的列
+     */
+    List<BusRequirement> selectCardList(@Param("q") RequirementQuery query);
+
+    List<BusRequirement> selectDetails(@Param("ids") List<Long> ids);
+
+    /**
+     * 增量同步：按 (update_time, id) 升序取 since 之后、until 之前的变更行（含已删除）
+     */
+    List<BusRequirement> selectChanges(@Param("q") RequirementQuery q,
+                                       @Param("since") LocalDateTime since,
+                                       @Param("sinceId") Long sinceId,
+                                       @Param("until") LocalDateTime until,
+                                       @Param("limit") int limit);
+
     int update(BusRequirement req);
 
     int logicalDelete(@Param("id") Long id, @Param("userId") Long userId);
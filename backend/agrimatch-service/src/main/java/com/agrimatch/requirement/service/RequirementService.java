@@ -1,6 +1,10 @@
 package com.agrimatch.requirement.service;
 
+import com.agrimatch.common.api.ChangeFeed;
+import com.agrimatch.common.api.CursorResult;
+import com.agrimatch.requirement.dto.RequirementCardResponse;
 import com.agrimatch.requirement.dto.RequirementCreateRequest;
+import com.agrimatch.requirement.dto.RequirementDetailResponse;
 import com.agrimatch.requirement.dto.RequirementQuery;
 import com.agrimatch.requirement.dto.RequirementResponse;
 import com.agrimatch.requirement.dto.RequirementUpdateRequest;
@@ -17,6 +21,26 @@ public interface RequirementService {
      */
     List<RequirementResponse> list(Long viewerUserId, RequirementQuery query);
 
+    /**
+     * 大厅游标分页：支持 create_time / distance 排序，距离在 SQL 中计算并排序
+     */
+    CursorResult<RequirementResponse> page(Long viewerUserId, RequirementQuery query);
+
+    /**
+     * 大厅卡片分页：筛选/排序/游标与 page 一致，只返回卡片字段
+     */
+    CursorResult<RequirementCardResponse> cardPage(Long viewerUserId, RequirementQuery query);
+
+    /**
+     * 大厅增量同步：version 之后新增/修改的卡片和已删除/下架的 id；version 为空时只返回当前版本号
+     */
+    ChangeFeed<RequirementCardResponse> changes(Long viewerUserId, String version, String domain);
+
+    /**
+     * 批量加载卡片不返回的字段（参数/标签/备注等），最多 100 条
+     */
+    List<RequirementDetailResponse> details(List<Long> ids);
+
     void update(Long userId, Long id, RequirementUpdateRequest req);
 
     void delete(Long userId, Long id);
@@ -1,47 +1,98 @@
 package com.agrimatch.requirement.service.impl;
 
+import com.agrimatch.common.api.ChangeFeed;
+import com.agrimatch.common.api.CursorResult;
 import com.agrimatch.common.api.ResultCode;
 import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.common.sync.ChangeFeedClock;
 import com.agrimatch.company.domain.BusCompany;
 import com.agrimatch.company.mapper.CompanyMapper;
-import com.agrimatch.deal.mapper.DealMapper;
+import com.agrimatch.deal.service.QuantityLedgerService;
+import com.agrimatch.dedup.domain.DedupSource;
+import com.agrimatch.dedup.service.DedupService;
+import com.agrimatch.expiry.service.ListingExpiryService;
+import com.agrimatch.geo.service.GeoIndexService;
+import com.agrimatch.match.service.MatchService;
+import com.agrimatch.product_param.service.ParamIndexService;
 import com.agrimatch.requirement.domain.BusRequirement;
+import com.agrimatch.requirement.dto.RequirementCardResponse;
 import com.agrimatch.requirement.dto.RequirementCreateRequest;
+import com.agrimatch.requirement.dto.RequirementDetailResponse;
 import com.agrimatch.requirement.dto.RequirementQuery;
 import com.agrimatch.requirement.dto.RequirementResponse;
 import com.agrimatch.requirement.dto.RequirementUpdateRequest;
 import com.agrimatch.requirement.mapper.RequirementMapper;
 import com.agrimatch.requirement.service.RequirementService;
+import com.agrimatch.saved_search.service.SavedSearchService;
+import com.agrimatch.search.service.SearchIndexService;
+import com.agrimatch.tag.service.TagIndexService;
 import com.agrimatch.tag.service.TagService;
 import com.agrimatch.user.domain.SysUser;
 import com.agrimatch.user.mapper.UserMapper;
-import com.agrimatch.util.GeoUtil;
+import com.agrimatch.util.CursorUtil;
 import com.agrimatch.util.NoUtil;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
-import java.util.Comparator;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class RequirementServiceImpl implements RequirementService {
+    private static final Set<String> ORDER_BY_FIELDS = Set.of("create_time", "distance");
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    /** 不分页列表（公司主页聚合、旧客户端）的条数上限，大厅和“我的采购”走游标分页 */
+    private static final int MAX_LIST_SIZE = 200;
+    private static final int MAX_CHANGES = 500;
+    /** 半径筛选最多带入 SQL 的公司/地点 id 数（超出只保留最近的） */
+    private static final int MAX_NEAR_IDS = 2000;
+    /** 标签筛选最多带入 SQL 的挂牌 id 数（超出只保留最新发布的） */
+    private static final int MAX_TAG_IDS = 2000;
+    private static final String CHANGES = "changes";
+
     private final RequirementMapper requirementMapper;
     private final UserMapper userMapper;
     private final CompanyMapper companyMapper;
-    private final DealMapper dealMapper;
+    private final QuantityLedgerService quantityLedgerService;
     private final TagService tagService;
+    private final ListingExpiryService listingExpiryService;
+    private final GeoIndexService geoIndexService;
+    private final MatchService matchService;
+    private final SearchIndexService searchIndexService;
+    private final TagIndexService tagIndexService;
+    private final SavedSearchService savedSearchService;
+    private final ParamIndexService paramIndexService;
+    private final DedupService dedupService;
+    private final ChangeFeedClock changeFeedClock;
 
     public RequirementServiceImpl(RequirementMapper requirementMapper, UserMapper userMapper, 
-                                  CompanyMapper companyMapper, DealMapper dealMapper,
-                                  TagService tagService) {
+                                  CompanyMapper companyMapper, QuantityLedgerService quantityLedgerService,
+                                  TagService tagService, ListingExpiryService listingExpiryService,
+                                  GeoIndexService geoIndexService, MatchService matchService,
+                                  SearchIndexService searchIndexService, TagIndexService tagIndexService,
+                                  SavedSearchService savedSearchService, ParamIndexService paramIndexService,
+                                  DedupService dedupService, ChangeFeedClock changeFeedClock) {
         this.requirementMapper = requirementMapper;
         this.userMapper = userMapper;
         this.companyMapper = companyMapper;
-        this.dealMapper = dealMapper;
+        this.quantityLedgerService = quantityLedgerService;
         this.tagService = tagService;
+        this.listingExpiryService = listingExpiryService;
+        this.geoIndexService = geoIndexService;
+        this.matchService = matchService;
+        this.searchIndexService = searchIndexService;
+        this.tagIndexService = tagIndexService;
+        this.savedSearchService = savedSearchService;
+        this.paramIndexService = paramIndexService;
+        this.dedupService = dedupService;
+        this.changeFeedClock = changeFeedClock;
     }
 
     @Override
@@ -80,6 +131,7 @@ public class RequirementServiceImpl implements RequirementService {
         }
         r.setPurchaseAddress(addr);
         r.setStatus(0);
+        dedupService.checkBeforeCreate(DedupService.REQUIREMENT, dedupSource(r));
 
         int rows = requirementMapper.insert(r);
         if (rows != 1 || r.getId() == null) {
@@ -88,74 +140,267 @@ public class RequirementServiceImpl implements RequirementService {
 
         // 同步标签
         tagService.syncEntityTags("requirement", r.getId(), r.getDomain(), r.getTagsJson());
+        // 同步参数值索引
+        paramIndexService.sync(ParamIndexService.REQUIREMENT, r.getId(), r.getParamsJson());
+        // 到期自动下架（status=2）
+        listingExpiryService.schedule(ListingExpiryService.REQUIREMENT, r.getId(), r.getExpireTime());
+        // 撮合候选/搜索索引/空间索引增量更新
+        matchService.refreshRequirement(r.getId());
+        searchIndexService.refresh(SearchIndexService.REQUIREMENT, List.of(r.getId()));
+        geoIndexService.refreshRequirement(r.getId());
+        savedSearchService.percolate(SavedSearchService.REQUIREMENT, r.getId());
+        dedupService.refresh(DedupService.REQUIREMENT, List.of(r.getId()));
 
         return r.getId();
     }
 
+    private static DedupSource dedupSource(BusRequirement r) {
+        DedupSource d = new DedupSource();
+        d.setCompanyId(r.getCompanyId());
+        d.setCategoryName(r.getCategoryName());
+        d.setPrice(r.getExpectedPrice());
+        d.setParamsJson(r.getParamsJson());
+        d.setRemark(r.getRemark());
+        return d;
+    }
+
     @Override
     public RequirementResponse getById(Long id) {
         BusRequirement r = requirementMapper.selectById(id);
         if (r == null) {
             throw new ApiException(ResultCode.NOT_FOUND);
         }
-        return toResponse(r);
+        RequirementResponse resp = toResponse(r);
+        if (r.getQuantity() != null) {
+            resp.setRemainingQuantity(r.getQuantity().subtract(
+                    quantityLedgerService.getDealQtyMap(QuantityLedgerService.REQUIREMENT, List.of(id)).get(id)));
+        }
+        return resp;
     }
 
     @Override
     public List<RequirementResponse> list(Long viewerUserId, RequirementQuery query) {
         // 允许匿名访问（大厅页面）
-        normalizeQuery(query);
-        List<BusRequirement> list = requirementMapper.selectList(query);
+        RequirementQuery q = query != null ? query : new RequirementQuery();
+        normalizeQuery(q);
+        prepareQuery(viewerUserId, q);
+        q.setLimit(MAX_LIST_SIZE);
+        return toResponses(requirementMapper.selectList(q));
+    }
+
+    @Override
+    public CursorResult<RequirementResponse> page(Long viewerUserId, RequirementQuery query) {
+        CursorResult<BusRequirement> rows = pageRows(viewerUserId, query, requirementMapper::selectList);
+        return new CursorResult<>(toResponses(rows.getList()), rows.getNextCursor(), rows.getSize());
+    }
+
+    @Override
+    public CursorResult<RequirementCardResponse> cardPage(Long viewerUserId, RequirementQuery query) {
+        CursorResult<BusRequirement> rows = pageRows(viewerUserId, query, requirementMapper::selectCardList);
+        return new CursorResult<>(toCards(rows.getList()), rows.getNextCursor(), rows.getSize());
+    }
+
+    @Override
+    public ChangeFeed<RequirementCardResponse> changes(Long viewerUserId, String version, String domain) {
+        // update_time 在语句执行时取值、事务提交时才可见，只读到未提交事务之前（见 ChangeFeedClock）
+        LocalDateTime until = changeFeedClock.safeUntil();
+        if (!StringUtils.hasText(version)) {
+            return new ChangeFeed<>(new ArrayList<>(), new ArrayList<>(), CursorUtil.encode(CHANGES, "asc", until, 0L), false);
+        }
+        CursorUtil.Cursor c = CursorUtil.decode(version, CHANGES, "asc");
+        LocalDateTime since = c.asTime();
+        RequirementQuery q = new RequirementQuery();
+        q.setDomain(emptyToNull(domain));
+        prepareQuery(viewerUserId, q);
+        List<BusRequirement> rows = requirementMapper.selectChanges(q, since, c.getId(), until, MAX_CHANGES + 1);
+        boolean hasMore = rows.size() > MAX_CHANGES;
+        if (hasMore) rows = rows.subList(0, MAX_CHANGES);
+
+        List<BusRequirement> listed = new ArrayList<>(rows.size());
+        List<Long> deleted = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (BusRequirement r : rows) {
+            boolean active = (r.getIsDeleted() == null || r.getIsDeleted() == 0)
+                    && r.getStatus() != null && (r.getStatus() == 0 || r.getStatus() == 1)
+                    && (r.getExpireTime() == null || r.getExpireTime().isAfter(now))
+                    && !Boolean.TRUE.equals(r.getCollapsed());
+            if (active) {
+                listed.add(r);
+            } else {
+                deleted.add(r.getId());
+            }
+        }
+
+        // 没有更多时直接推进到 until，下次不必重扫这段空档
+        BusRequirement last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        String next = version;
+        if (hasMore) {
+            next = CursorUtil.encode(CHANGES, "asc", last.getUpdateTime(), last.getId());
+        } else if (until.isAfter(since)) {
+            long lastId = last != null && until.equals(last.getUpdateTime()) ? last.getId() : 0L;
+            next = CursorUtil.encode(CHANGES, "asc", until, lastId);
+        } else if (last != null) {
+            next = CursorUtil.encode(CHANGES, "asc", last.getUpdateTime(), last.getId());
+        }
+        return new ChangeFeed<>(toCards(listed), deleted, next, hasMore);
+    }
+
+    private List<RequirementCardResponse> toCards(List<BusRequirement> list) {
+        Map<Long, BigDecimal> dealQtyMap = dealQtyOf(list);
+
+        List<RequirementCardResponse> out = new ArrayList<>(list.size());
+        for (BusRequirement r : list) {
+            RequirementCardResponse o = new RequirementCardResponse();
+            o.setId(r.getId());
+            o.setCompanyId(r.getCompanyId());
+            o.setUserId(r.getUserId());
+            o.setCompanyName(r.getCompanyName());
+            o.setUserName(r.getUserName());
+            o.setNickName(r.getNickName());
+            o.setCategoryName(r.getCategoryName());
+            o.setDomain(r.getDomain());
+            o.setContractNo(r.getContractNo());
+            o.setQuantity(r.getQuantity());
+            if (r.getQuantity() != null) {
+                o.setRemainingQuantity(r.getQuantity().subtract(dealQtyMap.getOrDefault(r.getId(), BigDecimal.ZERO)));
+            }
+            o.setExpectedPrice(r.getExpectedPrice());
+            o.setPackaging(r.getPackaging());
+            o.setDeliveryMethod(r.getDeliveryMethod());
+            o.setPurchaseAddress(r.getPurchaseAddress());
+            o.setStatus(r.getStatus());
+            o.setExpireTime(r.getExpireTime());
+            o.setDistanceKm(r.getDistanceKm());
+            o.setCreateTime(r.getCreateTime());
+            out.add(o);
+        }
+        return out;
+    }
+
+    @Override
+    public List<RequirementDetailResponse> details(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) return new ArrayList<>();
+        if (ids.size() > MAX_PAGE_SIZE) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "一次最多查询 " + MAX_PAGE_SIZE + " 条");
+        }
+        List<RequirementDetailResponse> out = new ArrayList<>(ids.size());
+        for (BusRequirement r : requirementMapper.selectDetails(ids)) {
+            RequirementDetailResponse o = new RequirementDetailResponse();
+            o.setId(r.getId());
+            o.setPaymentMethod(r.getPaymentMethod());
+            o.setInvoiceType(r.getInvoiceType());
+            o.setParamsJson(r.getParamsJson());
+            o.setTagsJson(r.getTagsJson());
+            o.setRemark(r.getRemark());
+            out.add(o);
+        }
+        return out;
+    }
+
+    /**
+     * 游标分页公共部分：解析游标、多取一条判断下一页；select 决定取完整列还是卡片列
+     */
+    private CursorResult<BusRequirement> pageRows(Long viewerUserId, RequirementQuery query,
+                                                  Function<RequirementQuery, List<BusRequirement>> select) {
+        RequirementQuery q = query != null ? query : new RequirementQuery();
+        normalizeQuery(q);
+        prepareQuery(viewerUserId, q);
+        int size = normalizePageSize(q.getSize());
+        if (StringUtils.hasText(q.getCursor())) {
+            CursorUtil.Cursor c = CursorUtil.decode(q.getCursor(), q.getOrderBy(), q.getOrder());
+            if ("create_time".equals(q.getOrderBy())) {
+                q.setCursorTime(c.asTime());
+            } else {
+                q.setCursorValue(c.asDecimal());
+            }
+            q.setCursorId(c.getId());
+        }
+        // 多取一条用于判断是否还有下一页
+        q.setLimit(size + 1);
+        List<BusRequirement> list = select.apply(q);
+
+        String nextCursor = null;
+        if (list.size() > size) {
+            list = list.subList(0, size);
+            BusRequirement last = list.get(size - 1);
+            // 游标中记录的排序值，需与 RequirementMapper.xml 中 sortKey 的取值一致
+            Object sortValue = "distance".equals(q.getOrderBy())
+                    ? CursorUtil.nullsLast(last.getDistanceKm(), "asc".equals(q.getOrder()))
+                    : last.getCreateTime();
+            nextCursor = CursorUtil.encode(q.getOrderBy(), q.getOrder(), sortValue, last.getId());
+        }
+        return new CursorResult<>(list, nextCursor, size);
+    }
+
+    /**
+     * 填充服务端字段：当前用户公司坐标（距离在 SQL 中计算）、半径筛选命中的公司/采购地点、标签筛选命中的需求，
+     * 并清掉前端可能传入的内部字段
+     */
+    private void prepareQuery(Long viewerUserId, RequirementQuery q) {
+        q.setViewerLat(null);
+        q.setViewerLng(null);
+        q.setCursorTime(null);
+        q.setCursorValue(null);
+        q.setCursorId(null);
+        q.setLimit(null);
+        q.setNearCompanyIds(null);
+        q.setNearRequirementIds(null);
+        q.setTagEntityIds(null);
 
         // viewer company coords (仅登录用户可用)
-        BusCompany viewerCompany = null;
         if (viewerUserId != null) {
             SysUser viewer = userMapper.selectById(viewerUserId);
             if (viewer != null && viewer.getCompanyId() != null) {
-                viewerCompany = companyMapper.selectById(viewer.getCompanyId());
+                BusCompany viewerCompany = companyMapper.selectById(viewer.getCompanyId());
+                if (viewerCompany != null && viewerCompany.getLat() != null && viewerCompany.getLng() != null) {
+                    q.setViewerLat(viewerCompany.getLat());
+                    q.setViewerLng(viewerCompany.getLng());
+                }
+            }
+        }
+
+        // 半径筛选：空间索引算出范围内的采购地点/公司，SQL 只按 id 过滤
+        if (q.getRadiusKm() != null && q.getRadiusKm() > 0) {
+            if (q.getViewerLat() == null) {
+                throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "按距离筛选需登录并完善公司地址");
             }
+            q.setNearRequirementIds(geoIndexService.requirementIdsWithin(q.getViewerLat(), q.getViewerLng(), q.getRadiusKm(), MAX_NEAR_IDS));
+            q.setNearCompanyIds(geoIndexService.companyIdsWithin(q.getViewerLat(), q.getViewerLng(), q.getRadiusKm(), MAX_NEAR_IDS));
         }
 
+        // 标签筛选：位图索引算出命中的需求，SQL 只按 id 过滤
+        q.setTagEntityIds(tagIndexService.matchIds(SearchIndexService.REQUIREMENT, q.getTagFilters(), MAX_TAG_IDS));
+        // 参数筛选：SQL 按参数值索引过滤
+        q.setParamConditions(paramIndexService.parseFilters(q.getParamFilters()));
+    }
+
+    private List<RequirementResponse> toResponses(List<BusRequirement> list) {
+        Map<Long, BigDecimal> dealQtyMap = dealQtyOf(list);
+
         List<RequirementResponse> out = new ArrayList<>();
         for (BusRequirement r : list) {
             RequirementResponse resp = toResponse(r);
 
             // remaining quantity
             if (r.getQuantity() != null) {
-                BigDecimal sum = dealMapper.sumConfirmedQuantityByRequirementId(r.getId());
-                if (sum == null) sum = BigDecimal.ZERO;
-                resp.setRemainingQuantity(r.getQuantity().subtract(sum));
-            }
-
-            // distance (Beta): viewer company -> purchase point (or buyer company)
-            if (viewerCompany != null && viewerCompany.getLat() != null && viewerCompany.getLng() != null) {
-                BigDecimal toLat = r.getPurchaseLat();
-                BigDecimal toLng = r.getPurchaseLng();
-                if (toLat == null || toLng == null) {
-                    BusCompany buyerCompany = companyMapper.selectById(r.getCompanyId());
-                    if (buyerCompany != null) {
-                        toLat = buyerCompany.getLat();
-                        toLng = buyerCompany.getLng();
-                    }
-                }
-                if (toLat != null && toLng != null) {
-                    resp.setDistanceKm(GeoUtil.haversineKm(viewerCompany.getLat(), viewerCompany.getLng(), toLat, toLng));
-                }
+                resp.setRemainingQuantity(r.getQuantity().subtract(dealQtyMap.getOrDefault(r.getId(), BigDecimal.ZERO)));
             }
 
+            // distance (Beta): viewer company -> purchase point (or buyer company)，由 SQL 计算
+            resp.setDistanceKm(r.getDistanceKm());
             out.add(resp);
         }
-
-        // in-memory sort for distance (Beta)
-        if (query != null && "distance".equalsIgnoreCase(query.getOrderBy())) {
-            boolean asc = "asc".equalsIgnoreCase(query.getOrder());
-            Comparator<RequirementResponse> c = Comparator.comparing(RequirementResponse::getDistanceKm, Comparator.nullsLast(BigDecimal::compareTo));
-            out.sort(asc ? c : c.reversed());
-        }
-
         return out;
     }
 
+    /**
+     * 批量读取成交量台账
+     */
+    private Map<Long, BigDecimal> dealQtyOf(List<BusRequirement> list) {
+        return quantityLedgerService.getDealQtyMap(QuantityLedgerService.REQUIREMENT,
+                list.stream().filter(r -> r.getQuantity() != null).map(BusRequirement::getId).collect(Collectors.toList()));
+    }
+
     @Override
     public void update(Long userId, Long id, RequirementUpdateRequest req) {
         if (userId == null) throw new ApiException(401, "未登录");
@@ -195,12 +440,27 @@ public class RequirementServiceImpl implements RequirementService {
         if (rows != 1) {
             throw new ApiException(ResultCode.NOT_FOUND);
         }
+        if (req.getPurchaseLat() != null || req.getPurchaseLng() != null) {
+            geoIndexService.refreshRequirement(id);
+        }
+        if (req.getExpireMinutes() != null) {
+            listingExpiryService.schedule(ListingExpiryService.REQUIREMENT, id, r.getExpireTime());
+        }
 
-        // 同步标签
-        if (req.getTagsJson() != null) {
+        // 同步标签、参数值索引
+        if (req.getTagsJson() != null || req.getParamsJson() != null) {
             BusRequirement updated = requirementMapper.selectById(id);
-            tagService.syncEntityTags("requirement", id, updated.getDomain(), req.getTagsJson());
+            if (req.getTagsJson() != null) {
+                tagService.syncEntityTags("requirement", id, updated.getDomain(), req.getTagsJson());
+            }
+            if (req.getParamsJson() != null) {
+                paramIndexService.sync(ParamIndexService.REQUIREMENT, id, updated.getParamsJson());
+            }
         }
+        matchService.refreshRequirement(id);
+        searchIndexService.refresh(SearchIndexService.REQUIREMENT, List.of(id));
+        savedSearchService.percolate(SavedSearchService.REQUIREMENT, id);
+        dedupService.refresh(DedupService.REQUIREMENT, List.of(id));
     }
 
     @Override
@@ -210,6 +470,9 @@ public class RequirementServiceImpl implements RequirementService {
         if (rows != 1) {
             throw new ApiException(ResultCode.NOT_FOUND);
         }
+        matchService.removeRequirements(List.of(id));
+        searchIndexService.remove(SearchIndexService.REQUIREMENT, id);
+        dedupService.remove(DedupService.REQUIREMENT, id);
     }
 
     private RequirementResponse toResponse(BusRequirement r) {
@@ -238,7 +501,7 @@ public class RequirementServiceImpl implements RequirementService {
         o.setPurchaseLng(r.getPurchaseLng());
         o.setPurchaseAddress(r.getPurchaseAddress());
         o.setStatus(r.getStatus());
-        // remainingQuantity/distanceKm are computed in list()
+        // remainingQuantity is filled from the ledger; distanceKm is computed in list()
         o.setCreateTime(r.getCreateTime());
         o.setUpdateTime(r.getUpdateTime());
         return o;
@@ -246,14 +509,18 @@ public class RequirementServiceImpl implements RequirementService {
 
     private static void normalizeQuery(RequirementQuery q) {
         if (q == null) return;
-        if (!StringUtils.hasText(q.getOrderBy())) {
-            q.setOrderBy("create_time");
-        }
-        if (!StringUtils.hasText(q.getOrder())) {
-            q.setOrder("desc");
-        } else {
-            q.setOrder(q.getOrder().toLowerCase());
+        String ob = StringUtils.hasText(q.getOrderBy()) ? q.getOrderBy().toLowerCase() : "";
+        if (!ORDER_BY_FIELDS.contains(ob)) {
+            ob = "create_time";
         }
+        q.setOrderBy(ob);
+        q.setOrder("asc".equalsIgnoreCase(q.getOrder()) ? "asc" : "desc");
+        q.setKeyword(StringUtils.hasText(q.getKeyword()) ? q.getKeyword().trim() : null);
+    }
+
+    private static int normalizePageSize(Integer size) {
+        if (size == null || size <= 0) return DEFAULT_PAGE_SIZE;
+        return Math.min(size, MAX_PAGE_SIZE);
     }
 
     private static String emptyToNull(String s) {
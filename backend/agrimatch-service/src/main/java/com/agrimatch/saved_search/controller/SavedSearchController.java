@@ -0,0 +1,63 @@
+package com.agrimatch.saved_search.controller;
+
+import com.agrimatch.common.api.Result;
+import com.agrimatch.saved_search.dto.SavedSearchRequest;
+import com.agrimatch.saved_search.dto.SavedSearchResponse;
+import com.agrimatch.saved_search.service.SavedSearchService;
+import com.agrimatch.util.SecurityUtil;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 订阅搜索：命中的新供应/采购通过站内通知（type=SAVED_SEARCH）和 WebSocket（SAVED_SEARCH_MATCH）送达，
+ * 前端不用再轮询搜索接口
+ */
+@RestController
+@RequestMapping("/api/saved-searches")
+@Validated
+public class SavedSearchController {
+    private final SavedSearchService savedSearchService;
+
+    public SavedSearchController(SavedSearchService savedSearchService) {
+        this.savedSearchService = savedSearchService;
+    }
+
+    @GetMapping
+    public Result<List<SavedSearchResponse>> my(Authentication authentication) {
+        Long userId = SecurityUtil.requireUserId(authentication);
+        return Result.success(savedSearchService.myList(userId));
+    }
+
+    @PostMapping
+    public Result<Long> create(Authentication authentication, @Valid @RequestBody SavedSearchRequest req) {
+        Long userId = SecurityUtil.requireUserId(authentication);
+        return Result.success(savedSearchService.create(userId, req));
+    }
+
+    @PutMapping("/{id}")
+    public Result<Void> update(Authentication authentication, @PathVariable("id") @NotNull Long id,
+                               @Valid @RequestBody SavedSearchRequest req) {
+        Long userId = SecurityUtil.requireUserId(authentication);
+        savedSearchService.update(userId, id, req);
+        return Result.success();
+    }
+
+    @DeleteMapping("/{id}")
+    public Result<Void> delete(Authentication authentication, @PathVariable("id") @NotNull Long id) {
+        Long userId = SecurityUtil.requireUserId(authentication);
+        savedSearchService.delete(userId, id);
+        return Result.success();
+    }
+}
@@ -0,0 +1,27 @@
+package com.agrimatch.saved_search.domain;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class BusSavedSearch {
+    private Long id;
+    private Long userId;
+    private String name;
+    /** supply / requirement */
+    private String entityType;
+    private String keyword;
+    private String domain;
+    private String categoryName;
+    /** 标签筛选（JSON 对象），格式见 TagFilter */
+    private String tagFilters;
+    private BigDecimal radiusKm;
+    private BigDecimal centerLat;
+    private BigDecimal centerLng;
+    private Integer enabled;
+    private Integer isDeleted;
+    private LocalDateTime createTime;
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,20 @@
+package com.agrimatch.saved_search.domain;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 待匹配的挂牌：供应取公司坐标，采购优先取采购地点坐标
+ */
+@Data
+public class PercolateDoc {
+    private String entityType;
+    private Long entityId;
+    private Long userId;
+    private String categoryName;
+    private String domain;
+    private String remark;
+    private BigDecimal lat;
+    private BigDecimal lng;
+}
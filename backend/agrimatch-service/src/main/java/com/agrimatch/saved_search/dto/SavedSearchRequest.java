@@ -0,0 +1,26 @@
+package com.agrimatch.saved_search.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class SavedSearchRequest {
+    @NotBlank
+    @Size(max = 60)
+    private String name;
+    /** 订阅对象：supply（供应）/ requirement（采购） */
+    @NotBlank
+    private String entityType;
+    @Size(max = 100)
+    private String keyword;
+    private String domain;
+    @Size(max = 100)
+    private String categoryName;
+    /** 标签筛选（JSON 对象），如 {"protein":{"gte":43}}，格式见 TagFilter */
+    @Size(max = 2000)
+    private String tagFilters;
+    /** 只要当前公司 radiusKm 公里内的（需完善公司地址） */
+    private Double radiusKm;
+    private Boolean enabled;
+}
@@ -0,0 +1,20 @@
+package com.agrimatch.saved_search.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class SavedSearchResponse {
+    private Long id;
+    private String name;
+    private String entityType;
+    private String keyword;
+    private String domain;
+    private String categoryName;
+    private String tagFilters;
+    private BigDecimal radiusKm;
+    private Boolean enabled;
+    private LocalDateTime createTime;
+}
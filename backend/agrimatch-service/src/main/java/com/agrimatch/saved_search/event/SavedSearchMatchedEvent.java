@@ -0,0 +1,33 @@
+package com.agrimatch.saved_search.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 订阅搜索命中新挂牌（已写入站内通知），在线用户经 WebSocket 实时推送
+ */
+public class SavedSearchMatchedEvent extends ApplicationEvent {
+    private final Long userId;
+    private final Long searchId;
+    private final String searchName;
+    private final String entityType;
+    private final Long entityId;
+    private final String title;
+
+    public SavedSearchMatchedEvent(Object source, Long userId, Long searchId, String searchName,
+                                   String entityType, Long entityId, String title) {
+        super(source);
+        this.userId = userId;
+        this.searchId = searchId;
+        this.searchName = searchName;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.title = title;
+    }
+
+    public Long getUserId() { return userId; }
+    public Long getSearchId() { return searchId; }
+    public String getSearchName() { return searchName; }
+    public String getEntityType() { return entityType; }
+    public Long getEntityId() { return entityId; }
+    public String getTitle() { return title; }
+}
@@ -0,0 +1,170 @@
+package com.agrimatch.saved_search.index;
+
+import com.agrimatch.tag.index.TagFilter;
+import com.agrimatch.tag.index.TagIndex;
+import com.agrimatch.util.GeoUtil;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 订阅搜索的反向索引：每条订阅只挂在一个"锚"上，新挂牌只取出锚能对上的订阅再逐条校验
+ * - 有关键词：挂在最长的检索词上（二元组比单字更少见），挂牌正文里出现该词才可能命中
+ * - 无关键词有品类：挂在品类上；只有板块：挂在板块上；什么都没有：挂在通配桶
+ * 校验：关键词全部出现、板块/品类相等、标签条件、半径
+ * 非线程安全，由 SavedSearchService 加读写锁
+ */
+public class Percolator {
+
+    private static final String ANY = "*";
+
+    /** 编译后的订阅条件 */
+    public static final class Query {
+        private final long id;
+        private final long userId;
+        private final String entityType;
+        private final List<String> terms;
+        private final String domain;
+        private final String categoryName;
+        private final TagFilter tagFilter;
+        private final Double lat;
+        private final Double lng;
+        private final Double radiusKm;
+        private final String name;
+
+        public Query(long id, long userId, String entityType, String name, List<String> terms, String domain,
+                     String categoryName, TagFilter tagFilter, Double lat, Double lng, Double radiusKm) {
+            this.id = id;
+            this.userId = userId;
+            this.entityType = entityType;
+            this.name = name;
+            this.terms = terms;
+            this.domain = domain;
+            this.categoryName = categoryName;
+            this.tagFilter = tagFilter;
+            this.lat = lat;
+            this.lng = lng;
+            this.radiusKm = radiusKm;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        String anchor() {
+            if (!terms.isEmpty()) {
+                String longest = terms.get(0);
+                for (String t : terms) {
+                    if (t.length() > longest.length()) longest = t;
+                }
+                return "t:" + longest;
+            }
+            if (categoryName != null) return "c:" + categoryName;
+            if (domain != null) return "d:" + domain;
+            return ANY;
+        }
+    }
+
+    /** 待匹配的挂牌 */
+    public static final class Doc {
+        private final String entityType;
+        private final long userId;
+        private final String domain;
+        private final String categoryName;
+        private final Set<String> terms;
+        private final Double lat;
+        private final Double lng;
+
+        public Doc(String entityType, long userId, String domain, String categoryName, Set<String> terms, Double lat, Double lng) {
+            this.entityType = entityType;
+            this.userId = userId;
+            this.domain = domain;
+            this.categoryName = categoryName;
+            this.terms = terms;
+            this.lat = lat;
+            this.lng = lng;
+        }
+    }
+
+    /** entityType -> 锚 -> 订阅 */
+    private final Map<String, Map<String, List<Query>>> anchors = new HashMap<>();
+    private final Map<Long, Query> queries = new HashMap<>();
+
+    public void put(Query q) {
+        remove(q.id);
+        queries.put(q.id, q);
+        anchors.computeIfAbsent(q.entityType, k -> new HashMap<>())
+                .computeIfAbsent(q.anchor(), k -> new ArrayList<>(1)).add(q);
+    }
+
+    public void remove(long id) {
+        Query old = queries.remove(id);
+        if (old == null) return;
+        Map<String, List<Query>> m = anchors.get(old.entityType);
+        if (m == null) return;
+        String anchor = old.anchor();
+        List<Query> list = m.get(anchor);
+        if (list == null) return;
+        list.remove(old);
+        if (list.isEmpty()) m.remove(anchor);
+    }
+
+    public int size() {
+        return queries.size();
+    }
+
+    /**
+     * 命中的订阅（不含挂牌发布者自己的）
+     * @param tags 挂牌的标签（id 为 0 的单实体索引），只有候选订阅带标签条件时才取
+     */
+    public List<Query> match(Doc doc, Supplier<TagIndex> tags) {
+        Map<String, List<Query>> m = anchors.get(doc.entityType);
+        List<Query> out = new ArrayList<>();
+        if (m == null) return out;
+        Set<Query> candidates = new LinkedHashSet<>();
+        addAll(candidates, m.get(ANY));
+        if (doc.categoryName != null) addAll(candidates, m.get("c:" + doc.categoryName));
+        if (doc.domain != null) addAll(candidates, m.get("d:" + doc.domain));
+        for (String t : doc.terms) {
+            addAll(candidates, m.get("t:" + t));
+        }
+        TagIndex tagIndex = null;
+        for (Query q : candidates) {
+            if (q.userId == doc.userId || !matches(q, doc)) continue;
+            if (q.tagFilter != null) {
+                if (tagIndex == null) tagIndex = tags.get();
+                if (!q.tagFilter.eval(tagIndex).contains(0)) continue;
+            }
+            out.add(q);
+        }
+        return out;
+    }
+
+    private static boolean matches(Query q, Doc doc) {
+        if (q.domain != null && !q.domain.equals(doc.domain)) return false;
+        if (q.categoryName != null && !q.categoryName.equals(doc.categoryName)) return false;
+        if (!doc.terms.containsAll(q.terms)) return false;
+        if (q.radiusKm != null) {
+            if (doc.lat == null || doc.lng == null || q.lat == null || q.lng == null) return false;
+            if (GeoUtil.haversineKm(q.lat, q.lng, doc.lat, doc.lng) > q.radiusKm) return false;
+        }
+        return true;
+    }
+
+    private static void addAll(Set<Query> out, List<Query> list) {
+        if (list != null) out.addAll(list);
+    }
+}
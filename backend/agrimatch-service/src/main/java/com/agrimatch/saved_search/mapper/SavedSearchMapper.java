@@ -0,0 +1,38 @@
+package com.agrimatch.saved_search.mapper;
+
+import com.agrimatch.saved_search.domain.BusSavedSearch;
+import com.agrimatch.saved_search.domain.PercolateDoc;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface SavedSearchMapper {
+    int insert(BusSavedSearch s);
+
+    int update(BusSavedSearch s);
+
+    int softDelete(@Param("userId") Long userId, @Param("id") Long id);
+
+    BusSavedSearch selectById(@Param("id") Long id);
+
+    List<BusSavedSearch> selectByUser(@Param("userId") Long userId);
+
+    int countByUser(@Param("userId") Long userId);
+
+    /**
+     * 启用中的订阅，按 id 游标分批
+     */
+    List<BusSavedSearch> selectEnabledAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * 在架挂牌的匹配字段；已下架/到期/删除返回 null
+     */
+    PercolateDoc selectDoc(@Param("entityType") String entityType, @Param("id") Long id);
+
+    /**
+     * 记录已通知；之前通知过返回 0
+     */
+    int insertHit(@Param("searchId") Long searchId, @Param("entityType") String entityType, @Param("entityId") Long entityId);
+}
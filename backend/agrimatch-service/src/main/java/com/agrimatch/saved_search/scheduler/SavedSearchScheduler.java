@@ -0,0 +1,44 @@
+package com.agrimatch.saved_search.scheduler;
+
+import com.agrimatch.saved_search.service.SavedSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 订阅匹配器维护任务
+ * - 启动时装载启用中的订阅
+ * - 定期重建（兜底其他节点上新建/修改的订阅）
+ */
+@Component
+public class SavedSearchScheduler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SavedSearchScheduler.class);
+
+    private final SavedSearchService savedSearchService;
+
+    public SavedSearchScheduler(SavedSearchService savedSearchService) {
+        this.savedSearchService = savedSearchService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            savedSearchService.rebuild();
+        } catch (Exception e) {
+            log.error("[SavedSearch] 订阅匹配器装载失败", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.saved-search.rebuild-interval-ms:300000}", initialDelay = 300 * 1000)
+    public void rebuild() {
+        try {
+            savedSearchService.rebuild();
+        } catch (Exception e) {
+            log.error("[SavedSearch] 订阅匹配器重建失败", e);
+        }
+    }
+}
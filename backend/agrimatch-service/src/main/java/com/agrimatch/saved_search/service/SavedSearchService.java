@@ -0,0 +1,36 @@
+package com.agrimatch.saved_search.service;
+
+import com.agrimatch.saved_search.dto.SavedSearchRequest;
+import com.agrimatch.saved_search.dto.SavedSearchResponse;
+
+import java.util.List;
+
+/**
+ * 订阅搜索：保存查询条件，新发布/修改的供应或采购命中时发站内通知并经 WebSocket 推送
+ * - 启用中的订阅编译后常驻内存（反向索引，见 Percolator），启动时装载、定期重建
+ * - 同一订阅对同一挂牌只通知一次
+ */
+public interface SavedSearchService {
+    String SUPPLY = "supply";
+    String REQUIREMENT = "requirement";
+
+    List<SavedSearchResponse> myList(Long userId);
+
+    Long create(Long userId, SavedSearchRequest req);
+
+    void update(Long userId, Long id, SavedSearchRequest req);
+
+    void delete(Long userId, Long id);
+
+    /**
+     * 全量重建匹配器
+     * @return 启用中的订阅数
+     */
+    int rebuild();
+
+    /**
+     * 挂牌发布/修改后调用：按库里最新数据匹配全部订阅并通知。
+     * 在事务内调用时推迟到提交之后，命中记录与通知另开事务写入；失败不影响已提交的发布
+     */
+    void percolate(String entityType, Long entityId);
+}
@@ -0,0 +1,335 @@
+package com.agrimatch.saved_search.service.impl;
+
+import com.agrimatch.common.api.ResultCode;
+import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.common.index.RebuildTracker;
+import com.agrimatch.common.tx.AfterCommit;
+import com.agrimatch.company.domain.BusCompany;
+import com.agrimatch.company.mapper.CompanyMapper;
+import com.agrimatch.notify.service.NotifyService;
+import com.agrimatch.saved_search.domain.BusSavedSearch;
+import com.agrimatch.saved_search.domain.PercolateDoc;
+import com.agrimatch.saved_search.dto.SavedSearchRequest;
+import com.agrimatch.saved_search.dto.SavedSearchResponse;
+import com.agrimatch.saved_search.event.SavedSearchMatchedEvent;
+import com.agrimatch.saved_search.index.Percolator;
+import com.agrimatch.saved_search.mapper.SavedSearchMapper;
+import com.agrimatch.saved_search.service.SavedSearchService;
+import com.agrimatch.search.index.Tokenizer;
+import com.agrimatch.tag.domain.ItemTagValue;
+import com.agrimatch.tag.index.TagFilter;
+import com.agrimatch.tag.index.TagIndex;
+import com.agrimatch.tag.mapper.TagMapper;
+import com.agrimatch.user.domain.SysUser;
+import com.agrimatch.user.mapper.UserMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+public class SavedSearchServiceImpl implements SavedSearchService {
+    private static final Logger log = LoggerFactory.getLogger(SavedSearchServiceImpl.class);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_PER_USER = 20;
+    private static final double MAX_RADIUS_KM = 3000;
+    private static final int SNIPPET_LENGTH = 60;
+    private static final String NOTIFY_TYPE = "SAVED_SEARCH";
+    /** 重放记录的类型 */
+    private static final String SAVED_SEARCH = "saved_search";
+
+    private final SavedSearchMapper savedSearchMapper;
+    private final TagMapper tagMapper;
+    private final UserMapper userMapper;
+    private final CompanyMapper companyMapper;
+    private final NotifyService notifyService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    /** 提交后回调里仍挂着原事务的连接，写库必须另开事务 */
+    private final TransactionTemplate requiresNew;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildTracker tracker = new RebuildTracker();
+
+    private Percolator percolator = new Percolator();
+
+    public SavedSearchServiceImpl(SavedSearchMapper savedSearchMapper, TagMapper tagMapper, UserMapper userMapper,
+                                  CompanyMapper companyMapper, NotifyService notifyService,
+                                  ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager) {
+        this.savedSearchMapper = savedSearchMapper;
+        this.tagMapper = tagMapper;
+        this.userMapper = userMapper;
+        this.companyMapper = companyMapper;
+        this.notifyService = notifyService;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public List<SavedSearchResponse> myList(Long userId) {
+        if (userId == null) throw new ApiException(401, "未登录");
+        List<SavedSearchResponse> out = new ArrayList<>();
+        for (BusSavedSearch s : savedSearchMapper.selectByUser(userId)) {
+            out.add(toResponse(s));
+        }
+        return out;
+    }
+
+    @Override
+    public Long create(Long userId, SavedSearchRequest req) {
+        if (userId == null) throw new ApiException(401, "未登录");
+        if (savedSearchMapper.countByUser(userId) >= MAX_PER_USER) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "最多保存 " + MAX_PER_USER + " 个订阅");
+        }
+        BusSavedSearch s = fromRequest(userId, req);
+        int rows = savedSearchMapper.insert(s);
+        if (rows != 1 || s.getId() == null) throw new ApiException(ResultCode.SERVER_ERROR);
+        refresh(s.getId());
+        return s.getId();
+    }
+
+    @Override
+    public void update(Long userId, Long id, SavedSearchRequest req) {
+        if (userId == null) throw new ApiException(401, "未登录");
+        if (id == null) throw new ApiException(ResultCode.PARAM_ERROR);
+        BusSavedSearch s = fromRequest(userId, req);
+        s.setId(id);
+        int rows = savedSearchMapper.update(s);
+        if (rows != 1) throw new ApiException(ResultCode.NOT_FOUND);
+        refresh(id);
+    }
+
+    @Override
+    public void delete(Long userId, Long id) {
+        if (userId == null) throw new ApiException(401, "未登录");
+        if (id == null) throw new ApiException(ResultCode.PARAM_ERROR);
+        int rows = savedSearchMapper.softDelete(userId, id);
+        if (rows != 1) throw new ApiException(ResultCode.NOT_FOUND);
+        refresh(id);
+    }
+
+    @Override
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        RebuildTracker.Result<Percolator> r = tracker.rebuild(() -> {
+            Percolator fresh = new Percolator();
+            Long afterId = null;
+            while (true) {
+                List<BusSavedSearch> rows = savedSearchMapper.selectEnabledAfter(afterId, BATCH_SIZE);
+                for (BusSavedSearch s : rows) {
+                    Percolator.Query q = compileQuietly(s);
+                    if (q != null) fresh.put(q);
+                }
+                if (rows.size() < BATCH_SIZE) break;
+                afterId = rows.get(rows.size() - 1).getId();
+            }
+            return fresh;
+        }, fresh -> {
+            lock.writeLock().lock();
+            try {
+                percolator = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }, BATCH_SIZE, (type, ids) -> ids.forEach(this::refresh));
+        log.info("[SavedSearch] 订阅匹配器重建完成：{} 个订阅，重放 {} 条增量，耗时 {} ms",
+                r.index().size(), r.replayed(), System.currentTimeMillis() - start);
+        return r.index().size();
+    }
+
+    @Override
+    public void percolate(String entityType, Long entityId) {
+        if (entityId == null) return;
+        AfterCommit.run(() -> doPercolate(entityType, entityId));
+    }
+
+    /**
+     * 命中记录与站内通知在同一个新事务里写入，提交后再推送 WebSocket
+     */
+    private void doPercolate(String entityType, Long entityId) {
+        List<SavedSearchMatchedEvent> events = new ArrayList<>();
+        requiresNew.executeWithoutResult(status -> {
+            PercolateDoc d = savedSearchMapper.selectDoc(entityType, entityId);
+            if (d == null || d.getUserId() == null) return;
+            Set<String> terms = new HashSet<>(Tokenizer.indexTerms(d.getCategoryName()));
+            terms.addAll(Tokenizer.indexTerms(d.getRemark()));
+            Percolator.Doc doc = new Percolator.Doc(entityType, d.getUserId(), d.getDomain(), d.getCategoryName(), terms,
+                    d.getLat() != null ? d.getLat().doubleValue() : null, d.getLng() != null ? d.getLng().doubleValue() : null);
+
+            List<Percolator.Query> hits;
+            lock.readLock().lock();
+            try {
+                hits = percolator.match(doc, () -> loadTags(entityType, entityId));
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            for (Percolator.Query q : hits) {
+                if (savedSearchMapper.insertHit(q.getId(), entityType, entityId) != 1) continue;
+                events.add(notify(q, d));
+            }
+            if (!events.isEmpty()) {
+                log.info("[SavedSearch] {}#{} 命中 {} 个订阅，新通知 {} 个", entityType, entityId, hits.size(), events.size());
+            }
+        });
+        for (SavedSearchMatchedEvent e : events) {
+            eventPublisher.publishEvent(e);
+        }
+    }
+
+    private SavedSearchMatchedEvent notify(Percolator.Query q, PercolateDoc d) {
+        boolean supply = SUPPLY.equals(d.getEntityType());
+        String title = "订阅「" + q.getName() + "」有新的" + (supply ? "供应" : "采购");
+        String content = StringUtils.hasText(d.getCategoryName()) ? d.getCategoryName() : "";
+        if (StringUtils.hasText(d.getRemark())) {
+            String remark = d.getRemark().trim();
+            remark = remark.length() > SNIPPET_LENGTH ? remark.substring(0, SNIPPET_LENGTH) + "…" : remark;
+            content = content.isEmpty() ? remark : content + "：" + remark;
+        }
+        String link = (supply ? "/supply-browse?id=" : "/requirement-browse?id=") + d.getEntityId();
+        notifyService.send(q.getUserId(), NOTIFY_TYPE, title, content, link);
+        return new SavedSearchMatchedEvent(this, q.getUserId(), q.getId(), q.getName(),
+                d.getEntityType(), d.getEntityId(), content);
+    }
+
+    /**
+     * 按库里最新状态更新匹配器（已删除/停用的移出）
+     */
+    private void refresh(Long id) {
+        tracker.touch(SAVED_SEARCH, id);
+        BusSavedSearch s = savedSearchMapper.selectById(id);
+        Percolator.Query q = s != null && Integer.valueOf(1).equals(s.getEnabled()) ? compileQuietly(s) : null;
+        lock.writeLock().lock();
+        try {
+            if (q != null) {
+                percolator.put(q);
+            } else {
+                percolator.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private TagIndex loadTags(String entityType, Long entityId) {
+        TagIndex idx = new TagIndex();
+        for (ItemTagValue v : tagMapper.selectEntityTagValues(entityType, List.of(entityId))) {
+            if (!StringUtils.hasText(v.getTagKey())) continue;
+            idx.add(0, new TagIndex.Entry(v.getTagKey(), v.getTagValueText(),
+                    v.getTagValueNum() != null ? v.getTagValueNum().doubleValue() : null));
+        }
+        return idx;
+    }
+
+    private Percolator.Query compileQuietly(BusSavedSearch s) {
+        try {
+            return compile(s);
+        } catch (Exception e) {
+            log.warn("[SavedSearch] 订阅 {} 条件无效，跳过", s.getId(), e);
+            return null;
+        }
+    }
+
+    private Percolator.Query compile(BusSavedSearch s) {
+        List<String> terms = StringUtils.hasText(s.getKeyword()) ? Tokenizer.queryTerms(s.getKeyword()) : List.of();
+        Double radius = s.getRadiusKm() != null && s.getRadiusKm().signum() > 0 ? s.getRadiusKm().doubleValue() : null;
+        return new Percolator.Query(s.getId(), s.getUserId(), s.getEntityType(), s.getName(), terms,
+                emptyToNull(s.getDomain()), emptyToNull(s.getCategoryName()), parseTagFilter(s.getTagFilters()),
+                s.getCenterLat() != null ? s.getCenterLat().doubleValue() : null,
+                s.getCenterLng() != null ? s.getCenterLng().doubleValue() : null, radius);
+    }
+
+    private TagFilter parseTagFilter(String json) {
+        if (!StringUtils.hasText(json)) return null;
+        Map<String, Object> filters;
+        try {
+            filters = objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (Exception e) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "标签筛选条件格式不正确");
+        }
+        try {
+            return TagFilter.parse(filters);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "标签筛选条件不正确：" + e.getMessage());
+        }
+    }
+
+    private BusSavedSearch fromRequest(Long userId, SavedSearchRequest req) {
+        if (req == null || !StringUtils.hasText(req.getName())) throw new ApiException(ResultCode.PARAM_ERROR);
+        String entityType = req.getEntityType();
+        if (!SUPPLY.equals(entityType) && !REQUIREMENT.equals(entityType)) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "订阅对象只支持 supply / requirement");
+        }
+        BusSavedSearch s = new BusSavedSearch();
+        s.setUserId(userId);
+        s.setName(req.getName().trim());
+        s.setEntityType(entityType);
+        s.setKeyword(emptyToNull(req.getKeyword()));
+        s.setDomain(emptyToNull(req.getDomain()));
+        s.setCategoryName(emptyToNull(req.getCategoryName()));
+        s.setTagFilters(emptyToNull(req.getTagFilters()));
+        s.setEnabled(Boolean.FALSE.equals(req.getEnabled()) ? 0 : 1);
+
+        if (s.getKeyword() != null && Tokenizer.queryTerms(s.getKeyword()).isEmpty()) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "关键词需包含文字或数字");
+        }
+        parseTagFilter(s.getTagFilters());
+
+        if (req.getRadiusKm() != null && req.getRadiusKm() > 0) {
+            if (req.getRadiusKm() > MAX_RADIUS_KM) {
+                throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "半径不能超过 " + (int) MAX_RADIUS_KM + " 公里");
+            }
+            BusCompany company = null;
+            SysUser user = userMapper.selectById(userId);
+            if (user != null && user.getCompanyId() != null) company = companyMapper.selectById(user.getCompanyId());
+            if (company == null || company.getLat() == null || company.getLng() == null) {
+                throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "按距离订阅需完善公司地址");
+            }
+            s.setRadiusKm(BigDecimal.valueOf(req.getRadiusKm()));
+            s.setCenterLat(company.getLat());
+            s.setCenterLng(company.getLng());
+        }
+
+        if (s.getKeyword() == null && s.getDomain() == null && s.getCategoryName() == null
+                && s.getTagFilters() == null && s.getRadiusKm() == null) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "请至少设置一个筛选条件");
+        }
+        return s;
+    }
+
+    private static SavedSearchResponse toResponse(BusSavedSearch s) {
+        SavedSearchResponse r = new SavedSearchResponse();
+        r.setId(s.getId());
+        r.setName(s.getName());
+        r.setEntityType(s.getEntityType());
+        r.setKeyword(s.getKeyword());
+        r.setDomain(s.getDomain());
+        r.setCategoryName(s.getCategoryName());
+        r.setTagFilters(s.getTagFilters());
+        r.setRadiusKm(s.getRadiusKm());
+        r.setEnabled(Integer.valueOf(1).equals(s.getEnabled()));
+        r.setCreateTime(s.getCreateTime());
+        return r;
+    }
+
+    private static String emptyToNull(String s) {
+        return StringUtils.hasText(s) ? s.trim() : null;
+    }
+}
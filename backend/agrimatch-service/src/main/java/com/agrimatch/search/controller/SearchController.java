@@ -1,7 +1,8 @@
 package com.agrimatch.search.controller;
 
-import com.agrimatch.common.api.PageResult;
+import com.agrimatch.common.api.CursorResult;
 import com.agrimatch.common.api.Result;
+import com.agrimatch.search.dto.UnifiedSearchPage;
 import com.agrimatch.search.dto.UnifiedSearchQuery;
 import com.agrimatch.search.dto.UnifiedSearchResult;
 import com.agrimatch.search.service.UnifiedSearchService;
@@ -9,6 +10,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -22,20 +24,50 @@ public class SearchController {
     private final UnifiedSearchService unifiedSearchService;
     private final ObjectMapper objectMapper;
 
+    /**
+     * 分页搜索；total 默认取短时缓存的总数，exactCount=true 时实时统计；
+     * facets=domain,category,entityType,tag 时附带各分面的命中数
+     */
     @GetMapping("/unified")
-    public Result<PageResult<UnifiedSearchResult>> search(
+    public Result<UnifiedSearchPage> search(
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String domain,
             @RequestParam(required = false) String entityType,
             @RequestParam(required = false) String tagFiltersJson,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean exactCount,
+            @RequestParam(required = false) String facets) {
         
+        UnifiedSearchQuery query = buildQuery(keyword, domain, entityType, tagFiltersJson, size);
+        query.setPage(page);
+        query.setExactCount(exactCount);
+        query.setFacets(StringUtils.commaDelimitedListToSet(facets));
+        return Result.success(unifiedSearchService.search(query));
+    }
+
+    /**
+     * 游标翻页（无限滚动），不计算总数：首页不传 cursor，之后传上一页返回的 nextCursor
+     */
+    @GetMapping("/unified/scroll")
+    public Result<CursorResult<UnifiedSearchResult>> scroll(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String domain,
+            @RequestParam(required = false) String entityType,
+            @RequestParam(required = false) String tagFiltersJson,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        UnifiedSearchQuery query = buildQuery(keyword, domain, entityType, tagFiltersJson, size);
+        query.setCursor(cursor);
+        return Result.success(unifiedSearchService.scroll(query));
+    }
+
+    private UnifiedSearchQuery buildQuery(String keyword, String domain, String entityType, String tagFiltersJson, int size) {
         UnifiedSearchQuery query = new UnifiedSearchQuery();
         query.setKeyword(keyword);
         query.setDomain(domain);
         query.setEntityType(entityType);
-        query.setPage(page);
         query.setSize(size);
         
         if (tagFiltersJson != null && !tagFiltersJson.isEmpty()) {
@@ -46,8 +78,7 @@ public class SearchController {
                 log.error("Failed to parse tagFiltersJson: {}", tagFiltersJson, e);
             }
         }
-        
-        return Result.success(unifiedSearchService.search(query));
+        return query;
     }
 }
 
@@ -0,0 +1,17 @@
+package com.agrimatch.search.domain;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 建索引用的文档行：supply/requirement 取品类 + 备注，post 取标题 + 正文
+ */
+@Data
+public class SearchDoc {
+    private String entityType;
+    private Long entityId;
+    private String title;
+    private String content;
+    private String domain;
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,14 @@
+package com.agrimatch.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCount {
+    private String value;   // 取值（标签分面为 tagKey）
+    private String label;   // 展示名（标签分面为标签名，其余为空）
+    private long count;
+}
@@ -0,0 +1,28 @@
+package com.agrimatch.search.dto;
+
+import com.agrimatch.common.api.PageResult;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 统一搜索分页结果，附带请求的分面计数（domain / category / entityType / tag -> 按数量降序）
+ */
+public class UnifiedSearchPage extends PageResult<UnifiedSearchResult> {
+    private Map<String, List<FacetCount>> facets;
+
+    public UnifiedSearchPage() {
+    }
+
+    public UnifiedSearchPage(List<UnifiedSearchResult> list, long total, int page, int size) {
+        super(list, total, page, size);
+    }
+
+    public Map<String, List<FacetCount>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, List<FacetCount>> facets) {
+        this.facets = facets;
+    }
+}
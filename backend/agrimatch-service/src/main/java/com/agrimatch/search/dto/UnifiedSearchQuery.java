@@ -1,16 +1,28 @@
 package com.agrimatch.search.dto;
 
 import lombok.Data;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Data
 public class UnifiedSearchQuery {
     private String keyword;
     private String domain;      // biological, processing, material, equipment, general
     private String entityType;  // supply, requirement, post
-    private Map<String, Object> tagFilters; // tagKey -> value (String or Number)
+    private Map<String, Object> tagFilters; // 格式见 TagFilter：等值 / 数组(任一) / {gte,lte...} 范围 / $or
+    private Map<String, List<Long>> tagEntityIds; // 服务端填充：标签筛选命中的实体 id（按类型，SQL 查询用）
     private int page = 1;
     private int size = 10;
+    private String cursor;      // 游标翻页：上一页返回的 nextCursor，首页不传
+    private boolean exactCount; // 分页模式下强制实时 COUNT（默认用短时缓存的总数）
+    private Set<String> facets; // 需要的分面：domain / category / entityType / tag
+
+    // 以下由服务端填充（SQL 游标翻页）
+    private LocalDateTime cursorTime;
+    private String cursorType;
+    private Long cursorId;
+    private Integer limit;
 }
 
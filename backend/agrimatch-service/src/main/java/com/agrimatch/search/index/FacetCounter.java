@@ -0,0 +1,72 @@
+package com.agrimatch.search.index;
+
+import com.agrimatch.tag.index.TagBitmap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 分面计数：检索时对命中集合单次遍历，按板块/品类/实体类型累加；
+ * 标签分面按实体类型收集命中位图，之后与各标签 key 的位图求交得到计数（见 TagIndexService.countKeys）
+ * 一次检索一个实例，非线程安全
+ */
+public class FacetCounter {
+
+    public static final String DOMAIN = "domain";
+    public static final String CATEGORY = "category";
+    public static final String ENTITY_TYPE = "entityType";
+    public static final String TAG = "tag";
+    public static final Set<String> FIELDS = Set.of(DOMAIN, CATEGORY, ENTITY_TYPE, TAG);
+
+    /** 字段 -> 取值 -> 命中数（不含标签） */
+    private final Map<String, Map<String, int[]>> counts = new LinkedHashMap<>();
+    /** entityType -> 命中实体，仅请求标签分面时收集 */
+    private final Map<String, TagBitmap> matched;
+
+    public FacetCounter(Collection<String> fields) {
+        for (String f : fields) {
+            if (!TAG.equals(f)) counts.put(f, new HashMap<>());
+        }
+        matched = fields.contains(TAG) ? new HashMap<>() : null;
+    }
+
+    public void accept(SearchHit h) {
+        for (Map.Entry<String, Map<String, int[]>> e : counts.entrySet()) {
+            String value = switch (e.getKey()) {
+                case DOMAIN -> h.getDomain();
+                case CATEGORY -> h.getCategory();
+                case ENTITY_TYPE -> h.getEntityType();
+                default -> null;
+            };
+            if (value != null && !value.isEmpty()) {
+                e.getValue().computeIfAbsent(value, k -> new int[1])[0]++;
+            }
+        }
+        if (matched != null && TagBitmap.fits(h.getEntityId())) {
+            matched.computeIfAbsent(h.getEntityType(), k -> new TagBitmap()).add((int) h.getEntityId());
+        }
+    }
+
+    /**
+     * 非标签字段的计数（未排序）
+     */
+    public Map<String, Map<String, Integer>> counts() {
+        Map<String, Map<String, Integer>> out = new LinkedHashMap<>();
+        counts.forEach((field, values) -> {
+            Map<String, Integer> m = new HashMap<>();
+            values.forEach((v, c) -> m.put(v, c[0]));
+            out.put(field, m);
+        });
+        return out;
+    }
+
+    /**
+     * 按实体类型分的命中集合；未请求标签分面时为 null
+     */
+    public Map<String, TagBitmap> matched() {
+        return matched;
+    }
+}
@@ -0,0 +1,207 @@
+package com.agrimatch.search.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内存倒排索引（供应/需求/帖子的标题 + 正文），BM25 打分
+ * - 文档号自增分配，修改 = 删掉旧文档号再分配新号，倒排表始终按文档号升序，删除用二分定位
+ * - 多词查询取交集（与原 LIKE 一样要求每个词都出现），从最短的倒排表出发，其余表二分前进
+ * - 标题词频按 TITLE_BOOST 倍计入
+ * 非线程安全，由 SearchIndexService 加读写锁
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_BOOST = 3;
+
+    /** 过滤条件（板块/类型/标签命中集合） */
+    public interface Filter {
+        boolean accept(String entityType, long entityId, String domain);
+    }
+
+    /** entityType:entityId -> 文档号 */
+    private final Map<String, Integer> keys = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private Doc[] docs = new Doc[1024];
+    private int nextDoc;
+    private int live;
+    private long totalLength;
+
+    /**
+     * @param category 品类（分面计数用，帖子为 null）
+     */
+    public void upsert(String entityType, long entityId, String domain, String category, long createTime, String title, String content) {
+        remove(entityType, entityId);
+        Map<String, int[]> tf = new HashMap<>();
+        int length = 0;
+        for (String t : Tokenizer.indexTerms(title)) {
+            tf.computeIfAbsent(t, k -> new int[1])[0] += TITLE_BOOST;
+            length += TITLE_BOOST;
+        }
+        for (String t : Tokenizer.indexTerms(content)) {
+            tf.computeIfAbsent(t, k -> new int[1])[0]++;
+            length++;
+        }
+
+        int doc = nextDoc++;
+        if (doc == docs.length) docs = Arrays.copyOf(docs, doc * 2);
+        String[] terms = new String[tf.size()];
+        int k = 0;
+        for (Map.Entry<String, int[]> e : tf.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), x -> new Postings()).add(doc, e.getValue()[0]);
+            terms[k++] = e.getKey();
+        }
+        docs[doc] = new Doc(entityType, entityId, domain, category, createTime, length, terms);
+        keys.put(key(entityType, entityId), doc);
+        live++;
+        totalLength += length;
+    }
+
+    public void remove(String entityType, long entityId) {
+        Integer doc = keys.remove(key(entityType, entityId));
+        if (doc == null) return;
+        Doc d = docs[doc];
+        docs[doc] = null;
+        for (String t : d.terms) {
+            Postings p = postings.get(t);
+            if (p == null) continue;
+            p.remove(doc);
+            if (p.size == 0) postings.remove(t);
+        }
+        live--;
+        totalLength -= d.length;
+    }
+
+    /**
+     * 关键词检索：terms 全部出现才算命中，返回全部命中（未排序）
+     */
+    public List<SearchHit> match(List<String> terms, Filter filter) {
+        List<SearchHit> out = new ArrayList<>();
+        if (terms.isEmpty() || live == 0) return out;
+        Postings[] lists = new Postings[terms.size()];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(terms.get(i));
+            if (lists[i] == null) return out;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+
+        double avgLength = (double) totalLength / live;
+        double[] idf = new double[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            idf[i] = Math.log(1 + (live - lists[i].size + 0.5) / (lists[i].size + 0.5));
+        }
+        int[] cursor = new int[lists.length];
+        Postings first = lists[0];
+        outer:
+        for (int i = 0; i < first.size; i++) {
+            int doc = first.docs[i];
+            Doc d = docs[doc];
+            if (filter != null && !filter.accept(d.entityType, d.entityId, d.domain)) continue;
+            double norm = K1 * (1 - B + B * d.length / avgLength);
+            double score = idf[0] * bm25(first.tfs[i], norm);
+            for (int j = 1; j < lists.length; j++) {
+                Postings p = lists[j];
+                int pos = p.seek(doc, cursor[j]);
+                cursor[j] = pos;
+                if (pos >= p.size || p.docs[pos] != doc) continue outer;
+                score += idf[j] * bm25(p.tfs[pos], norm);
+            }
+            out.add(new SearchHit(d.entityType, d.entityId, score, d.createTime, d.domain, d.category));
+        }
+        return out;
+    }
+
+    /**
+     * 无关键词：全部文档（分数为 0）
+     */
+    public List<SearchHit> all(Filter filter) {
+        List<SearchHit> out = new ArrayList<>();
+        for (int i = 0; i < nextDoc; i++) {
+            Doc d = docs[i];
+            if (d == null) continue;
+            if (filter != null && !filter.accept(d.entityType, d.entityId, d.domain)) continue;
+            out.add(new SearchHit(d.entityType, d.entityId, 0, d.createTime, d.domain, d.category));
+        }
+        return out;
+    }
+
+    public int size() {
+        return live;
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    private static double bm25(int tf, double norm) {
+        return tf * (K1 + 1) / (tf + norm);
+    }
+
+    private static String key(String entityType, long entityId) {
+        return entityType + ":" + entityId;
+    }
+
+    private static final class Doc {
+        final String entityType;
+        final long entityId;
+        final String domain;
+        final String category;
+        final long createTime;
+        final int length;
+        /** 本文档出现过的词（删除时逐个摘出倒排表） */
+        final String[] terms;
+
+        Doc(String entityType, long entityId, String domain, String category, long createTime, int length, String[] terms) {
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.domain = domain;
+            this.category = category;
+            this.createTime = createTime;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * 倒排表：文档号升序 + 词频，两个定长数组按需扩容
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] tfs = new int[4];
+        int size;
+
+        void add(int doc, int tf) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            docs[size] = doc;
+            tfs[size] = tf;
+            size++;
+        }
+
+        void remove(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i < 0) return;
+            int tail = size - i - 1;
+            System.arraycopy(docs, i + 1, docs, i, tail);
+            System.arraycopy(tfs, i + 1, tfs, i, tail);
+            size--;
+        }
+
+        /**
+         * 从 from 开始第一个 >= doc 的位置
+         */
+        int seek(int doc, int from) {
+            if (from >= size) return size;
+            int i = Arrays.binarySearch(docs, from, size, doc);
+            return i >= 0 ? i : -i - 1;
+        }
+    }
+}
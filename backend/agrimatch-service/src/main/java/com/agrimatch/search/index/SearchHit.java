@@ -0,0 +1,33 @@
+package com.agrimatch.search.index;
+
+/**
+ * 检索命中：实体 + BM25 分数（无关键词时为 0），带上分面计数用的板块/品类
+ */
+public class SearchHit {
+    private final String entityType;
+    private final long entityId;
+    private final double score;
+    private final long createTime;
+    private final String domain;
+    private final String category;
+
+    public SearchHit(String entityType, long entityId, double score, long createTime) {
+        this(entityType, entityId, score, createTime, null, null);
+    }
+
+    public SearchHit(String entityType, long entityId, double score, long createTime, String domain, String category) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.score = score;
+        this.createTime = createTime;
+        this.domain = domain;
+        this.category = category;
+    }
+
+    public String getEntityType() { return entityType; }
+    public long getEntityId() { return entityId; }
+    public double getScore() { return score; }
+    public long getCreateTime() { return createTime; }
+    public String getDomain() { return domain; }
+    public String getCategory() { return category; }
+}
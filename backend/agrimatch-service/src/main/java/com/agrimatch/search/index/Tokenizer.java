@@ -0,0 +1,92 @@
+package com.agrimatch.search.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 中文二元分词：
+ * - 全角字母数字转半角、统一小写
+ * - 汉字连续段切成单字 + 相邻二元组（索引时两种都记；查询时段长 >= 2 只用二元组，单字查询才用单字）
+ * - 字母数字连续段整体作为一个词（M2509、14%水分 -> m2509、14、水分）
+ * - 其余字符（标点、空白、符号）作为分隔
+ */
+public final class Tokenizer {
+
+    private Tokenizer() {
+    }
+
+    /**
+     * 建索引用：保留重复词（用于词频）
+     */
+    public static List<String> indexTerms(String text) {
+        List<String> out = new ArrayList<>();
+        split(text, true, out);
+        return out;
+    }
+
+    /**
+     * 查询用：去重后的检索词
+     */
+    public static List<String> queryTerms(String text) {
+        List<String> out = new ArrayList<>();
+        split(text, false, out);
+        List<String> unique = new ArrayList<>(out.size());
+        for (String t : out) {
+            if (!unique.contains(t)) unique.add(t);
+        }
+        return unique;
+    }
+
+    private static void split(String text, boolean index, List<String> out) {
+        if (text == null || text.isEmpty()) return;
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            char c = normalize(text.charAt(i));
+            if (isHan(c)) {
+                StringBuilder run = new StringBuilder();
+                while (i < n && isHan(normalize(text.charAt(i)))) {
+                    run.append(normalize(text.charAt(i)));
+                    i++;
+                }
+                hanTerms(run, index, out);
+            } else if (Character.isLetterOrDigit(c)) {
+                StringBuilder word = new StringBuilder();
+                while (i < n) {
+                    char w = normalize(text.charAt(i));
+                    if (isHan(w) || !Character.isLetterOrDigit(w)) break;
+                    word.append(w);
+                    i++;
+                }
+                out.add(word.toString());
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static void hanTerms(CharSequence run, boolean index, List<String> out) {
+        int len = run.length();
+        if (len == 1 || index) {
+            for (int k = 0; k < len; k++) {
+                out.add(String.valueOf(run.charAt(k)));
+            }
+        }
+        for (int k = 0; k + 1 < len; k++) {
+            out.add(run.subSequence(k, k + 2).toString());
+        }
+    }
+
+    private static char normalize(char c) {
+        if (c >= '！' && c <= '～') {
+            c = (char) (c - 0xFEE0);
+        } else if (c == '　') {
+            c = ' ';
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static boolean isHan(char c) {
+        return Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+    }
+}
@@ -1,9 +1,11 @@
 package com.agrimatch.search.mapper;
 
+import com.agrimatch.search.domain.SearchDoc;
 import com.agrimatch.search.dto.UnifiedSearchQuery;
 import com.agrimatch.search.dto.UnifiedSearchResult;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -14,5 +16,23 @@ public interface SearchMapper {
     List<UnifiedSearchResult> searchUnified(@Param("q") UnifiedSearchQuery query);
     
     long countUnified(@Param("q") UnifiedSearchQuery query);
+
+    /**
+     * 游标翻页（索引未就绪时）：取 cursor 之后的 limit 条，不算总数
+     */
+    List<UnifiedSearchResult> scrollUnified(@Param("q") UnifiedSearchQuery query);
+
+    /**
+     * 建索引：按 id 游标分批读取，ids 不为空时只读这些
+     */
+    List<SearchDoc> selectDocs(@Param("entityType") String entityType,
+                               @Param("ids") Collection<Long> ids,
+                               @Param("afterId") Long afterId,
+                               @Param("limit") Integer limit);
+
+    /**
+     * 按命中的 id 回表取展示字段（联查用户/公司）
+     */
+    List<UnifiedSearchResult> selectResults(@Param("entityType") String entityType, @Param("ids") Collection<Long> ids);
 }
 
@@ -0,0 +1,44 @@
+package com.agrimatch.search.scheduler;
+
+import com.agrimatch.search.service.SearchIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 搜索索引维护任务
+ * - 启动时全量装载供应/需求/帖子
+ * - 定期重建（兜底其他节点或直接改库的数据）
+ */
+@Component
+public class SearchIndexScheduler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexScheduler.class);
+
+    private final SearchIndexService searchIndexService;
+
+    public SearchIndexScheduler(SearchIndexService searchIndexService) {
+        this.searchIndexService = searchIndexService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            searchIndexService.rebuild();
+        } catch (Exception e) {
+            log.error("[Search] 搜索索引装载失败，暂时使用 SQL 查询", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.search.rebuild-interval-ms:1800000}", initialDelay = 1800 * 1000)
+    public void rebuild() {
+        try {
+            searchIndexService.rebuild();
+        } catch (Exception e) {
+            log.error("[Search] 搜索索引重建失败", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.agrimatch.search.service;
+
+import com.agrimatch.common.api.PageResult;
+import com.agrimatch.search.index.FacetCounter;
+import com.agrimatch.search.index.SearchHit;
+import com.agrimatch.tag.index.TagBitmap;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 统一搜索的内存倒排索引（供应/需求/帖子）：
+ * - 启动时从三张表全量装载，定期重建兜底（其他节点/后台直接改库的数据）
+ * - 发布/修改/删除时按 id 增量更新（事务内调用推迟到提交之后）
+ * - 装载完成前 isReady() 为 false，调用方回退到 SQL 查询
+ */
+public interface SearchIndexService {
+
+    String SUPPLY = "supply";
+    String REQUIREMENT = "requirement";
+    String POST = "post";
+
+    /**
+     * 全量重建
+     * @return 索引文档数
+     */
+    int rebuild();
+
+    boolean isReady();
+
+    /**
+     * 重新读取这些实体并更新索引（已删除的移出）
+     */
+    void refresh(String entityType, Collection<Long> ids);
+
+    void remove(String entityType, Long id);
+
+    /**
+     * 检索一页：有关键词按 BM25 降序、无关键词按发布时间降序
+     * @param tagged 不为空时只保留这些实体（按 entityType 分的标签筛选结果，没有对应类型的不保留）
+     * @param facets 不为空时顺带对全部命中做分面计数
+     */
+    PageResult<SearchHit> search(String keyword, String domain, String entityType, Map<String, TagBitmap> tagged,
+                                 int page, int size, FacetCounter facets);
+
+    /**
+     * 游标翻页（search-after）：排序同 search，只取排在 after 之后的 limit 条，不计算总数
+     * @param after 上一页最后一条（只用到排序字段），首页传 null
+     */
+    List<SearchHit> searchAfter(String keyword, String domain, String entityType, Map<String, TagBitmap> tagged, SearchHit after, int limit);
+}
@@ -1,10 +1,19 @@
 package com.agrimatch.search.service;
 
-import com.agrimatch.common.api.PageResult;
+import com.agrimatch.common.api.CursorResult;
+import com.agrimatch.search.dto.UnifiedSearchPage;
 import com.agrimatch.search.dto.UnifiedSearchQuery;
 import com.agrimatch.search.dto.UnifiedSearchResult;
 
 public interface UnifiedSearchService {
-    PageResult<UnifiedSearchResult> search(UnifiedSearchQuery query);
+    /**
+     * 分页搜索；query.facets 不为空时附带分面计数（搜索索引装载完成前不计算）
+     */
+    UnifiedSearchPage search(UnifiedSearchQuery query);
+
+    /**
+     * 游标翻页（search-after），不计算总数；首页不传 cursor，之后传上一页返回的 nextCursor
+     */
+    CursorResult<UnifiedSearchResult> scroll(UnifiedSearchQuery query);
 }
 
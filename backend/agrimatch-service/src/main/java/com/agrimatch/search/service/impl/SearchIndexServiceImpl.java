@@ -0,0 +1,226 @@
+package com.agrimatch.search.service.impl;
+
+import com.agrimatch.common.api.PageResult;
+import com.agrimatch.common.index.RebuildTracker;
+import com.agrimatch.common.tx.AfterCommit;
+import com.agrimatch.search.domain.SearchDoc;
+import com.agrimatch.search.index.FacetCounter;
+import com.agrimatch.search.index.InvertedIndex;
+import com.agrimatch.search.index.SearchHit;
+import com.agrimatch.search.index.Tokenizer;
+import com.agrimatch.search.mapper.SearchMapper;
+import com.agrimatch.search.service.SearchIndexService;
+import com.agrimatch.tag.index.TagBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+@Service
+public class SearchIndexServiceImpl implements SearchIndexService {
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexServiceImpl.class);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_PAGE_SIZE = 100;
+    /** 正文只索引前 2 万字 */
+    private static final int MAX_CONTENT_LENGTH = 20000;
+    private static final List<String> TYPES = List.of(SUPPLY, REQUIREMENT, POST);
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]+>");
+    /** 分数降序，同分按发布时间、id、类型降序（全序，游标翻页依赖） */
+    private static final Comparator<SearchHit> ORDER = Comparator.comparingDouble(SearchHit::getScore).reversed()
+            .thenComparing(Comparator.comparingLong(SearchHit::getCreateTime).reversed())
+            .thenComparing(Comparator.comparingLong(SearchHit::getEntityId).reversed())
+            .thenComparing(Comparator.comparing(SearchHit::getEntityType).reversed());
+
+    private final SearchMapper searchMapper;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildTracker tracker = new RebuildTracker();
+
+    private InvertedIndex index = new InvertedIndex();
+    private volatile boolean ready;
+
+    public SearchIndexServiceImpl(SearchMapper searchMapper) {
+        this.searchMapper = searchMapper;
+    }
+
+    @Override
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        RebuildTracker.Result<InvertedIndex> r = tracker.rebuild(() -> {
+            InvertedIndex fresh = new InvertedIndex();
+            for (String type : TYPES) {
+                Long afterId = null;
+                while (true) {
+                    List<SearchDoc> rows = searchMapper.selectDocs(type, null, afterId, BATCH_SIZE);
+                    for (SearchDoc d : rows) {
+                        add(fresh, d);
+                    }
+                    if (rows.size() < BATCH_SIZE) break;
+                    afterId = rows.get(rows.size() - 1).getEntityId();
+                }
+            }
+            return fresh;
+        }, fresh -> {
+            lock.writeLock().lock();
+            try {
+                index = fresh;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }, BATCH_SIZE, this::doRefresh);
+        log.info("[Search] 搜索索引重建完成：{} 篇文档，{} 个词，重放 {} 条增量，耗时 {} ms",
+                r.index().size(), r.index().termCount(), r.replayed(), System.currentTimeMillis() - start);
+        return r.index().size();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void refresh(String entityType, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return;
+        List<Long> list = new ArrayList<>(ids);
+        AfterCommit.run(() -> doRefresh(entityType, list));
+    }
+
+    @Override
+    public void remove(String entityType, Long id) {
+        if (id == null) return;
+        AfterCommit.run(() -> doRemove(entityType, id));
+    }
+
+    @Override
+    public PageResult<SearchHit> search(String keyword, String domain, String entityType, Map<String, TagBitmap> tagged,
+                                        int page, int size, FacetCounter facets) {
+        int p = Math.max(page, 1);
+        int s = size <= 0 ? 10 : Math.min(size, MAX_PAGE_SIZE);
+        List<SearchHit> hits = collect(keyword, domain, entityType, tagged);
+        int from = (p - 1) * s;
+        int k = Math.min(hits.size(), from + s);
+        List<SearchHit> top = top(hits, Math.max(k, 0), facets);
+        if (from >= k) {
+            return new PageResult<>(new ArrayList<>(), hits.size(), page, size);
+        }
+        return new PageResult<>(new ArrayList<>(top.subList(from, k)), hits.size(), page, size);
+    }
+
+    @Override
+    public List<SearchHit> searchAfter(String keyword, String domain, String entityType, Map<String, TagBitmap> tagged, SearchHit after, int limit) {
+        List<SearchHit> hits = collect(keyword, domain, entityType, tagged);
+        if (after != null) {
+            hits.removeIf(h -> ORDER.compare(h, after) <= 0);
+        }
+        return top(hits, Math.min(hits.size(), Math.max(limit, 1)), null);
+    }
+
+    private void doRefresh(String entityType, List<Long> list) {
+        tracker.touch(entityType, list);
+        for (int i = 0; i < list.size(); i += BATCH_SIZE) {
+            List<Long> batch = list.subList(i, Math.min(i + BATCH_SIZE, list.size()));
+            List<SearchDoc> rows = searchMapper.selectDocs(entityType, batch, null, null);
+            Set<Long> missing = new HashSet<>(batch);
+            lock.writeLock().lock();
+            try {
+                for (SearchDoc d : rows) {
+                    missing.remove(d.getEntityId());
+                    add(index, d);
+                }
+                for (Long id : missing) {
+                    index.remove(entityType, id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void doRemove(String entityType, Long id) {
+        tracker.touch(entityType, id);
+        lock.writeLock().lock();
+        try {
+            index.remove(entityType, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 全部命中（未排序）；有关键词但分不出词时为空
+     */
+    private List<SearchHit> collect(String keyword, String domain, String entityType, Map<String, TagBitmap> tagged) {
+        boolean byKeyword = StringUtils.hasText(keyword);
+        List<String> terms = byKeyword ? Tokenizer.queryTerms(keyword) : List.of();
+        if (byKeyword && terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String d = StringUtils.hasText(domain) ? domain : null;
+        String t = StringUtils.hasText(entityType) ? entityType : null;
+        InvertedIndex.Filter filter = (type, id, dom) -> (d == null || d.equals(dom))
+                && (t == null || t.equals(type))
+                && (tagged == null || isTagged(tagged.get(type), id));
+
+        lock.readLock().lock();
+        try {
+            return byKeyword ? index.match(terms, filter) : index.all(filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按 ORDER 取前 k 条：只保留 k 条的堆，不对全部命中排序；分面计数在同一次遍历里完成
+     */
+    private static List<SearchHit> top(List<SearchHit> hits, int k, FacetCounter facets) {
+        if (k <= 0 && facets == null) return new ArrayList<>();
+        PriorityQueue<SearchHit> heap = new PriorityQueue<>(Math.max(k, 1), ORDER.reversed());
+        for (SearchHit h : hits) {
+            if (facets != null) facets.accept(h);
+            if (k <= 0) continue;
+            if (heap.size() < k) {
+                heap.add(h);
+            } else if (ORDER.compare(h, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(h);
+            }
+        }
+        List<SearchHit> top = new ArrayList<>(heap);
+        top.sort(ORDER);
+        return top;
+    }
+
+    private static boolean isTagged(TagBitmap hits, long id) {
+        return hits != null && TagBitmap.fits(id) && hits.contains((int) id);
+    }
+
+    private static void add(InvertedIndex target, SearchDoc d) {
+        String content = d.getContent();
+        if (content != null) {
+            if (POST.equals(d.getEntityType())) {
+                content = HTML_TAG.matcher(content).replaceAll(" ");
+            }
+            if (content.length() > MAX_CONTENT_LENGTH) {
+                content = content.substring(0, MAX_CONTENT_LENGTH);
+            }
+        }
+        long createTime = d.getCreateTime() != null
+                ? d.getCreateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+        // 供应/需求的标题就是品类名
+        String category = POST.equals(d.getEntityType()) ? null : d.getTitle();
+        target.upsert(d.getEntityType(), d.getEntityId(), d.getDomain(), category, createTime, d.getTitle(), content);
+    }
+}
@@ -1,25 +1,332 @@
 package com.agrimatch.search.service.impl;
 
+import com.agrimatch.common.api.CursorResult;
 import com.agrimatch.common.api.PageResult;
+import com.agrimatch.common.api.ResultCode;
+import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.search.dto.FacetCount;
+import com.agrimatch.search.dto.UnifiedSearchPage;
 import com.agrimatch.search.dto.UnifiedSearchQuery;
 import com.agrimatch.search.dto.UnifiedSearchResult;
+import com.agrimatch.search.index.FacetCounter;
+import com.agrimatch.search.index.SearchHit;
 import com.agrimatch.search.mapper.SearchMapper;
+import com.agrimatch.search.service.SearchIndexService;
 import com.agrimatch.search.service.UnifiedSearchService;
+import com.agrimatch.tag.domain.NhtTag;
+import com.agrimatch.tag.index.TagBitmap;
+import com.agrimatch.tag.service.TagIndexService;
+import com.agrimatch.tag.service.TagService;
+import com.agrimatch.util.CursorUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
 public class UnifiedSearchServiceImpl implements UnifiedSearchService {
 
+    private static final List<String> TYPES = List.of(SearchIndexService.SUPPLY, SearchIndexService.REQUIREMENT, SearchIndexService.POST);
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 100;
+    /** 游标：索引按 BM25 分数翻页、SQL 按发布时间翻页，两种游标不通用 */
+    private static final String CURSOR_INDEX = "search";
+    private static final String CURSOR_SQL = "search_time";
+    private static final String DESC = "desc";
+    private static final int MAX_CACHED_COUNTS = 10000;
+    private static final int FACET_LIMIT = 20;
+    /** SQL 兜底时每类标签命中最多带入的 id 数（超出只保留最新发布的） */
+    private static final int MAX_TAG_IDS = 2000;
+    private static final long HOT_TAGS_TTL_MS = 5 * 60 * 1000L;
+
     private final SearchMapper searchMapper;
+    private final SearchIndexService searchIndexService;
+    private final TagIndexService tagIndexService;
+    private final TagService tagService;
+    /** 归一化查询条件 -> 总数（SQL 分页用） */
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+    private volatile List<NhtTag> hotTags;
+    private volatile long hotTagsLoadedAt;
+
+    @Value("${agrimatch.search.count-ttl-ms:60000}")
+    private long countTtlMs;
 
     @Override
-    public PageResult<UnifiedSearchResult> search(UnifiedSearchQuery query) {
-        List<UnifiedSearchResult> list = searchMapper.searchUnified(query);
+    public UnifiedSearchPage search(UnifiedSearchQuery query) {
+        Set<String> facetFields = facetFields(query.getFacets());
+        Map<String, TagBitmap> tagged = tagged(query);
+        clearCursor(query);
+
+        if (!searchIndexService.isReady()) {
+            // 索引装载完成前走 SQL，不算分面
+            applyTagIds(query, tagged);
+            List<UnifiedSearchResult> list = searchMapper.searchUnified(query);
+            return new UnifiedSearchPage(list, total(query, list), query.getPage(), query.getSize());
+        }
+
+        FacetCounter counter = facetFields.isEmpty() ? null : new FacetCounter(facetFields);
+        PageResult<SearchHit> hits = searchIndexService.search(query.getKeyword(), query.getDomain(), query.getEntityType(),
+                tagged, query.getPage(), query.getSize(), counter);
+        UnifiedSearchPage out = new UnifiedSearchPage(load(hits.getList()), hits.getTotal(), query.getPage(), query.getSize());
+        if (counter != null) out.setFacets(facets(counter));
+        return out;
+    }
+
+    @Override
+    public CursorResult<UnifiedSearchResult> scroll(UnifiedSearchQuery query) {
+        int size = query.getSize() <= 0 ? DEFAULT_PAGE_SIZE : Math.min(query.getSize(), MAX_PAGE_SIZE);
+        Map<String, TagBitmap> tagged = tagged(query);
+        clearCursor(query);
+
+        boolean useIndex = searchIndexService.isReady();
+        CursorUtil.Cursor after = null;
+        if (StringUtils.hasText(query.getCursor())) {
+            // 翻页过程中沿用首页的方式，索引中途装载完成也不切换
+            useIndex = useIndex && isIndexCursor(query.getCursor());
+            after = CursorUtil.decode(query.getCursor(), useIndex ? CURSOR_INDEX : CURSOR_SQL, DESC);
+        }
+
+        if (useIndex) {
+            List<SearchHit> hits = searchIndexService.searchAfter(query.getKeyword(), query.getDomain(), query.getEntityType(),
+                    tagged, after != null ? toHit(after) : null, size + 1);
+            boolean hasMore = hits.size() > size;
+            if (hasMore) hits = hits.subList(0, size);
+            String next = null;
+            if (hasMore) {
+                SearchHit last = hits.get(hits.size() - 1);
+                next = CursorUtil.encode(CURSOR_INDEX, DESC,
+                        last.getScore() + "," + last.getCreateTime() + "," + last.getEntityType(), last.getEntityId());
+            }
+            return new CursorResult<>(load(hits), next, size);
+        }
+
+        applyTagIds(query, tagged);
+        if (after != null) {
+            String[] parts = after.getValue().split(",", 2);
+            if (parts.length != 2) throw invalidCursor();
+            try {
+                query.setCursorTime(LocalDateTime.parse(parts[0]));
+            } catch (RuntimeException e) {
+                throw invalidCursor();
+            }
+            query.setCursorType(parts[1]);
+            query.setCursorId(after.getId());
+        }
+        query.setLimit(size + 1);
+        List<UnifiedSearchResult> rows = searchMapper.scrollUnified(query);
+        boolean hasMore = rows.size() > size;
+        if (hasMore) rows = rows.subList(0, size);
+        String next = null;
+        if (hasMore) {
+            UnifiedSearchResult last = rows.get(rows.size() - 1);
+            next = CursorUtil.encode(CURSOR_SQL, DESC, last.getCreateTime() + "," + last.getEntityType(), last.getEntityId());
+        }
+        return new CursorResult<>(rows, next, size);
+    }
+
+    private static Set<String> facetFields(Set<String> requested) {
+        Set<String> out = new LinkedHashSet<>();
+        if (requested == null) return out;
+        for (String f : requested) {
+            String field = f != null ? f.trim() : "";
+            if (field.isEmpty()) continue;
+            if (!FacetCounter.FIELDS.contains(field)) {
+                throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "不支持的分面: " + field);
+            }
+            out.add(field);
+        }
+        return out;
+    }
+
+    /**
+     * 分面计数按数量降序，每个分面最多 FACET_LIMIT 项；标签分面只统计热门标签
+     */
+    private Map<String, List<FacetCount>> facets(FacetCounter counter) {
+        Map<String, List<FacetCount>> out = new LinkedHashMap<>();
+        counter.counts().forEach((field, values) -> {
+            List<FacetCount> list = new ArrayList<>(values.size());
+            values.forEach((v, c) -> list.add(new FacetCount(v, null, c)));
+            out.put(field, sortFacets(list));
+        });
+        if (counter.matched() != null) {
+            Map<String, String> names = new LinkedHashMap<>();
+            for (NhtTag t : hotTags()) {
+                if (StringUtils.hasText(t.getTagKey())) names.putIfAbsent(t.getTagKey(), t.getTagName());
+            }
+            Map<String, Long> totals = new HashMap<>();
+            counter.matched().forEach((type, entities) ->
+                    tagIndexService.countKeys(type, entities, names.keySet()).forEach((k, c) -> totals.merge(k, (long) c, Long::sum)));
+            List<FacetCount> list = new ArrayList<>(totals.size());
+            totals.forEach((k, c) -> list.add(new FacetCount(k, names.get(k), c)));
+            out.put(FacetCounter.TAG, sortFacets(list));
+        }
+        return out;
+    }
+
+    private static List<FacetCount> sortFacets(List<FacetCount> list) {
+        list.sort(Comparator.comparingLong(FacetCount::getCount).reversed().thenComparing(FacetCount::getValue));
+        return list.size() > FACET_LIMIT ? new ArrayList<>(list.subList(0, FACET_LIMIT)) : list;
+    }
+
+    /**
+     * 热门标签很少变动，缓存 HOT_TAGS_TTL_MS
+     */
+    private List<NhtTag> hotTags() {
+        long now = System.currentTimeMillis();
+        List<NhtTag> cached = hotTags;
+        if (cached == null || now - hotTagsLoadedAt > HOT_TAGS_TTL_MS) {
+            cached = tagService.getHotTags();
+            hotTags = cached;
+            hotTagsLoadedAt = now;
+        }
+        return cached;
+    }
+
+    /**
+     * 标签筛选走位图索引，按实体类型各算一次；没有标签条件时为 null
+     */
+    private Map<String, TagBitmap> tagged(UnifiedSearchQuery query) {
+        query.setTagEntityIds(null);
+        if (query.getTagFilters() == null || query.getTagFilters().isEmpty()) return null;
+        Map<String, TagBitmap> tagged = new HashMap<>();
+        for (String type : StringUtils.hasText(query.getEntityType()) ? List.of(query.getEntityType()) : TYPES) {
+            tagged.put(type, tagIndexService.match(type, query.getTagFilters()));
+        }
+        return tagged;
+    }
+
+    private static void applyTagIds(UnifiedSearchQuery query, Map<String, TagBitmap> tagged) {
+        if (tagged == null) return;
+        Map<String, List<Long>> ids = new HashMap<>();
+        tagged.forEach((type, hits) -> ids.put(type, hits.toLongList(MAX_TAG_IDS)));
+        query.setTagEntityIds(ids);
+    }
+
+    private static void clearCursor(UnifiedSearchQuery query) {
+        query.setCursorTime(null);
+        query.setCursorType(null);
+        query.setCursorId(null);
+        query.setLimit(null);
+    }
+
+    /**
+     * SQL 分页的总数：不满一页时直接推算；否则用短时缓存，exactCount 时实时 COUNT 并刷新缓存
+     */
+    private long total(UnifiedSearchQuery query, List<UnifiedSearchResult> list) {
+        long offset = (long) (Math.max(query.getPage(), 1) - 1) * query.getSize();
+        if (list.size() < query.getSize() && (!list.isEmpty() || offset == 0)) {
+            return offset + list.size();
+        }
+        String key = countKey(query);
+        long now = System.currentTimeMillis();
+        if (!query.isExactCount()) {
+            CachedCount c = counts.get(key);
+            // 缓存期间新发布的可能让当前页越过缓存的总数，至少要覆盖到当前页
+            if (c != null && c.expireAt > now) return Math.max(c.total, offset + list.size());
+        }
         long total = searchMapper.countUnified(query);
-        return new PageResult<>(list, total, query.getPage(), query.getSize());
+        if (counts.size() >= MAX_CACHED_COUNTS) {
+            counts.values().removeIf(c -> c.expireAt <= now);
+        }
+        if (counts.size() < MAX_CACHED_COUNTS) {
+            counts.put(key, new CachedCount(total, now + countTtlMs));
+        }
+        return total;
     }
-}
 
+    private static String countKey(UnifiedSearchQuery q) {
+        String keyword = q.getKeyword() != null ? q.getKeyword().trim().toLowerCase(Locale.ROOT) : "";
+        return keyword + '\u0001' + q.getDomain() + '\u0001' + q.getEntityType() + '\u0001' + canonical(q.getTagFilters());
+    }
+
+    /**
+     * 条件 JSON 按 key 排序后的文本，同样的条件换个顺序也命中同一个缓存
+     */
+    private static String canonical(Object v) {
+        if (v instanceof Map<?, ?> m) {
+            Map<String, String> sorted = new TreeMap<>();
+            m.forEach((k, x) -> sorted.put(String.valueOf(k), canonical(x)));
+            return sorted.toString();
+        }
+        if (v instanceof Collection<?> c) {
+            List<String> items = new ArrayList<>(c.size());
+            for (Object x : c) {
+                items.add(canonical(x));
+            }
+            return items.toString();
+        }
+        return String.valueOf(v);
+    }
+
+    private static boolean isIndexCursor(String token) {
+        try {
+            CursorUtil.decode(token, CURSOR_INDEX, DESC);
+            return true;
+        } catch (ApiException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 索引游标：分数,发布时间,类型 + id
+     */
+    private static SearchHit toHit(CursorUtil.Cursor c) {
+        String[] parts = c.getValue().split(",", 3);
+        if (parts.length != 3) throw invalidCursor();
+        try {
+            return new SearchHit(parts[2], c.getId(), Double.parseDouble(parts[0]), Long.parseLong(parts[1]));
+        } catch (NumberFormatException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static ApiException invalidCursor() {
+        return new ApiException(ResultCode.PARAM_ERROR.getCode(), "分页游标无效，请从第一页重新加载");
+    }
+
+    /**
+     * 按命中顺序回表取展示字段，每种实体一次查询；回表时已删除的跳过
+     */
+    private List<UnifiedSearchResult> load(List<SearchHit> hits) {
+        Map<String, List<Long>> idsByType = new LinkedHashMap<>();
+        for (SearchHit h : hits) {
+            idsByType.computeIfAbsent(h.getEntityType(), k -> new ArrayList<>()).add(h.getEntityId());
+        }
+        Map<String, UnifiedSearchResult> rows = new HashMap<>();
+        for (Map.Entry<String, List<Long>> e : idsByType.entrySet()) {
+            for (UnifiedSearchResult r : searchMapper.selectResults(e.getKey(), e.getValue())) {
+                rows.put(r.getEntityType() + ":" + r.getEntityId(), r);
+            }
+        }
+        List<UnifiedSearchResult> out = new ArrayList<>(hits.size());
+        for (SearchHit h : hits) {
+            UnifiedSearchResult r = rows.get(h.getEntityType() + ":" + h.getEntityId());
+            if (r != null) out.add(r);
+        }
+        return out;
+    }
+
+    private static final class CachedCount {
+        private final long total;
+        private final long expireAt;
+
+        private CachedCount(long total, long expireAt) {
+            this.total = total;
+            this.expireAt = expireAt;
+        }
+    }
+}
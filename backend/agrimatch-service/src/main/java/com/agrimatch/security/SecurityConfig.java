@@ -35,10 +35,12 @@ public class SecurityConfig {
 
         http.authorizeHttpRequests(auth -> auth
                 .requestMatchers("/", "/error", "/api/health", "/api/auth/**",
-                        "/api/products/tree", "/api/products/search", "/api/products/*/params",
+                        "/api/products/tree", "/api/products/search", "/api/products/*/params", "/api/typeahead",
                         "/api/product-schemas", "/api/product-schemas/**",
                         "/api/posts", "/api/posts/*/comments",
-                        "/api/supplies", "/api/requirements",
+                        "/api/supplies", "/api/requirements", "/api/supplies/page", "/api/requirements/page",
+                        "/api/supplies/cards", "/api/requirements/cards", "/api/supplies/details", "/api/requirements/details",
+                        "/api/supplies/changes", "/api/requirements/changes",
                         "/api/companies/top", "/api/companies/suppliers", "/api/companies/buyers", "/api/companies/*/profile",
                         "/api/home/stats",
                         "/api/futures/**",
@@ -0,0 +1,40 @@
+package com.agrimatch.similar.controller;
+
+import com.agrimatch.common.api.Result;
+import com.agrimatch.similar.dto.SimilarSupplyResponse;
+import com.agrimatch.similar.service.SimilarListingService;
+import com.agrimatch.util.SecurityUtil;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/similar")
+@Validated
+public class SimilarController {
+    private final SimilarListingService similarListingService;
+
+    public SimilarController(SimilarListingService similarListingService) {
+        this.similarListingService = similarListingService;
+    }
+
+    /**
+     * 相似供应（按相似度降序，默认 10 条，最多 50 条）
+     */
+    @GetMapping("/supplies/{id}")
+    public Result<List<SimilarSupplyResponse>> forSupply(
+            Authentication authentication,
+            @PathVariable("id") @NotNull Long id,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        SecurityUtil.requireUserId(authentication);
+        return Result.success(similarListingService.similarSupplies(id, limit));
+    }
+}
@@ -0,0 +1,19 @@
+package com.agrimatch.similar.domain;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 计算相似向量用的供应字段（坐标取供应公司的默认坐标）
+ */
+@Data
+public class SimilarSource {
+    private Long id;
+    private Long companyId;
+    private String categoryName;
+    private BigDecimal price;
+    private String paramsJson;
+    private Double lat;
+    private Double lng;
+}
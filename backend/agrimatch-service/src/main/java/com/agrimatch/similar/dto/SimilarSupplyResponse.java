@@ -0,0 +1,30 @@
+package com.agrimatch.similar.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class SimilarSupplyResponse {
+    private Long supplyId;
+    private String supplyNo;
+    private Long companyId;
+    private String companyName;
+    private String categoryName;
+    private BigDecimal price;
+    private BigDecimal quantity;
+    private String shipAddress;
+
+    /**
+     * 相似度（0~100）
+     */
+    private BigDecimal score;
+
+    /**
+     * 与查看中的供应的距离（任一方缺坐标时为空）
+     */
+    private BigDecimal distanceKm;
+
+    private Double lat;
+    private Double lng;
+}
@@ -0,0 +1,58 @@
+package com.agrimatch.similar.index;
+
+import java.util.Map;
+
+/**
+ * 挂牌向量的稠密部分（DIM 维 float），相似度按平方欧氏距离计算：
+ * - [0, 2)  位置：以 (35°N, 105°E) 为原点的等距投影，GEO_SCALE_KM 公里为 1
+ * - [2]     价格：ln(价格) 减去全部挂牌的均值，涨跌 25% 约为 1
+ * - [3, 19) 数值参数：参数名哈希到 PARAM_SLOTS 个槽，值按该参数的均值/标准差标准化后乘 PARAM_WEIGHT
+ * 缺失的维度取 0（即均值/原点），不单独记缺失
+ * 品类不进稠密部分，由 VectorIndex 按产品树的叶子/父节点比较（等价于 one-hot 的距离）
+ */
+public final class ListingVector {
+
+    public static final int GEO_DIMS = 2;
+    public static final int PARAM_SLOTS = 16;
+    public static final int DIM = GEO_DIMS + 1 + PARAM_SLOTS;
+
+    private static final double GEO_SCALE_KM = 200d;
+    private static final double REF_LAT = 35d;
+    private static final double REF_LNG = 105d;
+    private static final double KM_PER_DEG_LAT = 110.57d;
+    private static final double KM_PER_DEG_LNG = 111.32d * Math.cos(Math.toRadians(REF_LAT));
+    private static final double PRICE_SCALE = Math.log(1.25d);
+    private static final double PARAM_WEIGHT = 0.5d;
+
+    private ListingVector() {
+    }
+
+    /**
+     * @param params 参数名（规范化后）-> 数值
+     */
+    public static float[] encode(Double lat, Double lng, Double price, Map<String, Double> params, VectorStats stats) {
+        float[] v = new float[DIM];
+        if (lat != null && lng != null) {
+            v[0] = (float) ((lng - REF_LNG) * KM_PER_DEG_LNG / GEO_SCALE_KM);
+            v[1] = (float) ((lat - REF_LAT) * KM_PER_DEG_LAT / GEO_SCALE_KM);
+        }
+        if (price != null && price > 0) {
+            v[GEO_DIMS] = (float) ((Math.log(price) - stats.logPriceMean()) / PRICE_SCALE);
+        }
+        if (params != null) {
+            for (Map.Entry<String, Double> e : params.entrySet()) {
+                double[] ms = stats.param(e.getKey());
+                if (ms == null || e.getValue() == null) continue;
+                double z = (e.getValue() - ms[0]) / ms[1];
+                // 异常值（单位填错等）不让一个参数主导距离
+                z = Math.max(-4d, Math.min(4d, z));
+                v[GEO_DIMS + 1 + slot(e.getKey())] += (float) (z * PARAM_WEIGHT);
+            }
+        }
+        return v;
+    }
+
+    static int slot(String key) {
+        return (key.hashCode() & 0x7fffffff) % PARAM_SLOTS;
+    }
+}
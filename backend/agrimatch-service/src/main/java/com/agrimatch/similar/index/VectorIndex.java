@@ -0,0 +1,204 @@
+package com.agrimatch.similar.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 挂牌向量的暴力 Top-K 索引
+ * - 向量按槽位连续存放在一个 float[]（capacity * DIM），查询时顺序扫描，内层是定长的差平方累加，JIT 可自动向量化
+ * - 品类按 one-hot 的效果计入距离：同一叶子品类 0，同一父品类 SIBLING_PENALTY，其他 OTHER_PENALTY；
+ *   只存叶子/父节点编号，不展开成几百维
+ * - 删除的槽位进空闲列表复用，不搬移数据
+ * 非线程安全，由 SimilarListingService 加读写锁
+ */
+public class VectorIndex {
+
+    public static final float SIBLING_PENALTY = 1.0f;
+    public static final float OTHER_PENALTY = 4.0f;
+
+    private static final int DIM = ListingVector.DIM;
+
+    /** 一条 Top-K 结果 */
+    public record Hit(long id, float distance) {
+    }
+
+    private float[] vectors;
+    private long[] ids;
+    private int[] leaf;
+    private int[] parent;
+    /** 槽位是否在用；空槽 ids 为 0 */
+    private boolean[] used;
+    private int slots;
+    private int size;
+    private final Map<Long, Integer> slotOf = new HashMap<>();
+    private int[] free = new int[16];
+    private int freeCount;
+
+    public VectorIndex(int initialCapacity) {
+        int cap = Math.max(16, initialCapacity);
+        vectors = new float[cap * DIM];
+        ids = new long[cap];
+        leaf = new int[cap];
+        parent = new int[cap];
+        used = new boolean[cap];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(long id) {
+        return slotOf.containsKey(id);
+    }
+
+    /**
+     * 新增或整体替换
+     *
+     * @param leafCode   叶子品类编号（0 表示未知，与任何品类都按 OTHER_PENALTY 计）
+     * @param parentCode 父品类编号（0 表示无父节点）
+     */
+    public void put(long id, float[] vector, int leafCode, int parentCode) {
+        if (vector.length != DIM) throw new IllegalArgumentException("向量维度应为 " + DIM);
+        Integer s = slotOf.get(id);
+        int slot;
+        if (s != null) {
+            slot = s;
+        } else {
+            slot = freeCount > 0 ? free[--freeCount] : nextSlot();
+            slotOf.put(id, slot);
+            used[slot] = true;
+            ids[slot] = id;
+            size++;
+        }
+        System.arraycopy(vector, 0, vectors, slot * DIM, DIM);
+        leaf[slot] = leafCode;
+        parent[slot] = parentCode;
+    }
+
+    public boolean remove(long id) {
+        Integer s = slotOf.remove(id);
+        if (s == null) return false;
+        int slot = s;
+        used[slot] = false;
+        ids[slot] = 0;
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = slot;
+        size--;
+        return true;
+    }
+
+    /**
+     * @return 已有条目的向量副本，不存在返回 null
+     */
+    public float[] vectorOf(long id) {
+        Integer s = slotOf.get(id);
+        if (s == null) return null;
+        return Arrays.copyOfRange(vectors, s * DIM, s * DIM + DIM);
+    }
+
+    public int leafOf(long id) {
+        Integer s = slotOf.get(id);
+        return s != null ? leaf[s] : 0;
+    }
+
+    public int parentOf(long id) {
+        Integer s = slotOf.get(id);
+        return s != null ? parent[s] : 0;
+    }
+
+    /**
+     * 距离最近的 k 条，按距离升序
+     *
+     * @param excludeId 排除的 id（通常是查询挂牌本身），不排除传 0
+     */
+    public List<Hit> topK(float[] query, int leafCode, int parentCode, int k, long excludeId) {
+        if (k <= 0 || size == 0) return List.of();
+        // 大顶堆：heapDist[0] 是当前第 k 近的距离，扫描时超过它的直接跳过
+        float[] heapDist = new float[k];
+        int[] heapSlot = new int[k];
+        int n = 0;
+        float bound = Float.POSITIVE_INFINITY;
+        final float[] v = vectors;
+        for (int slot = 0; slot < slots; slot++) {
+            if (!used[slot] || ids[slot] == excludeId) continue;
+            float d;
+            int l = leaf[slot];
+            if (l != 0 && l == leafCode) {
+                d = 0f;
+            } else if (parentCode != 0 && parent[slot] == parentCode) {
+                d = SIBLING_PENALTY;
+            } else {
+                d = OTHER_PENALTY;
+            }
+            if (d >= bound) continue;
+            int base = slot * DIM;
+            for (int i = 0; i < DIM; i++) {
+                float x = v[base + i] - query[i];
+                d += x * x;
+            }
+            if (d >= bound) continue;
+            if (n < k) {
+                heapDist[n] = d;
+                heapSlot[n] = slot;
+                siftUp(heapDist, heapSlot, n++);
+                if (n == k) bound = heapDist[0];
+            } else {
+                heapDist[0] = d;
+                heapSlot[0] = slot;
+                siftDown(heapDist, heapSlot, n);
+                bound = heapDist[0];
+            }
+        }
+        List<Hit> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            out.add(new Hit(ids[heapSlot[i]], heapDist[i]));
+        }
+        out.sort((a, b) -> Float.compare(a.distance(), b.distance()));
+        return out;
+    }
+
+    private int nextSlot() {
+        if (slots == ids.length) {
+            int cap = ids.length * 2;
+            vectors = Arrays.copyOf(vectors, cap * DIM);
+            ids = Arrays.copyOf(ids, cap);
+            leaf = Arrays.copyOf(leaf, cap);
+            parent = Arrays.copyOf(parent, cap);
+            used = Arrays.copyOf(used, cap);
+        }
+        return slots++;
+    }
+
+    private static void siftUp(float[] dist, int[] slot, int i) {
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (dist[p] >= dist[i]) break;
+            swap(dist, slot, p, i);
+            i = p;
+        }
+    }
+
+    private static void siftDown(float[] dist, int[] slot, int n) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= n) break;
+            int c = l + 1 < n && dist[l + 1] > dist[l] ? l + 1 : l;
+            if (dist[i] >= dist[c]) break;
+            swap(dist, slot, i, c);
+            i = c;
+        }
+    }
+
+    private static void swap(float[] dist, int[] slot, int a, int b) {
+        float d = dist[a];
+        dist[a] = dist[b];
+        dist[b] = d;
+        int s = slot[a];
+        slot[a] = slot[b];
+        slot[b] = s;
+    }
+}
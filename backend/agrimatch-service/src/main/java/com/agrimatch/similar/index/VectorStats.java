@@ -0,0 +1,68 @@
+package com.agrimatch.similar.index;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 编码用的统计量（全量重建时从在架挂牌算出，增量更新沿用）：ln(价格) 均值、各数值参数的均值/标准差
+ */
+public final class VectorStats {
+
+    /** 出现次数少于此的参数不进向量（多为自定义参数） */
+    private static final int MIN_PARAM_COUNT = 20;
+
+    public static final VectorStats EMPTY = new VectorStats(0d, Map.of());
+
+    private final double logPriceMean;
+    private final Map<String, double[]> params;
+
+    private VectorStats(double logPriceMean, Map<String, double[]> params) {
+        this.logPriceMean = logPriceMean;
+        this.params = params;
+    }
+
+    public double logPriceMean() {
+        return logPriceMean;
+    }
+
+    /**
+     * @return {均值, 标准差}，不进向量的参数返回 null
+     */
+    public double[] param(String key) {
+        return params.get(key);
+    }
+
+    public int paramCount() {
+        return params.size();
+    }
+
+    public static VectorStats of(Collection<Double> prices, Collection<Map<String, Double>> paramMaps) {
+        double sum = 0;
+        int n = 0;
+        for (Double p : prices) {
+            if (p == null || p <= 0) continue;
+            sum += Math.log(p);
+            n++;
+        }
+        Map<String, double[]> acc = new HashMap<>();
+        for (Map<String, Double> m : paramMaps) {
+            for (Map.Entry<String, Double> e : m.entrySet()) {
+                double x = e.getValue();
+                double[] a = acc.computeIfAbsent(e.getKey(), k -> new double[3]);
+                a[0]++;
+                a[1] += x;
+                a[2] += x * x;
+            }
+        }
+        Map<String, double[]> out = new HashMap<>();
+        acc.forEach((k, a) -> {
+            if (a[0] < MIN_PARAM_COUNT) return;
+            double mean = a[1] / a[0];
+            double std = Math.sqrt(Math.max(0d, a[2] / a[0] - mean * mean));
+            // 全部取值相同的参数标准差为 0，按均值的 5% 兜底
+            out.put(k, new double[]{mean, Math.max(std, Math.max(Math.abs(mean) * 0.05d, 1e-6))});
+        });
+        return new VectorStats(n > 0 ? sum / n : 0d, out);
+    }
+}
@@ -0,0 +1,34 @@
+package com.agrimatch.similar.mapper;
+
+import com.agrimatch.similar.domain.SimilarSource;
+import com.agrimatch.similar.dto.SimilarSupplyResponse;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface SimilarMapper {
+
+    /**
+     * 建索引：在架供应（未删除、未下架、未过期、未被折叠）按主键游标分批读取
+     */
+    List<SimilarSource> selectActiveAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * 这批供应中仍在架的
+     */
+    List<SimilarSource> selectActive(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 结果卡片（只返回仍在架的，顺序不定）
+     */
+    List<SimilarSupplyResponse> selectCards(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 索引未就绪时的兜底：同品类在架供应，按发布时间倒序
+     */
+    List<Long> selectSameCategory(@Param("categoryName") String categoryName, @Param("excludeId") Long excludeId,
+                                  @Param("limit") int limit);
+}
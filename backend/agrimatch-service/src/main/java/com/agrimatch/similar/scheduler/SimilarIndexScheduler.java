@@ -0,0 +1,44 @@
+package com.agrimatch.similar.scheduler;
+
+import com.agrimatch.similar.service.SimilarListingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 相似供应索引维护任务
+ * - 启动时全量装载在架供应的向量
+ * - 定期重建（移出已下架/过期的供应，刷新标准化统计量，兜底其他节点的发布）
+ */
+@Component
+public class SimilarIndexScheduler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarIndexScheduler.class);
+
+    private final SimilarListingService similarListingService;
+
+    public SimilarIndexScheduler(SimilarListingService similarListingService) {
+        this.similarListingService = similarListingService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            similarListingService.rebuild();
+        } catch (Exception e) {
+            log.error("[Similar] 相似供应索引装载失败，装载完成前按同品类推荐", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.similar.rebuild-interval-ms:1800000}", initialDelay = 1800 * 1000)
+    public void rebuild() {
+        try {
+            similarListingService.rebuild();
+        } catch (Exception e) {
+            log.error("[Similar] 相似供应索引重建失败", e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.agrimatch.similar.service;
+
+import com.agrimatch.similar.dto.SimilarSupplyResponse;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 相似供应推荐（"看了这条的人也在看"）：
+ * - 每条在架供应编码成一个定长 float 向量（位置、价格、数值参数）加品类的叶子/父节点，常驻内存
+ * - 查询时对全部向量暴力扫描取 Top-K，发布/修改/下架时增量更新（事务内调用推迟到提交之后）
+ * - 启动时全量装载，定期重建（同时刷新价格/参数的标准化统计量）
+ */
+public interface SimilarListingService {
+
+    /**
+     * 全量重建
+     * @return 索引中的供应数
+     */
+    int rebuild();
+
+    boolean isReady();
+
+    /**
+     * 发布/修改后按库里最新数据更新向量，已不在架的移出索引
+     */
+    void refresh(Collection<Long> supplyIds);
+
+    void remove(Long supplyId);
+
+    /**
+     * 与该供应最相似的在架供应（按相似度降序，不含自己）；
+     * 索引未就绪时退化为同品类最新发布，score 为空
+     */
+    List<SimilarSupplyResponse> similarSupplies(Long supplyId, Integer limit);
+}
@@ -0,0 +1,314 @@
+package com.agrimatch.similar.service.impl;
+
+import com.agrimatch.common.index.RebuildTracker;
+import com.agrimatch.common.tx.AfterCommit;
+import com.agrimatch.product.domain.NhtProduct;
+import com.agrimatch.product.mapper.ProductMapper;
+import com.agrimatch.product_param.domain.ItemParamValue;
+import com.agrimatch.product_param.domain.NhtProductParam;
+import com.agrimatch.product_param.index.ParamExtractor;
+import com.agrimatch.product_param.mapper.ProductParamMapper;
+import com.agrimatch.similar.domain.SimilarSource;
+import com.agrimatch.similar.dto.SimilarSupplyResponse;
+import com.agrimatch.similar.index.ListingVector;
+import com.agrimatch.similar.index.VectorIndex;
+import com.agrimatch.similar.index.VectorStats;
+import com.agrimatch.similar.mapper.SimilarMapper;
+import com.agrimatch.similar.service.SimilarListingService;
+import com.agrimatch.util.GeoUtil;
+import com.agrimatch.util.ParamsJsonUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+public class SimilarListingServiceImpl implements SimilarListingService {
+    private static final Logger log = LoggerFactory.getLogger(SimilarListingServiceImpl.class);
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+    private static final int BATCH_SIZE = 500;
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+    /** 多取几条，抵掉索引里刚下架、库里已查不到的 */
+    private static final int OVERFETCH = 10;
+    /** 只索引供应，重放记录的类型 */
+    private static final String SUPPLY = "supply";
+
+    private final SimilarMapper similarMapper;
+    private final ProductMapper productMapper;
+    private final ProductParamMapper productParamMapper;
+    private final ObjectMapper objectMapper;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildTracker tracker = new RebuildTracker();
+
+    private VectorIndex index = new VectorIndex(16);
+    /** 以下三项随全量重建一起换入，增量更新沿用 */
+    private VectorStats stats = VectorStats.EMPTY;
+    private Categories categories = new Categories(Map.of());
+    private Map<String, String> paramNames = Map.of();
+    private volatile boolean ready;
+
+    /** 品类名 -> {叶子编号, 父编号}，取自产品树；产品树外的自定义品类按名称哈希成负数编号、无父节点 */
+    private record Categories(Map<String, int[]> byName) {
+        int[] codes(String categoryName) {
+            String name = categoryName != null ? categoryName.trim() : "";
+            if (name.isEmpty()) return new int[]{0, 0};
+            int[] c = byName.get(name);
+            if (c != null) return c;
+            return new int[]{-1 - (name.hashCode() & 0x7fffffff) % Integer.MAX_VALUE, 0};
+        }
+    }
+
+    /** 全量重建装载的结果，一起换入 */
+    private record Loaded(VectorIndex index, VectorStats stats, Categories categories, Map<String, String> paramNames) {
+    }
+
+    /** 解析后的一条供应 */
+    private record Parsed(long id, Double lat, Double lng, Double price, Map<String, Double> params, String categoryName) {
+    }
+
+    public SimilarListingServiceImpl(SimilarMapper similarMapper, ProductMapper productMapper,
+                                     ProductParamMapper productParamMapper, ObjectMapper objectMapper) {
+        this.similarMapper = similarMapper;
+        this.productMapper = productMapper;
+        this.productParamMapper = productParamMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        RebuildTracker.Result<Loaded> r = tracker.rebuild(() -> {
+            Categories freshCategories = loadCategories();
+            Map<String, String> freshNames = loadParamNames();
+            List<Parsed> all = new ArrayList<>();
+            Long afterId = null;
+            while (true) {
+                List<SimilarSource> batch = similarMapper.selectActiveAfter(afterId, LOAD_BATCH_SIZE);
+                for (SimilarSource s : batch) {
+                    all.add(parse(s, freshNames));
+                }
+                if (batch.size() < LOAD_BATCH_SIZE) break;
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            List<Double> prices = new ArrayList<>(all.size());
+            List<Map<String, Double>> params = new ArrayList<>(all.size());
+            for (Parsed p : all) {
+                prices.add(p.price());
+                params.add(p.params());
+            }
+            VectorStats freshStats = VectorStats.of(prices, params);
+            VectorIndex fresh = new VectorIndex(all.size() + all.size() / 4);
+            for (Parsed p : all) {
+                put(fresh, p, freshStats, freshCategories);
+            }
+            return new Loaded(fresh, freshStats, freshCategories, freshNames);
+        }, loaded -> {
+            lock.writeLock().lock();
+            try {
+                index = loaded.index();
+                stats = loaded.stats();
+                categories = loaded.categories();
+                paramNames = loaded.paramNames();
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }, BATCH_SIZE, (type, ids) -> reindex(ids));
+        log.info("[Similar] 相似供应索引重建完成：{} 条供应，{} 个数值参数，重放 {} 条增量，耗时 {} ms",
+                r.index().index().size(), r.index().stats().paramCount(), r.replayed(), System.currentTimeMillis() - start);
+        return r.index().index().size();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void refresh(Collection<Long> supplyIds) {
+        if (supplyIds == null || supplyIds.isEmpty()) return;
+        List<Long> ids = new ArrayList<>(supplyIds);
+        AfterCommit.run(() -> {
+            for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+                reindex(ids.subList(i, Math.min(i + BATCH_SIZE, ids.size())));
+            }
+        });
+    }
+
+    @Override
+    public void remove(Long supplyId) {
+        if (supplyId == null) return;
+        AfterCommit.run(() -> {
+            tracker.touch(SUPPLY, supplyId);
+            lock.writeLock().lock();
+            try {
+                index.remove(supplyId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public List<SimilarSupplyResponse> similarSupplies(Long supplyId, Integer limit) {
+        if (supplyId == null) return List.of();
+        int n = normalizeLimit(limit);
+        List<SimilarSource> self = similarMapper.selectActive(List.of(supplyId));
+        // 已下架/过期的供应不再推荐
+        if (self.isEmpty()) return List.of();
+        SimilarSource source = self.get(0);
+
+        if (!ready) {
+            List<Long> ids = similarMapper.selectSameCategory(source.getCategoryName(), supplyId, n);
+            return cards(ids, Map.of(), source);
+        }
+
+        List<VectorIndex.Hit> hits;
+        lock.readLock().lock();
+        try {
+            float[] query = index.vectorOf(supplyId);
+            int leaf;
+            int parent;
+            if (query != null) {
+                leaf = index.leafOf(supplyId);
+                parent = index.parentOf(supplyId);
+            } else {
+                query = ListingVector.encode(source.getLat(), source.getLng(), toDouble(source.getPrice()),
+                        parseParams(source.getParamsJson(), paramNames, supplyId), stats);
+                int[] codes = categories.codes(source.getCategoryName());
+                leaf = codes[0];
+                parent = codes[1];
+            }
+            hits = index.topK(query, leaf, parent, n + OVERFETCH, supplyId);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ids = new ArrayList<>(hits.size());
+        Map<Long, BigDecimal> scores = new HashMap<>();
+        for (VectorIndex.Hit h : hits) {
+            ids.add(h.id());
+            scores.put(h.id(), BigDecimal.valueOf(100d / (1d + h.distance())).setScale(1, RoundingMode.HALF_UP));
+        }
+        List<SimilarSupplyResponse> out = cards(ids, scores, source);
+        return out.size() > n ? new ArrayList<>(out.subList(0, n)) : out;
+    }
+
+    /**
+     * 按 ids 的顺序装卡片，库里已不在架的跳过
+     */
+    private List<SimilarSupplyResponse> cards(List<Long> ids, Map<Long, BigDecimal> scores, SimilarSource source) {
+        if (ids.isEmpty()) return List.of();
+        Map<Long, SimilarSupplyResponse> byId = new HashMap<>();
+        for (SimilarSupplyResponse r : similarMapper.selectCards(ids)) {
+            byId.put(r.getSupplyId(), r);
+        }
+        List<SimilarSupplyResponse> out = new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            SimilarSupplyResponse r = byId.get(id);
+            if (r == null) continue;
+            r.setScore(scores.get(id));
+            if (source.getLat() != null && source.getLng() != null && r.getLat() != null && r.getLng() != null) {
+                double km = GeoUtil.haversineKm(source.getLat(), source.getLng(), r.getLat(), r.getLng());
+                r.setDistanceKm(BigDecimal.valueOf(km).setScale(1, RoundingMode.HALF_UP));
+            }
+            out.add(r);
+        }
+        return out;
+    }
+
+    private void reindex(Collection<Long> ids) {
+        tracker.touch(SUPPLY, ids);
+        List<SimilarSource> active = similarMapper.selectActive(ids);
+        Map<String, String> names;
+        lock.readLock().lock();
+        try {
+            names = paramNames;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<Long, Parsed> byId = new HashMap<>();
+        for (SimilarSource s : active) {
+            byId.put(s.getId(), parse(s, names));
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                Parsed p = byId.get(id);
+                if (p == null) {
+                    index.remove(id);
+                } else {
+                    put(index, p, stats, categories);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void put(VectorIndex idx, Parsed p, VectorStats s, Categories c) {
+        int[] codes = c.codes(p.categoryName());
+        idx.put(p.id(), ListingVector.encode(p.lat(), p.lng(), p.price(), p.params(), s), codes[0], codes[1]);
+    }
+
+    private Parsed parse(SimilarSource s, Map<String, String> names) {
+        return new Parsed(s.getId(), s.getLat(), s.getLng(), toDouble(s.getPrice()),
+                parseParams(s.getParamsJson(), names, s.getId()), s.getCategoryName());
+    }
+
+    /**
+     * params_json 中可解析为数值的参数（规范化参数名 -> 数值，"≤14" 之类取 14）
+     */
+    private Map<String, Double> parseParams(String paramsJson, Map<String, String> names, Long id) {
+        if (!StringUtils.hasText(paramsJson)) return Map.of();
+        try {
+            Map<String, String> flat = ParamsJsonUtil.flatten(objectMapper.readTree(paramsJson), names);
+            Map<String, Double> out = new HashMap<>();
+            for (ItemParamValue v : ParamExtractor.extract(null, id, flat, null)) {
+                if (v.getValueNum() != null) out.put(v.getParamKey(), v.getValueNum().doubleValue());
+            }
+            return out;
+        } catch (Exception e) {
+            log.debug("[Similar] supply#{} params_json 解析失败，按无参数处理: {}", id, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private Categories loadCategories() {
+        Map<String, int[]> byName = new HashMap<>();
+        for (NhtProduct p : productMapper.selectAllActive()) {
+            if (p.getId() == null || !StringUtils.hasText(p.getProductName())) continue;
+            int parent = p.getParentId() != null && p.getParentId() > 0 ? p.getParentId().intValue() : 0;
+            byName.putIfAbsent(p.getProductName().trim(), new int[]{p.getId().intValue(), parent});
+        }
+        return new Categories(byName);
+    }
+
+    private Map<String, String> loadParamNames() {
+        Map<String, String> idToName = new HashMap<>();
+        for (NhtProductParam p : productParamMapper.selectCatalog()) {
+            if (StringUtils.hasText(p.getParamName())) idToName.put(String.valueOf(p.getId()), p.getParamName());
+        }
+        return idToName;
+    }
+
+    private static Double toDouble(BigDecimal d) {
+        return d != null ? d.doubleValue() : null;
+    }
+
+    private static int normalizeLimit(Integer limit) {
+        return limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+    }
+}
@@ -1,10 +1,17 @@
 package com.agrimatch.supply.controller;
 
+import com.agrimatch.common.api.ChangeFeed;
+import com.agrimatch.common.api.CursorResult;
 import com.agrimatch.common.api.Result;
+import com.agrimatch.supply.dto.BasisBatchUpdateRequest;
+import com.agrimatch.supply.dto.SupplyCardResponse;
 import com.agrimatch.supply.dto.SupplyCreateRequest;
+import com.agrimatch.supply.dto.SupplyDetailResponse;
+import com.agrimatch.supply.dto.SupplyImportReport;
 import com.agrimatch.supply.dto.SupplyQuery;
 import com.agrimatch.supply.dto.SupplyResponse;
 import com.agrimatch.supply.dto.SupplyUpdateRequest;
+import com.agrimatch.supply.service.SupplyImportService;
 import com.agrimatch.supply.service.SupplyService;
 import com.agrimatch.util.SecurityUtil;
 import jakarta.validation.Valid;
@@ -18,7 +25,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
@@ -27,9 +36,11 @@ import java.util.List;
 @Validated
 public class SupplyController {
     private final SupplyService supplyService;
+    private final SupplyImportService supplyImportService;
 
-    public SupplyController(SupplyService supplyService) {
+    public SupplyController(SupplyService supplyService, SupplyImportService supplyImportService) {
         this.supplyService = supplyService;
+        this.supplyImportService = supplyImportService;
     }
 
     @PostMapping
@@ -38,6 +49,15 @@ public class SupplyController {
         return Result.success(supplyService.create(userId, req));
     }
 
+    /**
+     * 批量导入供应（CSV / XLSX），逐行返回导入结果
+     */
+    @PostMapping("/import")
+    public Result<SupplyImportReport> importFile(Authentication authentication, @RequestParam("file") MultipartFile file) {
+        Long userId = SecurityUtil.requireUserId(authentication);
+        return Result.success(supplyImportService.importFile(userId, file));
+    }
+
     /**
      * 获取下一条供应编号/单号（用于“预览/开单”）
      */
@@ -52,6 +72,9 @@ public class SupplyController {
         return Result.success(supplyService.getById(id));
     }
 
+    /**
+     * 不分页列表，最多返回 200 条（兼容旧客户端）；新代码用 /page
+     */
     @GetMapping
     public Result<List<SupplyResponse>> list(Authentication authentication, SupplyQuery query) {
         // 允许匿名访问（大厅页面）
@@ -59,6 +82,47 @@ public class SupplyController {
         return Result.success(supplyService.list(userId, query));
     }
 
+    /**
+     * 大厅游标分页：首页不传 cursor，之后传上一页返回的 nextCursor
+     */
+    @GetMapping("/page")
+    public Result<CursorResult<SupplyResponse>> page(Authentication authentication, SupplyQuery query) {
+        // 允许匿名访问（大厅页面）
+        Long userId = SecurityUtil.getUserIdOrNull(authentication);
+        return Result.success(supplyService.page(userId, query));
+    }
+
+    /**
+     * 大厅卡片分页（参数同 /page），不含参数/标签/备注等大字段
+     */
+    @GetMapping("/cards")
+    public Result<CursorResult<SupplyCardResponse>> cards(Authentication authentication, SupplyQuery query) {
+        // 允许匿名访问（大厅页面）
+        Long userId = SecurityUtil.getUserIdOrNull(authentication);
+        return Result.success(supplyService.cardPage(userId, query));
+    }
+
+    /**
+     * 大厅增量同步：先不带 version 取当前版本号，再拉全量卡片，之后只带 version 拉变更；
+     * hasMore 为 true 时继续用返回的 version 拉取
+     */
+    @GetMapping("/changes")
+    public Result<ChangeFeed<SupplyCardResponse>> changes(Authentication authentication,
+                                                          @RequestParam(value = "version", required = false) String version,
+                                                          @RequestParam(value = "domain", required = false) String domain) {
+        // 允许匿名访问（大厅页面）
+        Long userId = SecurityUtil.getUserIdOrNull(authentication);
+        return Result.success(supplyService.changes(userId, version, domain));
+    }
+
+    /**
+     * 卡片展开时批量加载详情字段：/api/supplies/details?ids=1,2,3
+     */
+    @GetMapping("/details")
+    public Result<List<SupplyDetailResponse>> details(@RequestParam("ids") List<Long> ids) {
+        return Result.success(supplyService.details(ids));
+    }
+
     @PutMapping("/{id}")
     public Result<Void> update(Authentication authentication,
                               @PathVariable("id") @NotNull Long id,
@@ -68,6 +132,15 @@ public class SupplyController {
         return Result.success();
     }
 
+    /**
+     * 批量修改基差报价（基差/可售量），按 供应ID + 合约代码 定位
+     */
+    @PutMapping("/basis-quotes")
+    public Result<Integer> updateBasisQuotes(Authentication authentication, @Valid @RequestBody BasisBatchUpdateRequest req) {
+        Long userId = SecurityUtil.requireUserId(authentication);
+        return Result.success(supplyService.updateBasisQuotes(userId, req));
+    }
+
     @DeleteMapping("/{id}")
     public Result<Void> delete(Authentication authentication, @PathVariable("id") @NotNull Long id) {
         Long userId = SecurityUtil.requireUserId(authentication);
@@ -36,6 +36,16 @@ public class BusSupply {
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
 
+    /**
+     * 查询时按当前用户公司坐标计算（非表字段）
+     */
+    private BigDecimal distanceKm;
+    private BigDecimal deliveredPrice;
+    /**
+     * 是否已折叠到同公司更新的近似重复挂牌下（增量同步用，非表字段）
+     */
+    private Boolean collapsed;
+
     public Long getId() {
         return id;
     }
@@ -267,6 +277,28 @@ public class BusSupply {
     public void setNickName(String nickName) {
         this.nickName = nickName;
     }
-}
 
+    public BigDecimal getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(BigDecimal distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public BigDecimal getDeliveredPrice() {
+        return deliveredPrice;
+    }
 
+    public void setDeliveredPrice(BigDecimal deliveredPrice) {
+        this.deliveredPrice = deliveredPrice;
+    }
+
+    public Boolean getCollapsed() {
+        return collapsed;
+    }
+
+    public void setCollapsed(Boolean collapsed) {
+        this.collapsed = collapsed;
+    }
+}
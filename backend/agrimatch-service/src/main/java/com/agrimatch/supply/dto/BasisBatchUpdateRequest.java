@@ -0,0 +1,25 @@
+package com.agrimatch.supply.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * 批量修改基差报价（开盘集中调价）
+ */
+public class BasisBatchUpdateRequest {
+    @Valid
+    @NotEmpty
+    @Size(max = 2000)
+    private List<BasisQuoteUpdateRequest> items;
+
+    public List<BasisQuoteUpdateRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<BasisQuoteUpdateRequest> items) {
+        this.items = items;
+    }
+}
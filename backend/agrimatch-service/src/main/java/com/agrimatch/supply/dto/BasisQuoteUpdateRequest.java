@@ -0,0 +1,54 @@
+package com.agrimatch.supply.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+/**
+ * 修改一条已发布的基差报价（按 供应ID + 合约代码 定位）
+ */
+public class BasisQuoteUpdateRequest {
+    @NotNull
+    private Long supplyId;
+
+    @NotBlank
+    private String contractCode;      // 期货合约代码 (M2509)
+
+    @NotNull
+    private BigDecimal basisPrice;    // 新基差
+
+    private BigDecimal availableQty;  // 新可售量，不传则不变
+
+    public Long getSupplyId() {
+        return supplyId;
+    }
+
+    public void setSupplyId(Long supplyId) {
+        this.supplyId = supplyId;
+    }
+
+    public String getContractCode() {
+        return contractCode;
+    }
+
+    public void setContractCode(String contractCode) {
+        this.contractCode = contractCode;
+    }
+
+    public BigDecimal getBasisPrice() {
+        return basisPrice;
+    }
+
+    public void setBasisPrice(BigDecimal basisPrice) {
+        this.basisPrice = basisPrice;
+    }
+
+    public BigDecimal getAvailableQty() {
+        return availableQty;
+    }
+
+    public void setAvailableQty(BigDecimal availableQty) {
+        this.availableQty = availableQty;
+    }
+}
@@ -0,0 +1,224 @@
+package com.agrimatch.supply.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 大厅卡片：只含卡片展示字段，参数/标签/价格规则/备注见 {@link SupplyDetailResponse}
+ */
+public class SupplyCardResponse {
+    private Long id;
+    private Long companyId;
+    private Long userId;
+    private String companyName;
+    private String userName;
+    private String nickName;
+    private String categoryName;
+    private String domain;
+    private String supplyNo;
+    private String origin;
+    private BigDecimal quantity;
+    private BigDecimal remainingQuantity;
+    /**
+     * 报价类型：0=现货一口价，1=基差报价
+     */
+    private Integer priceType;
+    private BigDecimal exFactoryPrice;
+    /**
+     * 基差报价明细（priceType=1 时有值）
+     */
+    private List<BasisQuoteResponse> basisQuotes;
+    private String shipAddress;
+    private String deliveryMode;
+    private String packaging;
+    private Integer status;
+    private LocalDateTime expireTime;
+    private BigDecimal distanceKm;
+    private BigDecimal deliveredPrice;
+    private LocalDateTime createTime;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getCompanyName() {
+        return companyName;
+    }
+
+    public void setCompanyName(String companyName) {
+        this.companyName = companyName;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public String getNickName() {
+        return nickName;
+    }
+
+    public void setNickName(String nickName) {
+        this.nickName = nickName;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public String getSupplyNo() {
+        return supplyNo;
+    }
+
+    public void setSupplyNo(String supplyNo) {
+        this.supplyNo = supplyNo;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getRemainingQuantity() {
+        return remainingQuantity;
+    }
+
+    public void setRemainingQuantity(BigDecimal remainingQuantity) {
+        this.remainingQuantity = remainingQuantity;
+    }
+
+    public Integer getPriceType() {
+        return priceType;
+    }
+
+    public void setPriceType(Integer priceType) {
+        this.priceType = priceType;
+    }
+
+    public BigDecimal getExFactoryPrice() {
+        return exFactoryPrice;
+    }
+
+    public void setExFactoryPrice(BigDecimal exFactoryPrice) {
+        this.exFactoryPrice = exFactoryPrice;
+    }
+
+    public List<BasisQuoteResponse> getBasisQuotes() {
+        return basisQuotes;
+    }
+
+    public void setBasisQuotes(List<BasisQuoteResponse> basisQuotes) {
+        this.basisQuotes = basisQuotes;
+    }
+
+    public String getShipAddress() {
+        return shipAddress;
+    }
+
+    public void setShipAddress(String shipAddress) {
+        this.shipAddress = shipAddress;
+    }
+
+    public String getDeliveryMode() {
+        return deliveryMode;
+    }
+
+    public void setDeliveryMode(String deliveryMode) {
+        this.deliveryMode = deliveryMode;
+    }
+
+    public String getPackaging() {
+        return packaging;
+    }
+
+    public void setPackaging(String packaging) {
+        this.packaging = packaging;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getExpireTime() {
+        return expireTime;
+    }
+
+    public void setExpireTime(LocalDateTime expireTime) {
+        this.expireTime = expireTime;
+    }
+
+    public BigDecimal getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(BigDecimal distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public BigDecimal getDeliveredPrice() {
+        return deliveredPrice;
+    }
+
+    public void setDeliveredPrice(BigDecimal deliveredPrice) {
+        this.deliveredPrice = deliveredPrice;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(LocalDateTime createTime) {
+        this.createTime = createTime;
+    }
+}
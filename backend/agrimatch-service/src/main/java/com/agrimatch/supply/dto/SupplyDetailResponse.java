@@ -0,0 +1,79 @@
+package com.agrimatch.supply.dto;
+
+/**
+ * 大厅卡片展开/进入详情时按需批量加载的字段
+ */
+public class SupplyDetailResponse {
+    private Long id;
+    private String paymentMethod;
+    private String invoiceType;
+    private String storageMethod;
+    private String priceRulesJson;
+    private String paramsJson;
+    private String tagsJson;
+    private String remark;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public String getInvoiceType() {
+        return invoiceType;
+    }
+
+    public void setInvoiceType(String invoiceType) {
+        this.invoiceType = invoiceType;
+    }
+
+    public String getStorageMethod() {
+        return storageMethod;
+    }
+
+    public void setStorageMethod(String storageMethod) {
+        this.storageMethod = storageMethod;
+    }
+
+    public String getPriceRulesJson() {
+        return priceRulesJson;
+    }
+
+    public void setPriceRulesJson(String priceRulesJson) {
+        this.priceRulesJson = priceRulesJson;
+    }
+
+    public String getParamsJson() {
+        return paramsJson;
+    }
+
+    public void setParamsJson(String paramsJson) {
+        this.paramsJson = paramsJson;
+    }
+
+    public String getTagsJson() {
+        return tagsJson;
+    }
+
+    public void setTagsJson(String tagsJson) {
+        this.tagsJson = tagsJson;
+    }
+
+    public String getRemark() {
+        return remark;
+    }
+
+    public void setRemark(String remark) {
+        this.remark = remark;
+    }
+}
@@ -0,0 +1,46 @@
+package com.agrimatch.supply.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果：逐行成功/失败明细
+ */
+public class SupplyImportReport {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<SupplyImportRowResult> rows = new ArrayList<>();
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<SupplyImportRowResult> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<SupplyImportRowResult> rows) {
+        this.rows = rows;
+    }
+}
@@ -0,0 +1,58 @@
+package com.agrimatch.supply.dto;
+
+/**
+ * 批量导入的单行结果
+ */
+public class SupplyImportRowResult {
+    /**
+     * 文件中的行号（从 1 开始，含表头）
+     */
+    private int rowNumber;
+    private boolean success;
+    private Long supplyId;
+    private String supplyNo;
+    /**
+     * 失败原因
+     */
+    private String message;
+
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    public void setRowNumber(int rowNumber) {
+        this.rowNumber = rowNumber;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public Long getSupplyId() {
+        return supplyId;
+    }
+
+    public void setSupplyId(Long supplyId) {
+        this.supplyId = supplyId;
+    }
+
+    public String getSupplyNo() {
+        return supplyNo;
+    }
+
+    public void setSupplyNo(String supplyNo) {
+        this.supplyNo = supplyNo;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -1,9 +1,19 @@
 package com.agrimatch.supply.dto;
 
+import com.agrimatch.product_param.dto.ParamCondition;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
 public class SupplyQuery {
     private Long companyId;
     private Long userId;
     private String categoryName;
+    /**
+     * 关键词：模糊匹配品类/公司名/发货地/昵称
+     */
+    private String keyword;
     private String domain;
     /**
      * 业态代码：feed/breed/process/equipment
@@ -30,7 +40,14 @@ public class SupplyQuery {
     private Boolean includeExpired;
 
     /**
-     * 支持：create_time / ex_factory_price / distance(占位) / delivered_price(占位)
+     * 是否展示被折叠的近似重复挂牌（同公司重发的旧挂牌，见 DedupService）：
+     * - null/false：大厅只展示最新一条；按 companyId/userId 查自己的挂牌时不折叠
+     * - true：全部展示
+     */
+    private Boolean includeDuplicates;
+
+    /**
+     * 支持：create_time / ex_factory_price / distance / delivered_price（后两者需登录且公司有坐标）
      */
     private String orderBy;
 
@@ -39,6 +56,52 @@ public class SupplyQuery {
      */
     private String order;
 
+    /**
+     * 游标分页：上一页返回的 nextCursor，首页不传
+     */
+    private String cursor;
+
+    /**
+     * 游标分页每页条数（默认 20，最大 100）
+     */
+    private Integer size;
+
+    /**
+     * 只看当前用户公司 radiusKm 公里内（需登录且公司有坐标）
+     */
+    private Double radiusKm;
+
+    /**
+     * 标签筛选（JSON 对象），如 {"protein":{"gte":43},"moisture":{"lte":13}}，格式见 TagFilter
+     */
+    private String tagFilters;
+
+    /**
+     * 参数筛选（JSON 对象），按 params_json 的参数名匹配，如 {"蛋白质":{"gte":43},"水分":{"lte":14}}，格式见 ParamIndexService.parseFilters
+     */
+    private String paramFilters;
+
+    /**
+     * 以下字段由服务端填充，不接受前端传入
+     * - viewerLat/viewerLng：当前用户公司坐标，用于 SQL 中计算距离/到厂价
+     * - freightRate：运费单价（元/吨/公里）
+     * - cursorTime/cursorValue/cursorId：解析后的游标
+     * - limit：查询条数（为空表示不分页）
+     * - nearCompanyIds：radiusKm 命中的公司（空间索引计算）
+     * - tagEntityIds：tagFilters 命中的供应（标签位图索引计算，超出上限只保留最新发布的）
+     * - paramConditions：paramFilters 解析后的条件（SQL 中按参数值索引过滤）
+     */
+    private BigDecimal viewerLat;
+    private BigDecimal viewerLng;
+    private BigDecimal freightRate;
+    private LocalDateTime cursorTime;
+    private BigDecimal cursorValue;
+    private Long cursorId;
+    private Integer limit;
+    private List<Long> nearCompanyIds;
+    private List<Long> tagEntityIds;
+    private List<ParamCondition> paramConditions;
+
     public Long getCompanyId() {
         return companyId;
     }
@@ -63,6 +126,14 @@ public class SupplyQuery {
         this.categoryName = categoryName;
     }
 
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public void setKeyword(String keyword) {
+        this.keyword = keyword;
+    }
+
     public String getDomain() {
         return domain;
     }
@@ -95,6 +166,14 @@ public class SupplyQuery {
         this.includeExpired = includeExpired;
     }
 
+    public Boolean getIncludeDuplicates() {
+        return includeDuplicates;
+    }
+
+    public void setIncludeDuplicates(Boolean includeDuplicates) {
+        this.includeDuplicates = includeDuplicates;
+    }
+
     public String getOrderBy() {
         return orderBy;
     }
@@ -118,6 +197,124 @@ public class SupplyQuery {
     public void setSchemaCode(String schemaCode) {
         this.schemaCode = schemaCode;
     }
-}
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    public BigDecimal getViewerLat() {
+        return viewerLat;
+    }
+
+    public void setViewerLat(BigDecimal viewerLat) {
+        this.viewerLat = viewerLat;
+    }
+
+    public BigDecimal getViewerLng() {
+        return viewerLng;
+    }
 
+    public void setViewerLng(BigDecimal viewerLng) {
+        this.viewerLng = viewerLng;
+    }
+
+    public BigDecimal getFreightRate() {
+        return freightRate;
+    }
+
+    public void setFreightRate(BigDecimal freightRate) {
+        this.freightRate = freightRate;
+    }
+
+    public LocalDateTime getCursorTime() {
+        return cursorTime;
+    }
+
+    public void setCursorTime(LocalDateTime cursorTime) {
+        this.cursorTime = cursorTime;
+    }
+
+    public BigDecimal getCursorValue() {
+        return cursorValue;
+    }
+
+    public void setCursorValue(BigDecimal cursorValue) {
+        this.cursorValue = cursorValue;
+    }
+
+    public Long getCursorId() {
+        return cursorId;
+    }
+
+    public void setCursorId(Long cursorId) {
+        this.cursorId = cursorId;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public Double getRadiusKm() {
+        return radiusKm;
+    }
+
+    public void setRadiusKm(Double radiusKm) {
+        this.radiusKm = radiusKm;
+    }
+
+    public List<Long> getNearCompanyIds() {
+        return nearCompanyIds;
+    }
+
+    public void setNearCompanyIds(List<Long> nearCompanyIds) {
+        this.nearCompanyIds = nearCompanyIds;
+    }
+
+    public String getTagFilters() {
+        return tagFilters;
+    }
+
+    public void setTagFilters(String tagFilters) {
+        this.tagFilters = tagFilters;
+    }
+
+    public List<Long> getTagEntityIds() {
+        return tagEntityIds;
+    }
+
+    public void setTagEntityIds(List<Long> tagEntityIds) {
+        this.tagEntityIds = tagEntityIds;
+    }
+
+    public String getParamFilters() {
+        return paramFilters;
+    }
+
+    public void setParamFilters(String paramFilters) {
+        this.paramFilters = paramFilters;
+    }
+
+    public List<ParamCondition> getParamConditions() {
+        return paramConditions;
+    }
+
+    public void setParamConditions(List<ParamCondition> paramConditions) {
+        this.paramConditions = paramConditions;
+    }
+}
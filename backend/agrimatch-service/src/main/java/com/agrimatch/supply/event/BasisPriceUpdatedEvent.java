@@ -0,0 +1,25 @@
+package com.agrimatch.supply.event;
+
+import com.agrimatch.supply.dto.BasisQuoteResponse;
+import org.springframework.context.ApplicationEvent;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基差报价重算完成：供应ID -> 该供应全部合约的最新参考现价，以及同步后的出厂价
+ */
+public class BasisPriceUpdatedEvent extends ApplicationEvent {
+    private final Map<Long, List<BasisQuoteResponse>> quotes;
+    private final Map<Long, BigDecimal> exFactoryPrices;
+
+    public BasisPriceUpdatedEvent(Object source, Map<Long, List<BasisQuoteResponse>> quotes, Map<Long, BigDecimal> exFactoryPrices) {
+        super(source);
+        this.quotes = quotes;
+        this.exFactoryPrices = exFactoryPrices;
+    }
+
+    public Map<Long, List<BasisQuoteResponse>> getQuotes() { return quotes; }
+    public Map<Long, BigDecimal> getExFactoryPrices() { return exFactoryPrices; }
+}
@@ -4,6 +4,7 @@ import com.agrimatch.supply.domain.BusSupplyBasis;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -34,6 +35,32 @@ public interface SupplyBasisMapper {
      */
     int deleteBySupplyId(@Param("supplyId") Long supplyId);
 
+    /**
+     * 在架基差报价类供应的报价明细，last_price/reference_price 为按当前期货价现算的值
+     * @param supplyIds 为空时查全部
+     */
+    List<BusSupplyBasis> selectPricingRows(@Param("supplyIds") Collection<Long> supplyIds);
+
+    /**
+     * 批量回写期货价格与参考现价（一条 UPDATE ... CASE）
+     */
+    int updateReferencePrices(@Param("list") List<BusSupplyBasis> list);
+
+    /**
+     * 基差报价类供应的出厂价同步为各合约参考现价的最低值；出厂价不变也刷新 update_time（非最低档报价变了卡片也要重发）
+     */
+    int updateFlatPrices(@Param("supplyIds") Collection<Long> supplyIds);
+
+    /**
+     * 某用户名下在架基差报价类供应的报价明细（批量调价前校验归属与合约）
+     */
+    List<BusSupplyBasis> selectOwnedQuotes(@Param("userId") Long userId, @Param("supplyIds") Collection<Long> supplyIds);
+
+    /**
+     * 一个供应的多条报价一次改完（基差/可售量，参考现价按已回写的期货价同步），同时刷新供应的 update_time
+     */
+    int updateQuotes(@Param("supplyId") Long supplyId, @Param("list") List<BusSupplyBasis> list);
+
     /**
      * 更新已售量
      */
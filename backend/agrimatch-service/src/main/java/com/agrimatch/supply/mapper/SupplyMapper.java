@@ -4,20 +4,37 @@ import com.agrimatch.supply.domain.BusSupply;
 import com.agrimatch.supply.dto.SupplyQuery;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface SupplyMapper {
     int insert(BusSupply s);
 
+    int batchInsert(@Param("list") List<BusSupply> list);
+
     BusSupply selectById(@Param("id") Long id);
 
     List<BusSupply> selectList(@Param("q") SupplyQuery q);
 
+    /**
+     * 与 selectList 条件相同，只取大厅卡片展示的列
+     */
+    List<BusSupply> selectCardList(@Param("q") SupplyQuery q);
+
+    List<BusSupply> selectDetails(@Param("ids") List<Long> ids);
+
+    /**
+     * 增量同步：按 (update_time, id) 升序取 since 之后、until 之前的变更行（含已删除）
+     */
+    List<BusSupply> selectChanges(@Param("q") SupplyQuery q,
+                                  @Param("since") LocalDateTime since,
+                                  @Param("sinceId") Long sinceId,
+                                  @Param("until") LocalDateTime until,
+                                  @Param("limit") int limit);
+
     int update(BusSupply s);
 
     int logicalDelete(@Param("id") Long id, @Param("userId") Long userId);
-
-    int expireDownShelf();
 }
 
 
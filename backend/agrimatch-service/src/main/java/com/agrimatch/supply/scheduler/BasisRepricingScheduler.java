@@ -0,0 +1,44 @@
+package com.agrimatch.supply.scheduler;
+
+import com.agrimatch.supply.service.BasisRepricingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 基差报价索引维护任务
+ * - 启动时全量装载在架基差报价
+ * - 定期重建（兜底其他节点发布/下架的供应）
+ */
+@Component
+public class BasisRepricingScheduler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BasisRepricingScheduler.class);
+
+    private final BasisRepricingService basisRepricingService;
+
+    public BasisRepricingScheduler(BasisRepricingService basisRepricingService) {
+        this.basisRepricingService = basisRepricingService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            basisRepricingService.rebuild();
+        } catch (Exception e) {
+            log.error("[Basis] 基差报价索引装载失败", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.basis.rebuild-interval-ms:600000}", initialDelay = 600 * 1000)
+    public void rebuild() {
+        try {
+            basisRepricingService.rebuild();
+        } catch (Exception e) {
+            log.error("[Basis] 基差报价索引重建失败", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.agrimatch.supply.service;
+
+import java.util.Collection;
+
+/**
+ * 基差报价随期货价格重算：
+ * - 内存索引 合约代码 -> 在架基差报价，期货价格变动时只重算受影响的报价
+ * - 参考现价（期货价 + 基差）批量回写 bus_supply_basis，供应出厂价同步为最低参考现价
+ * - 重算结果推送给正在查看这些供应的客户端，并刷新撮合候选
+ * - 登记/移出在事务内调用时推迟到提交之后
+ */
+public interface BasisRepricingService {
+
+    /**
+     * 全量重建索引
+     * @return 索引中的报价条数
+     */
+    int rebuild();
+
+    /**
+     * 供应发布/修改基差报价后登记到索引，并按当前期货价算一次参考现价
+     */
+    void refreshSupply(Long supplyId);
+
+    /**
+     * 批量登记（批量导入用），一次查询、一次回写
+     */
+    void refreshSupplies(Collection<Long> supplyIds);
+
+    /**
+     * 供应下架/删除后移出索引
+     */
+    void removeSupply(Long supplyId);
+}
@@ -0,0 +1,17 @@
+package com.agrimatch.supply.service;
+
+import com.agrimatch.supply.dto.SupplyImportReport;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 供应批量导入（CSV / XLSX），逐行流式读取，每 500 行批量写库：
+ * - 第一行为表头，列名支持中文或字段名：品类*、产地、数量、报价类型（现货/基差）、出厂价、
+ *   基差报价（合约:基差[:可售量]，多个用 ; 分隔）、发货地址、交付方式、付款方式、发票类型、包装、
+ *   储存方式、有效期(分钟)、板块、供应编号、标签（标签Key或名称[=值]，多个用 ; 分隔）、备注
+ * - 其余列按产品参数处理（列名为参数名，可带单位括号），按品类的参数目录校验必填项和下拉选项
+ * - 单行校验失败不影响其他行，结果中逐行返回
+ */
+public interface SupplyImportService {
+
+    SupplyImportReport importFile(Long userId, MultipartFile file);
+}
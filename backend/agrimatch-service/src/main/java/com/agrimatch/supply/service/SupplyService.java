@@ -1,6 +1,11 @@
 package com.agrimatch.supply.service;
 
+import com.agrimatch.common.api.ChangeFeed;
+import com.agrimatch.common.api.CursorResult;
+import com.agrimatch.supply.dto.BasisBatchUpdateRequest;
+import com.agrimatch.supply.dto.SupplyCardResponse;
 import com.agrimatch.supply.dto.SupplyCreateRequest;
+import com.agrimatch.supply.dto.SupplyDetailResponse;
 import com.agrimatch.supply.dto.SupplyQuery;
 import com.agrimatch.supply.dto.SupplyResponse;
 import com.agrimatch.supply.dto.SupplyUpdateRequest;
@@ -17,8 +22,34 @@ public interface SupplyService {
      */
     List<SupplyResponse> list(Long viewerUserId, SupplyQuery query);
 
+    /**
+     * 大厅游标分页：支持全部排序方式，距离/到厂价在 SQL 中计算并排序
+     */
+    CursorResult<SupplyResponse> page(Long viewerUserId, SupplyQuery query);
+
+    /**
+     * 大厅卡片分页：筛选/排序/游标与 page 一致，只返回卡片字段
+     */
+    CursorResult<SupplyCardResponse> cardPage(Long viewerUserId, SupplyQuery query);
+
+    /**
+     * 大厅增量同步：version 之后新增/修改的卡片和已删除/下架的 id；version 为空时只返回当前版本号
+     */
+    ChangeFeed<SupplyCardResponse> changes(Long viewerUserId, String version, String domain);
+
+    /**
+     * 批量加载卡片不返回的字段（参数/标签/价格规则/备注等），最多 100 条
+     */
+    List<SupplyDetailResponse> details(List<Long> ids);
+
     void update(Long userId, Long id, SupplyUpdateRequest req);
 
+    /**
+     * 批量修改基差报价：先整体校验，再按约 200 条报价一个事务分块提交；每块提交后重算参考现价并推送
+     * @return 修改的报价条数
+     */
+    int updateBasisQuotes(Long userId, BasisBatchUpdateRequest req);
+
     void delete(Long userId, Long id);
 }
 
@@ -0,0 +1,234 @@
+package com.agrimatch.supply.service.impl;
+
+import com.agrimatch.common.tx.AfterCommit;
+import com.agrimatch.futures.event.FuturesPriceChangedEvent;
+import com.agrimatch.match.service.MatchService;
+import com.agrimatch.supply.domain.BusSupplyBasis;
+import com.agrimatch.supply.dto.BasisQuoteResponse;
+import com.agrimatch.supply.event.BasisPriceUpdatedEvent;
+import com.agrimatch.supply.mapper.SupplyBasisMapper;
+import com.agrimatch.supply.service.BasisRepricingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class BasisRepricingServiceImpl implements BasisRepricingService {
+    private static final Logger log = LoggerFactory.getLogger(BasisRepricingServiceImpl.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final SupplyBasisMapper supplyBasisMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MatchService matchService;
+
+    /** 合约代码 -> 报价 */
+    private Map<String, List<Quote>> byContract = new HashMap<>();
+    /** 供应ID -> 报价 */
+    private Map<Long, List<Quote>> bySupply = new HashMap<>();
+
+    public BasisRepricingServiceImpl(SupplyBasisMapper supplyBasisMapper, ApplicationEventPublisher eventPublisher,
+                                     MatchService matchService) {
+        this.supplyBasisMapper = supplyBasisMapper;
+        this.eventPublisher = eventPublisher;
+        this.matchService = matchService;
+    }
+
+    @Override
+    public int rebuild() {
+        List<BusSupplyBasis> rows = supplyBasisMapper.selectPricingRows(null);
+        Map<String, List<Quote>> contracts = new HashMap<>();
+        Map<Long, List<Quote>> supplies = new HashMap<>();
+        for (BusSupplyBasis b : rows) {
+            Quote q = new Quote(b);
+            contracts.computeIfAbsent(q.contractCode, k -> new ArrayList<>()).add(q);
+            supplies.computeIfAbsent(q.supplyId, k -> new ArrayList<>()).add(q);
+        }
+        synchronized (this) {
+            byContract = contracts;
+            bySupply = supplies;
+        }
+        log.info("[Basis] 基差报价索引重建完成：{} 条报价，{} 个合约，{} 个供应", rows.size(), contracts.size(), supplies.size());
+        return rows.size();
+    }
+
+    @Override
+    public void refreshSupply(Long supplyId) {
+        if (supplyId == null) return;
+        refreshSupplies(List.of(supplyId));
+    }
+
+    @Override
+    public void refreshSupplies(Collection<Long> supplyIds) {
+        if (supplyIds == null || supplyIds.isEmpty()) return;
+        List<Long> ids = new ArrayList<>(supplyIds);
+        AfterCommit.run(() -> doRefreshSupplies(ids));
+    }
+
+    @Override
+    public void removeSupply(Long supplyId) {
+        if (supplyId == null) return;
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                unindex(supplyId);
+            }
+        });
+    }
+
+    /**
+     * 期货价格变动：只重算引用了这些合约的报价
+     */
+    @EventListener
+    public void onFuturesPriceChanged(FuturesPriceChangedEvent event) {
+        List<Quote> changed = new ArrayList<>();
+        Set<Long> supplyIds = new LinkedHashSet<>();
+        synchronized (this) {
+            for (Map.Entry<String, BigDecimal> e : event.getPrices().entrySet()) {
+                List<Quote> quotes = byContract.get(e.getKey());
+                if (quotes == null || e.getValue() == null) continue;
+                for (Quote q : quotes) {
+                    if (q.lastPrice != null && q.lastPrice.compareTo(e.getValue()) == 0) continue;
+                    q.lastPrice = e.getValue();
+                    q.referencePrice = e.getValue().add(q.basisPrice);
+                    changed.add(q);
+                    supplyIds.add(q.supplyId);
+                }
+            }
+        }
+        if (changed.isEmpty()) return;
+        persist(changed, supplyIds);
+        log.info("[Basis] 期货价格变动 {} 个合约，重算基差报价 {} 条，涉及供应 {} 个",
+                event.getPrices().size(), changed.size(), supplyIds.size());
+    }
+
+    private void doRefreshSupplies(List<Long> supplyIds) {
+        List<BusSupplyBasis> rows = supplyBasisMapper.selectPricingRows(supplyIds);
+        Map<Long, List<Quote>> loaded = new HashMap<>();
+        List<Quote> quotes = new ArrayList<>(rows.size());
+        for (BusSupplyBasis b : rows) {
+            Quote q = new Quote(b);
+            loaded.computeIfAbsent(q.supplyId, k -> new ArrayList<>()).add(q);
+            quotes.add(q);
+        }
+        synchronized (this) {
+            for (Long supplyId : supplyIds) {
+                unindex(supplyId);
+            }
+            for (Map.Entry<Long, List<Quote>> e : loaded.entrySet()) {
+                bySupply.put(e.getKey(), e.getValue());
+                for (Quote q : e.getValue()) {
+                    byContract.computeIfAbsent(q.contractCode, k -> new ArrayList<>()).add(q);
+                }
+            }
+        }
+        if (!quotes.isEmpty()) {
+            persist(quotes, new LinkedHashSet<>(loaded.keySet()));
+        }
+    }
+
+    /**
+     * 批量回写参考现价与供应出厂价（同时刷新 update_time，增量同步据此下发新报价），然后刷新撮合候选并通知推送
+     */
+    private void persist(List<Quote> quotes, Set<Long> supplyIds) {
+        List<BusSupplyBasis> rows = new ArrayList<>(quotes.size());
+        for (Quote q : quotes) {
+            if (q.referencePrice != null) rows.add(q.toRow());
+        }
+        for (int i = 0; i < rows.size(); i += BATCH_SIZE) {
+            supplyBasisMapper.updateReferencePrices(rows.subList(i, Math.min(i + BATCH_SIZE, rows.size())));
+        }
+        List<Long> ids = new ArrayList<>(supplyIds);
+        for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+            supplyBasisMapper.updateFlatPrices(ids.subList(i, Math.min(i + BATCH_SIZE, ids.size())));
+        }
+
+        // 出厂价变了，撮合分数随之变化
+        matchService.refreshSupplies(ids);
+
+        Map<Long, List<BasisQuoteResponse>> pushed = new HashMap<>();
+        Map<Long, BigDecimal> flat = new HashMap<>();
+        synchronized (this) {
+            for (Long supplyId : supplyIds) {
+                List<Quote> all = bySupply.get(supplyId);
+                if (all == null) continue;
+                List<BasisQuoteResponse> out = new ArrayList<>(all.size());
+                BigDecimal min = null;
+                for (Quote q : all) {
+                    out.add(q.toResponse());
+                    if (q.referencePrice != null && (min == null || q.referencePrice.compareTo(min) < 0)) {
+                        min = q.referencePrice;
+                    }
+                }
+                pushed.put(supplyId, out);
+                if (min != null) flat.put(supplyId, min);
+            }
+        }
+        if (!pushed.isEmpty()) {
+            eventPublisher.publishEvent(new BasisPriceUpdatedEvent(this, pushed, flat));
+        }
+    }
+
+    private void unindex(Long supplyId) {
+        List<Quote> old = bySupply.remove(supplyId);
+        if (old == null) return;
+        for (Quote q : old) {
+            List<Quote> list = byContract.get(q.contractCode);
+            if (list == null) continue;
+            list.remove(q);
+            if (list.isEmpty()) byContract.remove(q.contractCode);
+        }
+    }
+
+    /**
+     * 索引中的一条基差报价（价格字段随期货变动更新）
+     */
+    private static final class Quote {
+        final Long id;
+        final Long supplyId;
+        final String contractCode;
+        final String contractName;
+        final BigDecimal basisPrice;
+        BigDecimal lastPrice;
+        BigDecimal referencePrice;
+
+        Quote(BusSupplyBasis b) {
+            this.id = b.getId();
+            this.supplyId = b.getSupplyId();
+            this.contractCode = b.getContractCode();
+            this.contractName = b.getContractName();
+            this.basisPrice = b.getBasisPrice() != null ? b.getBasisPrice() : BigDecimal.ZERO;
+            this.lastPrice = b.getLastPrice();
+            this.referencePrice = b.getLastPrice() != null ? b.getLastPrice().add(basisPrice) : null;
+        }
+
+        BusSupplyBasis toRow() {
+            BusSupplyBasis b = new BusSupplyBasis();
+            b.setId(id);
+            b.setLastPrice(lastPrice);
+            b.setReferencePrice(referencePrice);
+            return b;
+        }
+
+        BasisQuoteResponse toResponse() {
+            BasisQuoteResponse r = new BasisQuoteResponse();
+            r.setId(id);
+            r.setContractCode(contractCode);
+            r.setContractName(contractName);
+            r.setBasisPrice(basisPrice);
+            r.setLastPrice(lastPrice);
+            r.setReferencePrice(referencePrice);
+            return r;
+        }
+    }
+}
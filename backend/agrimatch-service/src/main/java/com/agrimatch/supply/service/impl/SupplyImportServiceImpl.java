@@ -0,0 +1,603 @@
+package com.agrimatch.supply.service.impl;
+
+import com.agrimatch.common.api.ResultCode;
+import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.company.domain.BusCompany;
+import com.agrimatch.company.mapper.CompanyMapper;
+import com.agrimatch.dedup.domain.DedupSource;
+import com.agrimatch.dedup.service.DedupService;
+import com.agrimatch.expiry.service.ListingExpiryService;
+import com.agrimatch.futures.mapper.FuturesContractMapper;
+import com.agrimatch.match.service.MatchService;
+import com.agrimatch.product.mapper.ProductMapper;
+import com.agrimatch.product_param.dto.ProductParamResponse;
+import com.agrimatch.product_param.service.ParamIndexService;
+import com.agrimatch.product_param.service.ProductParamService;
+import com.agrimatch.saved_search.service.SavedSearchService;
+import com.agrimatch.search.service.SearchIndexService;
+import com.agrimatch.similar.service.SimilarListingService;
+import com.agrimatch.supply.domain.BusSupply;
+import com.agrimatch.supply.domain.BusSupplyBasis;
+import com.agrimatch.supply.dto.SupplyImportReport;
+import com.agrimatch.supply.dto.SupplyImportRowResult;
+import com.agrimatch.supply.mapper.SupplyBasisMapper;
+import com.agrimatch.supply.mapper.SupplyMapper;
+import com.agrimatch.supply.service.BasisRepricingService;
+import com.agrimatch.supply.service.SupplyImportService;
+import com.agrimatch.tag.domain.ItemTagValue;
+import com.agrimatch.tag.domain.NhtTag;
+import com.agrimatch.tag.service.TagService;
+import com.agrimatch.user.domain.SysUser;
+import com.agrimatch.user.mapper.UserMapper;
+import com.agrimatch.util.NoUtil;
+import com.agrimatch.util.RowReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class SupplyImportServiceImpl implements SupplyImportService {
+    private static final Logger log = LoggerFactory.getLogger(SupplyImportServiceImpl.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_EXPIRE_MINUTES = 7 * 24 * 60;
+    private static final String LIST_SEPARATORS = "[;；]";
+    private static final String PAIR_SEPARATORS = "[:：]";
+
+    /** 表头（小写）-> 字段 */
+    private static final Map<String, String> HEADERS = new HashMap<>();
+
+    static {
+        alias("categoryName", "品类", "品名", "产品");
+        alias("origin", "产地");
+        alias("quantity", "数量");
+        alias("priceType", "报价类型");
+        alias("exFactoryPrice", "出厂价", "价格");
+        alias("basisQuotes", "基差报价");
+        alias("shipAddress", "发货地址", "发货地");
+        alias("deliveryMode", "交付方式", "提货方式");
+        alias("paymentMethod", "付款方式", "结算方式");
+        alias("invoiceType", "发票类型", "发票");
+        alias("packaging", "包装", "包装方式");
+        alias("storageMethod", "储存方式", "存储方式");
+        alias("expireMinutes", "有效期", "有效期(分钟)");
+        alias("domain", "板块");
+        alias("supplyNo", "供应编号", "编号");
+        alias("tags", "标签");
+        alias("remark", "备注");
+    }
+
+    private final SupplyMapper supplyMapper;
+    private final SupplyBasisMapper supplyBasisMapper;
+    private final UserMapper userMapper;
+    private final CompanyMapper companyMapper;
+    private final ProductMapper productMapper;
+    private final ProductParamService productParamService;
+    private final FuturesContractMapper futuresContractMapper;
+    private final TagService tagService;
+    private final ListingExpiryService listingExpiryService;
+    private final BasisRepricingService basisRepricingService;
+    private final MatchService matchService;
+    private final SearchIndexService searchIndexService;
+    private final SavedSearchService savedSearchService;
+    private final ParamIndexService paramIndexService;
+    private final DedupService dedupService;
+    private final SimilarListingService similarListingService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${agrimatch.supply-import.max-rows:20000}")
+    private int maxRows;
+
+    public SupplyImportServiceImpl(SupplyMapper supplyMapper, SupplyBasisMapper supplyBasisMapper,
+                                   UserMapper userMapper, CompanyMapper companyMapper,
+                                   ProductMapper productMapper, ProductParamService productParamService,
+                                   FuturesContractMapper futuresContractMapper, TagService tagService,
+                                   ListingExpiryService listingExpiryService, BasisRepricingService basisRepricingService,
+                                   MatchService matchService, SearchIndexService searchIndexService,
+                                   SavedSearchService savedSearchService, ParamIndexService paramIndexService,
+                                   DedupService dedupService, SimilarListingService similarListingService,
+                                   ObjectMapper objectMapper, TransactionTemplate transactionTemplate) {
+        this.supplyMapper = supplyMapper;
+        this.supplyBasisMapper = supplyBasisMapper;
+        this.userMapper = userMapper;
+        this.companyMapper = companyMapper;
+        this.productMapper = productMapper;
+        this.productParamService = productParamService;
+        this.futuresContractMapper = futuresContractMapper;
+        this.tagService = tagService;
+        this.listingExpiryService = listingExpiryService;
+        this.basisRepricingService = basisRepricingService;
+        this.matchService = matchService;
+        this.searchIndexService = searchIndexService;
+        this.savedSearchService = savedSearchService;
+        this.paramIndexService = paramIndexService;
+        this.dedupService = dedupService;
+        this.similarListingService = similarListingService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public SupplyImportReport importFile(Long userId, MultipartFile file) {
+        if (userId == null) throw new ApiException(401, "未登录");
+        SysUser u = userMapper.selectById(userId);
+        if (u == null) throw new ApiException(401, "未登录");
+        if (u.getCompanyId() == null) throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "请先完善公司档案（绑定公司）");
+        if (file == null || file.isEmpty()) throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "请选择要导入的文件");
+
+        BusCompany c = companyMapper.selectById(u.getCompanyId());
+        Context ctx = new Context(userId, u.getCompanyId(),
+                c != null && StringUtils.hasText(c.getAddress()) ? c.getAddress() : null);
+
+        // 上传文件落到临时文件后逐行读取，不整体读进内存
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile("supply-import-", ".tmp");
+            file.transferTo(tmp);
+            try (RowReader reader = RowReader.open(tmp, file.getOriginalFilename())) {
+                return importRows(reader, ctx);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), e.getMessage());
+        } catch (IOException e) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "文件读取失败：" + e.getMessage());
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // 临时目录由系统清理
+                }
+            }
+        }
+    }
+
+    private SupplyImportReport importRows(RowReader reader, Context ctx) throws IOException {
+        long start = System.currentTimeMillis();
+        List<String> header;
+        do {
+            header = reader.next();
+        } while (header != null && isBlank(header));
+        if (header == null) throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "文件为空");
+        Columns cols = new Columns(header);
+        if (!cols.fields.containsKey("categoryName")) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "缺少“品类”列");
+        }
+
+        SupplyImportReport report = new SupplyImportReport();
+        List<Pending> batch = new ArrayList<>(BATCH_SIZE);
+        int count = 0;
+        List<String> row;
+        while ((row = reader.next()) != null) {
+            if (isBlank(row)) continue;
+            if (++count > maxRows) {
+                report.getRows().add(fail(reader.rowNumber(), "超过单次导入上限 " + maxRows + " 行，此行及之后未导入"));
+                break;
+            }
+            try {
+                batch.add(parseRow(reader.rowNumber(), row, cols, ctx));
+            } catch (ApiException e) {
+                report.getRows().add(fail(reader.rowNumber(), e.getMessage()));
+            }
+            if (batch.size() >= BATCH_SIZE) {
+                flush(batch, report);
+                batch.clear();
+            }
+        }
+        flush(batch, report);
+
+        report.getRows().sort(Comparator.comparingInt(SupplyImportRowResult::getRowNumber));
+        int ok = (int) report.getRows().stream().filter(SupplyImportRowResult::isSuccess).count();
+        report.setTotal(report.getRows().size());
+        report.setSucceeded(ok);
+        report.setFailed(report.getRows().size() - ok);
+        log.info("[Import] 用户 {} 批量导入供应：共 {} 行，成功 {}，失败 {}，耗时 {} ms",
+                ctx.userId, report.getTotal(), ok, report.getFailed(), System.currentTimeMillis() - start);
+        return report;
+    }
+
+    /**
+     * 一批行：供应多行 INSERT 回填 id，再批量写基差明细和标签索引；
+     * 提交后刷新到期时间轮/基差报价/撮合索引（与单条发布顺序一致）。
+     * 整批写库失败时逐行重试，只有真正写不进去的行报失败
+     */
+    private void flush(List<Pending> batch, SupplyImportReport report) {
+        if (batch.isEmpty()) return;
+        if (!write(batch)) {
+            if (batch.size() > 1) {
+                log.warn("[Import] 第 {}-{} 行整批写库失败，改为逐行重试", batch.get(0).rowNumber, batch.get(batch.size() - 1).rowNumber);
+                for (Pending p : batch) {
+                    flush(List.of(p), report);
+                }
+            } else {
+                report.getRows().add(fail(batch.get(0).rowNumber, "保存失败，请检查此行数据后重试"));
+            }
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(batch.size());
+        List<Long> basisIds = new ArrayList<>();
+        for (Pending p : batch) {
+            ids.add(p.supply.getId());
+            if (!p.basis.isEmpty()) basisIds.add(p.supply.getId());
+            SupplyImportRowResult r = new SupplyImportRowResult();
+            r.setRowNumber(p.rowNumber);
+            r.setSuccess(true);
+            r.setSupplyId(p.supply.getId());
+            r.setSupplyNo(p.supply.getSupplyNo());
+            report.getRows().add(r);
+        }
+        try {
+            for (Pending p : batch) {
+                listingExpiryService.schedule(ListingExpiryService.SUPPLY, p.supply.getId(), p.supply.getExpireTime());
+            }
+            basisRepricingService.refreshSupplies(basisIds);
+            matchService.refreshSupplies(ids);
+            searchIndexService.refresh(SearchIndexService.SUPPLY, ids);
+            for (Long id : ids) {
+                savedSearchService.percolate(SavedSearchService.SUPPLY, id);
+            }
+            dedupService.refresh(DedupService.SUPPLY, ids);
+            similarListingService.refresh(ids);
+        } catch (RuntimeException e) {
+            // 数据已入库，内存索引由各自的定期重建/对账补齐
+            log.warn("[Import] 刷新内存索引失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 一个事务写入这些行；失败时整体回滚，并清掉已回填的供应 id 以便重试
+     */
+    private boolean write(List<Pending> batch) {
+        List<BusSupply> supplies = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            supplies.add(p.supply);
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                supplyMapper.batchInsert(supplies);
+                List<Long> ids = new ArrayList<>(batch.size());
+                List<BusSupplyBasis> basis = new ArrayList<>();
+                List<ItemTagValue> tags = new ArrayList<>();
+                Map<Long, String> params = new HashMap<>();
+                for (Pending p : batch) {
+                    Long id = p.supply.getId();
+                    if (id == null) throw new IllegalStateException("未回填供应ID");
+                    ids.add(id);
+                    params.put(id, p.supply.getParamsJson());
+                    for (BusSupplyBasis b : p.basis) {
+                        b.setSupplyId(id);
+                        basis.add(b);
+                    }
+                    for (ItemTagValue t : p.tags) {
+                        t.setEntityId(id);
+                        tags.add(t);
+                    }
+                }
+                for (int i = 0; i < basis.size(); i += BATCH_SIZE) {
+                    supplyBasisMapper.batchInsert(basis.subList(i, Math.min(i + BATCH_SIZE, basis.size())));
+                }
+                tagService.replaceEntityTags(MatchService.SUPPLY, ids, tags);
+                paramIndexService.sync(ParamIndexService.SUPPLY, params);
+            });
+        } catch (RuntimeException e) {
+            log.error("[Import] 第 {}-{} 行写库失败", batch.get(0).rowNumber, batch.get(batch.size() - 1).rowNumber, e);
+            for (Pending p : batch) {
+                p.supply.setId(null);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private Pending parseRow(int rowNumber, List<String> row, Columns cols, Context ctx) {
+        String category = cols.get(row, "categoryName");
+        if (!StringUtils.hasText(category)) throw invalid("品类不能为空");
+
+        BusSupply s = new BusSupply();
+        s.setCompanyId(ctx.companyId);
+        s.setUserId(ctx.userId);
+        s.setCategoryName(category);
+        s.setDomain(StringUtils.hasText(cols.get(row, "domain")) ? cols.get(row, "domain") : "general");
+        String no = cols.get(row, "supplyNo");
+        s.setSupplyNo(StringUtils.hasText(no) ? no : NoUtil.gen("GY") + "-" + rowNumber);
+        s.setOrigin(emptyToNull(cols.get(row, "origin")));
+        s.setQuantity(positive(cols.get(row, "quantity"), "数量"));
+
+        List<BusSupplyBasis> basis = parseBasis(cols.get(row, "basisQuotes"), s.getQuantity(), ctx);
+        int priceType = parsePriceType(cols.get(row, "priceType"), !basis.isEmpty());
+        BigDecimal price = positive(cols.get(row, "exFactoryPrice"), "出厂价");
+        if (priceType == 1 && basis.isEmpty()) throw invalid("基差报价需填写“基差报价”列");
+        if (priceType == 0) {
+            if (price == null) throw invalid("现货报价需填写出厂价");
+            basis = new ArrayList<>();
+        }
+        s.setPriceType(priceType);
+        s.setExFactoryPrice(price != null ? price : BigDecimal.ZERO);
+
+        String addr = emptyToNull(cols.get(row, "shipAddress"));
+        s.setShipAddress(addr != null ? addr : ctx.defaultAddress);
+        s.setDeliveryMode(emptyToNull(cols.get(row, "deliveryMode")));
+        s.setPaymentMethod(emptyToNull(cols.get(row, "paymentMethod")));
+        s.setInvoiceType(emptyToNull(cols.get(row, "invoiceType")));
+        s.setPackaging(emptyToNull(cols.get(row, "packaging")));
+        s.setStorageMethod(emptyToNull(cols.get(row, "storageMethod")));
+        s.setExpireMinutes(parseExpireMinutes(cols.get(row, "expireMinutes")));
+        if (s.getExpireMinutes() != null) {
+            s.setExpireTime(LocalDateTime.now().plusMinutes(s.getExpireMinutes()));
+        }
+        s.setParamsJson(parseParams(row, cols, category, ctx));
+        s.setTagsJson(parseTags(cols.get(row, "tags"), ctx));
+        s.setRemark(emptyToNull(cols.get(row, "remark")));
+        s.setStatus(0);
+
+        // block 模式下与已在架的挂牌近似重复的行不导入
+        DedupSource d = new DedupSource();
+        d.setCompanyId(s.getCompanyId());
+        d.setCategoryName(s.getCategoryName());
+        d.setOrigin(s.getOrigin());
+        d.setPrice(s.getExFactoryPrice());
+        d.setParamsJson(s.getParamsJson());
+        d.setRemark(s.getRemark());
+        dedupService.checkBeforeCreate(DedupService.SUPPLY, d);
+
+        Pending p = new Pending();
+        p.rowNumber = rowNumber;
+        p.supply = s;
+        p.basis = basis;
+        p.tags = tagService.parseEntityTags(MatchService.SUPPLY, null, s.getDomain(), s.getTagsJson());
+        return p;
+    }
+
+    /**
+     * 合约:基差[:可售量]，多个用 ; 分隔；未填可售量时取供应数量
+     */
+    private List<BusSupplyBasis> parseBasis(String raw, BigDecimal quantity, Context ctx) {
+        List<BusSupplyBasis> out = new ArrayList<>();
+        if (!StringUtils.hasText(raw)) return out;
+        for (String item : raw.split(LIST_SEPARATORS)) {
+            if (!StringUtils.hasText(item)) continue;
+            String[] parts = item.trim().split(PAIR_SEPARATORS);
+            String code = parts[0].trim();
+            if (!StringUtils.hasText(code) || parts.length < 2) throw invalid("基差报价格式应为 合约:基差[:可售量]");
+            if (!ctx.contracts.computeIfAbsent(code, k -> futuresContractMapper.selectByContractCode(k) != null)) {
+                throw invalid("期货合约“" + code + "”不存在");
+            }
+            BigDecimal basisPrice = decimal(parts[1], "基差");
+            if (basisPrice == null) throw invalid("合约“" + code + "”未填写基差");
+            BigDecimal qty = parts.length > 2 ? positive(parts[2], "可售量") : quantity;
+            if (qty == null) throw invalid("合约“" + code + "”需填写可售量或供应数量");
+            BusSupplyBasis b = new BusSupplyBasis();
+            b.setContractCode(code);
+            b.setBasisPrice(basisPrice);
+            b.setAvailableQty(qty);
+            out.add(b);
+        }
+        return out;
+    }
+
+    /**
+     * 参数列按品类的参数目录校验：目录外的参数、缺少必填项、下拉值不在选项内都判为失败；
+     * 没有参数目录的品类（自定义产品）原样保存
+     */
+    private String parseParams(List<String> row, Columns cols, String category, Context ctx) {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> e : cols.params.entrySet()) {
+            String v = cell(row, e.getValue());
+            if (StringUtils.hasText(v)) params.put(e.getKey(), v);
+        }
+        Map<String, ProductParamResponse> catalog = ctx.catalogs.computeIfAbsent(category, this::loadCatalog);
+        if (!catalog.isEmpty()) {
+            for (Map.Entry<String, String> e : params.entrySet()) {
+                ProductParamResponse p = catalog.get(e.getKey());
+                if (p == null) throw invalid("参数“" + e.getKey() + "”不在品类“" + category + "”的参数目录中");
+                if (p.getParamType() != null && p.getParamType() == 1 && p.getOptions() != null
+                        && !p.getOptions().isEmpty() && !p.getOptions().contains(e.getValue())) {
+                    throw invalid("参数“" + e.getKey() + "”的值“" + e.getValue() + "”不在可选项中");
+                }
+            }
+            for (ProductParamResponse p : catalog.values()) {
+                if (p.isRequired() && !params.containsKey(p.getParamName())) {
+                    throw invalid("缺少必填参数“" + p.getParamName() + "”");
+                }
+            }
+        }
+        if (params.isEmpty()) return null;
+        try {
+            return objectMapper.writeValueAsString(params);
+        } catch (JsonProcessingException e) {
+            throw invalid("参数格式不正确");
+        }
+    }
+
+    private Map<String, ProductParamResponse> loadCatalog(String category) {
+        Map<String, ProductParamResponse> out = new LinkedHashMap<>();
+        Long productId = productMapper.selectIdByName(category);
+        if (productId == null) return out;
+        for (ProductParamResponse p : productParamService.listByProductId(productId)) {
+            out.put(p.getParamName(), p);
+        }
+        return out;
+    }
+
+    /**
+     * 标签Key或名称[=值]，多个用 ; 分隔，转成与前端 TagPicker 相同的 tags_json
+     */
+    private String parseTags(String raw, Context ctx) {
+        if (!StringUtils.hasText(raw)) return null;
+        if (ctx.tags == null) {
+            ctx.tags = new HashMap<>();
+            for (NhtTag t : tagService.getTagList(null, null, null)) {
+                ctx.tags.putIfAbsent(t.getTagKey(), t);
+                ctx.tags.putIfAbsent(t.getTagName(), t);
+            }
+        }
+        ArrayNode arr = objectMapper.createArrayNode();
+        for (String item : raw.split(LIST_SEPARATORS)) {
+            if (!StringUtils.hasText(item)) continue;
+            int eq = item.indexOf('=');
+            String name = (eq >= 0 ? item.substring(0, eq) : item).trim();
+            String value = eq >= 0 ? item.substring(eq + 1).trim() : "";
+            NhtTag t = ctx.tags.get(name);
+            if (t == null) throw invalid("未知标签“" + name + "”");
+            if (t.getTagType() != null && t.getTagType() == 1 && StringUtils.hasText(value)) {
+                decimal(value, "标签“" + name + "”的值");
+            }
+            ObjectNode n = arr.addObject();
+            n.put("tagId", t.getId());
+            n.put("tagName", t.getTagName());
+            n.put("tagKey", t.getTagKey());
+            n.put("tagType", t.getTagType());
+            n.put("unit", t.getUnit());
+            n.put("value", value);
+        }
+        return arr.isEmpty() ? null : arr.toString();
+    }
+
+    private static int parsePriceType(String raw, boolean hasBasis) {
+        if (!StringUtils.hasText(raw)) return hasBasis ? 1 : 0;
+        switch (raw.trim().toLowerCase()) {
+            case "0":
+            case "现货":
+            case "一口价":
+            case "spot":
+                return 0;
+            case "1":
+            case "基差":
+            case "basis":
+                return 1;
+            default:
+                throw invalid("报价类型应为“现货”或“基差”");
+        }
+    }
+
+    private static Integer parseExpireMinutes(String raw) {
+        if (!StringUtils.hasText(raw)) return null;
+        BigDecimal v = decimal(raw, "有效期");
+        if (v == null || v.signum() <= 0) return null;
+        // 与单条发布一致：最多 7 天
+        return v.compareTo(BigDecimal.valueOf(MAX_EXPIRE_MINUTES)) > 0 ? MAX_EXPIRE_MINUTES : v.intValue();
+    }
+
+    private static BigDecimal positive(String raw, String label) {
+        BigDecimal v = decimal(raw, label);
+        if (v != null && v.signum() <= 0) throw invalid(label + "必须大于 0");
+        return v;
+    }
+
+    private static BigDecimal decimal(String raw, String label) {
+        if (!StringUtils.hasText(raw)) return null;
+        try {
+            return new BigDecimal(raw.replace(",", "").replace("，", "").trim());
+        } catch (NumberFormatException e) {
+            throw invalid(label + "格式不正确：" + raw);
+        }
+    }
+
+    private static boolean isBlank(List<String> row) {
+        for (String v : row) {
+            if (StringUtils.hasText(v)) return false;
+        }
+        return true;
+    }
+
+    private static String cell(List<String> row, int index) {
+        return index < row.size() ? row.get(index) : "";
+    }
+
+    private static String emptyToNull(String s) {
+        return StringUtils.hasText(s) ? s.trim() : null;
+    }
+
+    private static ApiException invalid(String message) {
+        return new ApiException(ResultCode.PARAM_ERROR.getCode(), message);
+    }
+
+    private static SupplyImportRowResult fail(int rowNumber, String message) {
+        SupplyImportRowResult r = new SupplyImportRowResult();
+        r.setRowNumber(rowNumber);
+        r.setSuccess(false);
+        r.setMessage(message);
+        return r;
+    }
+
+    private static void alias(String field, String... names) {
+        HEADERS.put(field.toLowerCase(), field);
+        for (String n : names) {
+            HEADERS.put(n.toLowerCase(), field);
+        }
+    }
+
+    /**
+     * 表头解析：已知列按别名映射字段，其余列按参数名（去掉单位括号）处理
+     */
+    private static final class Columns {
+        final Map<String, Integer> fields = new HashMap<>();
+        final Map<String, Integer> params = new LinkedHashMap<>();
+
+        Columns(List<String> header) {
+            for (int i = 0; i < header.size(); i++) {
+                String h = header.get(i).replace('（', '(').replace('）', ')').replace("*", "").trim();
+                if (h.isEmpty()) continue;
+                String base = h.replaceAll("\\(.*\\)$", "").trim();
+                String field = HEADERS.containsKey(h.toLowerCase()) ? HEADERS.get(h.toLowerCase()) : HEADERS.get(base.toLowerCase());
+                if (field != null) {
+                    fields.putIfAbsent(field, i);
+                } else if (!base.isEmpty()) {
+                    params.putIfAbsent(base, i);
+                }
+            }
+        }
+
+        String get(List<String> row, String field) {
+            Integer idx = fields.get(field);
+            return idx != null ? cell(row, idx) : "";
+        }
+    }
+
+    /**
+     * 单次导入内的缓存：参数目录、合约是否存在、标签字典
+     */
+    private static final class Context {
+        final Long userId;
+        final Long companyId;
+        final String defaultAddress;
+        final Map<String, Map<String, ProductParamResponse>> catalogs = new HashMap<>();
+        final Map<String, Boolean> contracts = new HashMap<>();
+        Map<String, NhtTag> tags;
+
+        Context(Long userId, Long companyId, String defaultAddress) {
+            this.userId = userId;
+            this.companyId = companyId;
+            this.defaultAddress = defaultAddress;
+        }
+    }
+
+    private static final class Pending {
+        int rowNumber;
+        BusSupply supply;
+        List<BusSupplyBasis> basis;
+        List<ItemTagValue> tags;
+    }
+}
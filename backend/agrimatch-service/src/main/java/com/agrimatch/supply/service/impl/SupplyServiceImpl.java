@@ -1,30 +1,45 @@
 package com.agrimatch.supply.service.impl;
 
+import com.agrimatch.common.api.ChangeFeed;
+import com.agrimatch.common.api.CursorResult;
 import com.agrimatch.common.api.ResultCode;
 import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.common.sync.ChangeFeedClock;
 import com.agrimatch.company.domain.BusCompany;
 import com.agrimatch.company.mapper.CompanyMapper;
-import com.agrimatch.deal.mapper.DealMapper;
+import com.agrimatch.deal.service.QuantityLedgerService;
+import com.agrimatch.dedup.domain.DedupSource;
+import com.agrimatch.dedup.service.DedupService;
+import com.agrimatch.expiry.service.ListingExpiryService;
+import com.agrimatch.geo.service.GeoIndexService;
+import com.agrimatch.match.service.MatchService;
+import com.agrimatch.product_param.service.ParamIndexService;
+import com.agrimatch.saved_search.service.SavedSearchService;
+import com.agrimatch.search.service.SearchIndexService;
+import com.agrimatch.similar.service.SimilarListingService;
 import com.agrimatch.supply.domain.BusSupply;
 import com.agrimatch.supply.domain.BusSupplyBasis;
 import com.agrimatch.supply.dto.*;
 import com.agrimatch.supply.mapper.SupplyBasisMapper;
 import com.agrimatch.supply.mapper.SupplyMapper;
+import com.agrimatch.supply.service.BasisRepricingService;
 import com.agrimatch.supply.service.SupplyService;
+import com.agrimatch.tag.service.TagIndexService;
 import com.agrimatch.tag.service.TagService;
 import com.agrimatch.user.domain.SysUser;
 import com.agrimatch.user.mapper.UserMapper;
-import com.agrimatch.util.GeoUtil;
+import com.agrimatch.util.CursorUtil;
 import com.agrimatch.util.NoUtil;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,21 +48,65 @@ public class SupplyServiceImpl implements SupplyService {
     private final SupplyBasisMapper supplyBasisMapper;
     private final UserMapper userMapper;
     private final CompanyMapper companyMapper;
-    private final DealMapper dealMapper;
+    private final QuantityLedgerService quantityLedgerService;
     private final TagService tagService;
+    private final ListingExpiryService listingExpiryService;
+    private final GeoIndexService geoIndexService;
+    private final MatchService matchService;
+    private final BasisRepricingService basisRepricingService;
+    private final SearchIndexService searchIndexService;
+    private final TagIndexService tagIndexService;
+    private final SavedSearchService savedSearchService;
+    private final ParamIndexService paramIndexService;
+    private final DedupService dedupService;
+    private final SimilarListingService similarListingService;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeFeedClock changeFeedClock;
+
+    private static final Set<String> ORDER_BY_FIELDS = Set.of("create_time", "ex_factory_price", "distance", "delivered_price");
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    /** 不分页列表（公司主页聚合、旧客户端）的条数上限，大厅和“我的供应”走游标分页 */
+    private static final int MAX_LIST_SIZE = 200;
+    private static final int MAX_CHANGES = 500;
+    /** 半径筛选最多带入 SQL 的公司/地点 id 数（超出只保留最近的） */
+    private static final int MAX_NEAR_IDS = 2000;
+    /** 标签筛选最多带入 SQL 的挂牌 id 数（超出只保留最新发布的） */
+    private static final int MAX_TAG_IDS = 2000;
+    /** 批量改基差报价时每个事务最多改的报价条数（同一供应的报价不拆开） */
+    private static final int BASIS_CHUNK_SIZE = 200;
+    private static final String CHANGES = "changes";
 
     @Value("${agrimatch.freight.rate-per-ton-km:0.8}")
     private BigDecimal freightRatePerTonKm;
 
     public SupplyServiceImpl(SupplyMapper supplyMapper, SupplyBasisMapper supplyBasisMapper, 
-                             UserMapper userMapper, CompanyMapper companyMapper, DealMapper dealMapper,
-                             TagService tagService) {
+                             UserMapper userMapper, CompanyMapper companyMapper, QuantityLedgerService quantityLedgerService,
+                             TagService tagService, ListingExpiryService listingExpiryService,
+                             GeoIndexService geoIndexService, MatchService matchService,
+                             BasisRepricingService basisRepricingService, SearchIndexService searchIndexService,
+                             TagIndexService tagIndexService, SavedSearchService savedSearchService,
+                             ParamIndexService paramIndexService, DedupService dedupService,
+                             SimilarListingService similarListingService, TransactionTemplate transactionTemplate,
+                             ChangeFeedClock changeFeedClock) {
         this.supplyMapper = supplyMapper;
         this.supplyBasisMapper = supplyBasisMapper;
         this.userMapper = userMapper;
         this.companyMapper = companyMapper;
-        this.dealMapper = dealMapper;
+        this.quantityLedgerService = quantityLedgerService;
         this.tagService = tagService;
+        this.listingExpiryService = listingExpiryService;
+        this.geoIndexService = geoIndexService;
+        this.matchService = matchService;
+        this.basisRepricingService = basisRepricingService;
+        this.searchIndexService = searchIndexService;
+        this.tagIndexService = tagIndexService;
+        this.savedSearchService = savedSearchService;
+        this.paramIndexService = paramIndexService;
+        this.dedupService = dedupService;
+        this.similarListingService = similarListingService;
+        this.transactionTemplate = transactionTemplate;
+        this.changeFeedClock = changeFeedClock;
     }
 
     @Override
@@ -106,6 +165,7 @@ public class SupplyServiceImpl implements SupplyService {
             s.setExpireTime(LocalDateTime.now().plusMinutes(s.getExpireMinutes()));
         }
         s.setStatus(0);
+        dedupService.checkBeforeCreate(DedupService.SUPPLY, dedupSource(s));
 
         int rows = supplyMapper.insert(s);
         if (rows != 1 || s.getId() == null) {
@@ -114,6 +174,10 @@ public class SupplyServiceImpl implements SupplyService {
 
         // 同步标签
         tagService.syncEntityTags("supply", s.getId(), s.getDomain(), s.getTagsJson());
+        // 同步参数值索引
+        paramIndexService.sync(ParamIndexService.SUPPLY, s.getId(), s.getParamsJson());
+        // 到期自动下架（status=2）
+        listingExpiryService.schedule(ListingExpiryService.SUPPLY, s.getId(), s.getExpireTime());
 
         // 如果是基差报价模式，保存基差明细
         if (priceType == 1 && req.getBasisQuotes() != null && !req.getBasisQuotes().isEmpty()) {
@@ -128,11 +192,30 @@ public class SupplyServiceImpl implements SupplyService {
                 basisList.add(basis);
             }
             supplyBasisMapper.batchInsert(basisList);
+            // 按当前期货价算参考现价，出厂价取最低参考现价
+            basisRepricingService.refreshSupply(s.getId());
         }
+        // 撮合候选/搜索索引增量更新
+        matchService.refreshSupply(s.getId());
+        searchIndexService.refresh(SearchIndexService.SUPPLY, List.of(s.getId()));
+        savedSearchService.percolate(SavedSearchService.SUPPLY, s.getId());
+        dedupService.refresh(DedupService.SUPPLY, List.of(s.getId()));
+        similarListingService.refresh(List.of(s.getId()));
 
         return s.getId();
     }
 
+    private static DedupSource dedupSource(BusSupply s) {
+        DedupSource d = new DedupSource();
+        d.setCompanyId(s.getCompanyId());
+        d.setCategoryName(s.getCategoryName());
+        d.setOrigin(s.getOrigin());
+        d.setPrice(s.getExFactoryPrice());
+        d.setParamsJson(s.getParamsJson());
+        d.setRemark(s.getRemark());
+        return d;
+    }
+
     @Override
     public SupplyResponse getById(Long id) {
         BusSupply s = supplyMapper.selectById(id);
@@ -140,6 +223,10 @@ public class SupplyServiceImpl implements SupplyService {
             throw new ApiException(ResultCode.NOT_FOUND);
         }
         SupplyResponse r = toResponse(s);
+        if (s.getQuantity() != null) {
+            r.setRemainingQuantity(s.getQuantity().subtract(
+                    quantityLedgerService.getDealQtyMap(QuantityLedgerService.SUPPLY, List.of(id)).get(id)));
+        }
         
         // 如果是基差报价，填充基差明细
         if (s.getPriceType() != null && s.getPriceType() == 1) {
@@ -155,35 +242,223 @@ public class SupplyServiceImpl implements SupplyService {
     @Override
     public List<SupplyResponse> list(Long viewerUserId, SupplyQuery query) {
         // 允许匿名访问（大厅页面）
-        normalizeQuery(query);
-        // 过期自动撤下（status=2）
-        supplyMapper.expireDownShelf();
-        List<BusSupply> list = supplyMapper.selectList(query);
+        SupplyQuery q = query != null ? query : new SupplyQuery();
+        normalizeQuery(q);
+        prepareQuery(viewerUserId, q);
+        q.setLimit(MAX_LIST_SIZE);
+        return toResponses(supplyMapper.selectList(q));
+    }
+
+    @Override
+    public CursorResult<SupplyResponse> page(Long viewerUserId, SupplyQuery query) {
+        CursorResult<BusSupply> rows = pageRows(viewerUserId, query, supplyMapper::selectList);
+        return new CursorResult<>(toResponses(rows.getList()), rows.getNextCursor(), rows.getSize());
+    }
+
+    @Override
+    public CursorResult<SupplyCardResponse> cardPage(Long viewerUserId, SupplyQuery query) {
+        CursorResult<BusSupply> rows = pageRows(viewerUserId, query, supplyMapper::selectCardList);
+        return new CursorResult<>(toCards(rows.getList()), rows.getNextCursor(), rows.getSize());
+    }
+
+    @Override
+    public ChangeFeed<SupplyCardResponse> changes(Long viewerUserId, String version, String domain) {
+        // update_time 在语句执行时取值、事务提交时才可见，只读到未提交事务之前（见 ChangeFeedClock）
+        LocalDateTime until = changeFeedClock.safeUntil();
+        if (!StringUtils.hasText(version)) {
+            return new ChangeFeed<>(new ArrayList<>(), new ArrayList<>(), CursorUtil.encode(CHANGES, "asc", until, 0L), false);
+        }
+        CursorUtil.Cursor c = CursorUtil.decode(version, CHANGES, "asc");
+        LocalDateTime since = c.asTime();
+        SupplyQuery q = new SupplyQuery();
+        q.setDomain(emptyToNull(domain));
+        prepareQuery(viewerUserId, q);
+        List<BusSupply> rows = supplyMapper.selectChanges(q, since, c.getId(), until, MAX_CHANGES + 1);
+        boolean hasMore = rows.size() > MAX_CHANGES;
+        if (hasMore) rows = rows.subList(0, MAX_CHANGES);
+
+        List<BusSupply> listed = new ArrayList<>(rows.size());
+        List<Long> deleted = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (BusSupply s : rows) {
+            boolean active = (s.getIsDeleted() == null || s.getIsDeleted() == 0)
+                    && s.getStatus() != null && (s.getStatus() == 0 || s.getStatus() == 1)
+                    && (s.getExpireTime() == null || s.getExpireTime().isAfter(now))
+                    && !Boolean.TRUE.equals(s.getCollapsed());
+            if (active) {
+                listed.add(s);
+            } else {
+                deleted.add(s.getId());
+            }
+        }
+
+        // 没有更多时直接推进到 until，下次不必重扫这段空档
+        BusSupply last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        String next = version;
+        if (hasMore) {
+            next = CursorUtil.encode(CHANGES, "asc", last.getUpdateTime(), last.getId());
+        } else if (until.isAfter(since)) {
+            long lastId = last != null && until.equals(last.getUpdateTime()) ? last.getId() : 0L;
+            next = CursorUtil.encode(CHANGES, "asc", until, lastId);
+        } else if (last != null) {
+            next = CursorUtil.encode(CHANGES, "asc", last.getUpdateTime(), last.getId());
+        }
+        return new ChangeFeed<>(toCards(listed), deleted, next, hasMore);
+    }
+
+    private List<SupplyCardResponse> toCards(List<BusSupply> list) {
+        Map<Long, List<BasisQuoteResponse>> basisMap = basisQuotesOf(list);
+        Map<Long, BigDecimal> dealQtyMap = dealQtyOf(list);
+
+        List<SupplyCardResponse> out = new ArrayList<>(list.size());
+        for (BusSupply s : list) {
+            SupplyCardResponse o = new SupplyCardResponse();
+            o.setId(s.getId());
+            o.setCompanyId(s.getCompanyId());
+            o.setUserId(s.getUserId());
+            o.setCompanyName(s.getCompanyName());
+            o.setUserName(s.getUserName());
+            o.setNickName(s.getNickName());
+            o.setCategoryName(s.getCategoryName());
+            o.setDomain(s.getDomain());
+            o.setSupplyNo(s.getSupplyNo());
+            o.setOrigin(s.getOrigin());
+            o.setQuantity(s.getQuantity());
+            if (s.getQuantity() != null) {
+                o.setRemainingQuantity(s.getQuantity().subtract(dealQtyMap.getOrDefault(s.getId(), BigDecimal.ZERO)));
+            }
+            o.setPriceType(s.getPriceType() != null ? s.getPriceType() : 0);
+            o.setExFactoryPrice(s.getExFactoryPrice());
+            if (s.getPriceType() != null && s.getPriceType() == 1) {
+                o.setBasisQuotes(basisMap.getOrDefault(s.getId(), new ArrayList<>()));
+            }
+            o.setShipAddress(s.getShipAddress());
+            o.setDeliveryMode(s.getDeliveryMode());
+            o.setPackaging(s.getPackaging());
+            o.setStatus(s.getStatus());
+            o.setExpireTime(s.getExpireTime());
+            o.setDistanceKm(s.getDistanceKm());
+            o.setDeliveredPrice(s.getDeliveredPrice());
+            o.setCreateTime(s.getCreateTime());
+            out.add(o);
+        }
+        return out;
+    }
+
+    @Override
+    public List<SupplyDetailResponse> details(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) return new ArrayList<>();
+        if (ids.size() > MAX_PAGE_SIZE) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "一次最多查询 " + MAX_PAGE_SIZE + " 条");
+        }
+        List<SupplyDetailResponse> out = new ArrayList<>(ids.size());
+        for (BusSupply s : supplyMapper.selectDetails(ids)) {
+            SupplyDetailResponse o = new SupplyDetailResponse();
+            o.setId(s.getId());
+            o.setPaymentMethod(s.getPaymentMethod());
+            o.setInvoiceType(s.getInvoiceType());
+            o.setStorageMethod(s.getStorageMethod());
+            o.setPriceRulesJson(s.getPriceRulesJson());
+            o.setParamsJson(s.getParamsJson());
+            o.setTagsJson(s.getTagsJson());
+            o.setRemark(s.getRemark());
+            out.add(o);
+        }
+        return out;
+    }
+
+    /**
+     * 游标分页公共部分：解析游标、多取一条判断下一页；select 决定取完整列还是卡片列
+     */
+    private CursorResult<BusSupply> pageRows(Long viewerUserId, SupplyQuery query,
+                                             Function<SupplyQuery, List<BusSupply>> select) {
+        SupplyQuery q = query != null ? query : new SupplyQuery();
+        normalizeQuery(q);
+        prepareQuery(viewerUserId, q);
+        int size = normalizePageSize(q.getSize());
+        if (StringUtils.hasText(q.getCursor())) {
+            CursorUtil.Cursor c = CursorUtil.decode(q.getCursor(), q.getOrderBy(), q.getOrder());
+            if ("create_time".equals(q.getOrderBy())) {
+                q.setCursorTime(c.asTime());
+            } else {
+                q.setCursorValue(c.asDecimal());
+            }
+            q.setCursorId(c.getId());
+        }
+        // 多取一条用于判断是否还有下一页
+        q.setLimit(size + 1);
+        List<BusSupply> list = select.apply(q);
+
+        String nextCursor = null;
+        if (list.size() > size) {
+            list = list.subList(0, size);
+            BusSupply last = list.get(size - 1);
+            nextCursor = CursorUtil.encode(q.getOrderBy(), q.getOrder(), sortValue(last, q), last.getId());
+        }
+        return new CursorResult<>(list, nextCursor, size);
+    }
+
+    /**
+     * 填充服务端字段：当前用户公司坐标/运费单价（距离与到厂价在 SQL 中计算）、半径筛选命中的公司、标签筛选命中的供应，
+     * 并清掉前端可能传入的内部字段
+     */
+    private void prepareQuery(Long viewerUserId, SupplyQuery q) {
+        q.setViewerLat(null);
+        q.setViewerLng(null);
+        q.setFreightRate(freightRatePerTonKm);
+        q.setCursorTime(null);
+        q.setCursorValue(null);
+        q.setCursorId(null);
+        q.setLimit(null);
+        q.setNearCompanyIds(null);
+        q.setTagEntityIds(null);
 
         // viewer company coords (仅登录用户可用)
-        BusCompany viewerCompany = null;
         if (viewerUserId != null) {
             SysUser viewer = userMapper.selectById(viewerUserId);
             if (viewer != null && viewer.getCompanyId() != null) {
-                viewerCompany = companyMapper.selectById(viewer.getCompanyId());
+                BusCompany viewerCompany = companyMapper.selectById(viewer.getCompanyId());
+                if (viewerCompany != null && viewerCompany.getLat() != null && viewerCompany.getLng() != null) {
+                    q.setViewerLat(viewerCompany.getLat());
+                    q.setViewerLng(viewerCompany.getLng());
+                }
             }
         }
 
-        // 收集基差报价类型的供应ID
-        List<Long> basisSupplyIds = list.stream()
-                .filter(s -> s.getPriceType() != null && s.getPriceType() == 1)
-                .map(BusSupply::getId)
-                .collect(Collectors.toList());
-
-        // 批量查询基差明细
-        Map<Long, List<BasisQuoteResponse>> basisMap = new HashMap<>();
-        if (!basisSupplyIds.isEmpty()) {
-            List<BusSupplyBasis> allBasis = supplyBasisMapper.selectBySupplyIds(basisSupplyIds);
-            for (BusSupplyBasis basis : allBasis) {
-                basisMap.computeIfAbsent(basis.getSupplyId(), k -> new ArrayList<>())
-                        .add(toBasisQuoteResponse(basis));
+        // 半径筛选：空间索引算出范围内的公司，SQL 只按 company_id 过滤
+        if (q.getRadiusKm() != null && q.getRadiusKm() > 0) {
+            if (q.getViewerLat() == null) {
+                throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "按距离筛选需登录并完善公司地址");
             }
+            q.setNearCompanyIds(geoIndexService.companyIdsWithin(q.getViewerLat(), q.getViewerLng(), q.getRadiusKm(), MAX_NEAR_IDS));
+        }
+
+        // 标签筛选：位图索引算出命中的供应，SQL 只按 id 过滤
+        q.setTagEntityIds(tagIndexService.matchIds(SearchIndexService.SUPPLY, q.getTagFilters(), MAX_TAG_IDS));
+        // 参数筛选：SQL 按参数值索引过滤
+        q.setParamConditions(paramIndexService.parseFilters(q.getParamFilters()));
+    }
+
+    /**
+     * 游标中记录的排序值，需与 SupplyMapper.xml 中 sortKey 的取值一致
+     */
+    private static Object sortValue(BusSupply s, SupplyQuery q) {
+        boolean asc = "asc".equals(q.getOrder());
+        switch (q.getOrderBy()) {
+            case "ex_factory_price":
+                return CursorUtil.nullsLast(s.getExFactoryPrice(), asc);
+            case "distance":
+                return CursorUtil.nullsLast(s.getDistanceKm(), asc);
+            case "delivered_price":
+                return CursorUtil.nullsLast(s.getDeliveredPrice(), asc);
+            default:
+                return s.getCreateTime();
         }
+    }
+
+    private List<SupplyResponse> toResponses(List<BusSupply> list) {
+        Map<Long, List<BasisQuoteResponse>> basisMap = basisQuotesOf(list);
+        Map<Long, BigDecimal> dealQtyMap = dealQtyOf(list);
 
         List<SupplyResponse> out = new ArrayList<>();
         for (BusSupply s : list) {
@@ -196,41 +471,42 @@ public class SupplyServiceImpl implements SupplyService {
 
             // remaining quantity（用于管理端/成交态展示）
             if (s.getQuantity() != null) {
-                BigDecimal sum = dealMapper.sumConfirmedQuantityBySupplyId(s.getId());
-                if (sum == null) sum = BigDecimal.ZERO;
-                r.setRemainingQuantity(s.getQuantity().subtract(sum));
+                r.setRemainingQuantity(s.getQuantity().subtract(dealQtyMap.getOrDefault(s.getId(), BigDecimal.ZERO)));
             }
 
-            // compute distance & delivered price (Beta)
-            if (viewerCompany != null && viewerCompany.getLat() != null && viewerCompany.getLng() != null) {
-                BusCompany sc = companyMapper.selectById(s.getCompanyId());
-                if (sc != null && sc.getLat() != null && sc.getLng() != null) {
-                    BigDecimal km = GeoUtil.haversineKm(viewerCompany.getLat(), viewerCompany.getLng(), sc.getLat(), sc.getLng());
-                    r.setDistanceKm(km);
-                    if (km != null && r.getExFactoryPrice() != null && freightRatePerTonKm != null) {
-                        BigDecimal delivered = r.getExFactoryPrice().add(km.multiply(freightRatePerTonKm))
-                                .setScale(2, RoundingMode.HALF_UP);
-                        r.setDeliveredPrice(delivered);
-                    }
-                }
-            }
+            // distance & delivered price (Beta)：由 SQL 按当前用户公司坐标计算
+            r.setDistanceKm(s.getDistanceKm());
+            r.setDeliveredPrice(s.getDeliveredPrice());
             out.add(r);
         }
+        return out;
+    }
 
-        // in-memory sort for Beta orderBy
-        if (query != null && StringUtils.hasText(query.getOrderBy())) {
-            String ob = query.getOrderBy();
-            boolean asc = "asc".equalsIgnoreCase(query.getOrder());
-            if ("distance".equalsIgnoreCase(ob)) {
-                Comparator<SupplyResponse> c = Comparator.comparing(SupplyResponse::getDistanceKm, Comparator.nullsLast(BigDecimal::compareTo));
-                out.sort(asc ? c : c.reversed());
-            } else if ("delivered_price".equalsIgnoreCase(ob)) {
-                Comparator<SupplyResponse> c = Comparator.comparing(SupplyResponse::getDeliveredPrice, Comparator.nullsLast(BigDecimal::compareTo));
-                out.sort(asc ? c : c.reversed());
+    private Map<Long, List<BasisQuoteResponse>> basisQuotesOf(List<BusSupply> list) {
+        // 收集基差报价类型的供应ID
+        List<Long> basisSupplyIds = list.stream()
+                .filter(s -> s.getPriceType() != null && s.getPriceType() == 1)
+                .map(BusSupply::getId)
+                .collect(Collectors.toList());
+
+        // 批量查询基差明细
+        Map<Long, List<BasisQuoteResponse>> basisMap = new HashMap<>();
+        if (!basisSupplyIds.isEmpty()) {
+            List<BusSupplyBasis> allBasis = supplyBasisMapper.selectBySupplyIds(basisSupplyIds);
+            for (BusSupplyBasis basis : allBasis) {
+                basisMap.computeIfAbsent(basis.getSupplyId(), k -> new ArrayList<>())
+                        .add(toBasisQuoteResponse(basis));
             }
         }
+        return basisMap;
+    }
 
-        return out;
+    /**
+     * 批量读取成交量台账
+     */
+    private Map<Long, BigDecimal> dealQtyOf(List<BusSupply> list) {
+        return quantityLedgerService.getDealQtyMap(QuantityLedgerService.SUPPLY,
+                list.stream().filter(s -> s.getQuantity() != null).map(BusSupply::getId).collect(Collectors.toList()));
     }
 
     @Override
@@ -273,12 +549,98 @@ public class SupplyServiceImpl implements SupplyService {
         if (rows != 1) {
             throw new ApiException(ResultCode.NOT_FOUND);
         }
+        if (req.getExpireMinutes() != null) {
+            listingExpiryService.schedule(ListingExpiryService.SUPPLY, id, s.getExpireTime());
+        }
 
         // 重新获取 domain 以便同步标签（如果 req 中没传）
-        if (req.getTagsJson() != null) {
+        if (req.getTagsJson() != null || req.getParamsJson() != null) {
             BusSupply updated = supplyMapper.selectById(id);
-            tagService.syncEntityTags("supply", id, updated.getDomain(), req.getTagsJson());
+            if (req.getTagsJson() != null) {
+                tagService.syncEntityTags("supply", id, updated.getDomain(), req.getTagsJson());
+            }
+            if (req.getParamsJson() != null) {
+                paramIndexService.sync(ParamIndexService.SUPPLY, id, updated.getParamsJson());
+            }
+        }
+        if (req.getStatus() != null) {
+            basisRepricingService.refreshSupply(id);
         }
+        matchService.refreshSupply(id);
+        searchIndexService.refresh(SearchIndexService.SUPPLY, List.of(id));
+        savedSearchService.percolate(SavedSearchService.SUPPLY, id);
+        dedupService.refresh(DedupService.SUPPLY, List.of(id));
+        similarListingService.refresh(List.of(id));
+    }
+
+    @Override
+    public int updateBasisQuotes(Long userId, BasisBatchUpdateRequest req) {
+        if (userId == null) throw new ApiException(401, "未登录");
+        Set<Long> supplyIds = new LinkedHashSet<>();
+        for (BasisQuoteUpdateRequest item : req.getItems()) {
+            supplyIds.add(item.getSupplyId());
+        }
+
+        // 供应ID -> 合约代码 -> 报价
+        Map<Long, Map<String, BusSupplyBasis>> owned = new HashMap<>();
+        for (BusSupplyBasis b : supplyBasisMapper.selectOwnedQuotes(userId, supplyIds)) {
+            owned.computeIfAbsent(b.getSupplyId(), k -> new HashMap<>()).put(b.getContractCode(), b);
+        }
+
+        // 同一条报价出现多次以最后一次为准
+        Map<Long, Map<Long, BusSupplyBasis>> changes = new LinkedHashMap<>();
+        for (BasisQuoteUpdateRequest item : req.getItems()) {
+            Map<String, BusSupplyBasis> quotes = owned.get(item.getSupplyId());
+            if (quotes == null) {
+                throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "供应 " + item.getSupplyId() + " 不存在、已下架或不是基差报价");
+            }
+            BusSupplyBasis current = quotes.get(item.getContractCode());
+            if (current == null) {
+                throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "供应 " + item.getSupplyId() + " 没有合约 " + item.getContractCode() + " 的报价");
+            }
+            BigDecimal qty = item.getAvailableQty();
+            if (qty != null) {
+                BigDecimal sold = current.getSoldQty() != null ? current.getSoldQty() : BigDecimal.ZERO;
+                if (qty.signum() < 0 || qty.compareTo(sold) < 0) {
+                    throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "合约 " + item.getContractCode() + " 的可售量不能小于已售量");
+                }
+            }
+            BusSupplyBasis b = new BusSupplyBasis();
+            b.setId(current.getId());
+            b.setBasisPrice(item.getBasisPrice());
+            b.setAvailableQty(qty);
+            changes.computeIfAbsent(item.getSupplyId(), k -> new LinkedHashMap<>()).put(b.getId(), b);
+        }
+
+        // 全部校验通过后分块提交，每块一个短事务；提交后重算参考现价/出厂价、刷新撮合并推送
+        int updated = 0;
+        Map<Long, List<BusSupplyBasis>> chunk = new LinkedHashMap<>();
+        int chunkQuotes = 0;
+        for (Map.Entry<Long, Map<Long, BusSupplyBasis>> e : changes.entrySet()) {
+            if (chunkQuotes > 0 && chunkQuotes + e.getValue().size() > BASIS_CHUNK_SIZE) {
+                updated += writeBasisChunk(chunk);
+                chunk = new LinkedHashMap<>();
+                chunkQuotes = 0;
+            }
+            chunk.put(e.getKey(), new ArrayList<>(e.getValue().values()));
+            chunkQuotes += e.getValue().size();
+        }
+        updated += writeBasisChunk(chunk);
+        return updated;
+    }
+
+    private int writeBasisChunk(Map<Long, List<BusSupplyBasis>> chunk) {
+        if (chunk.isEmpty()) return 0;
+        Integer n = transactionTemplate.execute(status -> {
+            int rows = 0;
+            for (Map.Entry<Long, List<BusSupplyBasis>> e : chunk.entrySet()) {
+                supplyBasisMapper.updateQuotes(e.getKey(), e.getValue());
+                rows += e.getValue().size();
+            }
+            return rows;
+        });
+        basisRepricingService.refreshSupplies(chunk.keySet());
+        return n != null ? n : 0;
     }
 
     @Override
@@ -288,6 +650,11 @@ public class SupplyServiceImpl implements SupplyService {
         if (rows != 1) {
             throw new ApiException(ResultCode.NOT_FOUND);
         }
+        matchService.removeSupplies(List.of(id));
+        basisRepricingService.removeSupply(id);
+        searchIndexService.remove(SearchIndexService.SUPPLY, id);
+        dedupService.remove(DedupService.SUPPLY, id);
+        similarListingService.remove(id);
     }
 
     private static SupplyResponse toResponse(BusSupply s) {
@@ -355,14 +722,18 @@ public class SupplyServiceImpl implements SupplyService {
 
     private static void normalizeQuery(SupplyQuery q) {
         if (q == null) return;
-        if (!StringUtils.hasText(q.getOrderBy())) {
-            q.setOrderBy("create_time");
-        }
-        if (!StringUtils.hasText(q.getOrder())) {
-            q.setOrder("desc");
-        } else {
-            q.setOrder(q.getOrder().toLowerCase());
+        String ob = StringUtils.hasText(q.getOrderBy()) ? q.getOrderBy().toLowerCase() : "";
+        if (!ORDER_BY_FIELDS.contains(ob)) {
+            ob = "create_time";
         }
+        q.setOrderBy(ob);
+        q.setOrder("asc".equalsIgnoreCase(q.getOrder()) ? "asc" : "desc");
+        q.setKeyword(StringUtils.hasText(q.getKeyword()) ? q.getKeyword().trim() : null);
+    }
+
+    private static int normalizePageSize(Integer size) {
+        if (size == null || size <= 0) return DEFAULT_PAGE_SIZE;
+        return Math.min(size, MAX_PAGE_SIZE);
     }
 
     private static String emptyToNull(String s) {
@@ -0,0 +1,41 @@
+package com.agrimatch.tag.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * bus_item_tag_values 一行：实体上的一个标签值（数值型同时写 tag_value_num，便于范围筛选）
+ */
+public class ItemTagValue {
+    private Long id;
+    private String entityType;
+    private Long entityId;
+    private Integer tagId;
+    private String tagKey;
+    private String tagValueText;
+    private BigDecimal tagValueNum;
+    private String domain;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+
+    public Integer getTagId() { return tagId; }
+    public void setTagId(Integer tagId) { this.tagId = tagId; }
+
+    public String getTagKey() { return tagKey; }
+    public void setTagKey(String tagKey) { this.tagKey = tagKey; }
+
+    public String getTagValueText() { return tagValueText; }
+    public void setTagValueText(String tagValueText) { this.tagValueText = tagValueText; }
+
+    public BigDecimal getTagValueNum() { return tagValueNum; }
+    public void setTagValueNum(BigDecimal tagValueNum) { this.tagValueNum = tagValueNum; }
+
+    public String getDomain() { return domain; }
+    public void setDomain(String domain) { this.domain = domain; }
+}
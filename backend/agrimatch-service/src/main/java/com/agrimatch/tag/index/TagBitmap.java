@@ -0,0 +1,557 @@
+package com.agrimatch.tag.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * 压缩位图（Roaring 结构）：按高 16 位分桶，桶内不超过 4096 个值时存有序 char 数组，超过后转为 1024 个 long 的位图
+ * - 值按无符号 32 位整数处理（实体 id 范围 0 ~ 2^32-1）
+ * - and / or / andNot 返回新位图，不修改入参
+ * 非线程安全，由 TagIndexService 加读写锁
+ */
+public final class TagBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    /** 桶的高 16 位，升序 */
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public TagBitmap() {
+        this(4);
+    }
+
+    private TagBitmap(int capacity) {
+        keys = new char[Math.max(capacity, 1)];
+        containers = new Container[keys.length];
+    }
+
+    public static boolean fits(long id) {
+        return id >= 0 && id <= 0xFFFFFFFFL;
+    }
+
+    public void add(int x) {
+        char hb = (char) (x >>> 16);
+        int i = indexOf(hb);
+        if (i >= 0) {
+            containers[i] = containers[i].add((char) x);
+        } else {
+            insertAt(-i - 1, hb, new ArrayContainer().add((char) x));
+        }
+    }
+
+    public void remove(int x) {
+        int i = indexOf((char) (x >>> 16));
+        if (i < 0) return;
+        Container c = containers[i].remove((char) x);
+        if (c.cardinality() == 0) {
+            removeAt(i);
+        } else {
+            containers[i] = c;
+        }
+    }
+
+    public boolean contains(int x) {
+        int i = indexOf((char) (x >>> 16));
+        return i >= 0 && containers[i].contains((char) x);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int cardinality() {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            n += containers[i].cardinality();
+        }
+        return n;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    public TagBitmap copy() {
+        return or(this, new TagBitmap());
+    }
+
+    public List<Long> toLongList() {
+        List<Long> out = new ArrayList<>(cardinality());
+        forEach(x -> out.add(Integer.toUnsignedLong(x)));
+        return out;
+    }
+
+    /**
+     * 最大的 limit 个值（升序）；挂牌 id 随发布递增，截断时保留最新的
+     */
+    public List<Long> toLongList(int limit) {
+        int n = cardinality();
+        int skip = Math.max(n - Math.max(limit, 0), 0);
+        List<Long> out = new ArrayList<>(n - skip);
+        int[] seen = {0};
+        forEach(x -> {
+            if (seen[0]++ >= skip) out.add(Integer.toUnsignedLong(x));
+        });
+        return out;
+    }
+
+    public static TagBitmap and(TagBitmap a, TagBitmap b) {
+        TagBitmap out = new TagBitmap(Math.min(a.size, b.size));
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container c = a.containers[i].and(b.containers[j]);
+                if (c.cardinality() > 0) out.append(a.keys[i], c);
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 交集的基数，不生成结果位图
+     */
+    public static int andCardinality(TagBitmap a, TagBitmap b) {
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                n += a.containers[i].andCardinality(b.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return n;
+    }
+
+    public static TagBitmap or(TagBitmap a, TagBitmap b) {
+        TagBitmap out = new TagBitmap(a.size + b.size);
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j >= b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                out.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i >= a.size || a.keys[i] > b.keys[j]) {
+                out.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                out.append(a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 差集 a - b
+     */
+    public static TagBitmap andNot(TagBitmap a, TagBitmap b) {
+        TagBitmap out = new TagBitmap(a.size);
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) j++;
+            if (j < b.size && b.keys[j] == a.keys[i]) {
+                Container c = a.containers[i].andNot(b.containers[j]);
+                if (c.cardinality() > 0) out.append(a.keys[i], c);
+            } else {
+                out.append(a.keys[i], a.containers[i].copy());
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 多个位图求并（范围查询会命中很多取值），逐桶累加到位图上再压缩，避免两两合并的反复拷贝
+     */
+    public static TagBitmap or(Collection<TagBitmap> bitmaps) {
+        if (bitmaps.isEmpty()) return new TagBitmap();
+        if (bitmaps.size() == 1) return bitmaps.iterator().next().copy();
+        TreeMap<Character, long[]> words = new TreeMap<>();
+        for (TagBitmap b : bitmaps) {
+            for (int i = 0; i < b.size; i++) {
+                b.containers[i].orInto(words.computeIfAbsent(b.keys[i], k -> new long[WORDS]));
+            }
+        }
+        TagBitmap out = new TagBitmap(words.size());
+        for (Map.Entry<Character, long[]> e : words.entrySet()) {
+            out.append(e.getKey(), BitmapContainer.of(e.getValue()));
+        }
+        return out;
+    }
+
+    private int indexOf(char hb) {
+        return Arrays.binarySearch(keys, 0, size, hb);
+    }
+
+    private void append(char hb, Container c) {
+        ensureCapacity(size + 1);
+        keys[size] = hb;
+        containers[size] = c;
+        size++;
+    }
+
+    private void insertAt(int i, char hb, Container c) {
+        ensureCapacity(size + 1);
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = hb;
+        containers[i] = c;
+        size++;
+    }
+
+    private void removeAt(int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        containers[--size] = null;
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= keys.length) return;
+        int cap = Math.max(n, keys.length * 2);
+        keys = Arrays.copyOf(keys, cap);
+        containers = Arrays.copyOf(containers, cap);
+    }
+
+    /**
+     * 桶：add / remove 可能换成另一种实现，调用方用返回值替换
+     */
+    private interface Container {
+        Container add(char x);
+
+        Container remove(char x);
+
+        boolean contains(char x);
+
+        int cardinality();
+
+        Container and(Container other);
+
+        int andCardinality(Container other);
+
+        Container or(Container other);
+
+        Container andNot(Container other);
+
+        Container copy();
+
+        void orInto(long[] words);
+
+        void forEach(int high, IntConsumer action);
+    }
+
+    private static final class ArrayContainer implements Container {
+        private char[] values;
+        private int n;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int n) {
+            this.values = values;
+            this.n = n;
+        }
+
+        @Override
+        public Container add(char x) {
+            int i = Arrays.binarySearch(values, 0, n, x);
+            if (i >= 0) return this;
+            if (n >= ARRAY_MAX) {
+                BitmapContainer b = toBitmap();
+                b.add(x);
+                return b;
+            }
+            i = -i - 1;
+            if (n == values.length) values = Arrays.copyOf(values, Math.min(Math.max(n * 2, 4), ARRAY_MAX));
+            System.arraycopy(values, i, values, i + 1, n - i);
+            values[i] = x;
+            n++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char x) {
+            int i = Arrays.binarySearch(values, 0, n, x);
+            if (i < 0) return this;
+            System.arraycopy(values, i + 1, values, i, n - i - 1);
+            n--;
+            return this;
+        }
+
+        @Override
+        public boolean contains(char x) {
+            return Arrays.binarySearch(values, 0, n, x) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return n;
+        }
+
+        @Override
+        public Container and(Container other) {
+            char[] out = new char[n];
+            int k = 0;
+            if (other instanceof ArrayContainer o) {
+                int i = 0;
+                int j = 0;
+                while (i < n && j < o.n) {
+                    if (values[i] < o.values[j]) {
+                        i++;
+                    } else if (values[i] > o.values[j]) {
+                        j++;
+                    } else {
+                        out[k++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < n; i++) {
+                    if (other.contains(values[i])) out[k++] = values[i];
+                }
+            }
+            return new ArrayContainer(out, k);
+        }
+
+        @Override
+        public int andCardinality(Container other) {
+            int k = 0;
+            if (other instanceof ArrayContainer o) {
+                int i = 0;
+                int j = 0;
+                while (i < n && j < o.n) {
+                    if (values[i] < o.values[j]) {
+                        i++;
+                    } else if (values[i] > o.values[j]) {
+                        j++;
+                    } else {
+                        k++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < n; i++) {
+                    if (other.contains(values[i])) k++;
+                }
+            }
+            return k;
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (!(other instanceof ArrayContainer o)) return other.or(this);
+            if (n + o.n > ARRAY_MAX) {
+                long[] words = new long[WORDS];
+                orInto(words);
+                o.orInto(words);
+                return BitmapContainer.of(words);
+            }
+            char[] out = new char[Math.max(n + o.n, 1)];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < n || j < o.n) {
+                if (j >= o.n || (i < n && values[i] < o.values[j])) {
+                    out[k++] = values[i++];
+                } else if (i >= n || values[i] > o.values[j]) {
+                    out[k++] = o.values[j++];
+                } else {
+                    out[k++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            return new ArrayContainer(out, k);
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            char[] out = new char[Math.max(n, 1)];
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                if (!other.contains(values[i])) out[k++] = values[i];
+            }
+            return new ArrayContainer(out, k);
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(n, 1)), n);
+        }
+
+        @Override
+        public void orInto(long[] words) {
+            for (int i = 0; i < n; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+        }
+
+        @Override
+        public void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < n; i++) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            long[] words = new long[WORDS];
+            orInto(words);
+            return new BitmapContainer(words, n);
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private final long[] words;
+        private int n;
+
+        BitmapContainer(long[] words, int n) {
+            this.words = words;
+            this.n = n;
+        }
+
+        /**
+         * 按基数选择实现：不超过 4096 个值转回有序数组
+         */
+        static Container of(long[] words) {
+            int n = 0;
+            for (long w : words) {
+                n += Long.bitCount(w);
+            }
+            if (n > ARRAY_MAX) return new BitmapContainer(words, n);
+            char[] values = new char[Math.max(n, 1)];
+            int k = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long w = words[i];
+                while (w != 0) {
+                    values[k++] = (char) (i * 64 + Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+
+        @Override
+        public Container add(char x) {
+            long bit = 1L << x;
+            if ((words[x >>> 6] & bit) == 0) {
+                words[x >>> 6] |= bit;
+                n++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char x) {
+            long bit = 1L << x;
+            if ((words[x >>> 6] & bit) != 0) {
+                words[x >>> 6] &= ~bit;
+                n--;
+            }
+            return n <= ARRAY_MAX ? of(words) : this;
+        }
+
+        @Override
+        public boolean contains(char x) {
+            return (words[x >>> 6] & (1L << x)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return n;
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (other instanceof ArrayContainer) return other.and(this);
+            long[] o = ((BitmapContainer) other).words;
+            long[] out = new long[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                out[i] = words[i] & o[i];
+            }
+            return of(out);
+        }
+
+        @Override
+        public int andCardinality(Container other) {
+            if (other instanceof ArrayContainer) return other.andCardinality(this);
+            long[] o = ((BitmapContainer) other).words;
+            int k = 0;
+            for (int i = 0; i < WORDS; i++) {
+                k += Long.bitCount(words[i] & o[i]);
+            }
+            return k;
+        }
+
+        @Override
+        public Container or(Container other) {
+            long[] out = Arrays.copyOf(words, WORDS);
+            other.orInto(out);
+            return of(out);
+        }
+
+        @Override
+        public Container andNot(Container other) {
+            long[] out = Arrays.copyOf(words, WORDS);
+            if (other instanceof BitmapContainer o) {
+                for (int i = 0; i < WORDS; i++) {
+                    out[i] &= ~o.words[i];
+                }
+            } else {
+                long[] o = new long[WORDS];
+                other.orInto(o);
+                for (int i = 0; i < WORDS; i++) {
+                    out[i] &= ~o[i];
+                }
+            }
+            return of(out);
+        }
+
+        @Override
+        public Container copy() {
+            return new BitmapContainer(Arrays.copyOf(words, WORDS), n);
+        }
+
+        @Override
+        public void orInto(long[] target) {
+            for (int i = 0; i < WORDS; i++) {
+                target[i] |= words[i];
+            }
+        }
+
+        @Override
+        public void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < WORDS; i++) {
+                long w = words[i];
+                while (w != 0) {
+                    action.accept(high | (i * 64 + Long.numberOfTrailingZeros(w)));
+                    w &= w - 1;
+                }
+            }
+        }
+    }
+}
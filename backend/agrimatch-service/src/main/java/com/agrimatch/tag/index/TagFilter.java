@@ -0,0 +1,282 @@
+package com.agrimatch.tag.index;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 标签筛选条件，由前端的 tagFilters（JSON 对象）解析而来，同一层的条件取交集：
+ * - {"origin": "黑龙江"}            等值（数值也按数值比较）
+ * - {"grade": ["一等", "二等"]}     任一等值
+ * - {"protein": {"gte": 43}}        范围，支持 gt / gte / lt / lte，可组合；另支持 eq / in / exists
+ * - {"$or": [{...}, {...}]}         各组条件取并集；"$and" 同理取交集
+ * 解析失败抛 IllegalArgumentException
+ */
+public abstract class TagFilter {
+
+    private static final String OR = "$or";
+    private static final String AND = "$and";
+
+    public abstract TagBitmap eval(TagIndex index);
+
+    abstract void collectKeys(Set<String> out);
+
+    /**
+     * 条件涉及的 tagKey（索引未就绪时只按这些 key 从库里装载）
+     */
+    public Set<String> keys() {
+        Set<String> out = new HashSet<>();
+        collectKeys(out);
+        return out;
+    }
+
+    /**
+     * @return 没有条件时返回 null
+     */
+    public static TagFilter parse(Map<String, ?> filters) {
+        if (filters == null || filters.isEmpty()) return null;
+        return parseGroup(filters);
+    }
+
+    private static TagFilter parseGroup(Map<?, ?> group) {
+        List<TagFilter> parts = new ArrayList<>();
+        for (Map.Entry<?, ?> e : group.entrySet()) {
+            String key = e.getKey() != null ? e.getKey().toString().trim() : "";
+            if (key.isEmpty()) throw new IllegalArgumentException("标签 key 不能为空");
+            Object v = e.getValue();
+            if (OR.equals(key) || AND.equals(key)) {
+                if (!(v instanceof Collection<?> list) || list.isEmpty()) {
+                    throw new IllegalArgumentException(key + " 需为非空数组");
+                }
+                List<TagFilter> subs = new ArrayList<>();
+                for (Object item : list) {
+                    if (!(item instanceof Map<?, ?> m) || m.isEmpty()) {
+                        throw new IllegalArgumentException(key + " 的元素需为非空对象");
+                    }
+                    subs.add(parseGroup(m));
+                }
+                parts.add(OR.equals(key) ? new Or(subs) : new And(subs));
+            } else {
+                parts.add(parseValue(key, v));
+            }
+        }
+        return parts.size() == 1 ? parts.get(0) : new And(parts);
+    }
+
+    private static TagFilter parseValue(String key, Object v) {
+        if (v instanceof Collection<?> list) {
+            return anyOf(key, list);
+        }
+        if (v instanceof Map<?, ?> ops) {
+            if (ops.isEmpty()) throw new IllegalArgumentException(key + " 的条件不能为空");
+            List<TagFilter> parts = new ArrayList<>();
+            Double from = null;
+            Double to = null;
+            boolean fromInclusive = true;
+            boolean toInclusive = true;
+            boolean ranged = false;
+            for (Map.Entry<?, ?> op : ops.entrySet()) {
+                String name = String.valueOf(op.getKey());
+                Object arg = op.getValue();
+                switch (name) {
+                    case "eq" -> parts.add(eq(key, arg));
+                    case "in" -> {
+                        if (!(arg instanceof Collection<?> list)) throw new IllegalArgumentException(key + ".in 需为数组");
+                        parts.add(anyOf(key, list));
+                    }
+                    case "exists" -> {
+                        if (!Boolean.TRUE.equals(arg)) throw new IllegalArgumentException(key + ".exists 只支持 true");
+                        parts.add(new Exists(key));
+                    }
+                    case "gt", "gte" -> {
+                        double d = number(key, name, arg);
+                        boolean inclusive = "gte".equals(name);
+                        // 同时给了 gt 和 gte 时取更严格的
+                        if (from == null || d > from || (d == from && !inclusive)) {
+                            from = d;
+                            fromInclusive = inclusive;
+                        }
+                        ranged = true;
+                    }
+                    case "lt", "lte" -> {
+                        double d = number(key, name, arg);
+                        boolean inclusive = "lte".equals(name);
+                        if (to == null || d < to || (d == to && !inclusive)) {
+                            to = d;
+                            toInclusive = inclusive;
+                        }
+                        ranged = true;
+                    }
+                    default -> throw new IllegalArgumentException("不支持的标签条件: " + key + "." + name);
+                }
+            }
+            if (ranged) parts.add(new Range(key, from, fromInclusive, to, toInclusive));
+            return parts.size() == 1 ? parts.get(0) : new And(parts);
+        }
+        return eq(key, v);
+    }
+
+    private static TagFilter anyOf(String key, Collection<?> values) {
+        if (values.isEmpty()) throw new IllegalArgumentException(key + " 的取值不能为空数组");
+        List<TagFilter> subs = new ArrayList<>();
+        for (Object item : values) {
+            subs.add(eq(key, item));
+        }
+        return subs.size() == 1 ? subs.get(0) : new Or(subs);
+    }
+
+    private static TagFilter eq(String key, Object v) {
+        if (v == null || v instanceof Map || v instanceof Collection) {
+            throw new IllegalArgumentException(key + " 的取值需为文本或数值");
+        }
+        if (v instanceof Number n) {
+            BigDecimal d = new BigDecimal(n.toString());
+            return new Eq(key, d.stripTrailingZeros().toPlainString(), d.doubleValue() + 0.0);
+        }
+        String text = v.toString().trim();
+        return new Eq(key, text, parse(text));
+    }
+
+    private static double number(String key, String op, Object v) {
+        Double d = v instanceof Number n ? Double.valueOf(n.doubleValue()) : v != null ? parse(v.toString().trim()) : null;
+        if (d == null || d.isNaN() || d.isInfinite()) throw new IllegalArgumentException(key + "." + op + " 需为数值");
+        return d + 0.0;
+    }
+
+    private static Double parse(String text) {
+        try {
+            return new BigDecimal(text).doubleValue() + 0.0;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class Eq extends TagFilter {
+        private final String key;
+        private final String text;
+        private final Double num;
+
+        Eq(String key, String text, Double num) {
+            this.key = key;
+            this.text = text;
+            this.num = num;
+        }
+
+        @Override
+        public TagBitmap eval(TagIndex index) {
+            return index.eq(key, text, num);
+        }
+
+        @Override
+        void collectKeys(Set<String> out) {
+            out.add(key);
+        }
+    }
+
+    private static final class Range extends TagFilter {
+        private final String key;
+        private final Double from;
+        private final boolean fromInclusive;
+        private final Double to;
+        private final boolean toInclusive;
+
+        Range(String key, Double from, boolean fromInclusive, Double to, boolean toInclusive) {
+            this.key = key;
+            this.from = from;
+            this.fromInclusive = fromInclusive;
+            this.to = to;
+            this.toInclusive = toInclusive;
+        }
+
+        @Override
+        public TagBitmap eval(TagIndex index) {
+            return index.range(key, from, fromInclusive, to, toInclusive);
+        }
+
+        @Override
+        void collectKeys(Set<String> out) {
+            out.add(key);
+        }
+    }
+
+    private static final class Exists extends TagFilter {
+        private final String key;
+
+        Exists(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public TagBitmap eval(TagIndex index) {
+            return index.exists(key);
+        }
+
+        @Override
+        void collectKeys(Set<String> out) {
+            out.add(key);
+        }
+    }
+
+    private static final class And extends TagFilter {
+        private final List<TagFilter> parts;
+
+        And(List<TagFilter> parts) {
+            this.parts = parts;
+        }
+
+        /**
+         * 先算出各子条件，从最小的位图开始求交，交集为空就停
+         */
+        @Override
+        public TagBitmap eval(TagIndex index) {
+            List<TagBitmap> sets = new ArrayList<>(parts.size());
+            for (TagFilter p : parts) {
+                TagBitmap b = p.eval(index);
+                if (b.isEmpty()) return b;
+                sets.add(b);
+            }
+            sets.sort(Comparator.comparingInt(TagBitmap::cardinality));
+            TagBitmap out = sets.get(0);
+            for (int i = 1; i < sets.size() && !out.isEmpty(); i++) {
+                out = TagBitmap.and(out, sets.get(i));
+            }
+            return out;
+        }
+
+        @Override
+        void collectKeys(Set<String> out) {
+            for (TagFilter p : parts) {
+                p.collectKeys(out);
+            }
+        }
+    }
+
+    private static final class Or extends TagFilter {
+        private final List<TagFilter> parts;
+
+        Or(List<TagFilter> parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public TagBitmap eval(TagIndex index) {
+            List<TagBitmap> sets = new ArrayList<>(parts.size());
+            for (TagFilter p : parts) {
+                sets.add(p.eval(index));
+            }
+            return TagBitmap.or(sets);
+        }
+
+        @Override
+        void collectKeys(Set<String> out) {
+            for (TagFilter p : parts) {
+                p.collectKeys(out);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.agrimatch.tag.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 一种实体（供应/需求/帖子）的标签位图索引
+ * - 等值：tagKey + 文本值 -> 位图
+ * - 范围：每个 tagKey 一列按数值排序的 TreeMap（数值 -> 位图），区间内的位图求并
+ * - 存在：tagKey -> 位图
+ * - 正排：实体 -> 标签值，整体替换时先按正排摘掉旧值
+ * 非线程安全，由 TagIndexService 加读写锁
+ */
+public class TagIndex {
+
+    /** 实体上的一个标签值 */
+    public static final class Entry {
+        private final String key;
+        private final String text;
+        private final Double num;
+
+        public Entry(String key, String text, Double num) {
+            this.key = key;
+            this.text = text;
+            // -0.0 与 0.0 在 TreeMap 中是两个 key
+            this.num = num != null ? Double.valueOf(num + 0.0) : null;
+        }
+    }
+
+    private final Map<String, Map<String, TagBitmap>> texts = new HashMap<>();
+    private final Map<String, TreeMap<Double, TagBitmap>> nums = new HashMap<>();
+    private final Map<String, TagBitmap> keys = new HashMap<>();
+    private final Map<Integer, List<Entry>> forward = new HashMap<>();
+
+    public void add(int id, Entry e) {
+        forward.computeIfAbsent(id, k -> new ArrayList<>(4)).add(e);
+        keys.computeIfAbsent(e.key, k -> new TagBitmap()).add(id);
+        if (e.text != null) {
+            texts.computeIfAbsent(e.key, k -> new HashMap<>()).computeIfAbsent(e.text, k -> new TagBitmap()).add(id);
+        }
+        if (e.num != null) {
+            nums.computeIfAbsent(e.key, k -> new TreeMap<>()).computeIfAbsent(e.num, k -> new TagBitmap()).add(id);
+        }
+    }
+
+    public void replace(int id, List<Entry> entries) {
+        remove(id);
+        for (Entry e : entries) {
+            add(id, e);
+        }
+    }
+
+    public void remove(int id) {
+        List<Entry> old = forward.remove(id);
+        if (old == null) return;
+        for (Entry e : old) {
+            removeFrom(keys, e.key, id);
+            if (e.text != null) {
+                Map<String, TagBitmap> m = texts.get(e.key);
+                if (m != null) {
+                    removeFrom(m, e.text, id);
+                    if (m.isEmpty()) texts.remove(e.key);
+                }
+            }
+            if (e.num != null) {
+                TreeMap<Double, TagBitmap> m = nums.get(e.key);
+                if (m != null) {
+                    removeFrom(m, e.num, id);
+                    if (m.isEmpty()) nums.remove(e.key);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return forward.size();
+    }
+
+    /**
+     * 等值：文本相同，或值可转数值且数值相同（与原 SQL 的 tag_value_text = ? OR tag_value_num = ? 一致）
+     */
+    public TagBitmap eq(String key, String text, Double num) {
+        TagBitmap byText = null;
+        Map<String, TagBitmap> m = texts.get(key);
+        if (m != null && text != null) byText = m.get(text);
+        TagBitmap byNum = null;
+        TreeMap<Double, TagBitmap> col = nums.get(key);
+        if (col != null && num != null) byNum = col.get(num);
+        if (byText == null) return byNum != null ? byNum : new TagBitmap();
+        return byNum != null ? TagBitmap.or(byText, byNum) : byText;
+    }
+
+    /**
+     * 数值区间，端点为 null 表示不限
+     */
+    public TagBitmap range(String key, Double from, boolean fromInclusive, Double to, boolean toInclusive) {
+        TreeMap<Double, TagBitmap> col = nums.get(key);
+        if (col == null) return new TagBitmap();
+        NavigableMap<Double, TagBitmap> sub = col;
+        if (from != null && to != null) {
+            if (from > to) return new TagBitmap();
+            sub = col.subMap(from, fromInclusive, to, toInclusive);
+        } else if (from != null) {
+            sub = col.tailMap(from, fromInclusive);
+        } else if (to != null) {
+            sub = col.headMap(to, toInclusive);
+        }
+        return TagBitmap.or(sub.values());
+    }
+
+    public TagBitmap exists(String key) {
+        TagBitmap b = keys.get(key);
+        return b != null ? b : new TagBitmap();
+    }
+
+    private static <K> void removeFrom(Map<K, TagBitmap> m, K k, int id) {
+        TagBitmap b = m.get(k);
+        if (b == null) return;
+        b.remove(id);
+        if (b.isEmpty()) m.remove(k);
+    }
+}
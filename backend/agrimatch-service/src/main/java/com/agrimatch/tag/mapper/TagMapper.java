@@ -1,8 +1,10 @@
 package com.agrimatch.tag.mapper;
 
+import com.agrimatch.tag.domain.ItemTagValue;
 import com.agrimatch.tag.domain.NhtTag;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import java.util.Collection;
 import java.util.List;
 
 @Mapper
@@ -25,5 +27,21 @@ public interface TagMapper {
                              @Param("tagId") Integer tagId, @Param("tagKey") String tagKey,
                              @Param("tagValueText") String tagValueText, @Param("tagValueNum") Double tagValueNum,
                              @Param("domain") String domain);
+
+    int deleteEntityTagsBatch(@Param("entityType") String entityType, @Param("entityIds") Collection<Long> entityIds);
+
+    int batchInsertEntityTagValues(@Param("list") List<ItemTagValue> list);
+
+    /**
+     * 建标签位图索引：按主键游标分批读取
+     */
+    List<ItemTagValue> selectEntityTagValuesAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    List<ItemTagValue> selectEntityTagValues(@Param("entityType") String entityType, @Param("entityIds") Collection<Long> entityIds);
+
+    /**
+     * 索引装载完成前按条件涉及的 tagKey 临时取数
+     */
+    List<ItemTagValue> selectEntityTagValuesByKeys(@Param("entityType") String entityType, @Param("tagKeys") Collection<String> tagKeys);
 }
 
@@ -0,0 +1,44 @@
+package com.agrimatch.tag.scheduler;
+
+import com.agrimatch.tag.service.TagIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 标签位图索引维护任务
+ * - 启动时全量装载 bus_item_tag_values
+ * - 定期重建（兜底其他节点或直接改库的数据）
+ */
+@Component
+public class TagIndexScheduler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TagIndexScheduler.class);
+
+    private final TagIndexService tagIndexService;
+
+    public TagIndexScheduler(TagIndexService tagIndexService) {
+        this.tagIndexService = tagIndexService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            tagIndexService.rebuild();
+        } catch (Exception e) {
+            log.error("[TagIndex] 标签位图索引装载失败，暂时按需从库里取数", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.tag-index.rebuild-interval-ms:1800000}", initialDelay = 1800 * 1000)
+    public void rebuild() {
+        try {
+            tagIndexService.rebuild();
+        } catch (Exception e) {
+            log.error("[TagIndex] 标签位图索引重建失败", e);
+        }
+    }
+}
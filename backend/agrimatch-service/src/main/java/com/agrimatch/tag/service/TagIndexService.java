@@ -0,0 +1,47 @@
+package com.agrimatch.tag.service;
+
+import com.agrimatch.tag.domain.ItemTagValue;
+import com.agrimatch.tag.index.TagBitmap;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 标签位图索引（bus_item_tag_values 的内存副本），供统一搜索和大厅列表做标签筛选：
+ * - 启动时全量装载，定期重建兜底（其他节点/后台直接改库的数据）
+ * - TagService 写标签索引表时同步替换
+ * - 装载完成前按条件涉及的 tagKey 临时从库里取数计算
+ * 筛选条件格式见 TagFilter
+ */
+public interface TagIndexService {
+
+    /**
+     * 全量重建
+     * @return 有标签的实体数
+     */
+    int rebuild();
+
+    boolean isReady();
+
+    /**
+     * 整体替换这批实体的标签（values 里没有的实体视为已无标签）
+     */
+    void replace(String entityType, Collection<Long> entityIds, List<ItemTagValue> values);
+
+    /**
+     * 命中筛选条件的实体；条件为空返回 null，条件不合法抛 ApiException
+     */
+    TagBitmap match(String entityType, Map<String, ?> filters);
+
+    /**
+     * 同 match，条件为 JSON 对象字符串（列表接口的 tagFilters 参数），返回命中的实体 id（SQL 按 id IN 过滤）
+     * 最多 limit 个，超出时只保留 id 最大（最新发布）的
+     */
+    List<Long> matchIds(String entityType, String filtersJson, int limit);
+
+    /**
+     * 这批实体中带有各标签 key 的实体数（分面计数用），位图求交计算
+     */
+    Map<String, Integer> countKeys(String entityType, TagBitmap entities, Collection<String> tagKeys);
+}
@@ -1,6 +1,9 @@
 package com.agrimatch.tag.service;
 
+import com.agrimatch.tag.domain.ItemTagValue;
 import com.agrimatch.tag.domain.NhtTag;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface TagService {
@@ -20,6 +23,16 @@ public interface TagService {
      */
     void syncEntityTags(String entityType, Long entityId, String domain, String tagsJson);
 
+    /**
+     * 解析 tags_json（[{tagId, tagKey, value, ...}]）为索引行；JSON 不合法时抛 ApiException
+     */
+    List<ItemTagValue> parseEntityTags(String entityType, Long entityId, String domain, String tagsJson);
+
+    /**
+     * 批量替换一批实体的标签索引：一次删除 + 分批多行插入（批量导入用）
+     */
+    void replaceEntityTags(String entityType, Collection<Long> entityIds, List<ItemTagValue> values);
+
     List<NhtTag> getHotTags();
 
     List<String> getTagDomains();
@@ -0,0 +1,191 @@
+package com.agrimatch.tag.service.impl;
+
+import com.agrimatch.common.api.ResultCode;
+import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.common.index.RebuildTracker;
+import com.agrimatch.tag.domain.ItemTagValue;
+import com.agrimatch.tag.index.TagBitmap;
+import com.agrimatch.tag.index.TagFilter;
+import com.agrimatch.tag.index.TagIndex;
+import com.agrimatch.tag.mapper.TagMapper;
+import com.agrimatch.tag.service.TagIndexService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+public class TagIndexServiceImpl implements TagIndexService {
+    private static final Logger log = LoggerFactory.getLogger(TagIndexServiceImpl.class);
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+    private static final int BATCH_SIZE = 1000;
+
+    private final TagMapper tagMapper;
+    private final ObjectMapper objectMapper;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildTracker tracker = new RebuildTracker();
+
+    /** entityType -> 索引 */
+    private Map<String, TagIndex> indexes = new HashMap<>();
+    private volatile boolean ready;
+
+    public TagIndexServiceImpl(TagMapper tagMapper, ObjectMapper objectMapper) {
+        this.tagMapper = tagMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        long[] rows = {0};
+        RebuildTracker.Result<Map<String, TagIndex>> r = tracker.rebuild(() -> {
+            Map<String, TagIndex> fresh = new HashMap<>();
+            Long afterId = null;
+            while (true) {
+                List<ItemTagValue> batch = tagMapper.selectEntityTagValuesAfter(afterId, LOAD_BATCH_SIZE);
+                for (ItemTagValue v : batch) {
+                    add(fresh, v);
+                }
+                rows[0] += batch.size();
+                if (batch.size() < LOAD_BATCH_SIZE) break;
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            return fresh;
+        }, fresh -> {
+            lock.writeLock().lock();
+            try {
+                indexes = fresh;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }, BATCH_SIZE, (type, ids) -> replace(type, ids, tagMapper.selectEntityTagValues(type, ids)));
+        int entities = 0;
+        for (TagIndex idx : r.index().values()) {
+            entities += idx.size();
+        }
+        log.info("[TagIndex] 标签位图索引重建完成：{} 行标签值，{} 个实体，重放 {} 条增量，耗时 {} ms",
+                rows[0], entities, r.replayed(), System.currentTimeMillis() - start);
+        return entities;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void replace(String entityType, Collection<Long> entityIds, List<ItemTagValue> values) {
+        if (!StringUtils.hasText(entityType) || entityIds == null || entityIds.isEmpty()) return;
+        tracker.touch(entityType, entityIds);
+        Map<Long, List<TagIndex.Entry>> byId = new HashMap<>();
+        if (values != null) {
+            for (ItemTagValue v : values) {
+                if (v.getEntityId() != null && StringUtils.hasText(v.getTagKey())) {
+                    byId.computeIfAbsent(v.getEntityId(), k -> new ArrayList<>()).add(toEntry(v));
+                }
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            TagIndex idx = indexes.computeIfAbsent(entityType, k -> new TagIndex());
+            for (Long id : entityIds) {
+                if (id == null || !TagBitmap.fits(id)) continue;
+                List<TagIndex.Entry> entries = byId.get(id);
+                if (entries == null) {
+                    idx.remove(id.intValue());
+                } else {
+                    idx.replace(id.intValue(), entries);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public TagBitmap match(String entityType, Map<String, ?> filters) {
+        TagFilter filter;
+        try {
+            filter = TagFilter.parse(filters);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "标签筛选条件不正确：" + e.getMessage());
+        }
+        if (filter == null) return null;
+
+        if (!ready) {
+            Map<String, TagIndex> partial = new HashMap<>();
+            for (ItemTagValue v : tagMapper.selectEntityTagValuesByKeys(entityType, filter.keys())) {
+                add(partial, v);
+            }
+            TagIndex idx = partial.get(entityType);
+            return idx != null ? filter.eval(idx) : new TagBitmap();
+        }
+        lock.readLock().lock();
+        try {
+            TagIndex idx = indexes.get(entityType);
+            // 结果可能直接是索引里的位图，拷贝后再交出锁
+            return idx != null ? filter.eval(idx).copy() : new TagBitmap();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> matchIds(String entityType, String filtersJson, int limit) {
+        if (!StringUtils.hasText(filtersJson)) return null;
+        Map<String, Object> filters;
+        try {
+            filters = objectMapper.readValue(filtersJson, new TypeReference<Map<String, Object>>() {});
+        } catch (Exception e) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "标签筛选条件格式不正确");
+        }
+        TagBitmap hits = match(entityType, filters);
+        if (hits == null) return null;
+        int n = hits.cardinality();
+        if (n > limit) log.debug("[TagIndex] {} 标签筛选命中 {} 个，只保留最新的 {} 个", entityType, n, limit);
+        return hits.toLongList(limit);
+    }
+
+    @Override
+    public Map<String, Integer> countKeys(String entityType, TagBitmap entities, Collection<String> tagKeys) {
+        Map<String, Integer> out = new HashMap<>();
+        if (entities == null || entities.isEmpty() || tagKeys == null || tagKeys.isEmpty()) return out;
+        lock.readLock().lock();
+        try {
+            TagIndex idx = indexes.get(entityType);
+            if (idx == null) return out;
+            for (String key : tagKeys) {
+                int n = TagBitmap.andCardinality(entities, idx.exists(key));
+                if (n > 0) out.put(key, n);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return out;
+    }
+
+    private static void add(Map<String, TagIndex> target, ItemTagValue v) {
+        if (v.getEntityId() == null || !StringUtils.hasText(v.getEntityType()) || !StringUtils.hasText(v.getTagKey())) return;
+        if (!TagBitmap.fits(v.getEntityId())) {
+            log.warn("[TagIndex] {}#{} id 超出位图范围，跳过", v.getEntityType(), v.getEntityId());
+            return;
+        }
+        target.computeIfAbsent(v.getEntityType(), k -> new TagIndex()).add(v.getEntityId().intValue(), toEntry(v));
+    }
+
+    private static TagIndex.Entry toEntry(ItemTagValue v) {
+        return new TagIndex.Entry(v.getTagKey(), v.getTagValueText(),
+                v.getTagValueNum() != null ? v.getTagValueNum().doubleValue() : null);
+    }
+}
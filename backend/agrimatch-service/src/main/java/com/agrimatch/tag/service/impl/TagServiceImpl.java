@@ -1,25 +1,49 @@
 package com.agrimatch.tag.service.impl;
 
+import com.agrimatch.common.api.ResultCode;
+import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.common.tx.AfterCommit;
+import com.agrimatch.tag.domain.ItemTagValue;
 import com.agrimatch.tag.domain.NhtTag;
 import com.agrimatch.tag.mapper.TagMapper;
+import com.agrimatch.tag.service.TagIndexService;
 import com.agrimatch.tag.service.TagService;
+import com.agrimatch.typeahead.service.TypeaheadService;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
 @Service
 public class TagServiceImpl implements TagService {
+    private static final Logger log = LoggerFactory.getLogger(TagServiceImpl.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_TEXT_LENGTH = 255;
+    /** tag_value_num 为 DECIMAL(18, 4)，超出范围的只存文本 */
+    private static final BigDecimal MAX_NUM = new BigDecimal("100000000000000");
+
     private final TagMapper tagMapper;
     private final ObjectMapper objectMapper;
+    private final TagIndexService tagIndexService;
+    private final TypeaheadService typeaheadService;
 
-    public TagServiceImpl(TagMapper tagMapper, ObjectMapper objectMapper) {
+    public TagServiceImpl(TagMapper tagMapper, ObjectMapper objectMapper, TagIndexService tagIndexService,
+                          TypeaheadService typeaheadService) {
         this.tagMapper = tagMapper;
         this.objectMapper = objectMapper;
+        this.tagIndexService = tagIndexService;
+        this.typeaheadService = typeaheadService;
     }
 
     @Override
@@ -39,23 +63,101 @@ public class TagServiceImpl implements TagService {
 
     @Override
     public int createTag(NhtTag tag) {
-        return tagMapper.insertTag(tag);
+        int rows = tagMapper.insertTag(tag);
+        refreshTypeahead(tag.getId());
+        return rows;
     }
 
     @Override
     public int updateTag(NhtTag tag) {
-        return tagMapper.updateTag(tag);
+        int rows = tagMapper.updateTag(tag);
+        refreshTypeahead(tag.getId());
+        return rows;
     }
 
     @Override
     public int deleteTag(Integer id) {
-        return tagMapper.deleteTagById(id);
+        int rows = tagMapper.deleteTagById(id);
+        refreshTypeahead(id);
+        return rows;
     }
 
     @Override
     @Transactional
     public void syncEntityTags(String entityType, Long entityId, String domain, String tagsJson) {
-        // ... (implementation is already there, I just need to add the new methods after it)
+        if (!StringUtils.hasText(entityType) || entityId == null) return;
+        List<ItemTagValue> values;
+        try {
+            values = parseEntityTags(entityType, entityId, domain, tagsJson);
+        } catch (ApiException e) {
+            // 历史数据里的脏 JSON 不影响保存，只是不进索引
+            log.warn("[Tag] {}#{} tags_json 解析失败，已清空索引: {}", entityType, entityId, e.getMessage());
+            values = new ArrayList<>();
+        }
+        replaceEntityTags(entityType, List.of(entityId), values);
+    }
+
+    @Override
+    public List<ItemTagValue> parseEntityTags(String entityType, Long entityId, String domain, String tagsJson) {
+        List<ItemTagValue> out = new ArrayList<>();
+        if (!StringUtils.hasText(tagsJson)) return out;
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(tagsJson);
+        } catch (Exception e) {
+            throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "标签格式不正确");
+        }
+        if (root == null || root.isNull()) return out;
+        if (!root.isArray()) throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "标签格式不正确");
+        for (JsonNode t : root) {
+            String key = t.path("tagKey").asText("");
+            if (!StringUtils.hasText(key)) continue;
+            ItemTagValue v = new ItemTagValue();
+            v.setEntityType(entityType);
+            v.setEntityId(entityId);
+            v.setTagId(t.path("tagId").canConvertToInt() ? t.path("tagId").asInt() : 0);
+            v.setTagKey(key.trim());
+            v.setDomain(StringUtils.hasText(domain) ? domain : "general");
+            JsonNode value = t.get("value");
+            if (value != null && value.isValueNode() && !value.isNull()) {
+                String text = value.asText("").trim();
+                if (StringUtils.hasText(text)) {
+                    v.setTagValueText(text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) : text);
+                    v.setTagValueNum(toNumber(value, text));
+                }
+            }
+            out.add(v);
+        }
+        return out;
+    }
+
+    @Override
+    @Transactional
+    public void replaceEntityTags(String entityType, Collection<Long> entityIds, List<ItemTagValue> values) {
+        if (!StringUtils.hasText(entityType) || entityIds == null || entityIds.isEmpty()) return;
+        tagMapper.deleteEntityTagsBatch(entityType, entityIds);
+        if (values != null) {
+            for (int i = 0; i < values.size(); i += BATCH_SIZE) {
+                tagMapper.batchInsertEntityTagValues(values.subList(i, Math.min(i + BATCH_SIZE, values.size())));
+            }
+        }
+        // 提交后再改内存索引，回滚时不留下库里没有的标签
+        List<Long> ids = new ArrayList<>(entityIds);
+        AfterCommit.run(() -> tagIndexService.replace(entityType, ids, values));
+    }
+
+    private static BigDecimal toNumber(JsonNode value, String text) {
+        BigDecimal n;
+        if (value.isNumber()) {
+            n = value.decimalValue();
+        } else {
+            try {
+                n = new BigDecimal(text);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return n.abs().compareTo(MAX_NUM) < 0 ? n : null;
     }
 
     @Override
@@ -86,7 +188,12 @@ public class TagServiceImpl implements TagService {
         tag.setIsHot(0);
         
         tagMapper.insertTag(tag);
+        refreshTypeahead(tag.getId());
         return tag;
     }
+
+    private void refreshTypeahead(Integer tagId) {
+        if (tagId != null) typeaheadService.refresh(TypeaheadService.TAG, List.of(tagId.longValue()));
+    }
 }
 
@@ -0,0 +1,32 @@
+package com.agrimatch.typeahead.controller;
+
+import com.agrimatch.common.api.Result;
+import com.agrimatch.typeahead.dto.TypeaheadSuggestion;
+import com.agrimatch.typeahead.service.TypeaheadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/typeahead")
+@RequiredArgsConstructor
+public class TypeaheadController {
+
+    private final TypeaheadService typeaheadService;
+
+    /**
+     * 输入联想：keyword 支持汉字、全拼、首字母；types=product,tag,company 可选，默认全部
+     */
+    @GetMapping
+    public Result<List<TypeaheadSuggestion>> suggest(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String types,
+            @RequestParam(defaultValue = "10") int limit) {
+        return Result.success(typeaheadService.suggest(keyword, StringUtils.commaDelimitedListToSet(types), limit));
+    }
+}
@@ -0,0 +1,16 @@
+package com.agrimatch.typeahead.domain;
+
+import lombok.Data;
+
+/**
+ * 建联想索引用的词条行：产品名 / 标签名 / 公司名及热度
+ */
+@Data
+public class TypeaheadItem {
+    private Long id;
+    private String name;
+    /** 被引用次数（供需条数或打标次数） */
+    private Long uses;
+    /** 标签是否热门 */
+    private Integer hot;
+}
@@ -0,0 +1,15 @@
+package com.agrimatch.typeahead.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypeaheadSuggestion {
+    /** product / tag / company */
+    private String type;
+    private Long id;
+    private String name;
+}
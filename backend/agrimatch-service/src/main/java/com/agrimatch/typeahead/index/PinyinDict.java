@@ -0,0 +1,165 @@
+package com.agrimatch.typeahead.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 汉字转拼音（联想用）：读 classpath 下的 typeahead/pinyin.txt
+ * - 全拼：如 豆粕 -> doupo；首字母：如 豆粕 -> dp
+ * - 多音字展开各读音的组合，最多 MAX_COMBOS 种
+ * - 表里没有的字：GB2312 一级字按拼音排序推出首字母，全拼到此截断；其他字两者都截断
+ *   （联想只做前缀匹配，截断后的 key 仍能命中前半段）
+ */
+public final class PinyinDict {
+
+    private static final String RESOURCE = "typeahead/pinyin.txt";
+    private static final int MAX_COMBOS = 8;
+    /** 各声母在 GB2312 一级字里的第一个字，与 LETTERS 一一对应 */
+    private static final String BOUNDARIES = "啊芭擦搭蛾发噶哈击喀垃妈拿哦啪期然撒塌挖昔压匝";
+    private static final String LETTERS = "abcdefghjklmnopqrstwxyz";
+
+    private static final Map<Character, List<String>> READINGS = load();
+    private static final Collator COLLATOR = Collator.getInstance(Locale.CHINA);
+    private static final Charset GB2312 = gb2312();
+
+    private PinyinDict() {
+    }
+
+    /**
+     * 全拼 + 首字母两组 key（已去重，不含原文）；text 需已转小写
+     */
+    public static Set<String> keys(String text) {
+        List<StringBuilder> full = new ArrayList<>();
+        List<StringBuilder> initials = new ArrayList<>();
+        full.add(new StringBuilder());
+        initials.add(new StringBuilder());
+        boolean fullOpen = true;
+        boolean initialsOpen = true;
+        boolean hasHan = false;
+        for (int i = 0; i < text.length() && (fullOpen || initialsOpen); i++) {
+            char c = text.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                String s = String.valueOf(c);
+                if (fullOpen) full = append(full, List.of(s));
+                if (initialsOpen) initials = append(initials, List.of(s));
+                continue;
+            }
+            if (!isHan(c)) continue;
+            hasHan = true;
+            List<String> readings = READINGS.get(c);
+            if (readings != null) {
+                if (fullOpen) full = append(full, readings);
+                if (initialsOpen) initials = append(initials, firstLetters(readings));
+                continue;
+            }
+            fullOpen = false;
+            String letter = initialOf(c);
+            if (letter != null && initialsOpen) {
+                initials = append(initials, List.of(letter));
+            } else {
+                initialsOpen = false;
+            }
+        }
+        Set<String> out = new LinkedHashSet<>();
+        if (!hasHan) return out;
+        for (StringBuilder sb : full) {
+            if (sb.length() > 0) out.add(sb.toString());
+        }
+        for (StringBuilder sb : initials) {
+            if (sb.length() > 0) out.add(sb.toString());
+        }
+        return out;
+    }
+
+    public static boolean isHan(char c) {
+        return Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+    }
+
+    private static List<StringBuilder> append(List<StringBuilder> prefixes, List<String> parts) {
+        if (parts.size() == 1) {
+            for (StringBuilder sb : prefixes) {
+                sb.append(parts.get(0));
+            }
+            return prefixes;
+        }
+        List<StringBuilder> out = new ArrayList<>();
+        for (StringBuilder sb : prefixes) {
+            for (String p : parts) {
+                if (out.size() >= MAX_COMBOS) return out;
+                out.add(new StringBuilder(sb).append(p));
+            }
+        }
+        return out;
+    }
+
+    private static List<String> firstLetters(List<String> readings) {
+        Set<String> out = new LinkedHashSet<>();
+        for (String r : readings) {
+            out.add(r.substring(0, 1));
+        }
+        return new ArrayList<>(out);
+    }
+
+    /**
+     * 表外汉字的首字母：只认 GB2312 一级字（按拼音排序），二级字按部首排序推不出来
+     */
+    private static String initialOf(char c) {
+        if (GB2312 == null) return null;
+        CharsetEncoder encoder = GB2312.newEncoder();
+        if (!encoder.canEncode(c)) return null;
+        byte[] b = String.valueOf(c).getBytes(GB2312);
+        int hi = b[0] & 0xff;
+        if (b.length != 2 || hi < 0xb0 || hi > 0xd7) return null;
+        String s = String.valueOf(c);
+        for (int i = BOUNDARIES.length() - 1; i >= 0; i--) {
+            if (COLLATOR.compare(String.valueOf(BOUNDARIES.charAt(i)), s) <= 0) {
+                return String.valueOf(LETTERS.charAt(i));
+            }
+        }
+        return null;
+    }
+
+    private static Charset gb2312() {
+        try {
+            return Charset.forName("GB2312");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Map<Character, List<String>> load() {
+        Map<Character, List<String>> out = new HashMap<>();
+        InputStream in = PinyinDict.class.getClassLoader().getResourceAsStream(RESOURCE);
+        if (in == null) return out;
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                line = line.trim();
+                int i = line.indexOf(':');
+                if (line.isEmpty() || line.startsWith("#") || i <= 0) continue;
+                String syllable = line.substring(0, i).trim();
+                for (char c : line.substring(i + 1).trim().toCharArray()) {
+                    List<String> list = out.computeIfAbsent(c, k -> new ArrayList<>(1));
+                    if (!list.contains(syllable)) list.add(syllable);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,189 @@
+package com.agrimatch.typeahead.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 联想词的内存前缀索引：有序 key -> 词条，前缀查询即 subMap(prefix, prefix + U+FFFF)
+ * - 前缀 key：规范化后的名称、全拼、首字母（豆粕 -> 豆粕 / doupo / dp）
+ * - 中缀 key：名称的各个后缀（豆粕 -> 粕），命中时排在前缀命中之后
+ * 排序：全等 > 前缀 > 中缀，同档按热度、名称长度
+ * 1~2 个字符的前缀命中面最大，结果缓存到下一次增删为止
+ * 写操作非线程安全，由 TypeaheadService 加读写锁；suggest 可并发
+ */
+public class PrefixIndex {
+
+    /** 只对前 30 个字建后缀 key */
+    private static final int MAX_SUFFIX_LENGTH = 30;
+    private static final int CACHED_PREFIX_LENGTH = 2;
+    /** 短前缀缓存的结果条数，limit 不超过它时从缓存截取 */
+    private static final int CACHED_LIMIT = 20;
+
+    public static final class Entry {
+        private final String type;
+        private final long id;
+        private final String name;
+        private final long weight;
+        private final String norm;
+        private final List<String> starts = new ArrayList<>();
+        private final List<String> infixes = new ArrayList<>();
+
+        public Entry(String type, long id, String name, long weight) {
+            this.type = type;
+            this.id = id;
+            this.name = name;
+            this.weight = weight;
+            this.norm = normalize(name);
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+    }
+
+    private record Hit(Entry entry, int tier) {
+    }
+
+    private static final Comparator<Hit> ORDER = Comparator.comparingInt(Hit::tier)
+            .thenComparing(Comparator.comparingLong((Hit h) -> h.entry.weight).reversed())
+            .thenComparingInt(h -> h.entry.name.length())
+            .thenComparing(h -> h.entry.name);
+
+    private final TreeMap<String, List<Entry>> starts = new TreeMap<>();
+    private final TreeMap<String, List<Entry>> infixes = new TreeMap<>();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, List<Entry>> shortPrefixCache = new ConcurrentHashMap<>();
+
+    /**
+     * 小写、去空白
+     */
+    public static String normalize(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        String lower = s.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (!Character.isWhitespace(c)) sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    public void put(Entry e) {
+        remove(e.type, e.id);
+        shortPrefixCache.clear();
+        if (e.norm.isEmpty()) return;
+        Set<String> s = new LinkedHashSet<>();
+        s.add(e.norm);
+        s.addAll(PinyinDict.keys(e.norm));
+        Set<String> in = new LinkedHashSet<>();
+        int n = Math.min(e.norm.length(), MAX_SUFFIX_LENGTH);
+        for (int i = 1; i < n; i++) {
+            char c = e.norm.charAt(i);
+            if (Character.isLetterOrDigit(c) && !s.contains(e.norm.substring(i))) in.add(e.norm.substring(i));
+        }
+        for (String k : s) {
+            starts.computeIfAbsent(k, x -> new ArrayList<>(1)).add(e);
+            e.starts.add(k);
+        }
+        for (String k : in) {
+            infixes.computeIfAbsent(k, x -> new ArrayList<>(1)).add(e);
+            e.infixes.add(k);
+        }
+        entries.put(key(e.type, e.id), e);
+    }
+
+    public void remove(String type, long id) {
+        Entry old = entries.remove(key(type, id));
+        if (old == null) return;
+        shortPrefixCache.clear();
+        unlink(starts, old.starts, old);
+        unlink(infixes, old.infixes, old);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int keyCount() {
+        return starts.size() + infixes.size();
+    }
+
+    /**
+     * @param types 为空时不限类型
+     */
+    public List<Entry> suggest(String prefix, Collection<String> types, int limit) {
+        String q = normalize(prefix);
+        if (q.isEmpty() || limit <= 0) return new ArrayList<>();
+        if (q.length() <= CACHED_PREFIX_LENGTH && limit <= CACHED_LIMIT) {
+            String cacheKey = q + "|" + (types == null ? "" : String.join(",", new TreeSet<>(types)));
+            List<Entry> top = shortPrefixCache.computeIfAbsent(cacheKey, k -> List.copyOf(collect(q, types, CACHED_LIMIT)));
+            return new ArrayList<>(top.subList(0, Math.min(limit, top.size())));
+        }
+        return collect(q, types, limit);
+    }
+
+    private List<Entry> collect(String q, Collection<String> types, int limit) {
+        Map<Entry, Integer> best = new HashMap<>();
+        scan(starts, q, types, best, true);
+        scan(infixes, q, types, best, false);
+        PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, ORDER.reversed());
+        for (Map.Entry<Entry, Integer> e : best.entrySet()) {
+            heap.offer(new Hit(e.getKey(), e.getValue()));
+            if (heap.size() > limit) heap.poll();
+        }
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(ORDER);
+        List<Entry> out = new ArrayList<>(hits.size());
+        for (Hit h : hits) {
+            out.add(h.entry);
+        }
+        return out;
+    }
+
+    private static void scan(TreeMap<String, List<Entry>> map, String q, Collection<String> types,
+                             Map<Entry, Integer> best, boolean start) {
+        for (Map.Entry<String, List<Entry>> e : map.subMap(q, true, q + '\uffff', false).entrySet()) {
+            for (Entry entry : e.getValue()) {
+                if (types != null && !types.isEmpty() && !types.contains(entry.type)) continue;
+                int tier = start ? (entry.norm.equals(q) ? 0 : 1) : 2;
+                best.merge(entry, tier, Math::min);
+            }
+        }
+    }
+
+    private static void unlink(TreeMap<String, List<Entry>> map, List<String> keys, Entry e) {
+        for (String k : keys) {
+            List<Entry> list = map.get(k);
+            if (list == null) continue;
+            list.remove(e);
+            if (list.isEmpty()) map.remove(k);
+        }
+    }
+
+    private static String key(String type, long id) {
+        return type + ":" + id;
+    }
+}
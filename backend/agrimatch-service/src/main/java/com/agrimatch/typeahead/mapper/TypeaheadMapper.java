@@ -0,0 +1,21 @@
+package com.agrimatch.typeahead.mapper;
+
+import com.agrimatch.typeahead.domain.TypeaheadItem;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface TypeaheadMapper {
+    /**
+     * 建联想索引：type 为 product / tag / company，按 id 游标分批读取，ids 不为空时只读这些；
+     * 索引未就绪时传 keyword 走 LIKE，按热度取前 limit 条
+     */
+    List<TypeaheadItem> selectItems(@Param("type") String type,
+                                    @Param("ids") Collection<Long> ids,
+                                    @Param("afterId") Long afterId,
+                                    @Param("keyword") String keyword,
+                                    @Param("limit") Integer limit);
+}
@@ -0,0 +1,44 @@
+package com.agrimatch.typeahead.scheduler;
+
+import com.agrimatch.typeahead.service.TypeaheadService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 联想索引维护任务
+ * - 启动时全量装载产品目录/标签/公司名
+ * - 定期重建（刷新热度，兜底后台直接改库的数据）
+ */
+@Component
+public class TypeaheadScheduler implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TypeaheadScheduler.class);
+
+    private final TypeaheadService typeaheadService;
+
+    public TypeaheadScheduler(TypeaheadService typeaheadService) {
+        this.typeaheadService = typeaheadService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            typeaheadService.rebuild();
+        } catch (Exception e) {
+            log.error("[Typeahead] 联想索引装载失败，暂时使用 SQL 查询", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${agrimatch.typeahead.rebuild-interval-ms:600000}", initialDelay = 600 * 1000)
+    public void rebuild() {
+        try {
+            typeaheadService.rebuild();
+        } catch (Exception e) {
+            log.error("[Typeahead] 联想索引重建失败", e);
+        }
+    }
+}
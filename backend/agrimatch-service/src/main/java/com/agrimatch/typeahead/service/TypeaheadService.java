@@ -0,0 +1,37 @@
+package com.agrimatch.typeahead.service;
+
+import com.agrimatch.typeahead.dto.TypeaheadSuggestion;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 输入联想（产品目录 / 标签 / 公司名）的内存前缀索引：
+ * - 支持汉字前缀、全拼、首字母（dp -> 豆粕），按热度排序
+ * - 启动时全量装载，定期重建兜底；新增/修改产品、标签、公司时按 id 增量更新（事务内调用推迟到提交之后）
+ * - 装载完成前回退到 SQL LIKE
+ */
+public interface TypeaheadService {
+
+    String PRODUCT = "product";
+    String TAG = "tag";
+    String COMPANY = "company";
+
+    /**
+     * 全量重建
+     * @return 词条数
+     */
+    int rebuild();
+
+    boolean isReady();
+
+    /**
+     * 重新读取这些词条并更新索引（已删除/停用的移出）；事务内调用时推迟到提交之后
+     */
+    void refresh(String type, Collection<Long> ids);
+
+    /**
+     * @param types 为空时三类都查
+     */
+    List<TypeaheadSuggestion> suggest(String keyword, Collection<String> types, int limit);
+}
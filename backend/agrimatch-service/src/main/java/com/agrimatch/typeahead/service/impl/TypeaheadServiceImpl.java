@@ -0,0 +1,157 @@
+package com.agrimatch.typeahead.service.impl;
+
+import com.agrimatch.common.api.ResultCode;
+import com.agrimatch.common.exception.ApiException;
+import com.agrimatch.common.index.RebuildTracker;
+import com.agrimatch.common.tx.AfterCommit;
+import com.agrimatch.typeahead.domain.TypeaheadItem;
+import com.agrimatch.typeahead.dto.TypeaheadSuggestion;
+import com.agrimatch.typeahead.index.PrefixIndex;
+import com.agrimatch.typeahead.mapper.TypeaheadMapper;
+import com.agrimatch.typeahead.service.TypeaheadService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+public class TypeaheadServiceImpl implements TypeaheadService {
+    private static final Logger log = LoggerFactory.getLogger(TypeaheadServiceImpl.class);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_LIMIT = 20;
+    private static final int MAX_KEYWORD_LENGTH = 50;
+    /** 热门标签的热度加成 */
+    private static final long HOT_BONUS = 1000;
+    private static final List<String> TYPES = List.of(PRODUCT, TAG, COMPANY);
+
+    private final TypeaheadMapper typeaheadMapper;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RebuildTracker tracker = new RebuildTracker();
+
+    private PrefixIndex index = new PrefixIndex();
+    private volatile boolean ready;
+
+    public TypeaheadServiceImpl(TypeaheadMapper typeaheadMapper) {
+        this.typeaheadMapper = typeaheadMapper;
+    }
+
+    @Override
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        RebuildTracker.Result<PrefixIndex> r = tracker.rebuild(() -> {
+            PrefixIndex fresh = new PrefixIndex();
+            for (String type : TYPES) {
+                Long afterId = null;
+                while (true) {
+                    List<TypeaheadItem> rows = typeaheadMapper.selectItems(type, null, afterId, null, BATCH_SIZE);
+                    for (TypeaheadItem item : rows) {
+                        fresh.put(toEntry(type, item));
+                    }
+                    if (rows.size() < BATCH_SIZE) break;
+                    afterId = rows.get(rows.size() - 1).getId();
+                }
+            }
+            return fresh;
+        }, fresh -> {
+            lock.writeLock().lock();
+            try {
+                index = fresh;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }, BATCH_SIZE, this::doRefresh);
+        log.info("[Typeahead] 联想索引重建完成：{} 个词条，{} 个 key，重放 {} 条增量，耗时 {} ms",
+                r.index().size(), r.index().keyCount(), r.replayed(), System.currentTimeMillis() - start);
+        return r.index().size();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void refresh(String type, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) return;
+        List<Long> list = new ArrayList<>(ids);
+        AfterCommit.run(() -> doRefresh(type, list));
+    }
+
+    private void doRefresh(String type, List<Long> list) {
+        tracker.touch(type, list);
+        for (int i = 0; i < list.size(); i += BATCH_SIZE) {
+            List<Long> batch = list.subList(i, Math.min(i + BATCH_SIZE, list.size()));
+            List<TypeaheadItem> rows = typeaheadMapper.selectItems(type, batch, null, null, null);
+            Set<Long> missing = new HashSet<>(batch);
+            lock.writeLock().lock();
+            try {
+                for (TypeaheadItem item : rows) {
+                    missing.remove(item.getId());
+                    index.put(toEntry(type, item));
+                }
+                for (Long id : missing) {
+                    index.remove(type, id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public List<TypeaheadSuggestion> suggest(String keyword, Collection<String> types, int limit) {
+        if (!StringUtils.hasText(keyword)) return new ArrayList<>();
+        String kw = keyword.trim();
+        if (kw.length() > MAX_KEYWORD_LENGTH) kw = kw.substring(0, MAX_KEYWORD_LENGTH);
+        if (types != null) {
+            for (String t : types) {
+                if (!TYPES.contains(t)) throw new ApiException(ResultCode.PARAM_ERROR.getCode(), "不支持的联想类型: " + t);
+            }
+        }
+        int n = limit <= 0 ? 10 : Math.min(limit, MAX_LIMIT);
+        if (!ready) {
+            return fallback(kw, types, n);
+        }
+
+        List<TypeaheadSuggestion> out = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (PrefixIndex.Entry e : index.suggest(kw, types, n)) {
+                out.add(new TypeaheadSuggestion(e.getType(), e.getId(), e.getName()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return out;
+    }
+
+    /**
+     * 索引未就绪：各类按名称 LIKE 取热度最高的几条，不支持拼音
+     */
+    private List<TypeaheadSuggestion> fallback(String keyword, Collection<String> types, int limit) {
+        List<TypeaheadSuggestion> out = new ArrayList<>();
+        for (String type : TYPES) {
+            if (types != null && !types.isEmpty() && !types.contains(type)) continue;
+            for (TypeaheadItem item : typeaheadMapper.selectItems(type, null, null, keyword, limit)) {
+                if (out.size() >= limit) return out;
+                out.add(new TypeaheadSuggestion(type, item.getId(), item.getName()));
+            }
+        }
+        return out;
+    }
+
+    private static PrefixIndex.Entry toEntry(String type, TypeaheadItem item) {
+        long weight = item.getUses() != null ? item.getUses() : 0L;
+        if (item.getHot() != null && item.getHot() == 1) weight += HOT_BONUS;
+        return new PrefixIndex.Entry(type, item.getId(), item.getName(), weight);
+    }
+}
@@ -0,0 +1,97 @@
+package com.agrimatch.util;
+
+import com.agrimatch.common.api.ResultCode;
+import com.agrimatch.common.exception.ApiException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标（keyset）分页工具：游标 = base64url("排序字段|方向|排序值|id")。
+ * 游标绑定排序方式，换了排序条件的旧游标直接拒绝，避免翻页错位。
+ */
+public class CursorUtil {
+    /**
+     * 排序值为空（无坐标无法算距离/到厂价）时的占位值，与 mapper 中 COALESCE 的占位保持一致：
+     * 升序用极大值、降序用 -1，保证空值在两个方向都排在最后。
+     */
+    public static final BigDecimal NULLS_LAST_ASC = new BigDecimal("999999999");
+    public static final BigDecimal NULLS_LAST_DESC = new BigDecimal("-1");
+
+    private static final String SEP = "|";
+
+    private CursorUtil() {
+    }
+
+    public static BigDecimal nullsLast(BigDecimal v, boolean asc) {
+        if (v != null) return v;
+        return asc ? NULLS_LAST_ASC : NULLS_LAST_DESC;
+    }
+
+    public static String encode(String orderBy, String order, Object sortValue, Long id) {
+        String v;
+        if (sortValue instanceof BigDecimal) {
+            v = ((BigDecimal) sortValue).toPlainString();
+        } else {
+            v = String.valueOf(sortValue);
+        }
+        String raw = orderBy + SEP + order + SEP + v + SEP + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标；游标格式错误或与当前排序不一致时抛 PARAM_ERROR
+     */
+    public static Cursor decode(String token, String orderBy, String order) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4 || !parts[0].equals(orderBy) || !parts[1].equals(order)) {
+                throw invalid();
+            }
+            return new Cursor(parts[2], Long.valueOf(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+    }
+
+    private static ApiException invalid() {
+        return new ApiException(ResultCode.PARAM_ERROR.getCode(), "分页游标无效，请从第一页重新加载");
+    }
+
+    public static class Cursor {
+        private final String value;
+        private final Long id;
+
+        private Cursor(String value, Long id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public LocalDateTime asTime() {
+            try {
+                return LocalDateTime.parse(value);
+            } catch (RuntimeException e) {
+                throw invalid();
+            }
+        }
+
+        public BigDecimal asDecimal() {
+            try {
+                return new BigDecimal(value);
+            } catch (RuntimeException e) {
+                throw invalid();
+            }
+        }
+    }
+}
@@ -7,6 +7,12 @@ import java.math.RoundingMode;
  * 简单地理工具：用于 Demo/MVP 的距离估算（不依赖高德额度）。
  */
 public class GeoUtil {
+    public static final double EARTH_RADIUS_KM = 6371.0088d;
+    /**
+     * 每纬度对应的公里数
+     */
+    public static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180d;
+
     private GeoUtil() {
     }
 
@@ -16,18 +22,22 @@ public class GeoUtil {
      */
     public static BigDecimal haversineKm(BigDecimal lat1, BigDecimal lng1, BigDecimal lat2, BigDecimal lng2) {
         if (lat1 == null || lng1 == null || lat2 == null || lng2 == null) return null;
-        double r = 6371.0088d; // Earth radius in km
-        double la1 = Math.toRadians(lat1.doubleValue());
-        double lo1 = Math.toRadians(lng1.doubleValue());
-        double la2 = Math.toRadians(lat2.doubleValue());
-        double lo2 = Math.toRadians(lng2.doubleValue());
+        double km = haversineKm(lat1.doubleValue(), lng1.doubleValue(), lat2.doubleValue(), lng2.doubleValue());
+        return BigDecimal.valueOf(km).setScale(3, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Haversine 大圆距离（公里），原始 double 版本，用于空间索引等热点路径。
+     */
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double la1 = Math.toRadians(lat1);
+        double la2 = Math.toRadians(lat2);
         double dLat = la2 - la1;
-        double dLon = lo2 - lo1;
+        double dLon = Math.toRadians(lng2 - lng1);
         double a = Math.pow(Math.sin(dLat / 2), 2)
                 + Math.cos(la1) * Math.cos(la2) * Math.pow(Math.sin(dLon / 2), 2);
         double c = 2 * Math.asin(Math.min(1, Math.sqrt(a)));
-        double km = r * c;
-        return BigDecimal.valueOf(km).setScale(3, RoundingMode.HALF_UP);
+        return EARTH_RADIUS_KM * c;
     }
 }
 
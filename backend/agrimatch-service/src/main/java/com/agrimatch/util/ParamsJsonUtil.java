@@ -0,0 +1,54 @@
+package com.agrimatch.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * params_json 的几种历史格式统一展开为 参数名 -> 参数值：
+ * - {"params": {"1": {"name": "...", "value": "..."}, "2": "值"}, "custom": {"名称": "值"}}
+ * - {"1": "值"} / {"参数名": "值"}（数字 key 按 nht_product_parameters 的 id 换成名称）
+ * - [{"label": "...", "value": "..."}] 或 [{"name": "...", "value": "..."}]
+ */
+public class ParamsJsonUtil {
+
+    private ParamsJsonUtil() {
+    }
+
+    /**
+     * @param idToName 参数 id -> 参数名（nht_product_parameters）
+     * @return 认不出的结构返回空 Map
+     */
+    public static Map<String, String> flatten(JsonNode root, Map<String, String> idToName) {
+        Map<String, String> out = new LinkedHashMap<>();
+        if (root == null) return out;
+        if (root.has("params") && root.get("params").isObject()) {
+            root.get("params").fields().forEachRemaining(entry -> {
+                JsonNode val = entry.getValue();
+                if (val.isObject() && val.has("name") && val.has("value")) {
+                    out.put(val.get("name").asText(), val.get("value").asText());
+                } else if (val.isTextual()) {
+                    out.put(idToName.getOrDefault(entry.getKey(), entry.getKey()), val.asText());
+                }
+            });
+            if (root.has("custom") && root.get("custom").isObject()) {
+                root.get("custom").fields().forEachRemaining(entry -> out.put(entry.getKey(), entry.getValue().asText()));
+            }
+        } else if (root.isObject()) {
+            if (!root.has("params") && !root.has("custom")) {
+                root.fields().forEachRemaining(entry ->
+                        out.put(idToName.getOrDefault(entry.getKey(), entry.getKey()), entry.getValue().asText()));
+            }
+        } else if (root.isArray()) {
+            for (JsonNode item : root) {
+                if (item.has("label") && item.has("value")) {
+                    out.put(item.get("label").asText(), item.get("value").asText());
+                } else if (item.has("name") && item.has("value")) {
+                    out.put(item.get("name").asText(), item.get("value").asText());
+                }
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,359 @@
+package com.agrimatch.util;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 表格逐行读取（批量导入用），不把整个文件读进内存：
+ * - CSV：RFC 4180（双引号转义、字段内换行），UTF-8（可带 BOM）或 GBK/GB18030（Excel 另存为 CSV 的默认编码）
+ * - XLSX：只读第一个工作表，StAX 流式解析；共享字符串表需常驻内存（只存去重后的文本）
+ */
+public abstract class RowReader implements Closeable {
+
+    /** 编码探测读取的字节数 */
+    private static final int SNIFF_BYTES = 64 * 1024;
+
+    protected int rowNumber;
+
+    /**
+     * @param fileName 原始文件名，按扩展名选择格式
+     */
+    public static RowReader open(Path file, String fileName) throws IOException {
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".xlsx")) {
+            return new XlsxRowReader(file);
+        }
+        if (name.endsWith(".csv") || name.endsWith(".txt")) {
+            return new CsvRowReader(file);
+        }
+        throw new IllegalArgumentException("仅支持 .csv / .xlsx 文件");
+    }
+
+    /**
+     * 下一行的单元格文本（已去首尾空白，空单元格为 ""）；读完返回 null
+     */
+    public abstract List<String> next() throws IOException;
+
+    /**
+     * 最近一次 next() 返回的行号（从 1 开始，与表格软件一致）
+     */
+    public int rowNumber() {
+        return rowNumber;
+    }
+
+    private static final class CsvRowReader extends RowReader {
+        private final Reader in;
+        private int pending = -2;
+
+        CsvRowReader(Path file) throws IOException {
+            BufferedInputStream raw = new BufferedInputStream(Files.newInputStream(file), SNIFF_BYTES);
+            Charset charset = detectCharset(raw);
+            this.in = new BufferedReader(new InputStreamReader(raw, charset));
+        }
+
+        @Override
+        public List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) return null;
+            rowNumber++;
+            List<String> row = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) break;
+                    if (c == '"') {
+                        int n = read();
+                        if (n == '"') {
+                            cell.append('"');
+                        } else {
+                            quoted = false;
+                            c = n;
+                            continue;
+                        }
+                    } else {
+                        cell.append((char) c);
+                    }
+                } else if (c == '"' && cell.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    row.add(cell.toString().trim());
+                    cell.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int n = read();
+                        if (n != '\n') pending = n;
+                    }
+                    break;
+                } else {
+                    cell.append((char) c);
+                }
+                c = read();
+            }
+            row.add(cell.toString().trim());
+            return row;
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return in.read();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        /**
+         * 开头若是合法 UTF-8 按 UTF-8 读（跳过 BOM），否则按 GB18030（兼容 GBK）
+         */
+        private static Charset detectCharset(BufferedInputStream raw) throws IOException {
+            raw.mark(SNIFF_BYTES);
+            byte[] head = raw.readNBytes(SNIFF_BYTES);
+            raw.reset();
+            if (head.length >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF) {
+                raw.skip(3);
+                return StandardCharsets.UTF_8;
+            }
+            // 截断处可能落在多字节字符中间，去掉末尾不完整的 UTF-8 序列再校验
+            int len = head.length;
+            if (len == SNIFF_BYTES) {
+                int back = 0;
+                while (back < 3 && len - back - 1 >= 0 && (head[len - back - 1] & 0xC0) == 0x80) back++;
+                len = Math.max(0, len - back - 1);
+            }
+            try {
+                StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT)
+                        .decode(ByteBuffer.wrap(head, 0, len));
+                return StandardCharsets.UTF_8;
+            } catch (CharacterCodingException e) {
+                return Charset.forName("GB18030");
+            }
+        }
+    }
+
+    private static final class XlsxRowReader extends RowReader {
+        private static final String NS_REL = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+        private final ZipFile zip;
+        private final InputStream sheetIn;
+        private final XMLStreamReader sheet;
+        private final List<String> sharedStrings;
+
+        XlsxRowReader(Path file) throws IOException {
+            this.zip = new ZipFile(file.toFile());
+            try {
+                this.sharedStrings = readSharedStrings();
+                ZipEntry entry = zip.getEntry(firstSheetPath());
+                if (entry == null) throw new IOException("工作表不存在");
+                this.sheetIn = zip.getInputStream(entry);
+                this.sheet = xmlFactory().createXMLStreamReader(sheetIn, "UTF-8");
+            } catch (IOException | XMLStreamException | RuntimeException e) {
+                zip.close();
+                throw e instanceof IOException ? (IOException) e : new IOException("无法解析 xlsx 文件", e);
+            }
+        }
+
+        @Override
+        public List<String> next() throws IOException {
+            try {
+                while (sheet.hasNext()) {
+                    if (sheet.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheet.getLocalName())) {
+                        String r = sheet.getAttributeValue(null, "r");
+                        rowNumber = r != null ? Integer.parseInt(r) : rowNumber + 1;
+                        return readRow();
+                    }
+                }
+                return null;
+            } catch (XMLStreamException e) {
+                throw new IOException("xlsx 第 " + rowNumber + " 行解析失败", e);
+            }
+        }
+
+        /**
+         * 读到 </row>；单元格可能跳过空列，按引用（如 C12）补齐
+         */
+        private List<String> readRow() throws XMLStreamException {
+            List<String> row = new ArrayList<>();
+            String type = null;
+            int col = -1;
+            StringBuilder text = new StringBuilder();
+            boolean inValue = false;
+            while (sheet.hasNext()) {
+                int ev = sheet.next();
+                if (ev == XMLStreamConstants.START_ELEMENT) {
+                    String name = sheet.getLocalName();
+                    if ("c".equals(name)) {
+                        type = sheet.getAttributeValue(null, "t");
+                        String ref = sheet.getAttributeValue(null, "r");
+                        col = ref != null ? columnIndex(ref) : row.size();
+                        text.setLength(0);
+                    } else if ("v".equals(name) || "t".equals(name)) {
+                        inValue = true;
+                    }
+                } else if (ev == XMLStreamConstants.CHARACTERS || ev == XMLStreamConstants.CDATA) {
+                    if (inValue) text.append(sheet.getText());
+                } else if (ev == XMLStreamConstants.END_ELEMENT) {
+                    String name = sheet.getLocalName();
+                    if ("v".equals(name) || "t".equals(name)) {
+                        inValue = false;
+                    } else if ("c".equals(name)) {
+                        while (row.size() < col) row.add("");
+                        row.add(cellText(type, text.toString()));
+                    } else if ("row".equals(name)) {
+                        break;
+                    }
+                }
+            }
+            return row;
+        }
+
+        private String cellText(String type, String raw) {
+            if ("s".equals(type)) {
+                try {
+                    int idx = Integer.parseInt(raw.trim());
+                    return idx >= 0 && idx < sharedStrings.size() ? sharedStrings.get(idx) : "";
+                } catch (NumberFormatException e) {
+                    return "";
+                }
+            }
+            if (type == null || "n".equals(type)) {
+                // 数值单元格：1.2E3 / 13.000000000000002 之类转成常规写法
+                try {
+                    return new BigDecimal(raw.trim()).round(new MathContext(15)).stripTrailingZeros().toPlainString();
+                } catch (NumberFormatException e) {
+                    return raw.trim();
+                }
+            }
+            if ("b".equals(type)) {
+                return "1".equals(raw.trim()) ? "TRUE" : "FALSE";
+            }
+            return raw.trim();
+        }
+
+        private static int columnIndex(String ref) {
+            int idx = 0;
+            for (int i = 0; i < ref.length(); i++) {
+                char ch = ref.charAt(i);
+                if (ch < 'A' || ch > 'Z') break;
+                idx = idx * 26 + (ch - 'A' + 1);
+            }
+            return idx - 1;
+        }
+
+        private List<String> readSharedStrings() throws IOException, XMLStreamException {
+            List<String> out = new ArrayList<>();
+            ZipEntry entry = zip.getEntry("xl/sharedStrings.xml");
+            if (entry == null) return out;
+            try (InputStream in = zip.getInputStream(entry)) {
+                XMLStreamReader x = xmlFactory().createXMLStreamReader(in, "UTF-8");
+                StringBuilder sb = new StringBuilder();
+                boolean inText = false;
+                // 富文本 <si><r><t>..</t></r>...</si> 拼接各段；<rPh> 是注音，跳过
+                int phonetic = 0;
+                while (x.hasNext()) {
+                    int ev = x.next();
+                    if (ev == XMLStreamConstants.START_ELEMENT) {
+                        String name = x.getLocalName();
+                        if ("si".equals(name)) sb.setLength(0);
+                        else if ("rPh".equals(name)) phonetic++;
+                        else if ("t".equals(name) && phonetic == 0) inText = true;
+                    } else if ((ev == XMLStreamConstants.CHARACTERS || ev == XMLStreamConstants.CDATA) && inText) {
+                        sb.append(x.getText());
+                    } else if (ev == XMLStreamConstants.END_ELEMENT) {
+                        String name = x.getLocalName();
+                        if ("t".equals(name)) inText = false;
+                        else if ("rPh".equals(name)) phonetic--;
+                        else if ("si".equals(name)) out.add(sb.toString().trim());
+                    }
+                }
+                x.close();
+            }
+            return out;
+        }
+
+        /**
+         * workbook.xml 中第一个 sheet 的 r:id -> workbook.xml.rels 中的 Target
+         */
+        private String firstSheetPath() throws IOException, XMLStreamException {
+            String rid = null;
+            ZipEntry wb = zip.getEntry("xl/workbook.xml");
+            if (wb != null) {
+                try (InputStream in = zip.getInputStream(wb)) {
+                    XMLStreamReader x = xmlFactory().createXMLStreamReader(in, "UTF-8");
+                    while (x.hasNext() && rid == null) {
+                        if (x.next() == XMLStreamConstants.START_ELEMENT && "sheet".equals(x.getLocalName())) {
+                            rid = x.getAttributeValue(NS_REL, "id");
+                        }
+                    }
+                    x.close();
+                }
+            }
+            ZipEntry rels = zip.getEntry("xl/_rels/workbook.xml.rels");
+            if (rid != null && rels != null) {
+                try (InputStream in = zip.getInputStream(rels)) {
+                    XMLStreamReader x = xmlFactory().createXMLStreamReader(in, "UTF-8");
+                    while (x.hasNext()) {
+                        if (x.next() == XMLStreamConstants.START_ELEMENT && "Relationship".equals(x.getLocalName())
+                                && rid.equals(x.getAttributeValue(null, "Id"))) {
+                            String target = x.getAttributeValue(null, "Target");
+                            x.close();
+                            if (target == null) break;
+                            return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+                        }
+                    }
+                    x.close();
+                }
+            }
+            return "xl/worksheets/sheet1.xml";
+        }
+
+        private static XMLInputFactory xmlFactory() {
+            XMLInputFactory f = XMLInputFactory.newInstance();
+            f.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            f.setProperty(XMLInputFactory.IS_COALESCING, true);
+            return f;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                sheet.close();
+            } catch (XMLStreamException ignored) {
+                // 关闭底层流即可
+            }
+            sheetIn.close();
+            zip.close();
+        }
+    }
+}
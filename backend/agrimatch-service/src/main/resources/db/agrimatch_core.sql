@@ -131,6 +131,8 @@ ALTER TABLE `bus_requirement` ADD COLUMN `delivery_method` varchar(20) DEFAULT N
 ALTER TABLE `bus_requirement` ADD COLUMN `remark` varchar(500) DEFAULT NULL COMMENT '备注';
 ALTER TABLE `bus_requirement` ADD COLUMN `expire_minutes` int DEFAULT NULL COMMENT '发布时效（分钟）';
 ALTER TABLE `bus_requirement` ADD COLUMN `expire_time` datetime(3) DEFAULT NULL COMMENT '过期时间';
+-- 大厅游标分页（create_time, id）
+ALTER TABLE `bus_requirement` ADD INDEX `idx_req_hall` (`is_deleted`, `create_time`, `id`);
 
 -- Table structure for bus_requirement_template
 CREATE TABLE IF NOT EXISTS `bus_requirement_template` (
@@ -205,6 +207,8 @@ ALTER TABLE `bus_supply` ADD COLUMN `remark` varchar(500) DEFAULT NULL COMMENT '
 ALTER TABLE `bus_supply` ADD COLUMN `expire_minutes` int DEFAULT NULL COMMENT '发布时效（分钟）';
 ALTER TABLE `bus_supply` ADD COLUMN `expire_time` datetime(3) DEFAULT NULL COMMENT '过期时间';
 ALTER TABLE `bus_supply` ADD COLUMN `price_type` tinyint NOT NULL DEFAULT 0 COMMENT '报价类型（0=现货一口价 1=基差报价）';
+-- 大厅游标分页（create_time, id）
+ALTER TABLE `bus_supply` ADD INDEX `idx_supply_hall` (`is_deleted`, `create_time`, `id`);
 
 -- ============================================================
 -- 期货合约基准表（系统维护）
@@ -601,3 +605,112 @@ ALTER TABLE bus_company ADD COLUMN IF NOT EXISTS legal_person varchar(50) DEFAUL
 ALTER TABLE bus_company ADD COLUMN IF NOT EXISTS business_scope varchar(500) DEFAULT NULL COMMENT '经营范围';
 ALTER TABLE bus_company ADD COLUMN IF NOT EXISTS company_intro longtext COMMENT '公司介绍';
 
+
+-- ============================================================
+-- Quantity Ledger (成交量台账) - 供应/需求已确认成交量计数行
+-- - 与 bus_deal 插入同事务维护，列表/详情批量读取，避免逐行 SUM(bus_deal)
+-- - 剩余量 = 实体 quantity - deal_qty
+-- ============================================================
+CREATE TABLE IF NOT EXISTS `bus_quantity_ledger` (
+  `entity_type` varchar(20) NOT NULL COMMENT '实体类型（supply/requirement）',
+  `entity_id` bigint NOT NULL COMMENT '实体ID（bus_supply.id / bus_requirement.id）',
+  `deal_qty` decimal(18,3) NOT NULL DEFAULT 0 COMMENT '已确认成交数量合计',
+  `deal_count` int NOT NULL DEFAULT 0 COMMENT '已确认成交笔数',
+  `create_time` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间',
+  `update_time` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间',
+  PRIMARY KEY (`entity_type`, `entity_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='供应/需求成交量台账';
+
+-- ============================================================
+-- Job Lock (定时任务租约) - 多实例部署时同一任务只由持有租约的节点执行
+-- - 节点定期续约；租约过期后其他节点可接管
+-- ============================================================
+CREATE TABLE IF NOT EXISTS `sys_job_lock` (
+  `job_name` varchar(64) NOT NULL COMMENT '任务名',
+  `owner` varchar(128) NOT NULL COMMENT '持有节点标识',
+  `lease_until` datetime(3) NOT NULL COMMENT '租约到期时间',
+  `update_time` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间',
+  PRIMARY KEY (`job_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='定时任务租约';
+
+-- ============================================================
+-- Basis Repricing (基差报价随期货价格重算)
+-- - 期货价格变动时按合约代码找到受影响的基差报价，批量回写参考现价
+-- - 基差报价类供应的 ex_factory_price 同步为各合约参考现价的最低值，大厅展示/排序不再是 0
+-- ============================================================
+ALTER TABLE `bus_supply_basis` ADD COLUMN `last_price` decimal(18,2) DEFAULT NULL COMMENT '计价时的期货价格';
+ALTER TABLE `bus_supply_basis` ADD COLUMN `reference_price` decimal(18,2) DEFAULT NULL COMMENT '参考现价 = last_price + basis_price';
+ALTER TABLE `bus_supply_basis` ADD COLUMN `price_time` datetime(3) DEFAULT NULL COMMENT '参考现价计算时间';
+
+-- ============================================================
+-- Hall Delta Sync (大厅增量同步)
+-- - 变更版本 = (update_time, id)：新增/修改/下架/到期/逻辑删除都会刷新 update_time
+-- - 客户端带上次的版本号拉取之后的变更，按 (update_time, id) 顺序扫描
+-- ============================================================
+ALTER TABLE `bus_supply` ADD INDEX `idx_supply_update_time` (`update_time`, `id`);
+ALTER TABLE `bus_requirement` ADD INDEX `idx_req_update_time` (`update_time`, `id`);
+
+-- ============================================================
+-- Saved Search (订阅搜索) - 保存的查询条件，新发布/修改的供应或采购命中时通知
+-- - 条件：关键词（全部词出现）、板块、品类、标签筛选（含数值范围）、半径（以保存时的公司坐标为中心）
+-- - bus_saved_search_hit 记录已通知过的 (订阅, 挂牌)，同一挂牌反复修改只通知一次
+-- ============================================================
+CREATE TABLE IF NOT EXISTS `bus_saved_search` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '订阅ID',
+  `user_id` bigint NOT NULL COMMENT '用户ID（sys_user.user_id）',
+  `name` varchar(60) NOT NULL COMMENT '订阅名称',
+  `entity_type` varchar(20) NOT NULL COMMENT '订阅对象（supply/requirement）',
+  `keyword` varchar(100) DEFAULT NULL COMMENT '关键词',
+  `domain` varchar(20) DEFAULT NULL COMMENT '板块',
+  `category_name` varchar(100) DEFAULT NULL COMMENT '品类',
+  `tag_filters` varchar(2000) DEFAULT NULL COMMENT '标签筛选（JSON，格式同列表接口 tagFilters）',
+  `radius_km` decimal(10,2) DEFAULT NULL COMMENT '半径（公里）',
+  `center_lat` decimal(10,6) DEFAULT NULL COMMENT '半径中心纬度（保存时的公司坐标）',
+  `center_lng` decimal(10,6) DEFAULT NULL COMMENT '半径中心经度',
+  `enabled` tinyint(1) NOT NULL DEFAULT 1 COMMENT '是否启用（0否 1是）',
+  `is_deleted` tinyint(1) NOT NULL DEFAULT 0 COMMENT '逻辑删除（0否 1是）',
+  `create_time` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间',
+  `update_time` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3) COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_saved_search_user` (`user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='订阅搜索';
+
+CREATE TABLE IF NOT EXISTS `bus_saved_search_hit` (
+  `search_id` bigint NOT NULL COMMENT '订阅ID',
+  `entity_type` varchar(20) NOT NULL COMMENT '实体类型（supply/requirement）',
+  `entity_id` bigint NOT NULL COMMENT '实体ID',
+  `create_time` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '通知时间',
+  PRIMARY KEY (`search_id`, `entity_type`, `entity_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='订阅搜索已通知记录';
+
+-- ============================================================
+-- Item Param Values (参数值索引) - params_json 按参数目录展开后的 EAV 行，写入时同步
+-- - param_key：规范化参数名（去掉括号里的单位、空白），与 nht_product_parameters 的 id -> 名称映射一致
+-- - value_num：取值中的数值（"≤14.0" 记 14.0，value_op 记比较符），列表接口的参数区间筛选走 idx_param_value_num
+-- ============================================================
+CREATE TABLE IF NOT EXISTS `bus_item_param_values` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键',
+  `entity_type` varchar(20) NOT NULL COMMENT '实体类型（supply/requirement/contract）',
+  `entity_id` bigint NOT NULL COMMENT '实体ID',
+  `param_key` varchar(50) NOT NULL COMMENT '规范化参数名',
+  `param_name` varchar(50) NOT NULL COMMENT '原始参数名',
+  `value_text` varchar(255) NOT NULL COMMENT '参数值原文',
+  `value_num` decimal(18,4) DEFAULT NULL COMMENT '参数值中的数值',
+  `value_op` tinyint DEFAULT NULL COMMENT '数值前的比较符（0无 1≤ 2≥）',
+  `unit` varchar(20) DEFAULT NULL COMMENT '单位',
+  `create_time` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_param_value_num` (`entity_type`, `param_key`, `value_num`, `entity_id`),
+  KEY `idx_param_value_text` (`entity_type`, `param_key`, `value_text`(64)),
+  KEY `idx_param_entity` (`entity_type`, `entity_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='参数值索引';
+
+-- ============================================================
+-- Listing Dedup (近似重复挂牌) - 同公司反复重发同一批货时，旧挂牌折叠到最新一条下
+-- - 识别：品类、规范化参数、产地、价格档位、备注的 MinHash 签名，LSH 分桶常驻内存（见 DedupService）
+-- - dup_of_id 指向的挂牌仍在架时，大厅列表不再展示旧挂牌；按公司/用户查自己的挂牌不受影响
+-- ============================================================
+ALTER TABLE `bus_supply` ADD COLUMN `dup_of_id` bigint DEFAULT NULL COMMENT '折叠到的近似重复挂牌ID（同公司更新发布的一条）';
+ALTER TABLE `bus_requirement` ADD COLUMN `dup_of_id` bigint DEFAULT NULL COMMENT '折叠到的近似重复挂牌ID（同公司更新发布的一条）';
+ALTER TABLE `bus_supply` ADD INDEX `idx_supply_dup_of_id` (`dup_of_id`);
+ALTER TABLE `bus_requirement` ADD INDEX `idx_req_dup_of_id` (`dup_of_id`);
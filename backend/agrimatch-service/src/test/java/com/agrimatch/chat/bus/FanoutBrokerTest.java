@@ -0,0 +1,90 @@
+package com.agrimatch.chat.bus;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 两个节点经本地 broker 互相转发；密钥不对的节点握手不过，收不到也发不出
+ */
+class FanoutBrokerTest {
+
+    private static final String SECRET = "test-secret";
+
+    @Test
+    void relaysBetweenTwoBuses() throws Exception {
+        try (FanoutBroker broker = new FanoutBroker("127.0.0.1", 0, SECRET)) {
+            broker.start();
+            TcpFanoutBus a = new TcpFanoutBus("127.0.0.1", broker.getPort(), SECRET, 100);
+            TcpFanoutBus b = new TcpFanoutBus("127.0.0.1", broker.getPort(), SECRET, 100);
+            TcpFanoutBus intruder = new TcpFanoutBus("127.0.0.1", broker.getPort(), "wrong", 100);
+            BlockingQueue<FanoutEnvelope> onA = new LinkedBlockingQueue<>();
+            BlockingQueue<FanoutEnvelope> onB = new LinkedBlockingQueue<>();
+            BlockingQueue<FanoutEnvelope> onIntruder = new LinkedBlockingQueue<>();
+            a.subscribe(onA::add);
+            b.subscribe(onB::add);
+            intruder.subscribe(onIntruder::add);
+            try {
+                a.start();
+                b.start();
+                intruder.start();
+                waitFor(() -> broker.peerCount() == 2 && a.isConnected() && b.isConnected());
+
+                a.publish(FanoutEnvelope.toUsers("{\"type\":\"MESSAGE\"}", 1L, 2L));
+                // 本机先下发，再经 broker 转给 b
+                FanoutEnvelope local = onA.poll(5, TimeUnit.SECONDS);
+                assertNotNull(local);
+                FanoutEnvelope relayed = onB.poll(5, TimeUnit.SECONDS);
+                assertNotNull(relayed);
+                assertArrayEquals(new long[]{1L, 2L}, relayed.userIds());
+                assertEquals("{\"type\":\"MESSAGE\"}", relayed.payload());
+                assertTrue(relayed.critical());
+
+                b.publish(FanoutEnvelope.toSupplyWatchers("{\"type\":\"BASIS_PRICE\"}", 7L));
+                FanoutEnvelope back = waitForPayload(onA, "{\"type\":\"BASIS_PRICE\"}");
+                assertEquals(7L, back.supplyId());
+                assertFalse(back.critical());
+
+                onA.clear();
+                onB.clear();
+                intruder.publish(FanoutEnvelope.toUsers("{\"type\":\"SPOOF\"}", 1L));
+                assertNull(onA.poll(500, TimeUnit.MILLISECONDS));
+                assertNull(onB.poll(100, TimeUnit.MILLISECONDS));
+                assertFalse(intruder.isConnected());
+                assertEquals(2, broker.peerCount());
+                // 密钥不对的节点只收到自己本机下发的那一条
+                assertEquals(1, onIntruder.size());
+            } finally {
+                a.destroy();
+                b.destroy();
+                intruder.destroy();
+            }
+        }
+    }
+
+    private static FanoutEnvelope waitForPayload(BlockingQueue<FanoutEnvelope> q, String payload) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            FanoutEnvelope e = q.poll(100, TimeUnit.MILLISECONDS);
+            if (e != null && payload.equals(e.payload())) return e;
+        }
+        throw new AssertionError("5 秒内没有收到 " + payload);
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) throw new AssertionError("5 秒内没有连上 broker");
+            Thread.sleep(20);
+        }
+    }
+}
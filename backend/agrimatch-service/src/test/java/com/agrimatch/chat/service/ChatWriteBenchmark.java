@@ -0,0 +1,259 @@
+package com.agrimatch.chat.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 聊天消息写入基准（不依赖 Spring，直接运行 main，需要可连的 MySQL）：逐条事务 vs 组提交
+ * mvn -pl agrimatch-service test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.agrimatch.chat.service.ChatWriteBenchmark \
+ *     -Dexec.args="jdbc:mysql://127.0.0.1:3306/agrimatch user password [并发发送方=64] [每轮秒数=10] [会话数=1000]"
+ * 在库里建 bench_chat_message / bench_chat_conversation（结构 LIKE 正式表），跑完删除，不碰正式数据
+ * - single：每个发送方一个连接，每条消息 insert + 更新会话最后消息 + commit（即 sendToConversation 的写法）
+ * - group：发送方把消息交给一个写线程，2ms 窗口内凑批，多行 insert + 每会话一次更新 + 一次 commit（即 ChatGroupCommitWriter）
+ * 发送方等到提交完成才发下一条（与客户端等 SENT 一致），统计消息/秒与提交耗时分位
+ */
+public final class ChatWriteBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(ChatWriteBenchmark.class);
+
+    private static final String INSERT_COLUMNS = "INSERT INTO bench_chat_message (conversation_id, from_user_id, to_user_id, msg_type, content, "
+            + "payload_json, quote_status, basis_price, contract_code, is_read, is_deleted, create_time, update_time) VALUES ";
+    private static final String ROW = "(?, ?, ?, 'TEXT', ?, NULL, NULL, NULL, NULL, 0, 0, NOW(3), NOW(3))";
+    private static final String UPDATE_LAST = "UPDATE bench_chat_conversation SET last_msg_id = ?, last_content = ?, last_time = NOW(3), "
+            + "update_time = NOW(3) WHERE id = ? AND is_deleted = 0";
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final int MAX_BATCH = 200;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final long[] conversations;
+
+    private ChatWriteBenchmark(String url, String user, String password, long[] conversations) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.conversations = conversations;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            log.error("usage: ChatWriteBenchmark <jdbc-url> <user> <password> [producers] [seconds] [conversations]");
+            return;
+        }
+        int producers = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        int conversationCount = args.length > 5 ? Integer.parseInt(args[5]) : 1000;
+
+        try (Connection c = DriverManager.getConnection(args[0], args[1], args[2]); Statement s = c.createStatement()) {
+            s.execute("DROP TABLE IF EXISTS bench_chat_message");
+            s.execute("DROP TABLE IF EXISTS bench_chat_conversation");
+            s.execute("CREATE TABLE bench_chat_message LIKE bus_chat_message");
+            s.execute("CREATE TABLE bench_chat_conversation LIKE bus_chat_conversation");
+            long[] ids = new long[conversationCount];
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO bench_chat_conversation (a_user_id, b_user_id, subject_type, subject_id) "
+                    + "VALUES (?, ?, 'SUPPLY', ?)", Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < conversationCount; i++) {
+                    ps.setLong(1, 2L * i + 1);
+                    ps.setLong(2, 2L * i + 2);
+                    ps.setLong(3, i + 1);
+                    ps.executeUpdate();
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        rs.next();
+                        ids[i] = rs.getLong(1);
+                    }
+                }
+            }
+            ChatWriteBenchmark bench = new ChatWriteBenchmark(args[0], args[1], args[2], ids);
+            try {
+                bench.runSingle(producers, seconds);
+                bench.runGroup(producers, seconds);
+            } finally {
+                s.execute("DROP TABLE IF EXISTS bench_chat_message");
+                s.execute("DROP TABLE IF EXISTS bench_chat_conversation");
+            }
+        }
+    }
+
+    private Connection connect() throws Exception {
+        Connection c = DriverManager.getConnection(url, user, password);
+        c.setAutoCommit(false);
+        return c;
+    }
+
+    private void runSingle(int producers, int seconds) throws Exception {
+        Stats stats = new Stats();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread t = new Thread(() -> {
+                try (Connection c = connect();
+                     PreparedStatement insert = c.prepareStatement(INSERT_COLUMNS + ROW, Statement.RETURN_GENERATED_KEYS);
+                     PreparedStatement update = c.prepareStatement(UPDATE_LAST)) {
+                    while (System.nanoTime() < end) {
+                        long conversationId = randomConversation();
+                        String content = "quote " + System.nanoTime();
+                        long t0 = System.nanoTime();
+                        bind(insert, 1, conversationId, content);
+                        insert.executeUpdate();
+                        long id;
+                        try (ResultSet rs = insert.getGeneratedKeys()) {
+                            rs.next();
+                            id = rs.getLong(1);
+                        }
+                        update.setLong(1, id);
+                        update.setString(2, content);
+                        update.setLong(3, conversationId);
+                        update.executeUpdate();
+                        c.commit();
+                        stats.record(System.nanoTime() - t0);
+                    }
+                } catch (Exception e) {
+                    stats.errors.incrementAndGet();
+                    log.warn("[ChatBench] single producer failed: {}", e.getMessage());
+                }
+            }, "bench-single-" + p);
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) t.join();
+        stats.print("single", seconds);
+    }
+
+    private record Pending(long conversationId, String content, long startNanos, CompletableFuture<Long> done) {
+    }
+
+    private void runGroup(int producers, int seconds) throws Exception {
+        Stats stats = new Stats();
+        AtomicLong batches = new AtomicLong();
+        BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(producers * 2);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        Thread writer = new Thread(() -> {
+            try (Connection c = connect(); PreparedStatement update = c.prepareStatement(UPDATE_LAST)) {
+                List<Pending> batch = new ArrayList<>(MAX_BATCH);
+                while (System.nanoTime() < end || !queue.isEmpty()) {
+                    Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    long deadline = System.nanoTime() + WINDOW_NANOS;
+                    while (batch.size() < MAX_BATCH) {
+                        long wait = deadline - System.nanoTime();
+                        Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                        if (next == null) break;
+                        batch.add(next);
+                    }
+                    writeBatch(c, update, batch);
+                    batches.incrementAndGet();
+                    batch.clear();
+                }
+            } catch (Exception e) {
+                stats.errors.incrementAndGet();
+                log.warn("[ChatBench] group writer failed: {}", e.getMessage());
+            }
+        }, "bench-group-writer");
+        writer.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread t = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < end) {
+                        Pending pending = new Pending(randomConversation(), "quote " + System.nanoTime(), System.nanoTime(), new CompletableFuture<>());
+                        queue.put(pending);
+                        pending.done().get(30, TimeUnit.SECONDS);
+                        stats.record(System.nanoTime() - pending.startNanos());
+                    }
+                } catch (Exception e) {
+                    stats.errors.incrementAndGet();
+                }
+            }, "bench-group-" + p);
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) t.join();
+        writer.join();
+        stats.print("group", seconds);
+        log.info("[ChatBench] group: {} batches, {} messages/batch", batches.get(),
+                String.format("%.1f", stats.count.get() / (double) Math.max(1, batches.get())));
+    }
+
+    private void writeBatch(Connection c, PreparedStatement update, List<Pending> batch) throws Exception {
+        StringBuilder sql = new StringBuilder(INSERT_COLUMNS);
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) sql.append(',');
+            sql.append(ROW);
+        }
+        long[] ids = new long[batch.size()];
+        try (PreparedStatement insert = c.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < batch.size(); i++) {
+                bind(insert, i * 4 + 1, batch.get(i).conversationId(), batch.get(i).content());
+            }
+            insert.executeUpdate();
+            try (ResultSet rs = insert.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length && rs.next(); i++) ids[i] = rs.getLong(1);
+            }
+        }
+        Map<Long, Integer> last = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) last.put(batch.get(i).conversationId(), i);
+        for (Map.Entry<Long, Integer> e : last.entrySet()) {
+            update.setLong(1, ids[e.getValue()]);
+            update.setString(2, batch.get(e.getValue()).content());
+            update.setLong(3, e.getKey());
+            update.addBatch();
+        }
+        update.executeBatch();
+        c.commit();
+        for (int i = 0; i < batch.size(); i++) batch.get(i).done().complete(ids[i]);
+    }
+
+    private static void bind(PreparedStatement ps, int from, long conversationId, String content) throws Exception {
+        // 收发双方只需要合法的非空值
+        ps.setLong(from, conversationId);
+        ps.setLong(from + 1, 1L);
+        ps.setLong(from + 2, 2L);
+        ps.setString(from + 3, content);
+    }
+
+    private long randomConversation() {
+        return conversations[ThreadLocalRandom.current().nextInt(conversations.length)];
+    }
+
+    private static final class Stats {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+        void record(long nanos) {
+            count.incrementAndGet();
+            latencies.add(nanos);
+        }
+
+        void print(String name, int seconds) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            StringBuilder sb = new StringBuilder(String.format("%s: %d messages in %d s -> %.0f msg/s, errors %d",
+                    name, count.get(), seconds, count.get() / (double) seconds, errors.get()));
+            if (sorted.length > 0) {
+                sb.append(String.format(", commit latency ms p50 %.2f p99 %.2f max %.2f",
+                        sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6, sorted[sorted.length - 1] / 1e6));
+            }
+            log.info("[ChatBench] {}", sb);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.agrimatch.chat.ws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * /ws/chat 压测客户端（不依赖 Spring，直接运行 main，对着已启动的服务跑）：
+ * mvn -pl agrimatch-service test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.agrimatch.chat.ws.ChatLoadTest \
+ *     -Dexec.args="ws://127.0.0.1:8080/ws/chat tokens.txt [连接数=10000] [每连接条数=20] [发送间隔ms=1000]"
+ * tokens.txt 每行 "JWT 会话ID"，连接按行轮流使用；同一用户的连接数受 agrimatch.ws.max-sessions-per-user 限制，压测前调大
+ * 统计：建连成功/失败、SENT 回执数与吞吐、BUSY（可重试拒绝）与其他错误数、发送到 SENT 的耗时分位
+ */
+public final class ChatLoadTest {
+    private static final Logger log = LoggerFactory.getLogger(ChatLoadTest.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    /** 同时进行中的握手数，避免瞬间打满服务端 accept 队列 */
+    private static final int CONNECT_CONCURRENCY = 200;
+
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicInteger connectFailed = new AtomicInteger();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong acked = new AtomicLong();
+    private final AtomicLong busy = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    /** tempId -> 发送时间（纳秒） */
+    private final Map<String, Long> inflight = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+    private ChatLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            log.error("usage: ChatLoadTest <ws-url> <tokens-file> [connections] [messagesPerConnection] [intervalMs]");
+            return;
+        }
+        URI uri = URI.create(args[0]);
+        List<String[]> users = new ArrayList<>();
+        for (String line : Files.readAllLines(Path.of(args[1]), StandardCharsets.UTF_8)) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length >= 2) users.add(parts);
+        }
+        if (users.isEmpty()) {
+            log.error("tokens file is empty");
+            return;
+        }
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int messages = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        long intervalMs = args.length > 4 ? Long.parseLong(args[4]) : 1000;
+        new ChatLoadTest().run(uri, users, connections, messages, intervalMs);
+    }
+
+    private void run(URI base, List<String[]> users, int connections, int messages, long intervalMs) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        Semaphore handshakes = new Semaphore(CONNECT_CONCURRENCY);
+        List<CompletableFuture<WebSocket>> sockets = new ArrayList<>(connections);
+        List<String> conversations = new ArrayList<>(connections);
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            String[] user = users.get(i % users.size());
+            URI uri = URI.create(base + (base.getQuery() == null ? "?" : "&") + "token=" + user[0]);
+            handshakes.acquire();
+            CompletableFuture<WebSocket> ws = client.newWebSocketBuilder()
+                    .buildAsync(uri, new Listener())
+                    .whenComplete((s, e) -> {
+                        handshakes.release();
+                        if (e == null) connected.incrementAndGet();
+                        else connectFailed.incrementAndGet();
+                    });
+            sockets.add(ws);
+            conversations.add(user[1]);
+        }
+        CompletableFuture.allOf(sockets.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+        log.info("[ChatLoad] connected {}, failed {} in {} ms",
+                connected.get(), connectFailed.get(), (System.nanoTime() - t0) / 1_000_000);
+
+        // 每个连接按固定间隔发 messages 条，起始时间在一个间隔内随机打散
+        ScheduledExecutorService timer = Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        CountDownLatch done = new CountDownLatch(connections);
+        long start = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            CompletableFuture<WebSocket> ws = sockets.get(i);
+            if (ws.isCompletedExceptionally()) {
+                done.countDown();
+                continue;
+            }
+            String conversationId = conversations.get(i);
+            int conn = i;
+            AtomicInteger left = new AtomicInteger(messages);
+            // 同一连接的发送串行（WebSocket.sendText 上一次完成前不能再发）
+            CompletableFuture<?>[] chain = {ws};
+            Runnable tick = new Runnable() {
+                @Override
+                public void run() {
+                    int n = left.getAndDecrement();
+                    if (n <= 0) return;
+                    String tempId = conn + "-" + n;
+                    String frame = "{\"type\":\"SEND\",\"conversationId\":" + conversationId
+                            + ",\"msgType\":\"TEXT\",\"content\":\"load test " + tempId + "\",\"tempId\":\"" + tempId + "\"}";
+                    // 先登记再发，回执可能比 sendText 的完成回调先到
+                    inflight.put(tempId, System.nanoTime());
+                    chain[0] = chain[0].thenCompose(x -> ws.join().sendText(frame, true)).whenComplete((x, e) -> {
+                        if (e == null) {
+                            sent.incrementAndGet();
+                        } else {
+                            inflight.remove(tempId);
+                            errors.incrementAndGet();
+                        }
+                    });
+                    if (n == 1) done.countDown();
+                    else timer.schedule(this, intervalMs, TimeUnit.MILLISECONDS);
+                }
+            };
+            timer.schedule(tick, ThreadLocalRandom.current().nextLong(Math.max(1, intervalMs)), TimeUnit.MILLISECONDS);
+        }
+        done.await();
+        // 等最后一批回执
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!inflight.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        timer.shutdownNow();
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        log.info("[ChatLoad] sent {}, acked {}, busy {}, errors {}, unacked {} in {} ms -> {} acks/s",
+                sent.get(), acked.get(), busy.get(), errors.get(), inflight.size(), elapsedMs,
+                acked.get() * 1000 / Math.max(1, elapsedMs));
+        if (sorted.length > 0) {
+            log.info("[ChatLoad] ack latency ms: p50 {}, p95 {}, p99 {}, max {}", String.format("%.1f", pct(sorted, 50)),
+                    String.format("%.1f", pct(sorted, 95)), String.format("%.1f", pct(sorted, 99)),
+                    String.format("%.1f", sorted[sorted.length - 1] / 1e6));
+        }
+        for (CompletableFuture<WebSocket> ws : sockets) {
+            if (!ws.isCompletedExceptionally()) ws.join().abort();
+        }
+    }
+
+    private static double pct(long[] sorted, int p) {
+        int i = (int) Math.min(sorted.length - 1, Math.ceil(sorted.length * p / 100.0) - 1);
+        return sorted[Math.max(0, i)] / 1e6;
+    }
+
+    private final class Listener implements WebSocket.Listener {
+        private final StringBuilder buf = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            buf.append(data);
+            if (last) {
+                handle(buf.toString());
+                buf.setLength(0);
+            }
+            ws.request(1);
+            return null;
+        }
+
+        private void handle(String text) {
+            JsonNode node;
+            try {
+                node = MAPPER.readTree(text);
+            } catch (Exception e) {
+                return;
+            }
+            String type = node.path("type").asText();
+            String tempId = node.path("tempId").asText(null);
+            if ("SENT".equals(type)) {
+                Long at = tempId == null ? null : inflight.remove(tempId);
+                if (at != null) latencies.add(System.nanoTime() - at);
+                acked.incrementAndGet();
+            } else if ("ERROR".equals(type)) {
+                if (tempId != null) inflight.remove(tempId);
+                if ("BUSY".equals(node.path("code").asText())) busy.incrementAndGet();
+                else errors.incrementAndGet();
+            }
+        }
+    }
+}
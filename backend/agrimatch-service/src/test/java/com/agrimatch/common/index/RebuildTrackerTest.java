@@ -0,0 +1,54 @@
+package com.agrimatch.common.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 只重放装载期间改过的实体，按类型分批；装载失败后不再记录
+ */
+class RebuildTrackerTest {
+
+    @Test
+    void replaysEntitiesTouchedWhileLoading() {
+        RebuildTracker tracker = new RebuildTracker();
+        tracker.touch("supply", 1L);
+        List<String> swapped = new ArrayList<>();
+        List<String> replayed = new ArrayList<>();
+
+        RebuildTracker.Result<String> r = tracker.rebuild(() -> {
+            tracker.touch("supply", List.of(2L, 3L, 4L));
+            tracker.touch("supply", 2L);
+            tracker.touch("post", 9L);
+            return "fresh";
+        }, swapped::add, 2, (type, ids) -> replayed.add(type + ids));
+
+        assertEquals("fresh", r.index());
+        assertEquals(4, r.replayed());
+        assertEquals(List.of("fresh"), swapped);
+        assertEquals(List.of("supply[2, 3]", "supply[4]", "post[9]"), replayed);
+
+        tracker.touch("supply", 5L);
+        replayed.clear();
+        tracker.rebuild(() -> "again", s -> { }, 2, (type, ids) -> replayed.add(type + ids));
+        assertEquals(List.of(), replayed);
+    }
+
+    @Test
+    void stopsTrackingWhenLoadFails() {
+        RebuildTracker tracker = new RebuildTracker();
+        assertThrows(IllegalStateException.class, () -> tracker.rebuild(() -> {
+            tracker.touch("supply", 1L);
+            throw new IllegalStateException("db down");
+        }, s -> { }, 10, (type, ids) -> { }));
+
+        tracker.touch("supply", 2L);
+        List<String> replayed = new ArrayList<>();
+        tracker.rebuild(() -> "fresh", s -> { }, 10, (type, ids) -> replayed.add(type + ids));
+        assertEquals(List.of(), replayed);
+    }
+}
@@ -0,0 +1,41 @@
+package com.agrimatch.common.tx;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 提交前不执行；提交后回调里再推迟的动作立即执行，不会丢
+ */
+class AfterCommitTest {
+
+    @Test
+    void runsNestedActionsAfterCommit() {
+        List<String> ran = new ArrayList<>();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            AfterCommit.run(() -> {
+                ran.add("outer");
+                AfterCommit.run(() -> ran.add("inner"));
+            });
+            assertEquals(List.of(), ran);
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            assertEquals(List.of("outer", "inner"), ran);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void runsImmediatelyWithoutTransaction() {
+        List<String> ran = new ArrayList<>();
+        AfterCommit.run(() -> ran.add("now"));
+        assertEquals(List.of("now"), ran);
+    }
+}
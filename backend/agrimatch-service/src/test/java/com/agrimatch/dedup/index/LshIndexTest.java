@@ -0,0 +1,114 @@
+package com.agrimatch.dedup.index;
+
+import com.agrimatch.dedup.domain.DedupSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 近似重复阈值：Jaccard 明显高于阈值的同公司同品类挂牌被找出，明显低于阈值的、跨公司/跨品类的不被找出
+ */
+class LshIndexTest {
+
+    private static final double THRESHOLD = 0.8;
+    private static final long COMPANY = 7;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void onlyCandidatesAboveThresholdAreReturned() {
+        LshIndex index = new LshIndex();
+        // 与基准共享 k 个、各自另有 100 - k 个特征：Jaccard = k / (200 - k)
+        index.put(1, COMPANY, "玉米", sig(shingles(0, 100)));
+        index.put(2, COMPANY, "玉米", sig(overlap(97)));   // 0.94
+        index.put(3, COMPANY, "玉米", sig(overlap(95)));   // 0.90
+        index.put(4, COMPANY, "玉米", sig(overlap(67)));   // 0.50
+        index.put(5, COMPANY, "玉米", sig(overlap(33)));   // 0.20
+        index.put(6, COMPANY, "玉米", sig(shingles(1000, 100)));
+
+        List<LshIndex.Candidate> hits = index.query(COMPANY, "玉米", sig(shingles(0, 100)), THRESHOLD, 1);
+        assertEquals(List.of(2L, 3L), hits.stream().map(LshIndex.Candidate::id).toList());
+        for (LshIndex.Candidate c : hits) {
+            assertTrue(c.similarity() >= THRESHOLD);
+        }
+    }
+
+    @Test
+    void identicalSignatureScopedToCompanyAndCategory() {
+        LshIndex index = new LshIndex();
+        int[] s = sig(shingles(0, 50));
+        index.put(1, COMPANY, "玉米", s);
+        index.put(2, COMPANY + 1, "玉米", s);
+        index.put(3, COMPANY, "小麦", s);
+
+        assertEquals(List.of(1L), ids(index.query(COMPANY, "玉米", s, THRESHOLD, -1)));
+        assertTrue(index.query(COMPANY, "玉米", s, THRESHOLD, 1).isEmpty());
+
+        index.remove(1);
+        assertTrue(index.query(COMPANY, "玉米", s, THRESHOLD, -1).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void repostWithEditedRemarkIsDuplicateButDifferentSpecIsNot() {
+        String remark = "东北产区二等黄玉米，自然晾晒，无霉变，量大从优，可提供质检报告，欢迎来电咨询";
+        DedupSource original = listing("{\"水分\":\"14\",\"容重\":\"720\",\"杂质\":\"1\"}", remark);
+        // 只改了备注里的几个字
+        DedupSource repost = listing("{\"水分\":\"14\",\"容重\":\"720\",\"杂质\":\"1\"}", remark.replace("欢迎来电咨询", "欢迎电话咨询"));
+        // 套用同一段备注模板、参数不同的另一批货
+        DedupSource otherLot = listing("{\"水分\":\"18\",\"容重\":\"680\",\"杂质\":\"2\"}", remark);
+
+        LshIndex index = new LshIndex();
+        index.put(1, COMPANY, "玉米", sig(original));
+        int[] repostSig = sig(repost);
+        int[] otherSig = sig(otherLot);
+
+        assertEquals(List.of(1L), ids(index.query(COMPANY, "玉米", repostSig, THRESHOLD, 2)));
+        assertTrue(index.query(COMPANY, "玉米", otherSig, THRESHOLD, 3).isEmpty());
+    }
+
+    private static List<String> shingles(int from, int n) {
+        List<String> out = new ArrayList<>(n);
+        for (int i = from; i < from + n; i++) {
+            out.add("f" + i);
+        }
+        return out;
+    }
+
+    /**
+     * 与 shingles(0, 100) 共享前 k 个特征
+     */
+    private static List<String> overlap(int k) {
+        List<String> out = shingles(0, k);
+        out.addAll(shingles(10_000 + k * 100, 100 - k));
+        return out;
+    }
+
+    private static int[] sig(List<String> shingles) {
+        return MinHash.signature(shingles);
+    }
+
+    private static int[] sig(DedupSource s) {
+        return MinHash.signature(ListingShingles.of(s, OBJECT_MAPPER));
+    }
+
+    private static DedupSource listing(String paramsJson, String remark) {
+        DedupSource s = new DedupSource();
+        s.setCompanyId(COMPANY);
+        s.setCategoryName("玉米");
+        s.setOrigin("黑龙江");
+        s.setPrice(new BigDecimal("2350"));
+        s.setParamsJson(paramsJson);
+        s.setRemark(remark);
+        return s;
+    }
+
+    private static List<Long> ids(List<LshIndex.Candidate> hits) {
+        return hits.stream().map(LshIndex.Candidate::id).toList();
+    }
+}
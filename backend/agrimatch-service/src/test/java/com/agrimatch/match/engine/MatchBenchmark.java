@@ -0,0 +1,95 @@
+package com.agrimatch.match.engine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 撮合引擎增量更新耗时基准（不依赖 Spring，直接运行 main）：
+ * mvn -pl agrimatch-service test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.agrimatch.match.engine.MatchBenchmark -Dexec.args="[listings] [categories]"
+ * 默认 10 万条挂牌（供需各半）、20 个品类；对比全量重算与单条新增/修改/下架的耗时
+ */
+public final class MatchBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(MatchBenchmark.class);
+
+    private static final String[] PARAM_NAMES = {"水分", "容重", "杂质", "霉变粒", "蛋白", "等级"};
+    private static final String[] TAG_KEYS = {"origin", "grade", "storage", "transport"};
+
+    private MatchBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int categories = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int topK = 20;
+        Random rnd = new Random(42);
+
+        MatchListing[] listings = new MatchListing[total];
+        for (int i = 0; i < total; i++) {
+            listings[i] = random(rnd, i % 2 == 0 ? MatchListing.SUPPLY : MatchListing.REQUIREMENT, i + 1, categories);
+        }
+
+        MatchEngine engine = new MatchEngine(topK, 0.8d);
+        long t0 = System.nanoTime();
+        for (MatchListing l : listings) {
+            engine.upsert(l);
+        }
+        long loadMs = (System.nanoTime() - t0) / 1_000_000;
+        log.info("[MatchBench] 全量装载 {} 条（{} 个品类，K={}）: {} ms", total, categories, topK, loadMs);
+
+        int rounds = 2000;
+        long[] insert = new long[rounds];
+        long[] update = new long[rounds];
+        long[] remove = new long[rounds];
+        for (int r = 0; r < rounds; r++) {
+            MatchListing fresh = random(rnd, r % 2 == 0 ? MatchListing.SUPPLY : MatchListing.REQUIREMENT, total + r + 1, categories);
+            long s = System.nanoTime();
+            engine.upsert(fresh);
+            insert[r] = System.nanoTime() - s;
+
+            MatchListing old = listings[rnd.nextInt(total)];
+            MatchListing changed = random(rnd, old.side, old.id, categories);
+            s = System.nanoTime();
+            engine.upsert(changed);
+            update[r] = System.nanoTime() - s;
+
+            s = System.nanoTime();
+            engine.remove(fresh.side, fresh.id);
+            remove[r] = System.nanoTime() - s;
+        }
+        report("新增", insert);
+        report("修改", update);
+        report("下架", remove);
+    }
+
+    static MatchListing random(Random rnd, int side, long id, int categories) {
+        Map<String, String> params = new HashMap<>();
+        for (String p : PARAM_NAMES) {
+            if (rnd.nextInt(3) == 0) continue;
+            double v = 10 + rnd.nextInt(200) / 10d;
+            params.put(p, side == MatchListing.REQUIREMENT && rnd.nextBoolean() ? "≤" + v : String.valueOf(v));
+        }
+        Set<String> tags = new HashSet<>();
+        for (String k : TAG_KEYS) {
+            if (rnd.nextBoolean()) tags.add(k + "=" + rnd.nextInt(5));
+        }
+        double price = side == MatchListing.SUPPLY ? 2000 + rnd.nextInt(800) : 2300 + rnd.nextInt(800);
+        return new MatchListing(side, id, rnd.nextInt(5000), "品类" + rnd.nextInt(categories),
+                18 + rnd.nextDouble() * 30, 100 + rnd.nextDouble() * 25, price, Long.MAX_VALUE, 0L, params, tags);
+    }
+
+    private static void report(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double avg = Arrays.stream(sorted).average().orElse(0) / 1000d;
+        log.info("[MatchBench] {}: avg {} µs, p50 {} µs, p99 {} µs, max {} µs", name, String.format("%.1f", avg),
+                sorted[sorted.length / 2] / 1000, sorted[sorted.length * 99 / 100] / 1000, sorted[sorted.length - 1] / 1000);
+    }
+}
@@ -0,0 +1,65 @@
+package com.agrimatch.match.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 增量维护的 top-K 与暴力全量打分结果一致（新增、修改、下架混合后逐条核对）
+ */
+class MatchEngineTest {
+
+    private static final int TOP_K = 5;
+    private static final double EPS = 1e-9;
+
+    @Test
+    void topKMatchesBruteForce() {
+        Random rnd = new Random(7);
+        MatchEngine engine = new MatchEngine(TOP_K, 0.8d);
+        Map<Long, MatchListing> live = new HashMap<>();
+
+        long nextId = 1;
+        for (int i = 0; i < 600; i++) {
+            MatchListing l = MatchBenchmark.random(rnd, i % 2 == 0 ? MatchListing.SUPPLY : MatchListing.REQUIREMENT, nextId++, 3);
+            engine.upsert(l);
+            live.put(l.id, l);
+        }
+        List<Long> ids = new ArrayList<>(live.keySet());
+        for (int r = 0; r < 300; r++) {
+            Long id = ids.get(rnd.nextInt(ids.size()));
+            MatchListing old = live.get(id);
+            if (old == null) continue;
+            if (rnd.nextBoolean()) {
+                engine.remove(old.side, old.id);
+                live.remove(id);
+            } else {
+                MatchListing changed = MatchBenchmark.random(rnd, old.side, old.id, 3);
+                engine.upsert(changed);
+                live.put(id, changed);
+            }
+        }
+
+        MatchScorer scorer = new MatchScorer(0.8d);
+        for (MatchListing l : live.values()) {
+            List<Double> expected = new ArrayList<>();
+            for (MatchListing o : live.values()) {
+                if (o.side == l.side || !o.category.equals(l.category) || o.companyId == l.companyId) continue;
+                expected.add(l.side == MatchListing.SUPPLY ? scorer.score(l, o) : scorer.score(o, l));
+            }
+            expected.sort((a, b) -> Double.compare(b, a));
+            expected = expected.subList(0, Math.min(TOP_K, expected.size()));
+
+            List<MatchCandidate> actual = engine.top(l.side, l.id, TOP_K, 0L);
+            assertEquals(expected.size(), actual.size(), "候选条数不一致: id=" + l.id);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), actual.get(i).getScore(), EPS, "第 " + (i + 1) + " 名分数不一致: id=" + l.id);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.agrimatch.saved_search.index;
+
+import com.agrimatch.search.index.Tokenizer;
+import com.agrimatch.tag.index.TagFilter;
+import com.agrimatch.tag.index.TagIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 订阅反向匹配：关键词/品类/板块/半径/标签条件的命中与不命中，发布者自己的订阅不命中
+ */
+class PercolatorTest {
+
+    private static final long OWNER = 100;
+    private static final long SUBSCRIBER = 200;
+    private static final Supplier<TagIndex> NO_TAGS = () -> fail("没有标签条件时不应读取标签");
+
+    @Test
+    void keywordMustFullyAppear() {
+        Percolator p = new Percolator();
+        p.put(query(1, "东北玉米", null, null, null));
+
+        assertEquals(List.of(1L), ids(p.match(doc("玉米", "东北玉米 二等 水分14", null, null), NO_TAGS)));
+        assertTrue(p.match(doc("玉米", "山东玉米 二等", null, null), NO_TAGS).isEmpty());
+    }
+
+    @Test
+    void categoryDomainAndEntityTypeMustEqual() {
+        Percolator p = new Percolator();
+        p.put(query(1, null, "粮食", "玉米", null));
+
+        assertEquals(List.of(1L), ids(p.match(doc("玉米", "", "粮食", null), NO_TAGS)));
+        assertTrue(p.match(doc("小麦", "", "粮食", null), NO_TAGS).isEmpty());
+        assertTrue(p.match(doc("玉米", "", "饲料", null), NO_TAGS).isEmpty());
+        Percolator.Doc requirement = new Percolator.Doc("requirement", OWNER, "粮食", "玉米", Set.of(), null, null);
+        assertTrue(p.match(requirement, NO_TAGS).isEmpty());
+    }
+
+    @Test
+    void ownListingDoesNotMatch() {
+        Percolator p = new Percolator();
+        p.put(new Percolator.Query(1, OWNER, "supply", "自己的订阅", List.of(), null, "玉米", null, null, null, null));
+        assertTrue(p.match(doc("玉米", "", null, null), NO_TAGS).isEmpty());
+    }
+
+    @Test
+    void radiusFromSubscriberLocation() {
+        Percolator p = new Percolator();
+        // 哈尔滨 300 公里内
+        p.put(new Percolator.Query(1, SUBSCRIBER, "supply", "附近玉米", List.of(), null, "玉米", null,
+                45.75, 126.63, 300d));
+
+        // 长春约 240 公里、广州两千多公里、没有坐标
+        assertEquals(List.of(1L), ids(p.match(doc("玉米", "", null, new double[]{43.88, 125.32}), NO_TAGS)));
+        assertTrue(p.match(doc("玉米", "", null, new double[]{23.13, 113.26}), NO_TAGS).isEmpty());
+        assertTrue(p.match(doc("玉米", "", null, null), NO_TAGS).isEmpty());
+    }
+
+    @Test
+    void tagFilterEvaluatedAgainstListingTags() {
+        Percolator p = new Percolator();
+        TagFilter origin = TagFilter.parse(Map.of("origin", "黑龙江"));
+        p.put(new Percolator.Query(1, SUBSCRIBER, "supply", "黑龙江玉米", List.of(), null, "玉米", origin, null, null, null));
+
+        assertEquals(List.of(1L), ids(p.match(doc("玉米", "", null, null), () -> tags("黑龙江"))));
+        assertTrue(p.match(doc("玉米", "", null, null), () -> tags("吉林")).isEmpty());
+    }
+
+    @Test
+    void removedQueryNoLongerMatches() {
+        Percolator p = new Percolator();
+        p.put(query(1, "玉米", null, null, null));
+        p.put(query(1, "小麦", null, null, null));
+        assertTrue(p.match(doc("玉米", "玉米", null, null), NO_TAGS).isEmpty());
+        assertEquals(List.of(1L), ids(p.match(doc("小麦", "小麦", null, null), NO_TAGS)));
+
+        p.remove(1);
+        assertTrue(p.match(doc("小麦", "小麦", null, null), NO_TAGS).isEmpty());
+        assertEquals(0, p.size());
+    }
+
+    private static Percolator.Query query(long id, String keyword, String domain, String category, TagFilter tags) {
+        List<String> terms = keyword != null ? Tokenizer.queryTerms(keyword) : List.of();
+        return new Percolator.Query(id, SUBSCRIBER, "supply", "订阅" + id, terms, domain, category, tags, null, null, null);
+    }
+
+    private static Percolator.Doc doc(String category, String remark, String domain, double[] latLng) {
+        Set<String> terms = new HashSet<>(Tokenizer.indexTerms(category));
+        terms.addAll(Tokenizer.indexTerms(remark));
+        return new Percolator.Doc("supply", OWNER, domain, category, terms,
+                latLng != null ? latLng[0] : null, latLng != null ? latLng[1] : null);
+    }
+
+    private static TagIndex tags(String origin) {
+        TagIndex idx = new TagIndex();
+        idx.add(0, new TagIndex.Entry("origin", origin, null));
+        return idx;
+    }
+
+    private static List<Long> ids(List<Percolator.Query> hits) {
+        return hits.stream().map(Percolator.Query::getId).toList();
+    }
+}
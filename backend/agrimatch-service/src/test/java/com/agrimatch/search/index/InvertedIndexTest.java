@@ -0,0 +1,80 @@
+package com.agrimatch.search.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BM25 排序：标题加权、长度归一化、多词取交集、修改/删除后倒排表同步
+ */
+class InvertedIndexTest {
+
+    @Test
+    void titleMatchOutranksContentMatch() {
+        InvertedIndex index = new InvertedIndex();
+        // 两篇文档长度相同，只是“玉米”一个在标题、一个在正文
+        index.upsert("supply", 1, null, null, 0, "玉米", "优质饲料");
+        index.upsert("supply", 2, null, null, 0, "饲料", "玉米优质");
+
+        assertEquals(List.of(1L, 2L), rank(index, "玉米"));
+    }
+
+    @Test
+    void shorterDocumentRanksFirstForSameFrequency() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert("supply", 1, null, null, 0, "", "玉米 小麦 大豆 高粱 稻谷 花生");
+        index.upsert("supply", 2, null, null, 0, "", "玉米");
+        index.upsert("supply", 3, null, null, 0, "", "玉米 小麦");
+
+        assertEquals(List.of(2L, 3L, 1L), rank(index, "玉米"));
+    }
+
+    @Test
+    void rareTermWeighsMoreThanCommonTerm() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 10; id < 20; id++) {
+            index.upsert("supply", id, null, null, 0, "", "小麦");
+        }
+        // 两篇都含两个词，各重复一次不同的词：稀有词（高粱）重复的排在前面
+        index.upsert("supply", 1, null, null, 0, "", "小麦 小麦 高粱");
+        index.upsert("supply", 2, null, null, 0, "", "小麦 高粱 高粱");
+
+        assertEquals(List.of(2L, 1L), rank(index, "小麦 高粱"));
+    }
+
+    @Test
+    void allTermsMustMatch() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert("supply", 1, null, null, 0, "东北玉米", "");
+        index.upsert("requirement", 1, null, null, 0, "山东小麦", "");
+        index.upsert("post", 1, null, null, 0, "东北小麦行情", "");
+
+        List<SearchHit> hits = index.match(Tokenizer.queryTerms("东北 小麦"), null);
+        assertEquals(1, hits.size());
+        assertEquals("post", hits.get(0).getEntityType());
+    }
+
+    @Test
+    void upsertReplacesAndRemoveDrops() {
+        InvertedIndex index = new InvertedIndex();
+        index.upsert("supply", 1, null, null, 0, "玉米", "");
+        index.upsert("supply", 1, null, null, 0, "小麦", "");
+        assertTrue(rank(index, "玉米").isEmpty());
+        assertEquals(List.of(1L), rank(index, "小麦"));
+
+        index.remove("supply", 1);
+        assertTrue(rank(index, "小麦").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    private static List<Long> rank(InvertedIndex index, String query) {
+        return index.match(Tokenizer.queryTerms(query), null).stream()
+                .sorted(Comparator.comparingDouble(SearchHit::getScore).reversed())
+                .map(SearchHit::getEntityId)
+                .toList();
+    }
+}
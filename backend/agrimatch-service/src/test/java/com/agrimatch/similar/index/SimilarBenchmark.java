@@ -0,0 +1,119 @@
+package com.agrimatch.similar.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 相似挂牌暴力 Top-K 的耗时基准（不依赖 Spring，直接运行 main）：
+ * mvn -pl agrimatch-service test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.agrimatch.similar.index.SimilarBenchmark -Dexec.args="[size...]"
+ * 默认依次测 10 万、100 万条向量，200 个叶子品类；统计 Top-10 查询与单条新增/下架的耗时
+ */
+public final class SimilarBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(SimilarBenchmark.class);
+
+    private static final String[] PARAM_NAMES = {"水分", "容重", "杂质", "霉变粒", "蛋白", "脂肪", "粗纤维"};
+    private static final int LEAVES = 200;
+    private static final int LEAVES_PER_PARENT = 10;
+
+    private SimilarBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray() : new int[]{100_000, 1_000_000};
+        for (int size : sizes) {
+            run(size);
+        }
+    }
+
+    private static void run(int total) {
+        Random rnd = new Random(42);
+        VectorStats stats = stats(rnd);
+        VectorIndex index = new VectorIndex(total);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            int leafCode = 1 + rnd.nextInt(LEAVES);
+            index.put(i + 1, random(rnd, stats), leafCode, parentOf(leafCode));
+        }
+        long loadMs = (System.nanoTime() - t0) / 1_000_000;
+        log.info("[SimilarBench] 装载 {} 条（{} 维 + 品类）: {} ms", total, ListingVector.DIM, loadMs);
+
+        // 预热，让 JIT 编译扫描循环
+        for (int r = 0; r < 50; r++) {
+            int leafCode = 1 + rnd.nextInt(LEAVES);
+            index.topK(random(rnd, stats), leafCode, parentOf(leafCode), 10, 0);
+        }
+        int rounds = total >= 1_000_000 ? 200 : 1000;
+        long[] query = new long[rounds];
+        long[] insert = new long[rounds];
+        long[] remove = new long[rounds];
+        long sink = 0;
+        for (int r = 0; r < rounds; r++) {
+            int leafCode = 1 + rnd.nextInt(LEAVES);
+            float[] v = random(rnd, stats);
+            long s = System.nanoTime();
+            List<VectorIndex.Hit> hits = index.topK(v, leafCode, parentOf(leafCode), 10, 0);
+            query[r] = System.nanoTime() - s;
+            sink += hits.size();
+
+            long id = total + r + 1L;
+            s = System.nanoTime();
+            index.put(id, v, leafCode, parentOf(leafCode));
+            insert[r] = System.nanoTime() - s;
+
+            s = System.nanoTime();
+            index.remove(id);
+            remove[r] = System.nanoTime() - s;
+        }
+        report("Top-10 查询", query);
+        report("新增", insert);
+        report("下架", remove);
+        if (sink == 0) log.warn("[SimilarBench] 无结果");
+    }
+
+    static int parentOf(int leafCode) {
+        return 10_000 + (leafCode - 1) / LEAVES_PER_PARENT;
+    }
+
+    static VectorStats stats(Random rnd) {
+        List<Double> prices = new ArrayList<>();
+        List<Map<String, Double>> params = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            prices.add(price(rnd));
+            params.add(params(rnd));
+        }
+        return VectorStats.of(prices, params);
+    }
+
+    static float[] random(Random rnd, VectorStats stats) {
+        return ListingVector.encode(18 + rnd.nextDouble() * 30, 100 + rnd.nextDouble() * 25, price(rnd), params(rnd), stats);
+    }
+
+    private static double price(Random rnd) {
+        return 1500 + rnd.nextInt(3000);
+    }
+
+    private static Map<String, Double> params(Random rnd) {
+        Map<String, Double> m = new HashMap<>();
+        for (String p : PARAM_NAMES) {
+            if (rnd.nextInt(3) == 0) continue;
+            m.put(p, 10 + rnd.nextInt(200) / 10d);
+        }
+        return m;
+    }
+
+    private static void report(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double avg = Arrays.stream(sorted).average().orElse(0) / 1000d;
+        log.info("[SimilarBench] {}: avg {} µs, p50 {} µs, p99 {} µs, max {} µs", name, String.format("%.1f", avg),
+                sorted[sorted.length / 2] / 1000, sorted[sorted.length * 99 / 100] / 1000, sorted[sorted.length - 1] / 1000);
+    }
+}
@@ -0,0 +1,118 @@
+package com.agrimatch.similar.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Top-K 召回：与双精度逐条计算的精确 Top-K（平方欧氏距离 + 品类惩罚）对照，
+ * 中途穿插修改与下架，覆盖槽位复用
+ */
+class VectorIndexTest {
+
+    private static final int K = 10;
+    private static final int LEAVES = 30;
+
+    @Test
+    void topKRecallAgainstExactSearch() {
+        Random rnd = new Random(3);
+        VectorStats stats = SimilarBenchmark.stats(rnd);
+        VectorIndex index = new VectorIndex(16);
+        Map<Long, float[]> vectors = new HashMap<>();
+        Map<Long, Integer> leaves = new HashMap<>();
+
+        for (long id = 1; id <= 5000; id++) {
+            put(index, vectors, leaves, id, SimilarBenchmark.random(rnd, stats), 1 + rnd.nextInt(LEAVES));
+        }
+        List<Long> ids = new ArrayList<>(vectors.keySet());
+        for (int r = 0; r < 1500; r++) {
+            long id = ids.get(rnd.nextInt(ids.size()));
+            if (!vectors.containsKey(id)) continue;
+            if (rnd.nextBoolean()) {
+                index.remove(id);
+                vectors.remove(id);
+                leaves.remove(id);
+            } else {
+                put(index, vectors, leaves, id, SimilarBenchmark.random(rnd, stats), 1 + rnd.nextInt(LEAVES));
+            }
+        }
+        // 下架后的空槽被新条目复用
+        for (long id = 10_001; id <= 10_500; id++) {
+            put(index, vectors, leaves, id, SimilarBenchmark.random(rnd, stats), 1 + rnd.nextInt(LEAVES));
+        }
+        assertEquals(vectors.size(), index.size());
+
+        int found = 0;
+        int expectedTotal = 0;
+        for (int q = 0; q < 200; q++) {
+            float[] query = SimilarBenchmark.random(rnd, stats);
+            int leaf = 1 + rnd.nextInt(LEAVES);
+            int parent = SimilarBenchmark.parentOf(leaf);
+
+            List<double[]> exact = new ArrayList<>();
+            for (Map.Entry<Long, float[]> e : vectors.entrySet()) {
+                exact.add(new double[]{e.getKey(), distance(query, leaf, parent, e.getValue(), leaves.get(e.getKey()))});
+            }
+            exact.sort(Comparator.comparingDouble(d -> d[1]));
+            double kth = exact.get(K - 1)[1];
+
+            List<VectorIndex.Hit> hits = index.topK(query, leaf, parent, K, 0);
+            assertEquals(K, hits.size());
+            Set<Long> expected = new HashSet<>();
+            for (int i = 0; i < K; i++) {
+                expected.add((long) exact.get(i)[0]);
+            }
+            for (VectorIndex.Hit h : hits) {
+                double d = distance(query, leaf, parent, vectors.get(h.id()), leaves.get(h.id()));
+                assertEquals(d, h.distance(), 1e-3, "返回的距离与精确值不符: id=" + h.id());
+                // float 累加与 double 的舍入差只可能交换第 K 名附近并列的条目
+                if (expected.contains(h.id()) || d <= kth + 1e-4) found++;
+            }
+            expectedTotal += K;
+        }
+        assertEquals(1.0, found / (double) expectedTotal, 1e-9);
+    }
+
+    @Test
+    void excludeIdAndCategoryPenalty() {
+        VectorIndex index = new VectorIndex(4);
+        float[] v = new float[ListingVector.DIM];
+        index.put(1, v, 1, SimilarBenchmark.parentOf(1));
+        index.put(2, v, 2, SimilarBenchmark.parentOf(2));
+        index.put(3, v, 25, SimilarBenchmark.parentOf(25));
+
+        List<VectorIndex.Hit> hits = index.topK(v, 1, SimilarBenchmark.parentOf(1), 3, 0);
+        assertEquals(List.of(1L, 2L, 3L), hits.stream().map(VectorIndex.Hit::id).toList());
+        assertEquals(0f, hits.get(0).distance());
+        assertEquals(VectorIndex.SIBLING_PENALTY, hits.get(1).distance());
+        assertEquals(VectorIndex.OTHER_PENALTY, hits.get(2).distance());
+
+        assertTrue(index.topK(v, 1, SimilarBenchmark.parentOf(1), 3, 1).stream().noneMatch(h -> h.id() == 1));
+    }
+
+    private static void put(VectorIndex index, Map<Long, float[]> vectors, Map<Long, Integer> leaves,
+                            long id, float[] v, int leaf) {
+        index.put(id, v, leaf, SimilarBenchmark.parentOf(leaf));
+        vectors.put(id, v);
+        leaves.put(id, leaf);
+    }
+
+    private static double distance(float[] q, int leaf, int parent, float[] v, int vLeaf) {
+        double d = vLeaf == leaf ? 0 : SimilarBenchmark.parentOf(vLeaf) == parent ? VectorIndex.SIBLING_PENALTY : VectorIndex.OTHER_PENALTY;
+        for (int i = 0; i < ListingVector.DIM; i++) {
+            double x = (double) v[i] - q[i];
+            d += x * x;
+        }
+        return d;
+    }
+}
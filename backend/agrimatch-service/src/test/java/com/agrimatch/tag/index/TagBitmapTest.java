@@ -0,0 +1,142 @@
+package com.agrimatch.tag.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 与 java.util.BitSet 逐位对照：数组/位图两种桶在 4096 个值上下来回转换，以及 and / or / andNot
+ */
+class TagBitmapTest {
+
+    private static final int ARRAY_MAX = 4096;
+
+    @Test
+    void containerConvertsAtArrayLimit() {
+        TagBitmap b = new TagBitmap();
+        BitSet expected = new BitSet();
+        // 同一个桶（高 16 位为 1）里按步长 3 填到恰好 4096 个：仍是有序数组
+        int base = 1 << 16;
+        for (int i = 0; i < ARRAY_MAX; i++) {
+            b.add(base + i * 3);
+            expected.set(base + i * 3);
+        }
+        assertBits(expected, b);
+
+        // 第 4097 个转位图，重复添加不改变基数
+        b.add(base + 1);
+        b.add(base + 1);
+        expected.set(base + 1);
+        assertBits(expected, b);
+
+        // 删回 4096 个转回数组，再删到空桶整个移除
+        b.remove(base + 1);
+        expected.clear(base + 1);
+        assertBits(expected, b);
+        for (int i = 0; i < ARRAY_MAX; i++) {
+            b.remove(base + i * 3);
+        }
+        assertTrue(b.isEmpty());
+        assertFalse(b.contains(base));
+    }
+
+    @Test
+    void andOrAndNotMatchBitSet() {
+        Random rnd = new Random(11);
+        // 稀疏（数组桶）、稠密（位图桶）、跨桶的各种组合
+        int[][] shapes = {{3000, 1 << 16}, {6000, 1 << 16}, {20000, 4 << 16}, {50, 8 << 16}};
+        for (int[] sa : shapes) {
+            for (int[] sb : shapes) {
+                BitSet ea = new BitSet();
+                BitSet eb = new BitSet();
+                TagBitmap a = random(rnd, sa[0], sa[1], ea);
+                TagBitmap b = random(rnd, sb[0], sb[1], eb);
+
+                BitSet and = (BitSet) ea.clone();
+                and.and(eb);
+                assertBits(and, TagBitmap.and(a, b));
+                assertEquals(and.cardinality(), TagBitmap.andCardinality(a, b));
+
+                BitSet or = (BitSet) ea.clone();
+                or.or(eb);
+                assertBits(or, TagBitmap.or(a, b));
+                assertBits(or, TagBitmap.or(List.of(a, b)));
+
+                BitSet andNot = (BitSet) ea.clone();
+                andNot.andNot(eb);
+                assertBits(andNot, TagBitmap.andNot(a, b));
+
+                // 入参不被修改
+                assertBits(ea, a);
+                assertBits(eb, b);
+            }
+        }
+    }
+
+    @Test
+    void unionCrossingArrayLimitBecomesBitmap() {
+        TagBitmap a = new TagBitmap();
+        TagBitmap b = new TagBitmap();
+        BitSet expected = new BitSet();
+        // 各 3000 个不重叠的值，合并后 6000 个超过数组上限
+        for (int i = 0; i < 3000; i++) {
+            a.add(i * 2);
+            b.add(i * 2 + 1);
+            expected.set(i * 2);
+            expected.set(i * 2 + 1);
+        }
+        TagBitmap or = TagBitmap.or(a, b);
+        assertBits(expected, or);
+
+        // 差掉一半后回到 3000 个
+        BitSet rest = (BitSet) expected.clone();
+        rest.andNot(toBitSet(b));
+        assertBits(rest, TagBitmap.andNot(or, b));
+    }
+
+    private static TagBitmap random(Random rnd, int count, int range, BitSet expected) {
+        TagBitmap b = new TagBitmap();
+        for (int i = 0; i < count; i++) {
+            int x = rnd.nextInt(range);
+            b.add(x);
+            expected.set(x);
+        }
+        return b;
+    }
+
+    private static BitSet toBitSet(TagBitmap b) {
+        BitSet out = new BitSet();
+        int[] last = {-1};
+        b.forEach(x -> {
+            assertTrue(x > last[0], "forEach 需按升序输出");
+            last[0] = x;
+            out.set(x);
+        });
+        return out;
+    }
+
+    @Test
+    void toLongListKeepsLargestValues() {
+        TagBitmap b = new TagBitmap();
+        for (int x : new int[]{5, 1 << 16, 3, (1 << 17) + 1, 70000}) {
+            b.add(x);
+        }
+        assertEquals(List.of(3L, 5L, 65536L, 70000L, 131073L), b.toLongList(10));
+        assertEquals(List.of(70000L, 131073L), b.toLongList(2));
+        assertEquals(List.of(), b.toLongList(0));
+    }
+
+    private static void assertBits(BitSet expected, TagBitmap actual) {
+        assertEquals(expected, toBitSet(actual));
+        assertEquals(expected.cardinality(), actual.cardinality());
+        for (int x = expected.nextSetBit(0); x >= 0; x = expected.nextSetBit(x + 1)) {
+            assertTrue(actual.contains(x));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.agrimatch.typeahead.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 联想：名称前缀、全拼/首字母（含多音字）、全等 > 前缀 > 中缀的排序、类型过滤、增删后短前缀缓存失效
+ */
+class PrefixIndexTest {
+
+    @Test
+    void nameAndPinyinPrefixes() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(new PrefixIndex.Entry("product", 1, "豆粕", 10));
+        index.put(new PrefixIndex.Entry("product", 2, "豆油", 5));
+        index.put(new PrefixIndex.Entry("product", 3, "玉米", 8));
+
+        assertEquals(List.of("豆粕", "豆油"), names(index, "豆"));
+        assertEquals(List.of("豆粕"), names(index, "doup"));
+        assertEquals(List.of("豆粕"), names(index, "dp"));
+        assertEquals(List.of("豆粕"), names(index, " D P "));
+        assertEquals(List.of("玉米"), names(index, "yum"));
+        assertTrue(names(index, "xm").isEmpty());
+    }
+
+    @Test
+    void polyphonicCharactersExpandEveryReading() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(new PrefixIndex.Entry("region", 1, "重庆", 1));
+        index.put(new PrefixIndex.Entry("region", 2, "长沙", 1));
+
+        assertEquals(List.of("重庆"), names(index, "cq"));
+        assertEquals(List.of("重庆"), names(index, "zq"));
+        assertEquals(List.of("重庆"), names(index, "chongq"));
+        assertEquals(List.of("长沙"), names(index, "cs"));
+        assertEquals(List.of("长沙"), names(index, "zhangs"));
+    }
+
+    @Test
+    void exactBeforePrefixBeforeInfix() {
+        PrefixIndex index = new PrefixIndex();
+        // 热度故意倒过来，档位优先于热度
+        index.put(new PrefixIndex.Entry("product", 1, "高蛋白豆粕", 100));
+        index.put(new PrefixIndex.Entry("product", 2, "豆粕粉", 50));
+        index.put(new PrefixIndex.Entry("product", 3, "豆粕", 1));
+
+        assertEquals(List.of("豆粕", "豆粕粉", "高蛋白豆粕"), names(index, "豆粕"));
+    }
+
+    @Test
+    void typeFilterAndRemoveInvalidateShortPrefixCache() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(new PrefixIndex.Entry("product", 1, "小麦", 1));
+        index.put(new PrefixIndex.Entry("company", 2, "小麦粉厂", 1));
+
+        assertEquals(List.of("小麦"), names(index.suggest("小", List.of("product"), 10)));
+        assertEquals(2, index.suggest("小", null, 10).size());
+
+        index.remove("product", 1);
+        assertEquals(List.of("小麦粉厂"), names(index, "小"));
+        index.put(new PrefixIndex.Entry("product", 3, "小米", 1));
+        assertEquals(List.of("小米", "小麦粉厂"), names(index, "小"));
+    }
+
+    private static List<String> names(PrefixIndex index, String prefix) {
+        return names(index.suggest(prefix, null, 10));
+    }
+
+    private static List<String> names(List<PrefixIndex.Entry> entries) {
+        return entries.stream().map(PrefixIndex.Entry::getName).toList();
+    }
+}
@@ -16,6 +16,13 @@ export interface Result<T> {
   data?: T
 }
 
+/** 游标分页：首页不传 cursor，之后传上一页的 nextCursor；nextCursor 为空表示没有更多 */
+export interface CursorResult<T> {
+  list: T[]
+  nextCursor?: string | null
+  size: number
+}
+
 http.interceptors.request.use((config) => {
   try {
     const auth = useAuthStore()
@@ -1,4 +1,4 @@
-import { http, type Result } from './http'
+import { http, type CursorResult, type Result } from './http'
 
 export interface RequirementCreateRequest {
   categoryName: string
@@ -64,16 +64,56 @@ export async function createRequirement(req: RequirementCreateRequest) {
   return data
 }
 
-export async function listRequirements(params: {
+export interface RequirementPageParams {
   companyId?: number
   userId?: number
   categoryName?: string
+  keyword?: string
+  schemaCode?: string
   status?: number
   includeExpired?: boolean
   orderBy?: string
   order?: string
-}) {
-  const { data } = await http.get<Result<RequirementResponse[]>>('/api/requirements', { params })
+  cursor?: string
+  size?: number
+}
+
+/**
+ * 采购游标分页（每页最多 100 条）
+ */
+export async function pageRequirements(params: RequirementPageParams) {
+  const { data } = await http.get<Result<CursorResult<RequirementResponse>>>('/api/requirements/page', { params })
+  return data
+}
+
+/**
+ * 大厅卡片（不含参数/备注等大字段，见 RequirementDetailResponse）
+ */
+export type RequirementCardResponse = Omit<RequirementResponse,
+  'invoiceType' | 'paymentMethod' | 'paramsJson' | 'remark' | 'expireMinutes' | 'updateTime'>
+
+export interface RequirementDetailResponse {
+  id: number
+  paymentMethod?: string
+  invoiceType?: string
+  paramsJson?: string
+  tagsJson?: string
+  remark?: string
+}
+
+/**
+ * 大厅卡片游标分页（参数同 pageRequirements）
+ */
+export async function pageRequirementCards(params: RequirementPageParams) {
+  const { data } = await http.get<Result<CursorResult<RequirementCardResponse>>>('/api/requirements/cards', { params })
+  return data
+}
+
+/**
+ * 批量加载卡片的详情字段
+ */
+export async function getRequirementDetails(ids: number[]) {
+  const { data } = await http.get<Result<RequirementDetailResponse[]>>('/api/requirements/details', { params: { ids: ids.join(',') } })
   return data
 }
 
@@ -1,4 +1,4 @@
-import { http, type Result } from './http'
+import { http, type CursorResult, type Result } from './http'
 
 /**
  * 基差报价请求（单条）
@@ -120,17 +120,64 @@ export async function createSupply(req: SupplyCreateRequest) {
   return data
 }
 
-export async function listSupplies(params: {
+export interface SupplyPageParams {
   companyId?: number
   userId?: number
   categoryName?: string
+  keyword?: string
+  schemaCode?: string
   status?: number
   activeOnly?: boolean
   includeExpired?: boolean
   orderBy?: string
   order?: string
-}) {
-  const { data } = await http.get<Result<SupplyResponse[]>>('/api/supplies', { params })
+  cursor?: string
+  size?: number
+}
+
+/**
+ * 供应游标分页（每页最多 100 条）
+ */
+export async function pageSupplies(params: SupplyPageParams) {
+  const { data } = await http.get<Result<CursorResult<SupplyResponse>>>('/api/supplies/page', { params })
+  return data
+}
+
+/**
+ * 大厅卡片（不含参数/备注等大字段，见 SupplyDetailResponse）
+ */
+export type SupplyCardResponse = Omit<SupplyResponse,
+  'paymentMethod' | 'invoiceType' | 'storageMethod' | 'priceRulesJson' | 'paramsJson' | 'remark' | 'expireMinutes' | 'updateTime'>
+
+export interface SupplyDetailResponse {
+  id: number
+  paymentMethod?: string
+  invoiceType?: string
+  storageMethod?: string
+  priceRulesJson?: string
+  paramsJson?: string
+  tagsJson?: string
+  remark?: string
+}
+
+/**
+ * 大厅卡片游标分页（参数同 pageSupplies）
+ */
+export async function pageSupplyCards(params: SupplyPageParams) {
+  const { data } = await http.get<Result<CursorResult<SupplyCardResponse>>>('/api/supplies/cards', { params })
+  return data
+}
+
+/**
+ * 批量加载卡片的详情字段
+ */
+export async function getSupplyDetails(ids: number[]) {
+  const { data } = await http.get<Result<SupplyDetailResponse[]>>('/api/supplies/details', { params: { ids: ids.join(',') } })
+  return data
+}
+
+export async function getSupply(id: number) {
+  const { data } = await http.get<Result<SupplyResponse>>(`/api/supplies/${id}`)
   return data
 }
 
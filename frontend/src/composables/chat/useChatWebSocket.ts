@@ -15,6 +15,9 @@ export type WsMessageType =
   | 'ERROR'
   | 'TYPING'
   | 'READ'
+  | 'SUBSCRIBED'
+  | 'BASIS_PRICE'
+  | 'PONG'
 
 /** 收到的 WebSocket 消息 */
 export interface WsIncomingMessage {
@@ -26,6 +29,10 @@ export interface WsIncomingMessage {
   id?: number
   payload?: any
   error?: string
+  /** BASIS_PRICE：重算后的供应出厂价与基差报价 */
+  supplyId?: number
+  exFactoryPrice?: number | null
+  quotes?: any[]
 }
 
 /** 发送的 WebSocket 消息 */
@@ -38,6 +45,12 @@ export interface WsSendPayload {
   tempId?: string
 }
 
+/** 订阅供应的基差报价推送（整体替换本连接的订阅，最多 200 个） */
+export interface WsSubscribeSupplyPayload {
+  type: 'SUBSCRIBE_SUPPLY'
+  supplyIds: number[]
+}
+
 /** WebSocket 事件回调 */
 export interface WsEventCallbacks {
   onMessage?: (msg: WsIncomingMessage) => void
@@ -62,6 +75,7 @@ export function useChatWebSocket(
   const lastError = ref<string | null>(null)
 
   let reconnectTimer: number | null = null
+  let heartbeatTimer: number | null = null
   let reconnectAttempt = 0
   let closeHinted = false
 
@@ -69,10 +83,28 @@ export function useChatWebSocket(
   const MAX_RECONNECT_DELAY = 8000
   // 基础重连间隔 500ms
   const BASE_RECONNECT_DELAY = 500
+  // 心跳间隔 60 秒：服务端 5 分钟收不到任何帧会当作空闲连接关闭（只看客户端发来的帧）
+  const HEARTBEAT_INTERVAL = 60000
 
   const isConnected = computed(() => status.value === 'connected')
   const isConnecting = computed(() => status.value === 'connecting' || status.value === 'reconnecting')
 
+  function startHeartbeat(socket: WebSocket) {
+    stopHeartbeat()
+    heartbeatTimer = window.setInterval(() => {
+      if (socket.readyState === WebSocket.OPEN) {
+        socket.send(JSON.stringify({ type: 'PING' }))
+      }
+    }, HEARTBEAT_INTERVAL)
+  }
+
+  function stopHeartbeat() {
+    if (heartbeatTimer) {
+      window.clearInterval(heartbeatTimer)
+      heartbeatTimer = null
+    }
+  }
+
   /**
    * 清理 WebSocket 连接
    */
@@ -81,6 +113,7 @@ export function useChatWebSocket(
       window.clearTimeout(reconnectTimer)
       reconnectTimer = null
     }
+    stopHeartbeat()
     reconnectAttempt = 0
     closeHinted = false
 
@@ -121,11 +154,13 @@ export function useChatWebSocket(
         status.value = 'connected'
         reconnectAttempt = 0
         closeHinted = false
+        startHeartbeat(socket)
         callbacks?.onConnect?.()
       }
 
       socket.onclose = (ev: CloseEvent) => {
         status.value = 'disconnected'
+        stopHeartbeat()
 
         // 未登录或已退出：不重连
         if (!canConnect()) {
@@ -152,6 +187,7 @@ export function useChatWebSocket(
       socket.onmessage = (ev) => {
         try {
           const data = JSON.parse(ev.data) as WsIncomingMessage
+          if (data.type === 'PONG') return
           callbacks?.onMessage?.(data)
         } catch (e) {
           console.error('[useChatWebSocket] Failed to parse message:', e)
@@ -193,7 +229,7 @@ export function useChatWebSocket(
   /**
    * 发送消息
    */
-  function send(payload: WsSendPayload): boolean {
+  function send(payload: WsSendPayload | WsSubscribeSupplyPayload): boolean {
     if (!ws.value || ws.value.readyState !== WebSocket.OPEN) {
       return false
     }
@@ -333,6 +369,16 @@ export function useChatWebSocket(
     })
   }
 
+  /**
+   * 订阅这些供应的基差报价推送（重连后需重新订阅）
+   */
+  function subscribeSupplies(supplyIds: number[]): boolean {
+    return send({
+      type: 'SUBSCRIBE_SUPPLY',
+      supplyIds: supplyIds.slice(0, 200)
+    })
+  }
+
   /**
    * 检查连接状态并尝试重连
    */
@@ -372,7 +418,8 @@ export function useChatWebSocket(
     sendContract,
     sendSystem,
     sendTyping,
-    sendRead
+    sendRead,
+    subscribeSupplies
   }
 }
 